@@ -0,0 +1,184 @@
+package api.embeddingapi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of concurrent requests to a service, adapting the limit to how the service responds.
+ * <p>
+ * The limit follows additive increase, multiplicative decrease (AIMD): every successful request raises it by
+ * 1 / limit, so it grows by about one per round of requests, and every request the service rejects as overloaded
+ * halves it. Requests that started before the last decrease do not decrease it again, so a burst of rejections
+ * only halves the limit once.
+ * </p>
+ * <p>
+ * Requests over the limit wait in a bounded queue, for a bounded time. When the queue is full or the wait times
+ * out the request is refused with an {@link EmbeddingUnavailableException}, so callers fail fast instead of
+ * piling up behind a slow service.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+    public static final double DECREASE_RATIO = 0.5;
+
+    /**
+     * How a request ended, which decides how the limit changes.
+     */
+    public enum Outcome {
+        /** The service answered; the limit grows. */
+        SUCCESS,
+        /** The service was overloaded: it rate limited the request, failed on its side or did not answer. */
+        OVERLOADED,
+        /** The request failed for a reason unrelated to load; the limit does not change. */
+        IGNORED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double limit;
+    private int inFlight = 0;
+    private int queued = 0;
+    private long lastDecreaseNanos;
+    private long rejected = 0;
+
+    /**
+     * Constructs an AdaptiveConcurrencyLimiter.
+     *
+     * @param initialLimit       the limit before the service has answered.
+     * @param minLimit           the lowest limit, at least 1.
+     * @param maxLimit           the highest limit.
+     * @param maxQueued          the maximum number of requests waiting for the limit.
+     * @param queueTimeoutMillis how long a request waits for the limit before it is refused.
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueued, long queueTimeoutMillis) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits until a request may be sent.
+     * Every call that returns must be followed by exactly one call of {@link #release(long, Outcome)}.
+     *
+     * @return the permit to release once the request is done.
+     * @throws EmbeddingUnavailableException if the queue is full, the wait timed out or the thread was interrupted.
+     */
+    public long acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return System.nanoTime();
+            }
+            if (queued >= maxQueued) {
+                rejected++;
+                throw new EmbeddingUnavailableException("Too many embedding requests are waiting (" + queued + ")");
+            }
+            queued++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        throw new EmbeddingUnavailableException("Timed out waiting to send an embedding request");
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EmbeddingUnavailableException("Interrupted while waiting to send an embedding request");
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a request and adapts the limit to its outcome.
+     *
+     * @param permit  the permit returned by {@link #acquire()}.
+     * @param outcome how the request ended.
+     */
+    public void release(long permit, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (outcome == Outcome.SUCCESS) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            } else if (outcome == Outcome.OVERLOADED && permit - lastDecreaseNanos >= 0) {
+                limit = Math.max(minLimit, limit * DECREASE_RATIO);
+                lastDecreaseNanos = System.nanoTime();
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit on concurrent requests.
+     *
+     * @return the limit.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests being sent.
+     *
+     * @return the number of requests in flight.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting for the limit.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests refused because the queue was full or the wait timed out.
+     *
+     * @return the number of refused requests since the limiter was created.
+     */
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
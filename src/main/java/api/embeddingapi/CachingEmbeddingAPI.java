@@ -0,0 +1,437 @@
+package api.embeddingapi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An EmbeddingAPIInterface decorator that remembers the embeddings returned by another embedding API.
+ * <p>
+ * Embeddings are keyed by the SHA-256 hash of the model name and the text, so the same text embedded by
+ * another model is never served from the cache. The most recently used embeddings are kept in memory,
+ * up to a fixed number of entries. If a cache directory is given, every embedding is also written there
+ * as a file of little-endian floats named after its key, so the cache survives restarts.
+ * </p>
+ * <p>
+ * The cache directory is bounded too, since every distinct text is written to it, search queries included.
+ * The last modification time of a file is updated when it is read, and once the directory holds more than its
+ * maximum number of embeddings, the least recently used files are deleted.
+ * </p>
+ * Empty embeddings, returned when the API cannot be reached, are not cached.
+ */
+public class CachingEmbeddingAPI implements EmbeddingAPIInterface {
+    public static final int DEFAULT_MAX_DISK_ENTRIES = 20_000; // about 120 MB of 1536-dimensional embeddings
+
+    private static final String EXTENSION = ".bin";
+
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final String model;
+    private final Path cacheDirectory;
+    private final int maxDiskEntries;
+    private final LinkedHashMap<String, float[]> memoryCache;
+    private final LinkedHashMap<String, Boolean> diskIndex = new LinkedHashMap<>(16, 0.75f, true); // LRU order
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    /**
+     * Constructs a CachingEmbeddingAPI that only caches in memory.
+     *
+     * @param embeddingAPI the embedding API to cache.
+     * @param model        the name of the model used by the embedding API.
+     * @param maxEntries   the maximum number of embeddings kept in memory.
+     */
+    public CachingEmbeddingAPI(EmbeddingAPIInterface embeddingAPI, String model, int maxEntries) {
+        this(embeddingAPI, model, maxEntries, null);
+    }
+
+    /**
+     * Constructs a CachingEmbeddingAPI that keeps at most {@value #DEFAULT_MAX_DISK_ENTRIES} embeddings on disk.
+     *
+     * @param embeddingAPI   the embedding API to cache.
+     * @param model          the name of the model used by the embedding API.
+     * @param maxEntries     the maximum number of embeddings kept in memory.
+     * @param cacheDirectory the folder the embeddings are saved in, or null to only cache in memory.
+     */
+    public CachingEmbeddingAPI(EmbeddingAPIInterface embeddingAPI, String model, int maxEntries, Path cacheDirectory) {
+        this(embeddingAPI, model, maxEntries, cacheDirectory, DEFAULT_MAX_DISK_ENTRIES);
+    }
+
+    /**
+     * Constructs a CachingEmbeddingAPI.
+     *
+     * @param embeddingAPI   the embedding API to cache.
+     * @param model          the name of the model used by the embedding API.
+     * @param maxEntries     the maximum number of embeddings kept in memory.
+     * @param cacheDirectory the folder the embeddings are saved in, or null to only cache in memory.
+     * @param maxDiskEntries the maximum number of embeddings kept in the cache directory.
+     */
+    public CachingEmbeddingAPI(EmbeddingAPIInterface embeddingAPI, String model, int maxEntries, Path cacheDirectory,
+                               int maxDiskEntries) {
+        this.embeddingAPI = embeddingAPI;
+        this.model = model;
+        this.cacheDirectory = cacheDirectory;
+        this.maxDiskEntries = maxDiskEntries;
+        this.memoryCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        if (cacheDirectory != null) {
+            try {
+                Files.createDirectories(cacheDirectory);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            loadDiskIndex();
+        }
+    }
+
+    /**
+     * Returns the model id of the cached embedding API.
+     *
+     * @return the model id.
+     */
+    @Override
+    public String getModelId() {
+        return embeddingAPI.getModelId();
+    }
+
+    /**
+     * Returns the embedding of the given text from the cache, or from the embedding API if it is not cached.
+     *
+     * @param text the text to be used for embedding
+     * @return an array of floats representing the embedding
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        String key = key(text);
+        float[] embedding;
+        synchronized (memoryCache) {
+            embedding = memoryCache.get(key);
+        }
+        if (embedding != null) {
+            hits.incrementAndGet();
+            return embedding.clone();
+        }
+        embedding = readFromDisk(key);
+        if (embedding != null) {
+            diskHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            embedding = embeddingAPI.getEmbedData(text);
+            if (embedding.length == 0) {
+                return embedding;
+            }
+            writeToDisk(key, embedding);
+        }
+        cache(key, embedding);
+        return embedding;
+    }
+
+    /**
+     * Returns the embeddings of the given texts, sending the texts that are not cached to the embedding API
+     * together.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        float[][] embeddings = new float[texts.size()][];
+        ArrayList<String> missingKeys = new ArrayList<>();
+        ArrayList<String> missingTexts = new ArrayList<>();
+        ArrayList<Integer> missingPositions = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String key = key(texts.get(i));
+            float[] embedding;
+            synchronized (memoryCache) {
+                embedding = memoryCache.get(key);
+            }
+            if (embedding != null) {
+                hits.incrementAndGet();
+                embeddings[i] = embedding.clone();
+                continue;
+            }
+            embedding = readFromDisk(key);
+            if (embedding != null) {
+                diskHits.incrementAndGet();
+                cache(key, embedding);
+                embeddings[i] = embedding;
+                continue;
+            }
+            misses.incrementAndGet();
+            missingKeys.add(key);
+            missingTexts.add(texts.get(i));
+            missingPositions.add(i);
+        }
+        if (!missingTexts.isEmpty()) {
+            List<float[]> missing = embeddingAPI.getEmbedData(missingTexts);
+            for (int i = 0; i < missing.size(); i++) {
+                float[] embedding = missing.get(i);
+                if (embedding.length > 0) {
+                    writeToDisk(missingKeys.get(i), embedding);
+                    cache(missingKeys.get(i), embedding);
+                }
+                embeddings[missingPositions.get(i)] = embedding;
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    /**
+     * Returns the embedding of the given text from the cache, or from the asynchronous call of the embedding API
+     * if it is not cached. Cached embeddings are returned as completed futures.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding
+     */
+    @Override
+    public CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        String key = key(text);
+        float[] embedding;
+        synchronized (memoryCache) {
+            embedding = memoryCache.get(key);
+        }
+        if (embedding != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(embedding.clone());
+        }
+        embedding = readFromDisk(key);
+        if (embedding != null) {
+            diskHits.incrementAndGet();
+            cache(key, embedding);
+            return CompletableFuture.completedFuture(embedding);
+        }
+        misses.incrementAndGet();
+        return embeddingAPI.getEmbedDataAsync(text).thenApply(result -> {
+            if (result.length > 0) {
+                writeToDisk(key, result);
+                cache(key, result);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the number of embeddings served from memory.
+     *
+     * @return the number of memory hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of embeddings served from the cache directory.
+     *
+     * @return the number of disk hits.
+     */
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    /**
+     * Returns the number of embeddings requested from the embedding API.
+     *
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of embeddings deleted from the cache directory to keep it within its maximum size.
+     *
+     * @return the number of disk evictions.
+     */
+    public long getDiskEvictionCount() {
+        return diskEvictions.get();
+    }
+
+    /**
+     * Returns the number of embeddings kept in the cache directory.
+     *
+     * @return the size of the disk cache.
+     */
+    public int diskSize() {
+        synchronized (diskIndex) {
+            return diskIndex.size();
+        }
+    }
+
+    /**
+     * Returns the number of embeddings kept in memory.
+     *
+     * @return the size of the memory cache.
+     */
+    public int size() {
+        synchronized (memoryCache) {
+            return memoryCache.size();
+        }
+    }
+
+    /**
+     * Keeps a copy of an embedding in memory, evicting the least recently used embedding if the cache is full.
+     *
+     * @param key       the cache key.
+     * @param embedding the embedding.
+     */
+    private void cache(String key, float[] embedding) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, embedding.clone());
+        }
+    }
+
+    /**
+     * Computes the cache key of a text.
+     *
+     * @param text the text.
+     * @return the hex-encoded SHA-256 hash of the model name and the text.
+     */
+    private String key(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e); // every Java platform supports SHA-256
+        }
+    }
+
+    /**
+     * Lists the embeddings in the cache directory from least to most recently used, deleting the least recently
+     * used ones if there are more than the maximum.
+     */
+    private void loadDiskIndex() {
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(cacheDirectory)) {
+            files = listed.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).toList();
+        } catch (IOException e) {
+            System.err.println("Could not list cached embeddings: " + e.getMessage());
+            return;
+        }
+        HashMap<Path, Long> modified = new HashMap<>();
+        for (Path file : files) {
+            try {
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                modified.put(file, 0L);
+            }
+        }
+        ArrayList<Path> byAge = new ArrayList<>(files);
+        byAge.sort(Comparator.comparing(modified::get));
+        synchronized (diskIndex) {
+            for (Path file : byAge) {
+                String name = file.getFileName().toString();
+                diskIndex.put(name.substring(0, name.length() - EXTENSION.length()), Boolean.TRUE);
+            }
+        }
+        evictFromDisk();
+    }
+
+    /**
+     * Reads an embedding from the cache directory and marks it as recently used.
+     * A file that cannot be read is treated as missing.
+     *
+     * @param key the cache key.
+     * @return the embedding, or null if it is not saved.
+     */
+    private float[] readFromDisk(String key) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        synchronized (diskIndex) {
+            if (diskIndex.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = cacheDirectory.resolve(key + EXTENSION);
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            float[] embedding = new float[bytes.length / Float.BYTES];
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embedding);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return embedding.length == 0 ? null : embedding;
+        } catch (IOException e) {
+            System.err.println("Could not read cached embedding " + file + ": " + e.getMessage());
+            synchronized (diskIndex) {
+                diskIndex.remove(key);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Saves an embedding to the cache directory. The file is written under a temporary name and then renamed,
+     * so a crash never leaves a partial embedding behind.
+     *
+     * @param key       the cache key.
+     * @param embedding the embedding.
+     */
+    private void writeToDisk(String key, float[] embedding) {
+        if (cacheDirectory == null) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embedding);
+        try {
+            Path temporary = Files.createTempFile(cacheDirectory, key, ".tmp");
+            Files.write(temporary, buffer.array());
+            Files.move(temporary, cacheDirectory.resolve(key + EXTENSION), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not cache embedding: " + e.getMessage());
+            return;
+        }
+        synchronized (diskIndex) {
+            diskIndex.put(key, Boolean.TRUE);
+        }
+        evictFromDisk();
+    }
+
+    /**
+     * Deletes the least recently used embeddings from the cache directory until it holds at most the maximum.
+     */
+    private void evictFromDisk() {
+        ArrayList<String> evicted = new ArrayList<>();
+        synchronized (diskIndex) {
+            Iterator<String> eldest = diskIndex.keySet().iterator();
+            while (diskIndex.size() > maxDiskEntries && eldest.hasNext()) {
+                evicted.add(eldest.next());
+                eldest.remove();
+            }
+        }
+        for (String key : evicted) {
+            try {
+                Files.deleteIfExists(cacheDirectory.resolve(key + EXTENSION));
+                diskEvictions.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("Could not evict cached embedding: " + e.getMessage());
+            }
+        }
+    }
+}
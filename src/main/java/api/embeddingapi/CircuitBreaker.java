@@ -0,0 +1,119 @@
+package api.embeddingapi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops requests to a service that keeps failing, so callers fail fast instead of waiting for it.
+ * <p>
+ * The breaker is closed while the service works. After a number of consecutive failures it opens, and every
+ * request is refused for a while. Then it lets a single trial request through: if the trial succeeds the breaker
+ * closes again, otherwise it stays open for another while.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    /**
+     * The state of a circuit breaker.
+     */
+    public enum State {
+        /** Requests are sent. */
+        CLOSED,
+        /** Requests are refused. */
+        OPEN,
+        /** A single trial request is sent to find out whether the service works again. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private boolean trialInFlight = false;
+
+    /**
+     * Constructs a CircuitBreaker.
+     *
+     * @param failureThreshold the number of consecutive failures that opens the breaker.
+     * @param openMillis       how long the breaker stays open before it tries the service again.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs a CircuitBreaker that reads the time from the given clock.
+     *
+     * @param failureThreshold the number of consecutive failures that opens the breaker.
+     * @param openMillis       how long the breaker stays open before it tries the service again.
+     * @param nanoClock        the clock, in nanoseconds.
+     */
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Asks to send a request.
+     * Every call that returns true must be followed by one call of {@link #onSuccess()}, {@link #onFailure()}
+     * or {@link #onIgnored()}.
+     *
+     * @return true if the request may be sent, false if it must be refused.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return state != State.OPEN;
+    }
+
+    /**
+     * Records that the service answered. Closes the breaker.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Records that the service failed. Opens the breaker if the trial request failed or there were too many
+     * consecutive failures.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+        }
+        trialInFlight = false;
+    }
+
+    /**
+     * Records that an accepted request was not sent after all, so it tells nothing about the service.
+     */
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Returns the state of the breaker.
+     *
+     * @return the state.
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+}
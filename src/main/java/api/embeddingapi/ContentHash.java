@@ -0,0 +1,36 @@
+package api.embeddingapi;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the content hash stored alongside each project embedding: the hex-encoded SHA-256 hash of the id of
+ * the model that computed the embedding and of the text that was embedded. Equal hashes mean the embedding can be
+ * reused instead of asking the embedding API again; embeddings of another model or dimension never match, so
+ * changing the embedding API embeds the projects again.
+ */
+public final class ContentHash {
+
+    // This class should not be instantiated
+    private ContentHash() { }
+
+    /**
+     * Returns the content hash of a text embedded by the given model.
+     *
+     * @param modelId the id of the model, see {@link EmbeddingAPIInterface#getModelId()}.
+     * @param text    the text to be embedded.
+     * @return the hex-encoded SHA-256 hash of the UTF-8 model id, a zero byte and the UTF-8 text.
+     */
+    public static String of(String modelId, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(modelId).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e); // every Java platform supports SHA-256
+        }
+    }
+}
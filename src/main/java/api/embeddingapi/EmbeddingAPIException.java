@@ -0,0 +1,66 @@
+package api.embeddingapi;
+
+/**
+ * Thrown when an embedding API request fails.
+ * Carries the HTTP status of the response, so callers can tell failures worth retrying,
+ * such as rate limiting and server errors, from requests that would fail again.
+ */
+public class EmbeddingAPIException extends RuntimeException {
+    public static final int NO_STATUS = -1; // the request failed before a response was received
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    /**
+     * Constructs an EmbeddingAPIException for a response with an unsuccessful status.
+     *
+     * @param message          the detail message.
+     * @param statusCode       the HTTP status of the response.
+     * @param retryAfterMillis how long the API asked to wait before retrying, or -1 if it did not say.
+     */
+    public EmbeddingAPIException(String message, int statusCode, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Constructs an EmbeddingAPIException for a request that failed before a response was received.
+     *
+     * @param message the detail message.
+     * @param cause   the cause of the failure.
+     */
+    public EmbeddingAPIException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = NO_STATUS;
+        this.retryAfterMillis = -1;
+    }
+
+    /**
+     * Returns the HTTP status of the response.
+     *
+     * @return the status, or {@link #NO_STATUS} if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns how long the API asked to wait before retrying.
+     *
+     * @return the delay in milliseconds, or -1 if the API did not say.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Returns whether the request may succeed if it is sent again: the API was rate limiting, timed out or
+     * failed on its side, or no response was received.
+     *
+     * @return true if the request is worth retrying.
+     */
+    public boolean isRetryable() {
+        return statusCode == NO_STATUS || statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+}
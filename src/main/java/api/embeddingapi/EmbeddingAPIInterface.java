@@ -1,9 +1,24 @@
 package api.embeddingapi;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for generating embeddings for text.
  */
 public interface EmbeddingAPIInterface {
+    /**
+     * Returns the id of the model the embeddings come from, including anything else that changes them, such as
+     * their dimension. Embeddings with different model ids cannot be compared.
+     * By default the id is the name of the implementing class.
+     *
+     * @return the id of the embedding model
+     */
+    default String getModelId() {
+        return getClass().getName();
+    }
+
     /**
      * Returns an embedding for the given text.
      *
@@ -11,4 +26,42 @@ public interface EmbeddingAPIInterface {
      * @return an array of floats representing the embedding
      */
     float[] getEmbedData(String text);
+
+    /**
+     * Returns the embeddings of several texts.
+     * Implementations that can embed several texts at once should override this method;
+     * by default the texts are embedded one by one.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    default List<float[]> getEmbedData(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(getEmbedData(text));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Returns an embedding for the given text without blocking the calling thread.
+     * By default the text is embedded on the common fork-join pool.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding
+     */
+    default CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        return CompletableFuture.supplyAsync(() -> getEmbedData(text));
+    }
+
+    /**
+     * Returns the embeddings of several texts without blocking the calling thread.
+     * By default the texts are embedded on the common fork-join pool.
+     *
+     * @param texts the texts to be used for embedding
+     * @return a future completed with the embeddings, in the order of the texts
+     */
+    default CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+        return CompletableFuture.supplyAsync(() -> getEmbedData(texts));
+    }
 }
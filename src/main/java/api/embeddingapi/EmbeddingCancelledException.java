@@ -0,0 +1,20 @@
+package api.embeddingapi;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Thrown when the thread waiting for an embedding is interrupted, for example because the search that needed it
+ * was superseded. The request is cancelled if no other caller waits for it.
+ * This is not a failure of the embedding API, so it is neither retried nor counted against the API.
+ */
+public class EmbeddingCancelledException extends CancellationException {
+
+    /**
+     * Constructs an EmbeddingCancelledException.
+     *
+     * @param message the detail message.
+     */
+    public EmbeddingCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,308 @@
+package api.embeddingapi;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the embeddings out of an embeddings API response in a single pass over the characters.
+ * <p>
+ * The response looks like {@code {"data": [{"index": 0, "embedding": [0.1, ...]}, ...], ...}}.
+ * Numbers are parsed straight into a {@code float[]} as they are read, without building a JSON tree,
+ * and every other field is skipped. Plain decimals of up to 15 significant digits, which is what the API
+ * sends, are converted without creating a String.
+ * </p>
+ * Malformed or truncated responses are reported with an IOException.
+ */
+class EmbeddingResponseDecoder {
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_FAST_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder();
+    private int position = 0;
+    private int limit = 0;
+    private float[] values = new float[1536];
+
+    private EmbeddingResponseDecoder(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Decodes the embeddings of a response.
+     *
+     * @param reader the response body.
+     * @param count  the number of texts sent in the request.
+     * @return the embeddings, ordered by their index.
+     * @throws IOException if the response cannot be read, is not valid, or does not hold one embedding per text.
+     */
+    static List<float[]> decode(Reader reader, int count) throws IOException {
+        float[][] embeddings = new EmbeddingResponseDecoder(reader).readResponse(count);
+        for (int i = 0; i < count; i++) {
+            if (embeddings[i] == null) {
+                throw new IOException("Embedding response is missing input " + i);
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    private float[][] readResponse(int count) throws IOException {
+        float[][] embeddings = new float[count][];
+        expect('{');
+        if (peekSkippingWhitespace() == '}') {
+            position++;
+            return embeddings;
+        }
+        do {
+            String key = readString();
+            expect(':');
+            if (key.equals("data")) {
+                readData(embeddings);
+            } else {
+                skipValue();
+            }
+        } while (nextSeparator('}'));
+        return embeddings;
+    }
+
+    private void readData(float[][] embeddings) throws IOException {
+        expect('[');
+        if (peekSkippingWhitespace() == ']') {
+            position++;
+            return;
+        }
+        do {
+            readItem(embeddings);
+        } while (nextSeparator(']'));
+    }
+
+    private void readItem(float[][] embeddings) throws IOException {
+        int index = -1;
+        float[] embedding = null;
+        expect('{');
+        if (peekSkippingWhitespace() != '}') {
+            do {
+                String key = readString();
+                expect(':');
+                if (key.equals("index")) {
+                    index = (int) readNumber();
+                } else if (key.equals("embedding")) {
+                    embedding = readFloats();
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        } else {
+            position++;
+        }
+        if (index < 0 || index >= embeddings.length || embedding == null) {
+            throw new IOException("Embedding response has an item without a valid index or embedding");
+        }
+        embeddings[index] = embedding;
+    }
+
+    private float[] readFloats() throws IOException {
+        expect('[');
+        int length = 0;
+        if (peekSkippingWhitespace() == ']') {
+            position++;
+        } else {
+            do {
+                if (length == values.length) {
+                    values = Arrays.copyOf(values, length * 2);
+                }
+                values[length++] = (float) readNumber();
+            } while (nextSeparator(']'));
+        }
+        return Arrays.copyOf(values, length);
+    }
+
+    /**
+     * Reads a JSON number.
+     *
+     * @return the number.
+     * @throws IOException if the next value is not a number.
+     */
+    private double readNumber() throws IOException {
+        peekSkippingWhitespace();
+        token.setLength(0);
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fast = true;
+        char c = peek();
+        if (c == '-') {
+            negative = true;
+            token.append(c);
+            position++;
+        }
+        boolean fraction = false;
+        while (true) {
+            c = peek();
+            if (c >= '0' && c <= '9') {
+                if (mantissa != 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = digits > 18 ? mantissa : mantissa * 10 + (c - '0');
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E' || c == '+' || (c == '-' && !token.isEmpty())) {
+                fast = false;
+            } else {
+                break;
+            }
+            token.append(c);
+            position++;
+        }
+        if (token.isEmpty() || (negative && token.length() == 1)) {
+            throw new IOException("Expected a number at '" + c + "'");
+        }
+        if (fast && mantissa < MAX_FAST_MANTISSA && digits <= 18 && -exponent < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(token.toString());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number " + token, e);
+        }
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        token.setLength(0);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return token.toString();
+            }
+            if (c == '\\') {
+                c = next();
+                switch (c) {
+                    case 'n' -> token.append('\n');
+                    case 't' -> token.append('\t');
+                    case 'r' -> token.append('\r');
+                    case 'b' -> token.append('\b');
+                    case 'f' -> token.append('\f');
+                    case 'u' -> {
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            code = code * 16 + Character.digit(next(), 16);
+                        }
+                        token.append((char) code);
+                    }
+                    default -> token.append(c);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+    }
+
+    /**
+     * Skips any JSON value, including nested objects and arrays.
+     *
+     * @throws IOException if the value is not valid.
+     */
+    private void skipValue() throws IOException {
+        char c = peekSkippingWhitespace();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            char close = c == '{' ? '}' : ']';
+            position++;
+            if (peekSkippingWhitespace() == close) {
+                position++;
+                return;
+            }
+            do {
+                if (close == '}') {
+                    readString();
+                    expect(':');
+                }
+                skipValue();
+            } while (nextSeparator(close));
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            readNumber();
+        } else {
+            token.setLength(0);
+            while (Character.isLetter(peek())) {
+                token.append(next());
+            }
+            String literal = token.toString();
+            if (!literal.equals("true") && !literal.equals("false") && !literal.equals("null")) {
+                throw new IOException("Unexpected value '" + literal + c + "'");
+            }
+        }
+    }
+
+    /**
+     * Reads the character after a member of an object or array.
+     *
+     * @param close the character that closes the object or array.
+     * @return true if another member follows, false if the object or array is closed.
+     * @throws IOException if neither a comma nor the closing character follows.
+     */
+    private boolean nextSeparator(char close) throws IOException {
+        char c = peekSkippingWhitespace();
+        position++;
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw new IOException("Expected ',' or '" + close + "' but found '" + c + "'");
+    }
+
+    private void expect(char expected) throws IOException {
+        char c = peekSkippingWhitespace();
+        if (c != expected) {
+            throw new IOException("Expected '" + expected + "' but found '" + c + "'");
+        }
+        position++;
+    }
+
+    private char peekSkippingWhitespace() throws IOException {
+        char c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            position++;
+            c = peek();
+        }
+        return c;
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     *
+     * @return the next character.
+     * @throws IOException if the response ends.
+     */
+    private char peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                throw new IOException("Embedding response ended unexpectedly");
+            }
+        }
+        return buffer[position];
+    }
+}
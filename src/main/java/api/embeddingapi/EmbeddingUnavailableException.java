@@ -0,0 +1,28 @@
+package api.embeddingapi;
+
+/**
+ * Thrown without sending a request when the embedding API is considered unavailable:
+ * it failed too often recently, or too many requests are already waiting for it.
+ * Callers should fall back to a mode that does not need embeddings rather than retry at once.
+ */
+public class EmbeddingUnavailableException extends EmbeddingAPIException {
+
+    /**
+     * Constructs an EmbeddingUnavailableException.
+     *
+     * @param message the detail message.
+     */
+    public EmbeddingUnavailableException(String message) {
+        super(message, NO_STATUS, -1);
+    }
+
+    /**
+     * Returns false: the request was not sent, and sending it again at once would be refused the same way.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean isRetryable() {
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+package api.embeddingapi;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An EmbeddingAPIInterface that computes embeddings locally, without any remote service.
+ * <p>
+ * A text is split into lowercase words. Its features are the words, the pairs of consecutive words and the
+ * character trigrams of every word (with its start and end marked), each hashed to 64 bits. Every feature is
+ * projected to a random direction of &plusmn;1 values generated from its hash and the seed, and the embedding is
+ * the normalized sum of the directions, weighted by the kind of feature and a dampened feature count.
+ * </p>
+ * <p>
+ * Texts that share words or word stems get similar embeddings, and the same text always gets the same
+ * embedding for a given dimension and seed, so searches and benchmarks are reproducible on machines without
+ * network access. The embeddings carry no meaning beyond the overlap of the texts.
+ * </p>
+ */
+public class HashingEmbeddingAPI implements EmbeddingAPIInterface {
+    public static final int DEFAULT_DIMENSION = 384;
+    public static final long DEFAULT_SEED = 42;
+
+    private static final float WORD_WEIGHT = 1f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.25f;
+
+    private final int dimension;
+    private final long seed;
+
+    /**
+     * Constructs a HashingEmbeddingAPI with the default dimension and seed.
+     */
+    public HashingEmbeddingAPI() {
+        this(DEFAULT_DIMENSION, DEFAULT_SEED);
+    }
+
+    /**
+     * Constructs a HashingEmbeddingAPI.
+     *
+     * @param dimension the length of the embeddings.
+     * @param seed      the seed of the random projection; embeddings made with different seeds are not comparable.
+     */
+    public HashingEmbeddingAPI(int dimension, long seed) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Embedding dimension must be positive");
+        }
+        this.dimension = dimension;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the id of the model, which differs for every dimension and seed.
+     *
+     * @return the model id.
+     */
+    @Override
+    public String getModelId() {
+        return "hashing-ngram-" + dimension + "-" + Long.toHexString(seed);
+    }
+
+    /**
+     * Returns the embedding of the given text. A text without words gets a zero vector.
+     *
+     * @param text the text to be used for embedding
+     * @return a unit-length array of floats representing the embedding
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        HashMap<Long, Float> features = new HashMap<>();
+        String previous = null;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            addFeature(features, 'w', word, WORD_WEIGHT);
+            if (previous != null) {
+                addFeature(features, 'b', previous + ' ' + word, BIGRAM_WEIGHT);
+            }
+            String marked = '^' + word + '$';
+            for (int i = 0; i + 3 <= marked.length(); i++) {
+                addFeature(features, 't', marked.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+            previous = word;
+        }
+
+        float[] embedding = new float[dimension];
+        for (Map.Entry<Long, Float> feature : features.entrySet()) {
+            project(feature.getKey(), (float) Math.log1p(feature.getValue()), embedding);
+        }
+        double norm = 0;
+        for (float value : embedding) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                embedding[i] *= scale;
+            }
+        }
+        return embedding;
+    }
+
+    private void addFeature(HashMap<Long, Float> features, char kind, String feature, float weight) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        hash = (hash ^ kind) * 0x100000001b3L;
+        for (int i = 0; i < feature.length(); i++) {
+            hash = (hash ^ feature.charAt(i)) * 0x100000001b3L;
+        }
+        features.merge(mix(hash ^ seed), weight, Float::sum);
+    }
+
+    /**
+     * Adds the random direction of a feature to the embedding. The signs of the direction are the bits of a
+     * SplitMix64 sequence started at the feature hash, so they are the same every time.
+     *
+     * @param hash      the hash of the feature.
+     * @param weight    the weight of the feature.
+     * @param embedding the embedding to add to.
+     */
+    private void project(long hash, float weight, float[] embedding) {
+        long state = hash;
+        long bits = 0;
+        for (int i = 0; i < dimension; i++) {
+            if ((i & 63) == 0) {
+                state += 0x9E3779B97F4A7C15L;
+                bits = mix(state);
+            }
+            embedding[i] += (bits & 1) == 0 ? weight : -weight;
+            bits >>>= 1;
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
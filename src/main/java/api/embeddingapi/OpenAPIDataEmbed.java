@@ -1,37 +1,105 @@
 package api.embeddingapi;
 
 import okhttp3.*;
-import org.json.JSONException;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class that implements the EmbeddingAPIInterface to interact with the OpenAI API for generating text embeddings.
+ * <p>
+ * Several texts are embedded with a single request, up to the limits of the API.
+ * Single texts requested by different threads within a short window are also sent together: the first
+ * thread of the window waits for the others, sends one request for all of them and shares the results.
+ * </p>
+ * <p>
+ * All instances share one HTTP client, so connections and TLS sessions are reused across requests.
+ * Responses are decoded by {@link EmbeddingResponseDecoder} as they are read. Failed requests throw an
+ * {@link EmbeddingAPIException} carrying the status of the response and the delay the API asked for.
+ * </p>
+ * <p>
+ * Interrupting a thread waiting for embeddings throws an {@link EmbeddingCancelledException} and cancels the
+ * request, unless other threads still wait for the same request.
+ * </p>
  */
 public class OpenAPIDataEmbed implements EmbeddingAPIInterface {
 
-    private static final String API_URL = "https://api.openai.com/v1/embeddings";
-    private static final String API_MODEL = "text-embedding-3-small";
-    private static String API_TOKEN = null;
-    private boolean hasToken = false;
+    private static final String DEFAULT_API_URL = "https://api.openai.com/v1/embeddings";
+    public static final String API_MODEL = "text-embedding-3-small";
+    public static final int API_DIMENSION = 1536; // the length of the model's embeddings, since requests set no dimensions
+    public static final int MAX_BATCH_INPUTS = 2048; // inputs accepted by the API in one request
+    public static final int MAX_BATCH_CHARACTERS = 1_000_000; // about 250,000 tokens, under the API's 300,000 token limit
+    public static final long DEFAULT_COALESCE_WINDOW_MILLIS = 5;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final int MAX_REQUESTS_PER_HOST = 16;
+    private static final OkHttpClient HTTP_CLIENT = createClient();
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final String apiUrl;
+    private final String apiToken;
+    private final boolean hasToken;
+    private final long coalesceWindowMillis;
+    private final Object batchLock = new Object();
+    private PendingBatch openBatch = null;
+
+    /**
+     * Texts waiting to be embedded together, and the embeddings once the request is done.
+     */
+    private static class PendingBatch {
+        private final ArrayList<String> texts = new ArrayList<>();
+        private int characters = 0;
+        private final CompletableFuture<Void> full = new CompletableFuture<>();
+        private final CompletableFuture<List<float[]>> embeddings = new CompletableFuture<>();
+        private final AtomicInteger waiting = new AtomicInteger(); // callers still waiting for the embeddings
+        private volatile CompletableFuture<List<float[]>> request;
+    }
 
     /**
-     * Constructs an OpenAPIDataEmbed object.
+     * Constructs an OpenAPIDataEmbed object that uses the API key of the API_KEY environment variable.
      */
     public OpenAPIDataEmbed() {
-        API_TOKEN = System.getenv("API_KEY");
-        if (API_TOKEN == null) {
+        this(DEFAULT_API_URL, System.getenv("API_KEY"), DEFAULT_COALESCE_WINDOW_MILLIS);
+        if (apiToken == null) {
             System.err.println("API_KEY environment variable not set (ignore when testing)");
         }
-        else {
-            hasToken = true;
-        }
+    }
+
+    /**
+     * Constructs an OpenAPIDataEmbed object that sends its requests to the given URL.
+     *
+     * @param apiUrl               the URL of the embeddings endpoint.
+     * @param apiToken             the API key, or null if there is none.
+     * @param coalesceWindowMillis how long single requests wait for others to be sent with, or 0 to send them at once.
+     */
+    public OpenAPIDataEmbed(String apiUrl, String apiToken, long coalesceWindowMillis) {
+        this.apiUrl = apiUrl;
+        this.apiToken = apiToken;
+        this.hasToken = apiToken != null;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+    }
+
+    /**
+     * Returns the id of the model, made of its name and the length of its embeddings.
+     *
+     * @return the model id.
+     */
+    @Override
+    public String getModelId() {
+        return API_MODEL + "/" + API_DIMENSION;
     }
 
     /**
      * Returns an embedding for the given text by calling the OpenAI API.
-     * Returns an empty array if the API token is not set.m
+     * Returns an empty array if the API token is not set.
      *
      * @param text the text to be used for embedding
      * @return an array of floats representing the embedding
@@ -41,38 +109,329 @@ public class OpenAPIDataEmbed implements EmbeddingAPIInterface {
         if (!hasToken) {
             return new float[0];
         }
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
-        MediaType mediaType = MediaType.parse("application/json");
+        if (coalesceWindowMillis <= 0) {
+            return requestEmbeddings(List.of(text)).get(0);
+        }
+
+        PendingBatch batch;
+        int index;
+        synchronized (batchLock) {
+            if (openBatch == null) {
+                openBatch = new PendingBatch();
+            }
+            batch = openBatch;
+            batch.waiting.incrementAndGet();
+            index = batch.texts.size();
+            batch.texts.add(text);
+            batch.characters += text.length();
+            if (batch.texts.size() >= MAX_BATCH_INPUTS || batch.characters >= MAX_BATCH_CHARACTERS) {
+                openBatch = null;
+                batch.full.complete(null);
+            }
+        }
+        if (index == 0) {
+            sendBatch(batch);
+        }
+        try {
+            return await(batch.embeddings).get(index);
+        } catch (EmbeddingCancelledException e) {
+            if (batch.waiting.decrementAndGet() == 0) {
+                batch.request.cancel(true); // no caller needs the embeddings anymore
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the embeddings of the given texts, sending as few requests as the API limits allow.
+     * Returns empty arrays if the API token is not set.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        if (!hasToken) {
+            return emptyEmbeddings(texts.size());
+        }
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (List<String> batch : splitIntoBatches(texts)) {
+            embeddings.addAll(requestEmbeddings(batch));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Returns an embedding for the given text without blocking the calling thread.
+     * The future completes with an empty array if the API token is not set.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding, or with an EmbeddingAPIException if the request fails
+     */
+    @Override
+    public CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        CompletableFuture<List<float[]>> request = getEmbedDataAsync(List.of(text));
+        return cancelling(request.thenApply(embeddings -> embeddings.get(0)), List.of(request));
+    }
+
+    /**
+     * Returns the embeddings of the given texts without blocking the calling thread.
+     * The requests are sent concurrently if the texts do not fit in one request.
+     *
+     * @param texts the texts to be used for embedding
+     * @return a future completed with the embeddings in the order of the texts,
+     * or with an EmbeddingAPIException if a request fails
+     */
+    @Override
+    public CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+        if (!hasToken) {
+            return CompletableFuture.completedFuture(emptyEmbeddings(texts.size()));
+        }
+        List<CompletableFuture<List<float[]>>> requests = new ArrayList<>();
+        for (List<String> batch : splitIntoBatches(texts)) {
+            requests.add(requestEmbeddingsAsync(batch));
+        }
+        return cancelling(CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<float[]> embeddings = new ArrayList<>(texts.size());
+            for (CompletableFuture<List<float[]>> request : requests) {
+                embeddings.addAll(request.join());
+            }
+            return embeddings;
+        }), requests);
+    }
+
+    /**
+     * Makes cancelling a future derived from requests cancel the requests, which a derived future does not do
+     * by itself.
+     *
+     * @param future   the derived future.
+     * @param requests the requests it is derived from.
+     * @return the derived future.
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<T> future,
+                                                       List<? extends CompletableFuture<?>> requests) {
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                requests.forEach(request -> request.cancel(true));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Waits until the batch is full or the coalescing window ends, then sends every text of the batch.
+     * Called by the thread that opened the batch. The request runs on the HTTP client's threads, so it is only
+     * cancelled once every caller of the batch stopped waiting for it, not when the thread that sent it does.
+     *
+     * @param batch the batch to send.
+     */
+    private void sendBatch(PendingBatch batch) {
+        try {
+            batch.full.get(coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // the window is over
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (batchLock) {
+            if (openBatch == batch) {
+                openBatch = null;
+            }
+        }
+        batch.request = getEmbedDataAsync(batch.texts);
+        batch.request.whenComplete((embeddings, e) -> {
+            if (e == null) {
+                batch.embeddings.complete(embeddings);
+            } else {
+                batch.embeddings.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+            }
+        });
+    }
+
+    /**
+     * Splits texts into consecutive batches that each fit in one request.
+     *
+     * @param texts the texts.
+     * @return the batches, in order.
+     */
+    private static List<List<String>> splitIntoBatches(List<String> texts) {
+        List<List<String>> batches = new ArrayList<>();
+        int from = 0;
+        while (from < texts.size()) {
+            int to = from;
+            int characters = 0;
+            while (to < texts.size() && to - from < MAX_BATCH_INPUTS
+                    && (to == from || characters + texts.get(to).length() <= MAX_BATCH_CHARACTERS)) {
+                characters += texts.get(to).length();
+                to++;
+            }
+            batches.add(texts.subList(from, to));
+            from = to;
+        }
+        return batches;
+    }
+
+    /**
+     * Embeds the given texts with a single request.
+     * Interrupting the calling thread cancels the request.
+     *
+     * @param texts the texts, within the limits of one request.
+     * @return the embeddings, in the order of the texts.
+     * @throws EmbeddingCancelledException if the calling thread is interrupted.
+     */
+    private List<float[]> requestEmbeddings(List<String> texts) {
+        CompletableFuture<List<float[]>> request = requestEmbeddingsAsync(texts);
+        try {
+            return await(request);
+        } catch (EmbeddingCancelledException e) {
+            request.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for embeddings, rethrowing the failure of their request.
+     *
+     * @param embeddings the pending embeddings.
+     * @return the embeddings.
+     * @throws EmbeddingCancelledException if the calling thread is interrupted; the interrupt status is kept.
+     */
+    private static List<float[]> await(CompletableFuture<List<float[]>> embeddings) {
+        try {
+            return embeddings.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmbeddingCancelledException("Interrupted while waiting for an embedding request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new EmbeddingAPIException("Embedding request failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Embeds the given texts with a single request, on the HTTP client's threads.
+     * Cancelling the returned future cancels the request.
+     *
+     * @param texts the texts, within the limits of one request.
+     * @return a future completed with the embeddings, in the order of the texts,
+     * or with an EmbeddingAPIException if the request fails.
+     */
+    private CompletableFuture<List<float[]>> requestEmbeddingsAsync(List<String> texts) {
+        CompletableFuture<List<float[]>> future = new CompletableFuture<>();
+        Call call = HTTP_CLIENT.newCall(buildRequest(texts));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(new EmbeddingAPIException("Embedding request failed: " + e.getMessage(), e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(readEmbeddings(response, texts.size()));
+                } catch (IOException e) {
+                    future.completeExceptionally(new EmbeddingAPIException("Embedding request failed: " + e.getMessage(), e));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((embeddings, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Builds the request embedding the given texts.
+     *
+     * @param texts the texts, within the limits of one request.
+     * @return the request.
+     */
+    private Request buildRequest(List<String> texts) {
         JSONObject requestBody = new JSONObject();
-        requestBody.put("input", text);
+        requestBody.put("input", new JSONArray(texts));
         requestBody.put("model", API_MODEL);
-        RequestBody body = RequestBody.create(requestBody.toString(), mediaType);
-        Request request = new Request.Builder()
-                .url(API_URL)
+        RequestBody body = RequestBody.create(requestBody.toString(), JSON);
+        return new Request.Builder()
+                .url(apiUrl)
                 .method("POST", body)
-                .addHeader("Authorization", "Bearer " + API_TOKEN)
+                .addHeader("Authorization", "Bearer " + apiToken)
                 .addHeader("Content-Type", "application/json")
                 .build();
+    }
 
-        JSONObject responseBody = null;
+    /**
+     * Decodes the embeddings of a response.
+     *
+     * @param response the response.
+     * @param count    the number of texts sent in the request.
+     * @return the embeddings, in the order of the texts.
+     * @throws IOException if the response cannot be read or is not valid.
+     * @throws EmbeddingAPIException if the response has no body or an unsuccessful status.
+     */
+    private static List<float[]> readEmbeddings(Response response, int count) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            throw new EmbeddingAPIException("Response body for embedding request is null", response.code(), -1);
+        }
+        if (!response.isSuccessful()) {
+            throw new EmbeddingAPIException("Embedding request failed with status " + response.code() + ": " + body.string(),
+                    response.code(), getRetryAfterMillis(response));
+        }
+        return EmbeddingResponseDecoder.decode(body.charStream(), count);
+    }
 
+    /**
+     * Reads how long the API asked to wait before retrying, from the retry-after-ms header sent by OpenAI or the
+     * standard Retry-After header in seconds.
+     *
+     * @param response the response.
+     * @return the delay in milliseconds, or -1 if the response does not say.
+     */
+    private static long getRetryAfterMillis(Response response) {
         try {
-            Response response = client.newCall(request).execute();
-            if (response.body() != null) {
-                responseBody = new JSONObject(response.body().string());
-            } else {
-                throw new RuntimeException("Response body for embedding request is null");
+            String millis = response.header("retry-after-ms");
+            if (millis != null) {
+                return (long) Double.parseDouble(millis.trim());
             }
-            JSONObject embedData = (JSONObject) responseBody.getJSONArray("data").get(0);
-            float[] data = new float[embedData.getJSONArray("embedding").length()];
-            for (int i = 0; i < embedData.getJSONArray("embedding").length(); i++) {
-                data[i] = embedData.getJSONArray("embedding").getFloat(i);
+            String seconds = response.header("Retry-After");
+            if (seconds != null) {
+                return (long) (Double.parseDouble(seconds.trim()) * 1000);
             }
-            return data;
-        } catch (IOException | JSONException e) {
-            System.out.println(responseBody);
-            throw new RuntimeException(e);
+        } catch (NumberFormatException e) {
+            // an HTTP date, which the API does not send
         }
+        return -1;
+    }
+
+    private static List<float[]> emptyEmbeddings(int count) {
+        List<float[]> embeddings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            embeddings.add(new float[0]);
+        }
+        return embeddings;
+    }
+
+    /**
+     * Creates the HTTP client shared by every instance.
+     * Idle connections are kept for five minutes, so consecutive requests skip the TCP and TLS handshakes.
+     *
+     * @return the HTTP client.
+     */
+    private static OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES))
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .callTimeout(60, TimeUnit.SECONDS)
+                .build();
     }
 }
@@ -0,0 +1,224 @@
+package api.embeddingapi;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * An EmbeddingAPIInterface decorator that keeps the load on another embedding API near what it can handle.
+ * <p>
+ * Requests go through an {@link AdaptiveConcurrencyLimiter}, which lowers the number of concurrent requests when
+ * the API rate limits or fails and raises it again while the API answers, and queues a bounded number of requests
+ * over the limit. Failed requests worth retrying are sent again after a random delay of up to an exponentially
+ * growing bound ("full jitter"), but never sooner than the API asked for, so retries of concurrent requests do not
+ * arrive together.
+ * </p>
+ * <p>
+ * A {@link CircuitBreaker} refuses every request for a while once the API keeps failing. Refused requests, like
+ * requests that find the queue full, throw an {@link EmbeddingUnavailableException} at once, so callers can
+ * switch to a mode that does not need embeddings.
+ * </p>
+ */
+public class ResilientEmbeddingAPI implements EmbeddingAPIInterface {
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MAX_LIMIT = 16;
+    public static final int DEFAULT_MAX_QUEUED = 256;
+    public static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 10_000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 250;
+    public static final long MAX_RETRY_DELAY_MILLIS = 10_000;
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = 30_000;
+
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    /**
+     * Constructs a ResilientEmbeddingAPI with the default limits, retries and circuit breaker.
+     *
+     * @param embeddingAPI the embedding API to protect.
+     * @param maxLimit     the highest number of concurrent requests.
+     */
+    public ResilientEmbeddingAPI(EmbeddingAPIInterface embeddingAPI, int maxLimit) {
+        this(embeddingAPI,
+                new AdaptiveConcurrencyLimiter(DEFAULT_INITIAL_LIMIT, 1, maxLimit, DEFAULT_MAX_QUEUED, DEFAULT_QUEUE_TIMEOUT_MILLIS),
+                new CircuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS),
+                DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * Constructs a ResilientEmbeddingAPI.
+     *
+     * @param embeddingAPI     the embedding API to protect.
+     * @param limiter          the limiter of concurrent requests.
+     * @param circuitBreaker   the circuit breaker.
+     * @param maxAttempts      the number of times a request is sent before its failure is thrown.
+     * @param retryDelayMillis the bound of the delay before the first retry, doubled for every further retry.
+     */
+    public ResilientEmbeddingAPI(EmbeddingAPIInterface embeddingAPI, AdaptiveConcurrencyLimiter limiter,
+                                 CircuitBreaker circuitBreaker, int maxAttempts, long retryDelayMillis) {
+        this.embeddingAPI = embeddingAPI;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Returns the model id of the underlying embedding API.
+     *
+     * @return the model id.
+     */
+    @Override
+    public String getModelId() {
+        return embeddingAPI.getModelId();
+    }
+
+    /**
+     * Returns an embedding for the given text.
+     *
+     * @param text the text to be used for embedding
+     * @return an array of floats representing the embedding
+     * @throws EmbeddingUnavailableException if the request was refused without being sent.
+     * @throws EmbeddingAPIException if the request failed, after the last retry for failures worth retrying.
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        return send(() -> embeddingAPI.getEmbedData(text));
+    }
+
+    /**
+     * Returns the embeddings of several texts, sent as one request of the underlying embedding API.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     * @throws EmbeddingUnavailableException if the request was refused without being sent.
+     * @throws EmbeddingAPIException if the request failed, after the last retry for failures worth retrying.
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        return send(() -> embeddingAPI.getEmbedData(texts));
+    }
+
+    /**
+     * Returns whether requests are currently sent, i.e. the circuit breaker is not open.
+     *
+     * @return true if the embedding API is considered available.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Returns the state of the circuit breaker.
+     *
+     * @return the state.
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Returns the current limit on concurrent requests.
+     *
+     * @return the limit.
+     */
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+    /**
+     * Returns the number of requests being sent.
+     *
+     * @return the number of requests in flight.
+     */
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    /**
+     * Returns the number of requests waiting for the concurrency limit.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return limiter.getQueueDepth();
+    }
+
+    /**
+     * Sends a request, retrying failures worth retrying.
+     *
+     * @param request the request to the underlying embedding API.
+     * @param <T>     the type of the result.
+     * @return the result of the first successful attempt.
+     */
+    private <T> T send(Supplier<T> request) {
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                throw new EmbeddingUnavailableException("The embedding API failed too often, requests are paused");
+            }
+            long permit;
+            try {
+                permit = limiter.acquire();
+            } catch (EmbeddingUnavailableException e) {
+                circuitBreaker.onIgnored();
+                throw e;
+            }
+
+            EmbeddingAPIException failure;
+            try {
+                T result = request.get();
+                limiter.release(permit, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (EmbeddingAPIException e) {
+                failure = e;
+            } catch (EmbeddingCancelledException e) {
+                limiter.release(permit, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+                circuitBreaker.onIgnored(); // the caller gave up, the API did not fail
+                throw e;
+            } catch (RuntimeException e) {
+                failure = new EmbeddingAPIException("Embedding request failed: " + e.getMessage(), e);
+            }
+
+            if (!failure.isRetryable()) {
+                limiter.release(permit, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+                circuitBreaker.onSuccess(); // the API answered, the request itself was wrong
+                throw failure;
+            }
+            limiter.release(permit, AdaptiveConcurrencyLimiter.Outcome.OVERLOADED);
+            circuitBreaker.onFailure();
+            if (attempt >= maxAttempts) {
+                throw failure;
+            }
+            sleep(retryDelay(attempt, failure.getRetryAfterMillis()), failure);
+        }
+    }
+
+    /**
+     * Returns a random delay before a retry, between 0 and a bound that doubles with every attempt,
+     * and at least the delay the API asked for.
+     *
+     * @param attempt          the number of the failed attempt, starting at 1.
+     * @param retryAfterMillis the delay the API asked for, or -1.
+     * @return the delay in milliseconds.
+     */
+    private long retryDelay(int attempt, long retryAfterMillis) {
+        long bound = Math.min(MAX_RETRY_DELAY_MILLIS, retryDelayMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(bound + 1);
+        return Math.max(delay, retryAfterMillis);
+    }
+
+    private static void sleep(long millis, EmbeddingAPIException failure) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+}
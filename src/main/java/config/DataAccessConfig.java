@@ -1,7 +1,10 @@
 package config;
 
+import api.embeddingapi.CachingEmbeddingAPI;
 import api.embeddingapi.EmbeddingAPIInterface;
+import api.embeddingapi.HashingEmbeddingAPI;
 import api.embeddingapi.OpenAPIDataEmbed;
+import api.embeddingapi.ResilientEmbeddingAPI;
 import dataaccess.*;
 import dataaccess.database.ApplicationRepository;
 import dataaccess.database.ProjectRepository;
@@ -11,14 +14,30 @@ import dataaccess.database.manager.*;
 import dataaccess.inmemory.LoginUserDetails;
 import dataaccess.local.*;
 
+import java.nio.file.Path;
+
 /**
  * Configuration class for setting up data access repositories.
  * Provides methods to get the appropriate repositories based on configuration.
  */
 public class DataAccessConfig {
     public static int USE_LOCAL = 0; // Set this to 1 to use local, 0 to use database
+    public static int EMBEDDING_CACHE_SIZE = 10_000; // Embeddings of recent texts kept in memory
+    public static int USE_EMBEDDING_DISK_CACHE = 1; // Set this to 1 to also keep embeddings on disk across restarts, 0 to only cache in memory
+    public static int EMBEDDING_DISK_CACHE_SIZE = CachingEmbeddingAPI.DEFAULT_MAX_DISK_ENTRIES; // Embeddings of recent texts kept on disk
+    public static int USE_OFFLINE_EMBEDDINGS = 0; // Set this to 1 to compute embeddings locally without the OpenAI API, e.g. for load testing
+    public static int OFFLINE_EMBEDDING_DIMENSION = HashingEmbeddingAPI.DEFAULT_DIMENSION;
+    public static int USE_EMBEDDING_RATE_LIMIT = 1; // Set this to 1 to adapt concurrent OpenAI requests to its rate limits and pause them while it fails
+    public static int EMBEDDING_MAX_CONCURRENCY = 16; // Highest number of concurrent OpenAI requests
 
     private static final String databaseName = "projectDatabase.db";
+    private static final String embeddingCachePath = "local_data/embedding_cache/";
+
+    // Embedding API, shared so that every use case benefits from the same cache and the same rate limit
+    private final static ResilientEmbeddingAPI rateLimitedEmbeddingAPI =
+            USE_OFFLINE_EMBEDDINGS == 0 && USE_EMBEDDING_RATE_LIMIT == 1
+                    ? new ResilientEmbeddingAPI(new OpenAPIDataEmbed(), EMBEDDING_MAX_CONCURRENCY) : null;
+    private final static EmbeddingAPIInterface embeddingAPI = createEmbeddingAPI();
 
     // Database Managers
     private static final ApplicationManager applicationManager = new ApplicationManager(databaseName);
@@ -37,7 +56,6 @@ public class DataAccessConfig {
 
     // Local Repositories
     private final static String csvPath = "local_data/projects/";
-    private final static EmbeddingAPIInterface embeddingAPI = new OpenAPIDataEmbed();
     private final static ILocalEmbedRepository embedDataAccess = new LocalEmbedRepository(csvPath, embeddingAPI);
     private final static IProjectRepository projectDataAccess = new LocalProjectRepository(csvPath, embedDataAccess);
     private final static IUserRepository userDataAccess = new LocalUserRepository(csvPath);
@@ -55,6 +73,22 @@ public class DataAccessConfig {
     // This class should not be instantiated
     private DataAccessConfig() { }
 
+    /**
+     * Creates the embedding API selected by USE_OFFLINE_EMBEDDINGS.
+     * Offline embeddings are cheaper to compute than to look up, so only the OpenAI API is cached.
+     * Cache hits do not count against the rate limit of the OpenAI API.
+     *
+     * @return the EmbeddingAPIInterface instance
+     */
+    private static EmbeddingAPIInterface createEmbeddingAPI() {
+        if (USE_OFFLINE_EMBEDDINGS == 1) {
+            return new HashingEmbeddingAPI(OFFLINE_EMBEDDING_DIMENSION, HashingEmbeddingAPI.DEFAULT_SEED);
+        }
+        EmbeddingAPIInterface openAI = rateLimitedEmbeddingAPI != null ? rateLimitedEmbeddingAPI : new OpenAPIDataEmbed();
+        return new CachingEmbeddingAPI(openAI, OpenAPIDataEmbed.API_MODEL, EMBEDDING_CACHE_SIZE,
+                USE_EMBEDDING_DISK_CACHE == 1 ? Path.of(embeddingCachePath) : null, EMBEDDING_DISK_CACHE_SIZE);
+    }
+
     public static String getImplementation() {
         if (USE_LOCAL == 1) {
             return "Using local implementation";
@@ -73,6 +107,25 @@ public class DataAccessConfig {
         return USE_LOCAL == 1 ? projectDataAccess : projectRepository;
     }
 
+    /**
+     * Returns the embedding API that will be used in the application.
+     * Embeddings of the OpenAI API are cached, so repeated texts are only sent to the API once.
+     *
+     * @return the EmbeddingAPIInterface instance
+     */
+    public static EmbeddingAPIInterface getEmbeddingAPI() {
+        return embeddingAPI;
+    }
+
+    /**
+     * Returns the rate-limited OpenAI embedding API, whose gauges tell how many requests are in flight and queued.
+     *
+     * @return the ResilientEmbeddingAPI instance, or null if USE_EMBEDDING_RATE_LIMIT is off or embeddings are offline
+     */
+    public static ResilientEmbeddingAPI getRateLimitedEmbeddingAPI() {
+        return rateLimitedEmbeddingAPI;
+    }
+
     /**
      * Returns the LocalEmbedRepository that will be used in the application.
      *
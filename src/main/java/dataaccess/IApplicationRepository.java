@@ -2,6 +2,7 @@ package dataaccess;
 
 import entities.Application;
 
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -46,6 +47,13 @@ public interface IApplicationRepository {
      */
     HashSet<Application> getApplicationsForProject(int projectId);
 
+    /**
+     * Retrieves the IDs of the users who applied to each project, without reading the applications themselves.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the IDs of their applicants.
+     */
+    HashMap<Integer, HashSet<Integer>> getAllApplicantIds();
+
     /**
      * Deletes an application from the database based on the sender user ID and project ID.
      *
@@ -54,4 +62,12 @@ public interface IApplicationRepository {
      * @return true if the application was successfully deleted, false otherwise.
      */
     boolean deleteApplication(int senderUserId, int projectId);
+
+    /**
+     * Returns the version of the application data. The version is incremented after every application created or
+     * deleted. Used to tell whether results computed from the applications earlier are still current.
+     *
+     * @return the current data version.
+     */
+    long getDataVersion();
 }
\ No newline at end of file
@@ -1,5 +1,10 @@
 package dataaccess;
 
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.TagIndex;
 import entities.Project;
 
 import java.util.HashMap;
@@ -19,10 +24,11 @@ public interface IProjectRepository {
      * @param description the description of the project
      * @param tags the tags associated with the project
      * @param embeddings the embeddings associated with the project
+     * @param contentHash the content hash of the embedded text, see {@link api.embeddingapi.ContentHash}, or null if it is not known
      * @param ownerId the user ID of the creator of the project.
      * @return the created project
      */
-    Project createProject(String title, double budget, String description, HashSet<String> tags, float[] embeddings, int ownerId);
+    Project createProject(String title, double budget, String description, HashSet<String> tags, float[] embeddings, String contentHash, int ownerId);
 
     /**
      * Deletes a project.
@@ -39,6 +45,13 @@ public interface IProjectRepository {
      */
     Project getProjectById(int projectId);
 
+    /**
+     * Gets every project with its tags.
+     *
+     * @return a map where the keys are the project ids and the values are the projects
+     */
+    HashMap<Integer, Project> getAllProjects();
+
     /**
      * Adds a set of tags to a project.
      *
@@ -63,6 +76,27 @@ public interface IProjectRepository {
      */
     HashSet<Project> getProjectsByKeyword(String keyword);
 
+    /**
+     * Finds the projects best matching the words of a query in their title, description or tags, ignoring case.
+     *
+     * @param query the words to search for
+     * @param k the maximum number of projects to return
+     * @return the ids of at most k projects and their relevance scores, most relevant first
+     */
+    ScoredIds searchProjectsByKeyword(String query, int k);
+
+    /**
+     * Finds the projects best matching the words of a query among the given projects.
+     * The other projects are skipped before ranking, so the result holds k projects whenever k of the given
+     * projects match.
+     *
+     * @param query the words to search for
+     * @param k the maximum number of projects to return
+     * @param projectIds the ids of the projects that may be returned
+     * @return the ids of at most k of the given projects and their relevance scores, most relevant first
+     */
+    ScoredIds searchProjectsByKeyword(String query, int k, ProjectIdBitmap projectIds);
+
     /**
      * Updates a project.
      *
@@ -71,9 +105,39 @@ public interface IProjectRepository {
      * @param budget the budget of the project
      * @param description the description of the project
      * @param tags the tags associated with the project
-     * @param embeddings the embeddings associated with the project
+     * @param embeddings the embeddings associated with the project, or null to keep the stored ones
+     * @param contentHash the content hash of the embedded text, see {@link api.embeddingapi.ContentHash}, or null if it is not known
+     */
+    boolean update(int id, String title, double budget, String description, HashSet<String> tags, float[] embeddings, String contentHash);
+
+    /**
+     * Replaces the embedding of a project, leaving its other fields as they are.
+     * Used to store embeddings computed after the project was saved.
+     *
+     * @param projectId the id of the project
+     * @param contentHash the content hash of the embedded text, see {@link api.embeddingapi.ContentHash}
+     * @param embedding the new embedding; an empty embedding removes the stored one
+     * @return true if the project exists and the embedding was stored, false otherwise
      */
-    boolean update(int id, String title, double budget, String description, HashSet<String> tags, float[] embeddings);
+    boolean updateEmbedding(int projectId, String contentHash, float[] embedding);
+
+    /**
+     * Retrieves the content hash of the text a project's stored embedding was computed from.
+     * If it equals the content hash of the project's new text, the embedding does not need to be computed again.
+     *
+     * @param projectId the id of the project
+     * @return the content hash, or null if the project has no embedding or its content hash is not known
+     */
+    String getContentHash(int projectId);
+
+    /**
+     * Retrieves an embedding stored for any project under the given content hash.
+     * Used to reuse the embedding of an identical text instead of calling the embedding API.
+     *
+     * @param contentHash the content hash of the embedded text
+     * @return the embedding, or null if no stored embedding has this content hash
+     */
+    float[] getEmbeddingByContentHash(String contentHash);
 
     /**
      * Retrieves all project embeddings from the database and returns them as a HashMap.
@@ -81,6 +145,48 @@ public interface IProjectRepository {
      */
     HashMap<Integer, float[]> getAllEmbeddings();
 
+    /**
+     * Retrieves the full-precision embeddings of the given projects.
+     * Used to rescore the candidates of a search over quantized embeddings.
+     *
+     * @param projectIds the ids of the projects
+     * @return a hashmap where the keys are the project ids and the values are the embeddings; projects without
+     * an embedding are left out
+     */
+    HashMap<Integer, float[]> getEmbeddings(int[] projectIds);
+
+    /**
+     * Returns the resident vector index that this repository keeps in sync with its embeddings.
+     *
+     * @return the vector index of the project embeddings
+     */
+    ProjectVectorIndex getVectorIndex();
+
+    /**
+     * Returns the resident tag index that this repository keeps in sync with the project tags.
+     * Used to filter projects by tags and count them per tag without reading every project.
+     *
+     * @return the index from tags to the projects having them
+     */
+    TagIndex getTagIndex();
+
+    /**
+     * Returns the resident index of the project budgets and owners that this repository keeps in sync with its
+     * projects. Used to resolve the filters of a search to the ids of the matching projects.
+     *
+     * @return the index of the filterable project attributes
+     */
+    ProjectAttributeIndex getAttributeIndex();
+
+    /**
+     * Returns the version of the project data. The version is incremented after every write that may change the
+     * results of a search: creating, updating, tagging, embedding and deleting a project.
+     * Used to tell whether search results computed earlier are still current.
+     *
+     * @return the current data version
+     */
+    long getDataVersion();
+
     /**
      * Retrieves the owner ID of a project from the database by its project ID.
      *
@@ -1,5 +1,6 @@
 package dataaccess;
 
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -53,4 +54,19 @@ public interface IUserProjectsRepository {
      * @return A set of user IDs associated with the project.
      */
      HashSet<Integer> getUserIdsForProject(int projectId);
+
+    /**
+     * Retrieves the user Ids of every project.
+     *
+     * @return A map where the keys are project IDs and the values are the IDs of the users associated with them.
+     */
+     HashMap<Integer, HashSet<Integer>> getAllUserIds();
+
+    /**
+     * Returns the version of the user-project associations. The version is incremented after every association
+     * added or removed. Used to tell whether results computed from the associations earlier are still current.
+     *
+     * @return The current data version.
+     */
+     long getDataVersion();
 }
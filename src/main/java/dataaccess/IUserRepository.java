@@ -2,6 +2,7 @@ package dataaccess;
 
 import entities.User;
 
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -41,6 +42,13 @@ public interface IUserRepository {
      */
     User getUserById(int userId);
 
+    /**
+     * Gets the User objects of every user, with their tags.
+     *
+     * @return a map where the keys are the user IDs and the values are the users.
+     */
+    HashMap<Integer, User> getAllUsers();
+
     /**
      * Unknown what to be updating currently.
      * Current ideas: changePassword, authenticateUser, changeEmail.
@@ -80,4 +88,12 @@ public interface IUserRepository {
      * @return the hashed password of the user associated with the email.
      */
     String getPasswordByEmail(String email);
+
+    /**
+     * Returns the version of the user data. The version is incremented after every user created, updated, tagged
+     * or deleted. Used to tell whether results computed from the users earlier are still current.
+     *
+     * @return the current data version.
+     */
+    long getDataVersion();
 }
\ No newline at end of file
@@ -4,7 +4,9 @@ import dataaccess.IApplicationRepository;
 import dataaccess.database.manager.ApplicationManager;
 import entities.Application;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Facade class that implements the IApplicationRepository interface and provides methods for managing applications in the database.
@@ -12,6 +14,7 @@ import java.util.HashSet;
 public class ApplicationRepository implements IApplicationRepository {
 
     private final ApplicationManager applicationManager;
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs an ApplicationRepository with the specified ApplicationManager.
@@ -34,7 +37,9 @@ public class ApplicationRepository implements IApplicationRepository {
      */
     @Override
     public Application createApplication(int senderUserId, int projectId, String text, byte[] pdfBytes) {
-        return applicationManager.createApplication(senderUserId, projectId, text, pdfBytes);
+        Application application = applicationManager.createApplication(senderUserId, projectId, text, pdfBytes);
+        dataVersion.incrementAndGet();
+        return application;
     }
 
     /**
@@ -71,6 +76,16 @@ public class ApplicationRepository implements IApplicationRepository {
         return applicationManager.getApplicationsForProject(projectId);
     }
 
+    /**
+     * Retrieves the IDs of the users who applied to each project.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the IDs of their applicants.
+     */
+    @Override
+    public HashMap<Integer, HashSet<Integer>> getAllApplicantIds() {
+        return applicationManager.getAllApplicantIds();
+    }
+
     /**
      * Deletes an application from the database by sender user ID and project ID.
      *
@@ -80,6 +95,18 @@ public class ApplicationRepository implements IApplicationRepository {
      */
     @Override
     public boolean deleteApplication(int senderUserId, int projectId) {
-        return applicationManager.deleteApplication(senderUserId, projectId);
+        boolean isDeleted = applicationManager.deleteApplication(senderUserId, projectId);
+        dataVersion.incrementAndGet();
+        return isDeleted;
+    }
+
+    /**
+     * Returns the version of the application data, incremented by every write of this repository.
+     *
+     * @return the current data version.
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
     }
 }
@@ -2,10 +2,16 @@ package dataaccess.database;
 
 import dataaccess.IProjectRepository;
 import dataaccess.database.manager.*;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.TagIndex;
 import entities.Project;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Facade class that implements the IProjectRepository interface and provides methods for managing projects in the database.
@@ -16,6 +22,10 @@ public class ProjectRepository implements IProjectRepository {
     private final ProjectTagsManager projectTagsManager;
     private final ProjectEmbeddingsManager projectEmbeddingsManager;
     private final UserProjectsManager userProjectsManager;
+    private final ProjectVectorIndex vectorIndex;
+    private final TagIndex tagIndex;
+    private final ProjectAttributeIndex attributeIndex;
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs a ProjectRepository with the specified ProjectManager, ProjectTagsManager, ProjectEmbeddingsManager, and UserProjectsManager.
@@ -30,6 +40,9 @@ public class ProjectRepository implements IProjectRepository {
         this.projectTagsManager = projectTagsManager;
         this.projectEmbeddingsManager = projectEmbeddingsManager;
         this.userProjectsManager = userProjectsManager;
+        this.vectorIndex = new ProjectVectorIndex(projectEmbeddingsManager::getAllEmbeddings);
+        this.tagIndex = new TagIndex(projectTagsManager::getAllTags);
+        this.attributeIndex = new ProjectAttributeIndex(tagIndex, projectManager::getAllAttributes);
     }
 
 
@@ -41,18 +54,22 @@ public class ProjectRepository implements IProjectRepository {
      * @param description the description of the project.
      * @param tags        the tags associated with the project.
      * @param embeddings  the embeddings associated with the project.
+     * @param contentHash the content hash of the embedded text, or null if it is not known.
      * @param ownerId     the user ID of the creator of the project.
      * @return the created Project object, or null if the operation fails.
      */
     @Override
-    public Project createProject(String title, double budget, String description, HashSet<String> tags, float[] embeddings, int ownerId) {
+    public Project createProject(String title, double budget, String description, HashSet<String> tags, float[] embeddings, String contentHash, int ownerId) {
         Project project = projectManager.createProject(title, budget, description, ownerId);
         if (project != null) {
             int projectId = project.getProjectId();
             projectTagsManager.addTags(projectId, tags);
-            projectEmbeddingsManager.addEmbeddings(projectId, embeddings);
+            tagIndex.put(projectId, tags);
+            attributeIndex.put(projectId, budget, ownerId);
+            storeEmbeddings(projectId, contentHash, embeddings);
 //            userProjectsManager.addUserToProject(ownerId, projectId);
             project.setProjectTags(tags);
+            dataVersion.incrementAndGet();
         }
         return project;
     }
@@ -68,7 +85,12 @@ public class ProjectRepository implements IProjectRepository {
         userProjectsManager.removeProjectFromAllUsers(projectId);
         projectTagsManager.removeTags(projectId, projectTagsManager.getTagsForProject(projectId));
         projectEmbeddingsManager.removeEmbeddings(projectId);
-        return projectManager.deleteProject(projectId);
+        vectorIndex.remove(projectId);
+        tagIndex.remove(projectId);
+        attributeIndex.remove(projectId);
+        boolean isDeleted = projectManager.deleteProject(projectId);
+        dataVersion.incrementAndGet();
+        return isDeleted;
     }
 
     /**
@@ -87,6 +109,21 @@ public class ProjectRepository implements IProjectRepository {
         return project;
     }
 
+    /**
+     * Retrieves every project with its tags, reading each table once.
+     *
+     * @return a map where the keys are the project ids and the values are the projects.
+     */
+    @Override
+    public HashMap<Integer, Project> getAllProjects() {
+        HashMap<Integer, Project> projects = projectManager.getAllProjects();
+        HashMap<Integer, HashSet<String>> tags = projectTagsManager.getAllTags();
+        for (Project project : projects.values()) {
+            project.setProjectTags(tags.getOrDefault(project.getProjectId(), new HashSet<>()));
+        }
+        return projects;
+    }
+
     /**
      * Adds tags to a project.
      *
@@ -96,7 +133,10 @@ public class ProjectRepository implements IProjectRepository {
      */
     @Override
     public boolean addTags(int projectId, HashSet<String> tags) {
-        return projectTagsManager.addTags(projectId, tags);
+        boolean isAdded = projectTagsManager.addTags(projectId, tags);
+        tagIndex.put(projectId, projectTagsManager.getTagsForProject(projectId));
+        dataVersion.incrementAndGet();
+        return isAdded;
     }
 
     /**
@@ -108,18 +148,52 @@ public class ProjectRepository implements IProjectRepository {
      */
     @Override
     public boolean removeTags(int projectId, HashSet<String> tags) {
-        return projectTagsManager.removeTags(projectId, tags);
+        boolean isRemoved = projectTagsManager.removeTags(projectId, tags);
+        tagIndex.put(projectId, projectTagsManager.getTagsForProject(projectId));
+        dataVersion.incrementAndGet();
+        return isRemoved;
     }
 
     /**
-     * Retrieves projects that match a keyword.
+     * Retrieves projects whose title, description or tags contain a keyword, ignoring case.
+     * Used to search without embeddings when the embedding API is unavailable.
      *
      * @param keyword the keyword to search for.
      * @return a HashSet of Project objects that match the keyword.
      */
     @Override
     public HashSet<Project> getProjectsByKeyword(String keyword) {
-        return null; // Implementation not necessary for now
+        HashSet<Project> projects = projectManager.getProjectsByKeyword(keyword);
+        for (Project project : projects) {
+            project.setProjectTags(projectTagsManager.getTagsForProject(project.getProjectId()));
+        }
+        return projects;
+    }
+
+    /**
+     * Finds the projects best matching the words of a query in their title, description or tags, ignoring case,
+     * ranked by BM25 with the full-text index of the database.
+     *
+     * @param query the words to search for.
+     * @param k     the maximum number of projects to return.
+     * @return the ids of at most k projects and their scores, best first.
+     */
+    @Override
+    public ScoredIds searchProjectsByKeyword(String query, int k) {
+        return projectManager.searchProjects(query, k);
+    }
+
+    /**
+     * Finds the projects best matching the words of a query among the given projects, using the full-text index.
+     *
+     * @param query      the words to search for.
+     * @param k          the maximum number of projects to return.
+     * @param projectIds the ids of the projects that may be returned.
+     * @return the ids of at most k of the given projects and their scores, best first.
+     */
+    @Override
+    public ScoredIds searchProjectsByKeyword(String query, int k, ProjectIdBitmap projectIds) {
+        return projectManager.searchProjects(query, k, projectIds);
     }
 
     /**
@@ -130,21 +204,94 @@ public class ProjectRepository implements IProjectRepository {
      * @param budget      the budget of the project.
      * @param description the description of the project.
      * @param tags        the tags associated with the project.
-     * @param embeddings  the embeddings associated with the project.
+     * @param embeddings  the embeddings associated with the project, or null to keep the stored ones.
+     * @param contentHash the content hash of the embedded text, or null if it is not known.
      * @return true if the update was successful, false otherwise.
      */
     @Override
-    public boolean update(int projectId, String title, double budget, String description, HashSet<String> tags, float[] embeddings) {
+    public boolean update(int projectId, String title, double budget, String description, HashSet<String> tags, float[] embeddings, String contentHash) {
         boolean isUpdated = projectManager.updateProject(projectId, title, budget, description);
         if (isUpdated) {
             projectTagsManager.removeTags(projectId, projectTagsManager.getTagsForProject(projectId));
             projectTagsManager.addTags(projectId, tags);
-            projectEmbeddingsManager.removeEmbeddings(projectId);
-            projectEmbeddingsManager.addEmbeddings(projectId, embeddings);
+            tagIndex.put(projectId, tags);
+            attributeIndex.setBudget(projectId, budget);
+            if (embeddings != null && !storeEmbeddings(projectId, contentHash, embeddings)) {
+                vectorIndex.remove(projectId);
+            }
+            dataVersion.incrementAndGet();
         }
         return isUpdated;
     }
 
+    /**
+     * Replaces the embedding of a project in the database and in the vector index.
+     *
+     * @param projectId   the ID of the project.
+     * @param contentHash the content hash of the embedded text.
+     * @param embedding   the new embedding; an empty embedding removes the stored one.
+     * @return true if the project exists and the embedding was stored, false otherwise.
+     */
+    @Override
+    public boolean updateEmbedding(int projectId, String contentHash, float[] embedding) {
+        if (projectManager.getOwnerId(projectId) == -1) {
+            return false; // deleted before its embedding was ready
+        }
+        boolean isStored = storeEmbeddings(projectId, contentHash, embedding);
+        dataVersion.incrementAndGet();
+        return isStored;
+    }
+
+    /**
+     * Retrieves the content hash of a project's stored embedding.
+     *
+     * @param projectId the ID of the project.
+     * @return the content hash, or null if the project has no embedding.
+     */
+    @Override
+    public String getContentHash(int projectId) {
+        return projectEmbeddingsManager.getContentHash(projectId);
+    }
+
+    /**
+     * Retrieves the vector stored under a content hash.
+     *
+     * @param contentHash the content hash of the embedded text.
+     * @return the embedding, or null if no vector is stored under the content hash.
+     */
+    @Override
+    public float[] getEmbeddingByContentHash(String contentHash) {
+        return projectEmbeddingsManager.getEmbeddingsByContentHash(contentHash);
+    }
+
+    /**
+     * Stores the embeddings of a project under a content hash and updates the vector index.
+     * Projects sharing the content hash share the stored vector, so their entries in the index are replaced too.
+     * Embeddings without a content hash are stored under a key of the project's own.
+     *
+     * @param projectId   the ID of the project.
+     * @param contentHash the content hash of the embedded text, or null if it is not known.
+     * @param embeddings  the embeddings; empty embeddings remove the stored ones.
+     * @return true if the embeddings were stored successfully, false otherwise.
+     */
+    private boolean storeEmbeddings(int projectId, String contentHash, float[] embeddings) {
+        if (contentHash == null) {
+            contentHash = ProjectEmbeddingsManager.ownKey(projectId);
+        }
+        if (!projectEmbeddingsManager.addEmbeddings(projectId, contentHash, embeddings)) {
+            return false;
+        }
+        vectorIndex.put(projectId, embeddings);
+        if (embeddings.length > 0) {
+            for (int sharingProjectId : projectEmbeddingsManager.getProjectIds(contentHash)) {
+                if (sharingProjectId != projectId) {
+                    vectorIndex.put(sharingProjectId, embeddings);
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Retrieves all project embeddings from the database.
      *
@@ -155,6 +302,60 @@ public class ProjectRepository implements IProjectRepository {
         return projectEmbeddingsManager.getAllEmbeddings();
     }
 
+    /**
+     * Retrieves the embeddings of the given projects from the database.
+     *
+     * @param projectIds the IDs of the projects.
+     * @return a HashMap where the keys are project IDs and the values are embeddings.
+     */
+    @Override
+    public HashMap<Integer, float[]> getEmbeddings(int[] projectIds) {
+        return projectEmbeddingsManager.getEmbeddings(projectIds);
+    }
+
+    /**
+     * Returns the resident vector index of the project embeddings.
+     * It is loaded from the database once and then updated by this repository's writes.
+     *
+     * @return the vector index.
+     */
+    @Override
+    public ProjectVectorIndex getVectorIndex() {
+        return vectorIndex;
+    }
+
+    /**
+     * Returns the resident index of the project tags.
+     * It is loaded from the database once and then updated by this repository's writes.
+     *
+     * @return the tag index.
+     */
+    @Override
+    public TagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    /**
+     * Returns the resident index of the project budgets and owners.
+     * It is loaded from the database once and then updated by this repository's writes.
+     *
+     * @return the attribute index.
+     */
+    @Override
+    public ProjectAttributeIndex getAttributeIndex() {
+        return attributeIndex;
+    }
+
+    /**
+     * Returns the version of the project data, incremented by every write of this repository.
+     *
+     * @return the current data version.
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Retrieves the owner ID of a project by its project ID.
      *
@@ -3,7 +3,9 @@ package dataaccess.database;
 import dataaccess.IUserProjectsRepository;
 import dataaccess.database.manager.UserProjectsManager;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Facade class that implements the IUserProjectsRepository interface and provides methods for managing user-project relationships in the database.
@@ -11,6 +13,7 @@ import java.util.HashSet;
 public class UserProjectsRepository implements IUserProjectsRepository {
 
     private final UserProjectsManager userProjectsManager;
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs a UserProjectsRepository with the specified UserProjectsManager.
@@ -31,7 +34,9 @@ public class UserProjectsRepository implements IUserProjectsRepository {
      */
     @Override
     public boolean addUserToProject(int userId, int projectId) {
-        return userProjectsManager.addUserToProject(userId, projectId);
+        boolean isUpdated = userProjectsManager.addUserToProject(userId, projectId);
+        dataVersion.incrementAndGet();
+        return isUpdated;
     }
 
     /**
@@ -43,7 +48,9 @@ public class UserProjectsRepository implements IUserProjectsRepository {
      */
     @Override
     public boolean removeUserFromProject(int userId, int projectId) {
-        return userProjectsManager.removeUserFromProject(userId, projectId);
+        boolean isUpdated = userProjectsManager.removeUserFromProject(userId, projectId);
+        dataVersion.incrementAndGet();
+        return isUpdated;
     }
 
     /**
@@ -54,7 +61,9 @@ public class UserProjectsRepository implements IUserProjectsRepository {
      */
     @Override
     public boolean removeUserFromAllProjects(int userId) {
-        return userProjectsManager.removeUserFromAllProjects(userId);
+        boolean isUpdated = userProjectsManager.removeUserFromAllProjects(userId);
+        dataVersion.incrementAndGet();
+        return isUpdated;
     }
 
     /**
@@ -65,7 +74,9 @@ public class UserProjectsRepository implements IUserProjectsRepository {
      */
     @Override
     public boolean removeProjectFromAllUsers(int projectId) {
-        return userProjectsManager.removeProjectFromAllUsers(projectId);
+        boolean isUpdated = userProjectsManager.removeProjectFromAllUsers(projectId);
+        dataVersion.incrementAndGet();
+        return isUpdated;
     }
 
     /**
@@ -89,4 +100,24 @@ public class UserProjectsRepository implements IUserProjectsRepository {
     public HashSet<Integer> getUserIdsForProject(int projectId) {
         return userProjectsManager.getUserIdsForProject(projectId);
     }
+
+    /**
+     * Retrieves the user IDs of every project.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the IDs of their users.
+     */
+    @Override
+    public HashMap<Integer, HashSet<Integer>> getAllUserIds() {
+        return userProjectsManager.getAllUserIds();
+    }
+
+    /**
+     * Returns the version of the user-project associations, incremented by every write of this repository.
+     *
+     * @return the current data version.
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
 }
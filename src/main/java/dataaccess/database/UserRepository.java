@@ -6,7 +6,9 @@ import dataaccess.database.manager.UserTagsManager;
 import dataaccess.database.manager.UserProjectsManager;
 import entities.User;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Facade class that implements the IUserRepository interface and provides methods for managing users in the database.
@@ -16,6 +18,7 @@ public class UserRepository implements IUserRepository {
     private final UserManager userManager;
     private final UserTagsManager userTagsManager;
     private final UserProjectsManager userProjectsManager;
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs a UserRepository with the specified UserManager, UserTagsManager, and UserProjectsManager.
@@ -48,6 +51,7 @@ public class UserRepository implements IUserRepository {
         if (user != null) {
             userTagsManager.addTags(user.getUserId(), tags);
             user.setTags(tags);
+            dataVersion.incrementAndGet();
         }
         return user;
     }
@@ -84,6 +88,21 @@ public class UserRepository implements IUserRepository {
         return user;
     }
 
+    /**
+     * Retrieves every user from the database with their tags, reading each table once.
+     *
+     * @return a HashMap where the keys are the user IDs and the values are the users.
+     */
+    @Override
+    public HashMap<Integer, User> getAllUsers() {
+        HashMap<Integer, User> users = userManager.getAllUsers();
+        HashMap<Integer, HashSet<String>> tags = userTagsManager.getAllTags();
+        for (User user : users.values()) {
+            user.setTags(tags.getOrDefault(user.getUserId(), new HashSet<>()));
+        }
+        return users;
+    }
+
     /**
      * Updates a user's information in the database.
      *
@@ -101,6 +120,7 @@ public class UserRepository implements IUserRepository {
             userTagsManager.removeTags(userId, userTagsManager.getTagsForUser(userId));
             userTagsManager.addTags(userId, tags);
         }
+        dataVersion.incrementAndGet();
         return isUpdated;
     }
 
@@ -114,7 +134,9 @@ public class UserRepository implements IUserRepository {
     public boolean deleteUser(int userId) {
         userProjectsManager.removeUserFromAllProjects(userId);
         userTagsManager.removeTags(userId, userTagsManager.getTagsForUser(userId));
-        return userManager.deleteUser(userId);
+        boolean isDeleted = userManager.deleteUser(userId);
+        dataVersion.incrementAndGet();
+        return isDeleted;
     }
 
     /**
@@ -126,7 +148,9 @@ public class UserRepository implements IUserRepository {
      */
     @Override
     public boolean addTags(int userId, HashSet<String> tags) {
-        return userTagsManager.addTags(userId, tags);
+        boolean isAdded = userTagsManager.addTags(userId, tags);
+        dataVersion.incrementAndGet();
+        return isAdded;
     }
 
     /**
@@ -138,7 +162,9 @@ public class UserRepository implements IUserRepository {
      */
     @Override
     public boolean removeTags(int userId, HashSet<String> tags) {
-        return userTagsManager.removeTags(userId, tags);
+        boolean isRemoved = userTagsManager.removeTags(userId, tags);
+        dataVersion.incrementAndGet();
+        return isRemoved;
     }
 
     /**
@@ -151,4 +177,14 @@ public class UserRepository implements IUserRepository {
     public String getPasswordByEmail(String email) {
         return userManager.getPasswordByEmail(email);
     }
+
+    /**
+     * Returns the version of the user data, incremented by every write of this repository.
+     *
+     * @return the current data version.
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
 }
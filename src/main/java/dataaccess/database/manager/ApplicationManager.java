@@ -6,6 +6,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -112,6 +113,27 @@ public class ApplicationManager extends SQLDatabaseManager {
         return fetchApplications(projectId, sql);
     }
 
+    /**
+     * Retrieves the IDs of the users who applied to each project, without reading the texts and PDFs.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the IDs of their applicants.
+     */
+    public HashMap<Integer, HashSet<Integer>> getAllApplicantIds() {
+        String sql = "SELECT SenderUserId, ProjectId FROM Applications";
+        HashMap<Integer, HashSet<Integer>> applicantIds = new HashMap<>();
+        Connection connection = super.getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                applicantIds.computeIfAbsent(rs.getInt("ProjectId"), projectId -> new HashSet<>())
+                        .add(rs.getInt("SenderUserId"));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return applicantIds;
+    }
+
     /**
      * Helper method to fetch applications based on a given SQL query and ID.
      *
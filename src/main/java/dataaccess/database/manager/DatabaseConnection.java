@@ -7,6 +7,7 @@ import java.sql.SQLException;
 public class DatabaseConnection {
     private static DatabaseConnection instance;
     private Connection connection;
+    private Connection transactionConnection;
     private final String DATABASE_NAME;
 
     private DatabaseConnection(String databaseName) {
@@ -35,7 +36,37 @@ public class DatabaseConnection {
         return connection;
     }
 
+    /**
+     * Returns a second connection to the database, for writes that span a transaction. Every manager writes on
+     * the shared connection without a transaction, and such writes would become part of any transaction open on
+     * it, so transactions run on this connection and SQLite keeps the two apart. Callers synchronize on the
+     * connection while a transaction is open.
+     *
+     * @return the connection for transactions, or null if it could not be opened.
+     */
+    public synchronized Connection getTransactionConnection() {
+        if (transactionConnection == null) {
+            try {
+                transactionConnection = DriverManager.getConnection("jdbc:sqlite:" + this.DATABASE_NAME);
+            } catch (SQLException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+        return transactionConnection;
+    }
+
     public void disconnect() {
+        synchronized (this) {
+            if (this.transactionConnection != null) {
+                try {
+                    this.transactionConnection.close();
+                } catch (SQLException e) {
+                    System.err.println("Error while disconnecting: " + e.getMessage());
+                } finally {
+                    this.transactionConnection = null;
+                }
+            }
+        }
         if (this.connection != null) {
             try {
                 this.connection.close();
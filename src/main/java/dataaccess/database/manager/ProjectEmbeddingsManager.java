@@ -1,16 +1,39 @@
 package dataaccess.database.manager;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Manages project embeddings-related operations in the database.
+ * <p>
+ * Embeddings are keyed by the content hash of the text they were computed from. The EmbeddingVectors table
+ * holds one BLOB of little-endian float32 values per content hash, and ProjectEmbeddingHashes links each
+ * project to the content hash of its embedding, so projects with identical descriptions share one stored
+ * vector. A vector is deleted when no project links to it anymore.
+ * </p>
+ * <p>
+ * Older versions stored one BLOB per project in the ProjectEmbeddingBlobs table, and before that one row per
+ * embedding value in the ProjectEmbeddings table. {@link #initialize()} converts both and drops the old tables.
+ * Their embeddings were computed by an unknown model, so each one is keyed by {@link #ownKey(int) a key of its own}
+ * and is never reused for another project.
+ * </p>
+ * <p>
+ * Writes that span several statements run in a transaction on the transaction connection, not on the connection
+ * shared by the managers, so writes other managers make meanwhile are neither committed nor rolled back with them.
+ * </p>
  */
 public class ProjectEmbeddingsManager extends SQLDatabaseManager {
+    private static final String LEGACY_TABLE = "ProjectEmbeddings";
+    private static final String BLOB_TABLE = "ProjectEmbeddingBlobs";
+    private static final int MAX_QUERY_PARAMETERS = 500; // older SQLite versions allow at most 999 parameters
 
     /**
      * Constructs a ProjectEmbeddingsManager with the specified database name.
@@ -23,86 +46,365 @@ public class ProjectEmbeddingsManager extends SQLDatabaseManager {
 
     @Override
     public void initialize() {
-        String projectEmbeddingSql = "CREATE TABLE IF NOT EXISTS ProjectEmbeddings (ProjectId INTEGER NOT NULL, EmbeddingIndex INTEGER NOT NULL, EmbeddingValue FLOAT NOT NULL, PRIMARY KEY (ProjectId, EmbeddingIndex), FOREIGN KEY(ProjectId) REFERENCES Projects(Id))";
-        super.initializeTables(projectEmbeddingSql);
+        String vectorSql = "CREATE TABLE IF NOT EXISTS EmbeddingVectors (ContentHash TEXT PRIMARY KEY, Embedding BLOB NOT NULL)";
+        String projectHashSql = "CREATE TABLE IF NOT EXISTS ProjectEmbeddingHashes (ProjectId INTEGER PRIMARY KEY, ContentHash TEXT NOT NULL, FOREIGN KEY(ProjectId) REFERENCES Projects(Id), FOREIGN KEY(ContentHash) REFERENCES EmbeddingVectors(ContentHash))";
+        String projectHashIndexSql = "CREATE INDEX IF NOT EXISTS ProjectEmbeddingHashesByContent ON ProjectEmbeddingHashes (ContentHash)";
+        super.initializeTables(vectorSql, projectHashSql, projectHashIndexSql);
+        migrateOldEmbeddings(LEGACY_TABLE);
+        migrateOldEmbeddings(BLOB_TABLE);
     }
 
     /**
-     * Adds embeddings for a project in the database.
+     * Adds or replaces the embeddings of a project in the database.
+     * If another project has an embedding with the same content hash, the stored vector is shared and replaced.
+     * Empty embeddings remove the stored embeddings instead. The vector, the link of the project and the deletion of
+     * the vector it linked to before are written in one transaction, so a failure never leaves a link to a missing
+     * vector or a vector no project links to.
      *
-     * @param projectId  the ID of the project.
-     * @param embeddings the embeddings to add.
-     * @return true if the embeddings were added successfully, false otherwise.
+     * @param projectId   the ID of the project.
+     * @param contentHash the content hash of the embedded text.
+     * @param embeddings  the embeddings to store.
+     * @return true if the embeddings were stored successfully, false otherwise.
      */
-    public boolean addEmbeddings(int projectId, float[] embeddings) {
-        String embeddingSql = "INSERT INTO ProjectEmbeddings (ProjectId, EmbeddingIndex, EmbeddingValue) VALUES (?, ?, ?)";
-        Connection connection = getConnection();
+    public boolean addEmbeddings(int projectId, String contentHash, float[] embeddings) {
+        if (embeddings == null || embeddings.length == 0) {
+            return removeEmbeddings(projectId);
+        }
+        String vectorSql = "INSERT INTO EmbeddingVectors (ContentHash, Embedding) VALUES (?, ?) ON CONFLICT(ContentHash) DO UPDATE SET Embedding = excluded.Embedding";
+        String projectHashSql = "INSERT INTO ProjectEmbeddingHashes (ProjectId, ContentHash) VALUES (?, ?) ON CONFLICT(ProjectId) DO UPDATE SET ContentHash = excluded.ContentHash";
+        Connection connection = getTransactionConnection();
+        synchronized (connection) {
+            try {
+                connection.setAutoCommit(false);
+                String previousHash = getContentHash(connection, projectId);
+                try (PreparedStatement vectorStatement = connection.prepareStatement(vectorSql);
+                     PreparedStatement projectHashStatement = connection.prepareStatement(projectHashSql)) {
+                    vectorStatement.setString(1, contentHash);
+                    vectorStatement.setBytes(2, encode(embeddings));
+                    vectorStatement.executeUpdate();
+                    projectHashStatement.setInt(1, projectId);
+                    projectHashStatement.setString(2, contentHash);
+                    projectHashStatement.executeUpdate();
+                    if (previousHash != null && !previousHash.equals(contentHash)) {
+                        deleteUnusedVector(connection, previousHash);
+                    }
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                System.err.println(e.getMessage());
+                rollback(connection);
+            } finally {
+                restoreAutoCommit(connection);
+            }
+        }
+        return false;
+    }
 
-        try (PreparedStatement embeddingStatement = connection.prepareStatement(embeddingSql)) {
-            connection.setAutoCommit(false); // Disable auto-commit
+    /**
+     * Removes embeddings for a project from the database.
+     * The stored vector is deleted too unless another project shares it, in the same transaction.
+     *
+     * @param projectId the ID of the project.
+     * @return true if the embeddings were removed successfully, false otherwise.
+     */
+    public boolean removeEmbeddings(int projectId) {
+        String deleteEmbeddingsSql = "DELETE FROM ProjectEmbeddingHashes WHERE ProjectId = ?";
+        Connection connection = getTransactionConnection();
+        synchronized (connection) {
+            try {
+                connection.setAutoCommit(false);
+                String contentHash = getContentHash(connection, projectId);
+                if (contentHash != null) {
+                    try (PreparedStatement deleteEmbeddingStatement = connection.prepareStatement(deleteEmbeddingsSql)) {
+                        deleteEmbeddingStatement.setInt(1, projectId);
+                        deleteEmbeddingStatement.executeUpdate();
+                        deleteUnusedVector(connection, contentHash);
+                    }
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                System.err.println(e.getMessage());
+                rollback(connection);
+            } finally {
+                restoreAutoCommit(connection);
+            }
+        }
+        return false;
+    }
 
-            for (int i = 0; i < embeddings.length; i++) {
-                embeddingStatement.setInt(1, projectId);
-                embeddingStatement.setInt(2, i);
-                embeddingStatement.setFloat(3, embeddings[i]);
-                embeddingStatement.addBatch();
+    /**
+     * Retrieves the content hash of a project's embedding.
+     *
+     * @param projectId the ID of the project.
+     * @return the content hash, or null if the project has no embedding.
+     */
+    public String getContentHash(int projectId) {
+        try {
+            return getContentHash(getConnection(), projectId);
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return null;
+    }
 
-                if (i % 1000 == 0 || i == embeddings.length - 1) { // Adjust batch size if necessary
-                    embeddingStatement.executeBatch();
+    /**
+     * Retrieves the content hash of a project's embedding on the given connection.
+     *
+     * @param connection the database connection.
+     * @param projectId  the ID of the project.
+     * @return the content hash, or null if the project has no embedding.
+     * @throws SQLException if the read fails.
+     */
+    private String getContentHash(Connection connection, int projectId) throws SQLException {
+        String sql = "SELECT ContentHash FROM ProjectEmbeddingHashes WHERE ProjectId = ?";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setInt(1, projectId);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("ContentHash");
                 }
             }
+        }
+        return null;
+    }
 
-            embeddingStatement.executeBatch();
-            connection.commit(); // Commit the transaction
-            connection.setAutoCommit(true); // Re-enable auto-commit
+    /**
+     * Retrieves the vector stored under a content hash.
+     *
+     * @param contentHash the content hash.
+     * @return the embeddings, or null if no vector is stored under the content hash.
+     */
+    public float[] getEmbeddingsByContentHash(String contentHash) {
+        String sql = "SELECT Embedding FROM EmbeddingVectors WHERE ContentHash = ?";
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, contentHash);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                if (rs.next()) {
+                    return decode(rs.getBytes("Embedding"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return null;
+    }
 
-            return true;
+    /**
+     * Retrieves the IDs of the projects whose embeddings are stored under a content hash.
+     *
+     * @param contentHash the content hash.
+     * @return the project IDs.
+     */
+    public ArrayList<Integer> getProjectIds(String contentHash) {
+        String sql = "SELECT ProjectId FROM ProjectEmbeddingHashes WHERE ContentHash = ?";
+        ArrayList<Integer> projectIds = new ArrayList<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, contentHash);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    projectIds.add(rs.getInt("ProjectId"));
+                }
+            }
         } catch (SQLException e) {
             System.err.println(e.getMessage());
-            try {
-                connection.rollback(); // Rollback the transaction
-            } catch (SQLException rollbackException) {
-                System.err.println(rollbackException.getMessage());
+        }
+        return projectIds;
+    }
+
+    /**
+     * Retrieves all project embeddings from the database.
+     *
+     * @return a HashMap where the keys are project IDs and the values are embeddings.
+     */
+    public HashMap<Integer, float[]> getAllEmbeddings() {
+        String sql = "SELECT p.ProjectId, v.Embedding FROM ProjectEmbeddingHashes p JOIN EmbeddingVectors v ON v.ContentHash = p.ContentHash";
+        HashMap<Integer, float[]> embeddingsMap = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                embeddingsMap.put(rs.getInt("ProjectId"), decode(rs.getBytes("Embedding")));
             }
-        } finally {
-            try {
-                connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return embeddingsMap;
+    }
+
+    /**
+     * Retrieves the embeddings of the given projects from the database.
+     *
+     * @param projectIds the IDs of the projects.
+     * @return a HashMap where the keys are project IDs and the values are embeddings.
+     */
+    public HashMap<Integer, float[]> getEmbeddings(int[] projectIds) {
+        HashMap<Integer, float[]> embeddingsMap = new HashMap<>();
+        Connection connection = getConnection();
+        for (int from = 0; from < projectIds.length; from += MAX_QUERY_PARAMETERS) {
+            int count = Math.min(MAX_QUERY_PARAMETERS, projectIds.length - from);
+            String sql = "SELECT p.ProjectId, v.Embedding FROM ProjectEmbeddingHashes p JOIN EmbeddingVectors v ON v.ContentHash = p.ContentHash WHERE p.ProjectId IN ("
+                    + "?,".repeat(count - 1) + "?)";
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < count; i++) {
+                    preparedStatement.setInt(i + 1, projectIds[from + i]);
+                }
+                try (ResultSet rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        embeddingsMap.put(rs.getInt("ProjectId"), decode(rs.getBytes("Embedding")));
+                    }
+                }
             } catch (SQLException e) {
                 System.err.println(e.getMessage());
             }
         }
-        return false;
+        return embeddingsMap;
     }
 
+    /**
+     * Deletes the vector stored under a content hash if no project links to it.
+     *
+     * @param connection  the database connection.
+     * @param contentHash the content hash.
+     * @throws SQLException if the delete fails.
+     */
+    private void deleteUnusedVector(Connection connection, String contentHash) throws SQLException {
+        String sql = "DELETE FROM EmbeddingVectors WHERE ContentHash = ? AND NOT EXISTS (SELECT 1 FROM ProjectEmbeddingHashes WHERE ContentHash = ?)";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, contentHash);
+            preparedStatement.setString(2, contentHash);
+            preparedStatement.executeUpdate();
+        }
+    }
 
     /**
-     * Removes embeddings for a project from the database.
+     * Returns the key an embedding is stored under when the content hash of its text is not known.
+     * No other project shares the key, so the embedding is never reused.
      *
      * @param projectId the ID of the project.
-     * @return true if the embeddings were removed successfully, false otherwise.
+     * @return the key of the project's own embedding.
      */
-    public boolean removeEmbeddings(int projectId) {
-        String deleteEmbeddingsSql = "DELETE FROM ProjectEmbeddings WHERE ProjectId = ?";
-        Connection connection = getConnection();
-        try (PreparedStatement deleteEmbeddingStatement = connection.prepareStatement(deleteEmbeddingsSql)) {
-            deleteEmbeddingStatement.setInt(1, projectId);
-            deleteEmbeddingStatement.executeUpdate();
-            return true;
+    public static String ownKey(int projectId) {
+        return "project:" + projectId;
+    }
+
+    /**
+     * Encodes embeddings as little-endian float32 values.
+     *
+     * @param embeddings the embeddings to encode.
+     * @return the encoded bytes.
+     */
+    static byte[] encode(float[] embeddings) {
+        ByteBuffer buffer = ByteBuffer.allocate(embeddings.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embeddings);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes little-endian float32 values into embeddings.
+     *
+     * @param bytes the encoded bytes.
+     * @return the embeddings.
+     */
+    static float[] decode(byte[] bytes) {
+        float[] embeddings = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embeddings);
+        return embeddings;
+    }
+
+    /**
+     * Converts the embeddings stored by older versions in the given table, then drops the table.
+     * Each embedding is keyed by a key of its own, since the model it was computed by is not known.
+     * Does nothing if the table does not exist.
+     *
+     * @param table the table used by older versions.
+     */
+    private void migrateOldEmbeddings(String table) {
+        Connection connection = getTransactionConnection();
+        synchronized (connection) {
+            try {
+                if (!tableExists(connection, table)) {
+                    return;
+                }
+                connection.setAutoCommit(false);
+                HashMap<Integer, float[]> oldEmbeddings = table.equals(LEGACY_TABLE)
+                        ? readLegacyEmbeddings(connection) : readBlobEmbeddings(connection);
+                String vectorSql = "INSERT OR IGNORE INTO EmbeddingVectors (ContentHash, Embedding) VALUES (?, ?)";
+                String projectHashSql = "INSERT OR IGNORE INTO ProjectEmbeddingHashes (ProjectId, ContentHash) VALUES (?, ?)";
+                try (PreparedStatement vectorStatement = connection.prepareStatement(vectorSql);
+                     PreparedStatement projectHashStatement = connection.prepareStatement(projectHashSql);
+                     Statement dropStatement = connection.createStatement()) {
+                    for (Map.Entry<Integer, float[]> data : oldEmbeddings.entrySet()) {
+                        String contentHash = ownKey(data.getKey());
+                        vectorStatement.setString(1, contentHash);
+                        vectorStatement.setBytes(2, encode(data.getValue()));
+                        vectorStatement.addBatch();
+                        projectHashStatement.setInt(1, data.getKey());
+                        projectHashStatement.setString(2, contentHash);
+                        projectHashStatement.addBatch();
+                    }
+                    vectorStatement.executeBatch();
+                    projectHashStatement.executeBatch();
+                    dropStatement.executeUpdate("DROP TABLE " + table);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                System.err.println(e.getMessage());
+                rollback(connection);
+            } finally {
+                restoreAutoCommit(connection);
+            }
+        }
+    }
+
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException rollbackException) {
+            System.err.println(rollbackException.getMessage());
+        }
+    }
+
+    private static void restoreAutoCommit(Connection connection) {
+        try {
+            connection.setAutoCommit(true);
         } catch (SQLException e) {
             System.err.println(e.getMessage());
         }
-        return false;
     }
 
     /**
-     * Retrieves all project embeddings from the database.
+     * Reads the embeddings stored one BLOB per project by older versions.
      *
+     * @param connection the database connection.
      * @return a HashMap where the keys are project IDs and the values are embeddings.
+     * @throws SQLException if the read fails.
      */
-    public HashMap<Integer, float[]> getAllEmbeddings() {
-        String sql = "SELECT ProjectId, EmbeddingIndex, EmbeddingValue FROM ProjectEmbeddings ORDER BY ProjectId, EmbeddingIndex";
+    private HashMap<Integer, float[]> readBlobEmbeddings(Connection connection) throws SQLException {
+        String sql = "SELECT ProjectId, Embedding FROM " + BLOB_TABLE;
+        HashMap<Integer, float[]> embeddingsMap = new HashMap<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                embeddingsMap.put(rs.getInt("ProjectId"), decode(rs.getBytes("Embedding")));
+            }
+        }
+        return embeddingsMap;
+    }
+
+    /**
+     * Reads the embeddings stored one value per row by older versions.
+     *
+     * @param connection the database connection.
+     * @return a HashMap where the keys are project IDs and the values are embeddings.
+     * @throws SQLException if the read fails.
+     */
+    private HashMap<Integer, float[]> readLegacyEmbeddings(Connection connection) throws SQLException {
+        String sql = "SELECT ProjectId, EmbeddingValue FROM " + LEGACY_TABLE + " ORDER BY ProjectId, EmbeddingIndex";
         HashMap<Integer, float[]> embeddingsMap = new HashMap<>();
-        Connection connection = getConnection();
         try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
              ResultSet rs = preparedStatement.executeQuery()) {
 
@@ -124,8 +426,6 @@ public class ProjectEmbeddingsManager extends SQLDatabaseManager {
 
             // add last project's embeddings to the map
             storeEmbedding(embeddingsMap, currentProjectId, currentEmbeddingList);
-        } catch (SQLException e) {
-            System.err.println(e.getMessage());
         }
         return embeddingsMap;
     }
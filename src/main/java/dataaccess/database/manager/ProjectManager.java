@@ -1,5 +1,9 @@
 package dataaccess.database.manager;
 
+import dataaccess.searchindex.KeywordIndex;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ScoredIds;
 import entities.Project;
 
 import java.sql.Connection;
@@ -7,12 +11,25 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.StringJoiner;
 
 /**
  * Manages project-related operations in the database.
+ * <p>
+ * The words of each project are also kept in the FTS5 full-text table {@value #SEARCH_TABLE}, with a row per
+ * project holding its title, description and space-separated tags. Triggers on the Projects table keep the title
+ * and description in sync, and {@link ProjectTagsManager} adds the triggers that keep the tags in sync.
+ * </p>
  */
 public class ProjectManager extends SQLDatabaseManager {
+    public static final String SEARCH_TABLE = "ProjectSearch";
+    // BM25 weights of the Title, Description and Tags columns, as in the local KeywordIndex
+    private static final String BM25 = "bm25(" + SEARCH_TABLE + ", " + KeywordIndex.TITLE_WEIGHT + ", "
+            + KeywordIndex.DESCRIPTION_WEIGHT + ", " + KeywordIndex.TAG_WEIGHT + ")";
 
     /**
      * Constructs a ProjectManager with the specified database name.
@@ -26,7 +43,18 @@ public class ProjectManager extends SQLDatabaseManager {
     @Override
     public void initialize() {
         String projectSql = "CREATE TABLE IF NOT EXISTS Projects (Id INTEGER PRIMARY KEY AUTOINCREMENT, Title TEXT NOT NULL, Budget DOUBLE, Description TEXT NOT NULL, OwnerId INTEGER NOT NULL, FOREIGN KEY(OwnerId) REFERENCES Users(Id))";
-        super.initializeTables(projectSql);
+        boolean isSearchIndexed = hasSearchTable();
+        String searchSql = "CREATE VIRTUAL TABLE IF NOT EXISTS " + SEARCH_TABLE + " USING fts5(Title, Description, Tags, tokenize = 'unicode61')";
+        String insertTriggerSql = "CREATE TRIGGER IF NOT EXISTS ProjectsSearchInsert AFTER INSERT ON Projects BEGIN"
+                + " INSERT INTO " + SEARCH_TABLE + " (rowid, Title, Description, Tags) VALUES (new.Id, new.Title, new.Description, ''); END";
+        String updateTriggerSql = "CREATE TRIGGER IF NOT EXISTS ProjectsSearchUpdate AFTER UPDATE OF Title, Description ON Projects BEGIN"
+                + " UPDATE " + SEARCH_TABLE + " SET Title = new.Title, Description = new.Description WHERE rowid = new.Id; END";
+        String deleteTriggerSql = "CREATE TRIGGER IF NOT EXISTS ProjectsSearchDelete AFTER DELETE ON Projects BEGIN"
+                + " DELETE FROM " + SEARCH_TABLE + " WHERE rowid = old.Id; END";
+        super.initializeTables(projectSql, searchSql, insertTriggerSql, updateTriggerSql, deleteTriggerSql);
+        if (!isSearchIndexed) {
+            rebuildSearchIndex();
+        }
     }
 
     /**
@@ -107,6 +135,28 @@ public class ProjectManager extends SQLDatabaseManager {
         return null;
     }
 
+    /**
+     * Retrieves every project from the database, without its tags.
+     *
+     * @return a map where the keys are the project ids and the values are the projects.
+     */
+    public HashMap<Integer, Project> getAllProjects() {
+        String sql = "SELECT Id, Title, Budget, Description FROM Projects";
+        HashMap<Integer, Project> projects = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                int projectId = rs.getInt("Id");
+                projects.put(projectId, new Project(projectId, rs.getString("Title"), rs.getDouble("Budget"),
+                        rs.getString("Description"), new HashSet<>()));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return projects;
+    }
+
     /**
      * Updates a project's information in the database.
      *
@@ -153,4 +203,217 @@ public class ProjectManager extends SQLDatabaseManager {
         }
         return -1;
     }
+
+    /**
+     * Retrieves the budget and owner of every project.
+     * Used to load the resident {@link ProjectAttributeIndex}.
+     *
+     * @return a map where the keys are the project ids and the values are their attributes.
+     */
+    public HashMap<Integer, ProjectAttributeIndex.Attributes> getAllAttributes() {
+        String sql = "SELECT Id, Budget, OwnerId FROM Projects";
+        HashMap<Integer, ProjectAttributeIndex.Attributes> attributes = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                attributes.put(rs.getInt("Id"),
+                        new ProjectAttributeIndex.Attributes(rs.getDouble("Budget"), rs.getInt("OwnerId")));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return attributes;
+    }
+
+    /**
+     * Retrieves the projects whose title, description or tags contain a keyword, ignoring case.
+     *
+     * @param keyword the keyword to search for.
+     * @return the matching projects, without their tags.
+     */
+    public HashSet<Project> getProjectsByKeyword(String keyword) {
+        String sql = "SELECT Id, Title, Budget, Description FROM Projects p WHERE Title LIKE ? ESCAPE '\\' OR Description LIKE ? ESCAPE '\\'"
+                + " OR EXISTS (SELECT 1 FROM ProjectTags t WHERE t.ProjectId = p.Id AND t.Tag LIKE ? ESCAPE '\\')";
+        String pattern = "%" + keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        HashSet<Project> projects = new HashSet<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, pattern);
+            preparedStatement.setString(2, pattern);
+            preparedStatement.setString(3, pattern);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    projects.add(new Project(rs.getInt("Id"), rs.getString("Title"), rs.getDouble("Budget"),
+                            rs.getString("Description"), new HashSet<>()));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return projects;
+    }
+
+    /**
+     * Finds the projects best matching the words of a query in their title, description or tags, ignoring case.
+     * A project matches if it contains at least one of the words, and the projects are ranked with bm25(),
+     * weighting the title and tags above the description.
+     *
+     * @param query the words to search for.
+     * @param k     the maximum number of projects to return.
+     * @return the ids of at most k projects and their BM25 scores, best first.
+     */
+    public ScoredIds searchProjects(String query, int k) {
+        return searchProjects(query, k, null);
+    }
+
+    /**
+     * Finds the projects best matching the words of a query among the given projects.
+     * The ids are passed to SQLite as a JSON array and the other projects are left out before the ranking is
+     * cut to k, so the result holds k projects whenever k of the given projects match.
+     *
+     * @param query      the words to search for.
+     * @param k          the maximum number of projects to return.
+     * @param projectIds the ids of the projects that may be returned, or null for every project.
+     * @return the ids of at most k of the projects and their BM25 scores, best first.
+     */
+    public ScoredIds searchProjects(String query, int k, ProjectIdBitmap projectIds) {
+        StringJoiner match = new StringJoiner(" OR ");
+        for (String word : new LinkedHashSet<>(KeywordIndex.tokenize(query))) {
+            match.add('"' + word + '"');
+        }
+        if (match.length() == 0 || k <= 0 || (projectIds != null && projectIds.isEmpty())) {
+            return ScoredIds.EMPTY;
+        }
+        String idFilter = projectIds == null ? "" : " AND rowid IN (SELECT value FROM json_each(?))";
+        String sql = "SELECT rowid, -" + BM25 + " AS Score FROM " + SEARCH_TABLE + " WHERE " + SEARCH_TABLE
+                + " MATCH ?" + idFilter + " ORDER BY " + BM25 + " LIMIT ?";
+        ArrayList<Integer> ids = new ArrayList<>();
+        ArrayList<Float> scores = new ArrayList<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            int parameter = 1;
+            preparedStatement.setString(parameter++, match.toString());
+            if (projectIds != null) {
+                StringJoiner idArray = new StringJoiner(",", "[", "]");
+                projectIds.forEach(projectId -> idArray.add(Integer.toString(projectId)));
+                preparedStatement.setString(parameter++, idArray.toString());
+            }
+            preparedStatement.setInt(parameter, k);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                    scores.add(rs.getFloat(2));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+            return ScoredIds.EMPTY;
+        }
+        int[] idArray = new int[ids.size()];
+        float[] scoreArray = new float[ids.size()];
+        for (int i = 0; i < idArray.length; i++) {
+            idArray[i] = ids.get(i);
+            scoreArray[i] = scores.get(i);
+        }
+        return new ScoredIds(idArray, scoreArray);
+    }
+
+    /**
+     * Rebuilds the full-text index from the Projects and ProjectTags tables in one transaction, on the transaction
+     * connection so that writes made meanwhile by other managers are not part of it.
+     * Used when the index is created for an existing database, and after bulk imports that bypassed it.
+     *
+     * @return true if the index was rebuilt, false otherwise.
+     */
+    public boolean rebuildSearchIndex() {
+        Connection connection = getTransactionConnection();
+        synchronized (connection) {
+            try {
+                String tagsSql = tableExists(connection, "ProjectTags")
+                        ? "COALESCE((SELECT group_concat(Tag, ' ') FROM ProjectTags t WHERE t.ProjectId = p.Id), '')" : "''";
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM " + SEARCH_TABLE);
+                    statement.executeUpdate("INSERT INTO " + SEARCH_TABLE + " (rowid, Title, Description, Tags)"
+                            + " SELECT p.Id, p.Title, p.Description, " + tagsSql + " FROM Projects p");
+                    statement.executeUpdate("INSERT INTO " + SEARCH_TABLE + " (" + SEARCH_TABLE + ") VALUES ('optimize')");
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    System.err.println(rollbackException.getMessage());
+                }
+                System.err.println(e.getMessage());
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges the segments of the full-text index incrementally, doing a bounded amount of work per call.
+     * Large imports can turn off automatic merging with {@link #setSearchIndexAutomerge(int)} and call this
+     * between batches, or until it returns false once the import is done.
+     *
+     * @param pages roughly the number of pages to write, e.g. 500.
+     * @return true if segments were merged, false if there was nothing left to merge or the merge failed.
+     */
+    public boolean mergeSearchIndex(int pages) {
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO " + SEARCH_TABLE + " (" + SEARCH_TABLE + ", rank) VALUES ('merge', ?)")) {
+            long changesBefore = totalChanges(connection);
+            preparedStatement.setInt(1, pages);
+            preparedStatement.executeUpdate();
+            // the merge command counts one change, plus at least one more if it wrote anything
+            return totalChanges(connection) - changesBefore >= 2;
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Sets how many segments of a level the full-text index lets accumulate before merging them on writes.
+     *
+     * @param segments the number of segments, from 2 to 16, or 0 to merge only when asked to.
+     * @return true if the setting was changed, false otherwise.
+     */
+    public boolean setSearchIndexAutomerge(int segments) {
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO " + SEARCH_TABLE + " (" + SEARCH_TABLE + ", rank) VALUES ('automerge', ?)")) {
+            preparedStatement.setInt(1, segments);
+            preparedStatement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return false;
+    }
+
+    private boolean hasSearchTable() {
+        try {
+            return tableExists(getConnection(), SEARCH_TABLE);
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+    }
+
+    private static long totalChanges(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT total_changes()")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
 }
@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -20,10 +21,16 @@ public class ProjectTagsManager extends SQLDatabaseManager {
         super(databaseName);
     }
 
+    /**
+     * Creates the ProjectTags table, and the triggers that keep the tags in the full-text table of
+     * {@link ProjectManager} in sync. The ProjectManager must be initialized first.
+     */
     @Override
     public void initialize() {
         String projectTagsSql = "CREATE TABLE IF NOT EXISTS ProjectTags (ProjectId INTEGER NOT NULL, Tag TEXT NOT NULL, PRIMARY KEY(ProjectId, Tag), FOREIGN KEY(ProjectId) REFERENCES Projects(Id))";
-        super.initializeTables(projectTagsSql);
+        super.initializeTables(projectTagsSql,
+                searchTriggerSql("ProjectTagsSearchInsert", "INSERT", "new"),
+                searchTriggerSql("ProjectTagsSearchDelete", "DELETE", "old"));
     }
 
     /**
@@ -75,6 +82,30 @@ public class ProjectTagsManager extends SQLDatabaseManager {
         return tags;
     }
 
+    /**
+     * Retrieves the tags of every project from the database.
+     *
+     * @return a HashMap where the keys are project IDs and the values are their tags, empty for projects without tags.
+     */
+    public HashMap<Integer, HashSet<String>> getAllTags() {
+        String sql = "SELECT p.Id, t.Tag FROM Projects p LEFT JOIN ProjectTags t ON t.ProjectId = p.Id";
+        HashMap<Integer, HashSet<String>> tags = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                HashSet<String> projectTags = tags.computeIfAbsent(rs.getInt(1), projectId -> new HashSet<>());
+                String tag = rs.getString(2);
+                if (tag != null) {
+                    projectTags.add(tag);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return tags;
+    }
+
     /**
      * Helper method to execute tag updates (add/remove) in the database.
      *
@@ -98,4 +129,19 @@ public class ProjectTagsManager extends SQLDatabaseManager {
         }
         return false;
     }
+
+    /**
+     * Returns the statement creating a trigger that copies the tags of a project to the full-text table
+     * after a tag of the project is inserted or deleted.
+     *
+     * @param name  the name of the trigger.
+     * @param event INSERT or DELETE.
+     * @param row   the row of the changed tag, new or old.
+     * @return the SQL statement.
+     */
+    private static String searchTriggerSql(String name, String event, String row) {
+        return "CREATE TRIGGER IF NOT EXISTS " + name + " AFTER " + event + " ON ProjectTags BEGIN"
+                + " UPDATE " + ProjectManager.SEARCH_TABLE + " SET Tags = COALESCE((SELECT group_concat(Tag, ' ') FROM ProjectTags"
+                + " WHERE ProjectId = " + row + ".ProjectId), '') WHERE rowid = " + row + ".ProjectId; END";
+    }
 }
@@ -4,6 +4,8 @@ import dataaccess.Database;
 import dataaccess.database.manager.DatabaseConnection;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
 
@@ -48,6 +50,18 @@ public abstract class SQLDatabaseManager implements Database {
         return DatabaseConnection.getInstance(this.DATABASE_NAME).getConnection();
     }
 
+    /**
+     * Getter method for the connection used by writes that span a transaction. The connection returned by
+     * {@link #getConnection()} is shared by every manager, so a transaction opened on it would also commit or roll
+     * back the writes other managers make meanwhile. Callers synchronize on this connection while the transaction
+     * is open.
+     *
+     * @return the connection for transactions.
+     */
+    protected Connection getTransactionConnection() {
+        return DatabaseConnection.getInstance(this.DATABASE_NAME).getTransactionConnection();
+    }
+
     /**
      * Initializes the database with the required tables if they do not already exist.
      */
@@ -91,4 +105,22 @@ public abstract class SQLDatabaseManager implements Database {
             }
         }
     }
+
+    /**
+     * Checks whether the database has a table.
+     *
+     * @param connection the database connection.
+     * @param table      the name of the table.
+     * @return true if the table exists, false otherwise.
+     * @throws SQLException if the check fails.
+     */
+    protected boolean tableExists(Connection connection, String table) throws SQLException {
+        String sql = "SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?";
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, table);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
 }
@@ -7,6 +7,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -124,6 +125,29 @@ public class UserManager extends SQLDatabaseManager {
         return null;
     }
 
+    /**
+     * Retrieves every user from the database, without their tags.
+     *
+     * @return a HashMap where the keys are the user IDs and the values are the users.
+     */
+    public HashMap<Integer, User> getAllUsers() {
+        String sql = "SELECT Id, FirstName, LastName, Email, DesiredCompensation FROM Users";
+        HashMap<Integer, User> users = new HashMap<>();
+        Connection connection = super.getConnection();
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                int userId = rs.getInt("Id");
+                users.put(userId, new User(userId, rs.getString("FirstName"), rs.getString("LastName"),
+                        rs.getString("Email"), new HashSet<>(), rs.getDouble("DesiredCompensation")));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return users;
+    }
+
     /**
      * Updates a user's information in the database.
      *
@@ -1,6 +1,7 @@
 package dataaccess.database.manager;
 
 import java.sql.*;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -152,6 +153,27 @@ public class UserProjectsManager extends SQLDatabaseManager {
         return userIds;
     }
 
+    /**
+     * Retrieves the user Ids of every project.
+     *
+     * @return A map where the keys are project IDs and the values are the IDs of the users associated with them.
+     */
+    public HashMap<Integer, HashSet<Integer>> getAllUserIds() {
+        String sql = "SELECT UserId, ProjectId FROM UserProjects";
+        HashMap<Integer, HashSet<Integer>> userIds = new HashMap<>();
+        Connection connection = super.getConnection();
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                userIds.computeIfAbsent(rs.getInt("ProjectId"), projectId -> new HashSet<>()).add(rs.getInt("UserId"));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return userIds;
+    }
+
     /** Executes an update query for the UserProjects table.
      *
      * @param userId the ID of the user.
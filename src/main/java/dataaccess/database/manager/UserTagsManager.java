@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -77,6 +78,27 @@ public class UserTagsManager extends SQLDatabaseManager {
         return tags;
     }
 
+    /**
+     * Retrieves the tags of every user from the database.
+     *
+     * @return a HashMap where the keys are user IDs and the values are their tags; users without tags are left out.
+     */
+    public HashMap<Integer, HashSet<String>> getAllTags() {
+        String sql = "SELECT UserId, Tag FROM UserTags";
+        HashMap<Integer, HashSet<String>> tags = new HashMap<>();
+
+        Connection connection = super.getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                tags.computeIfAbsent(rs.getInt("UserId"), userId -> new HashSet<>()).add(rs.getString("Tag"));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return tags;
+    }
+
     /**
      * Helper method to execute tag updates (add/remove) in the database.
      *
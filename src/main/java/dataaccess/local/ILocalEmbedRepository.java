@@ -16,6 +16,16 @@ public interface ILocalEmbedRepository {
      */
     void saveEmbedData(float[] embedding, int id);
 
+    /**
+     * Saves an embedding for a project together with the content hash of the text it was computed from.
+     *
+     * @param embedding the embedding of the project; an empty embedding clears the content hash
+     * @param contentHash the content hash of the embedded text, computed by {@link api.embeddingapi.ContentHash}
+     * @param id the id of the project
+     * @throws IllegalArgumentException if the content hash is not a hex-encoded SHA-256 hash
+     */
+    void saveEmbedData(float[] embedding, String contentHash, int id);
+
     /**
      * Saves an embedding for a project.
      *
@@ -39,6 +49,22 @@ public interface ILocalEmbedRepository {
      */
     float[] getEmbedData(int id);
 
+    /**
+     * Retrieves the content hash of the text a project's embedding was computed from.
+     *
+     * @param id the id of the project
+     * @return the content hash, or null if it is not known
+     */
+    String getContentHash(int id);
+
+    /**
+     * Retrieves an embedding stored for any project under the given content hash.
+     *
+     * @param contentHash the content hash of the embedded text
+     * @return the embedding, or null if no project has an embedding with this content hash
+     */
+    float[] getEmbedDataByContentHash(String contentHash);
+
     /**
      * Retrieves all embeddings and their associated project ids.
      *
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Local implementation of the IApplicationRepository interface.
@@ -26,6 +27,7 @@ public class LocalApplicationRepository implements IApplicationRepository {
     private final String FILE_PATH;
     private final String[] header = {"sender", "projectId", "text", "pdfBytes"};
     private final HashMap<Integer, ArrayList<ApplicationInterface>> applications = new HashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs a LocalApplicationRepository with the specified file path.
@@ -126,6 +128,23 @@ public class LocalApplicationRepository implements IApplicationRepository {
         return projectApplications;
     }
 
+    /**
+     * Retrieves the IDs of the users who applied to each project.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the IDs of their applicants
+     */
+    @Override
+    public HashMap<Integer, HashSet<Integer>> getAllApplicantIds() {
+        HashMap<Integer, HashSet<Integer>> applicantIds = new HashMap<>();
+        for (ArrayList<ApplicationInterface> projectApplications : applications.values()) {
+            for (ApplicationInterface application : projectApplications) {
+                applicantIds.computeIfAbsent(application.getProjectId(), projectId -> new HashSet<>())
+                        .add(application.getSenderUserId());
+            }
+        }
+        return applicantIds;
+    }
+
     /**
      * Deletes an application for a specific user and project.
      *
@@ -145,10 +164,21 @@ public class LocalApplicationRepository implements IApplicationRepository {
         return false;
     }
 
+    /**
+     * Returns the version of the application data, incremented every time the applications are saved.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Saves the applications to a CSV file.
      */
     private void saveToCSV() {
+        dataVersion.incrementAndGet(); // every write saves the applications
         CSVWriter writer;
 
         try {
@@ -2,47 +2,72 @@ package dataaccess.local;
 
 import api.embeddingapi.EmbeddingAPIInterface;
 import com.opencsv.CSVReader;
-import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 /**
  * Local implementation of the ILocalEmbedRepository interface.
- * Manages embedding data using CSV files for storage.
+ * Stores the embeddings in a memory-mapped binary file with one fixed-size record per project,
+ * so saving or removing an embedding only writes its own record and opening the repository does not parse them.
+ * Embeddings saved by older versions in embeds.csv are converted on first use.
+ * <p>
+ * Searches do not read this repository: they score the resident {@link dataaccess.searchindex.ProjectVectorIndex}
+ * of the project repository, which is filled from {@link #getAllEmbeddings()} once at startup and then kept up to
+ * date by every write. The index needs rows that never change under a running search, while the records here are
+ * overwritten in place.
+ * </p>
+ * <p>
+ * The content hash of the text each embedding was computed from is kept in the embedding's record, so that an
+ * embedding can be reused for an identical text instead of asking the embedding API again. Content hashes saved
+ * by older versions in embed_hashes.csv are moved into the records on first use.
+ * </p>
  */
 public class LocalEmbedRepository implements ILocalEmbedRepository {
 
-    private final String FILE_PATH;
+    private final String CSV_PATH;
     private final EmbeddingAPIInterface embeddingAPI;
-    private final HashMap<Integer, float[]> embeddings = new HashMap<>();
-    private final String[] header = {"projectId", "embedding"};
+    private final MappedEmbeddingStore store;
+    private final String HASHES_PATH;
+    private final HashMap<Integer, String> contentHashes = new HashMap<>();
+    private final HashMap<String, HashSet<Integer>> projectsByContentHash = new HashMap<>();
 
     /**
      * Creates a new LocalEmbedRepository with the given path as the save location.
-     * Reads the embeddings from the CSV file if it exists.
+     * Opens the embedding files if they exist, or converts the CSV file of older versions if it exists.
      *
-     * @param path the folder of the CSV file
+     * @param path the folder of the embedding files
      */
     public LocalEmbedRepository(String path, EmbeddingAPIInterface embeddingAPI) {
         this.embeddingAPI = embeddingAPI;
-        FILE_PATH = path + "embeds.csv";
-        File f = new File(FILE_PATH);
-        File parent = f.getParentFile();
+        CSV_PATH = path + "embeds.csv";
+        HASHES_PATH = path + "embed_hashes.csv";
+        File index = new File(path + "embeds.idx");
+        File parent = index.getParentFile();
         try {
             Files.createDirectories(parent.toPath());
+            store = new MappedEmbeddingStore(index.toPath(), new File(path + "embeds.bin").toPath());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        if (f.exists() && !f.isDirectory()) {
-            readFromCSV();
+        File csv = new File(CSV_PATH);
+        if (store.isNew() && csv.exists() && !csv.isDirectory()) {
+            migrateFromCSV();
+        }
+        for (Map.Entry<Integer, String> entry : store.getContentHashes().entrySet()) {
+            setContentHash(entry.getKey(), entry.getValue());
+        }
+        File hashes = new File(HASHES_PATH);
+        if (hashes.exists() && !hashes.isDirectory()) {
+            migrateHashesFromCSV();
         }
     }
 
@@ -54,8 +79,25 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
      */
     @Override
     public void saveEmbedData(float[] embedding, int id) {
-        embeddings.put(id, embedding);
-        saveToCSV();
+        saveEmbedData(embedding, null, id); // the embedding no longer matches the recorded text
+    }
+
+    /**
+     * Saves an embedding for a project together with the content hash of the text it was computed from.
+     *
+     * @param embedding the embedding of the project; an empty embedding clears the content hash
+     * @param contentHash the content hash of the embedded text, or null if it is not known
+     * @param id the id of the project
+     */
+    @Override
+    public void saveEmbedData(float[] embedding, String contentHash, int id) {
+        String recordedHash = embedding.length == 0 ? null : contentHash;
+        try {
+            store.put(id, embedding, recordedHash);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        setContentHash(id, recordedHash);
     }
 
     /**
@@ -66,8 +108,7 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
      */
     @Override
     public void saveEmbedData(String data, int id) {
-        embeddings.put(id, embeddingAPI.getEmbedData(data));
-        saveToCSV();
+        saveEmbedData(embeddingAPI.getEmbedData(data), id);
     }
 
     /**
@@ -77,8 +118,8 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
      */
     @Override
     public void removeEmbedData(int id) {
-        embeddings.remove(id);
-        saveToCSV();
+        store.remove(id);
+        setContentHash(id, null);
     }
 
     /**
@@ -89,52 +130,129 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
      */
     @Override
     public float[] getEmbedData(int id) {
-        return embeddings.get(id);
+        return store.get(id);
+    }
+
+    /**
+     * Retrieves the content hash of the text a project's embedding was computed from.
+     *
+     * @param id the id of the project
+     * @return the content hash, or null if it is not known
+     */
+    @Override
+    public synchronized String getContentHash(int id) {
+        return contentHashes.get(id);
+    }
+
+    /**
+     * Retrieves an embedding stored for any project under the given content hash.
+     *
+     * @param contentHash the content hash of the embedded text
+     * @return the embedding, or null if no project has an embedding with this content hash
+     */
+    @Override
+    public float[] getEmbedDataByContentHash(String contentHash) {
+        HashSet<Integer> ids;
+        synchronized (this) {
+            ids = projectsByContentHash.get(contentHash);
+            if (ids == null) {
+                return null;
+            }
+            ids = new HashSet<>(ids);
+        }
+        for (int id : ids) {
+            float[] embedding = store.get(id);
+            if (embedding != null && embedding.length > 0) {
+                return embedding;
+            }
+        }
+        return null;
     }
 
     /**
      * Retrieves all embeddings and their associated project ids.
      *
-     * @return a hashmap where the key is the project id and the value is the embedding
+     * @return a hashmap where the key is the project id and the value is a copy of the embedding
      */
     @Override
     public HashMap<Integer, float[]> getAllEmbeddings() {
-        return embeddings;
+        return store.getAll();
+    }
+
+    /**
+     * Records the content hash of a project's embedding.
+     *
+     * @param id the id of the project
+     * @param contentHash the content hash, or null to forget it
+     */
+    private synchronized void setContentHash(int id, String contentHash) {
+        String previous = contentHash == null ? contentHashes.remove(id) : contentHashes.put(id, contentHash);
+        if (contentHash == null ? previous == null : contentHash.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            HashSet<Integer> ids = projectsByContentHash.get(previous);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                projectsByContentHash.remove(previous);
+            }
+        }
+        if (contentHash != null) {
+            projectsByContentHash.computeIfAbsent(contentHash, key -> new HashSet<>()).add(id);
+        }
     }
 
     /**
-     * Saves the embeddings to a CSV file.
+     * Moves the content hashes of the CSV file used by older versions into the embedding records,
+     * then renames the CSV file so that it is not read again.
+     * Content hashes of projects without an embedding, and content hashes that are not SHA-256 hashes, are dropped.
      */
-    private void saveToCSV() {
-        CSVWriter writer;
+    private void migrateHashesFromCSV() {
+        CSVReader reader;
 
         try {
-            writer = new CSVWriter(new FileWriter(FILE_PATH));
+            reader = new CSVReader(new FileReader(HASHES_PATH));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        writer.writeNext(header);
-        for (Map.Entry<Integer, float[]> data : embeddings.entrySet()) {
-            String[] row = {String.valueOf(data.getKey()), Arrays.toString(data.getValue())};
-            writer.writeNext(row);
+        String[] line;
+        try {
+            reader.readNext();
+            while ((line = reader.readNext()) != null) {
+                int projectId = Integer.parseInt(line[0]);
+                float[] embedding = store.get(projectId);
+                if (embedding != null && embedding.length > 0) {
+                    try {
+                        saveEmbedData(embedding, line[1], projectId);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Content hash of project " + projectId + " dropped: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException | CsvValidationException e) {
+            throw new RuntimeException(e);
         }
 
         try {
-            writer.close();
+            reader.close();
+            Files.move(new File(HASHES_PATH).toPath(), new File(HASHES_PATH + ".bak").toPath(), StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Loads the embeddings from a CSV file.
+     * Converts the embeddings of the CSV file used by older versions,
+     * then renames the CSV file so that it is not converted again.
      */
-    private void readFromCSV() {
+    private void migrateFromCSV() {
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        int dimension = 0;
         CSVReader reader;
 
         try {
-            reader = new CSVReader(new FileReader(FILE_PATH));
+            reader = new CSVReader(new FileReader(CSV_PATH));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -150,6 +268,7 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
                     floatArray[i] = embedding[i];
                 }
                 embeddings.put(projectId, floatArray);
+                dimension = Math.max(dimension, floatArray.length);
             }
         } catch (IOException | CsvValidationException e) {
             throw new RuntimeException(e);
@@ -160,5 +279,12 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+
+        try {
+            store.rewrite(embeddings, new HashMap<>(), dimension);
+            Files.move(new File(CSV_PATH).toPath(), new File(CSV_PATH + ".bak").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
-}
\ No newline at end of file
+}
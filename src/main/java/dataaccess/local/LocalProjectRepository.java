@@ -4,6 +4,12 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 import dataaccess.IProjectRepository;
+import dataaccess.searchindex.KeywordIndex;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.TagIndex;
 import entities.Project;
 import entities.ProjectInterface;
 
@@ -15,19 +21,32 @@ import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * Local implementation of the IProjectRepository interface.
  * Manages project data using CSV files for storage.
+ * <p>
+ * The project map, the owners and the resident indexes are written together under the lock of the repository,
+ * and the project map is only read under it, so {@link #updateEmbedding}, which the embedding pipeline calls
+ * from its worker threads, can run while the event thread creates, edits or deletes projects. The embedding
+ * lookups the pipeline makes, {@link #getContentHash} and {@link #getEmbeddingByContentHash}, go to the embedding
+ * repository, which has its own lock, and the searches read indexes that synchronize themselves.
+ * </p>
  */
 public class LocalProjectRepository implements IProjectRepository {
 
     private final ILocalEmbedRepository embedDataAccess;
+    private final ProjectVectorIndex vectorIndex;
+    private final KeywordIndex keywordIndex = new KeywordIndex();
+    private final TagIndex tagIndex = new TagIndex();
+    private final ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(tagIndex);
     private final String FILE_PATH;
     private final String[] header = {"projectId", "projectTitle", "projectBudget", "projectDescription", "projectTags", "projectOwner"};
     private final HashMap<Integer, ProjectInterface> projects = new HashMap<>();
     private final HashMap<Integer, Integer> projectOwners = new HashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
     private int maxId = 0;
 
     /**
@@ -39,6 +58,7 @@ public class LocalProjectRepository implements IProjectRepository {
     public LocalProjectRepository(String path, ILocalEmbedRepository embedDataAccess) {
         FILE_PATH = path + "projects.csv";
         this.embedDataAccess = embedDataAccess;
+        this.vectorIndex = new ProjectVectorIndex(embedDataAccess::getAllEmbeddings);
         File f = new File(FILE_PATH);
         File parent = f.getParentFile();
         try {
@@ -100,6 +120,9 @@ public class LocalProjectRepository implements IProjectRepository {
                 ProjectInterface project = new Project(projectId, projectTitle, projectBudget, projectDescription, projectTags);
                 projectOwners.put(projectId, Integer.valueOf(line[5]));
                 projects.put(projectId, project);
+                keywordIndex.put(projectId, projectTitle, projectDescription, projectTags);
+                tagIndex.put(projectId, projectTags);
+                attributeIndex.put(projectId, projectBudget, projectOwners.get(projectId));
                 maxId = Math.max(maxId, projectId);
             }
         } catch (IOException | CsvValidationException e) {
@@ -138,23 +161,30 @@ public class LocalProjectRepository implements IProjectRepository {
      * @param description the description of the project
      * @param tags the tags associated with the project
      * @param embeddings the embeddings of the project
+     * @param contentHash the content hash of the embedded text, or null if it is not known
      * @param ownerId the ID of the owner of the project
      * @return the created Project object
      */
     @Override
-    public Project createProject(String title,
+    public synchronized Project createProject(String title,
                                  double budget,
                                  String description,
                                  HashSet<String> tags,
                                  float[] embeddings,
+                                 String contentHash,
                                  int ownerId) {
         int projectId = maxId + 1;
         Project project = new Project(projectId, title, budget, description, tags);
         projects.put(projectId, project);
         projectOwners.put(projectId, ownerId);
-        embedDataAccess.saveEmbedData(embeddings, projectId);
+        keywordIndex.put(projectId, title, description, tags);
+        tagIndex.put(projectId, tags);
+        attributeIndex.put(projectId, budget, ownerId);
+        embedDataAccess.saveEmbedData(embeddings, contentHash, projectId);
+        vectorIndex.put(projectId, embeddings);
         saveToCSV();
         maxId++;
+        dataVersion.incrementAndGet();
         return project;
     }
 
@@ -165,13 +195,18 @@ public class LocalProjectRepository implements IProjectRepository {
      * @return true if the project was successfully deleted, false otherwise
      */
     @Override
-    public boolean deleteProject(int projectId) {
+    public synchronized boolean deleteProject(int projectId) {
         if (!projects.containsKey(projectId)) {
             return false;
         }
         projects.remove(projectId);
+        keywordIndex.remove(projectId);
+        tagIndex.remove(projectId);
+        attributeIndex.remove(projectId);
         embedDataAccess.removeEmbedData(projectId);
+        vectorIndex.remove(projectId);
         saveToCSV();
+        dataVersion.incrementAndGet();
         return true;
     }
 
@@ -182,13 +217,27 @@ public class LocalProjectRepository implements IProjectRepository {
      * @return the Project object, or null if no project is found
      */
     @Override
-    public Project getProjectById(int projectId) {
+    public synchronized Project getProjectById(int projectId) {
         if (projects.containsKey(projectId)) {
             return (Project) projects.get(projectId);
         }
         return null;
     }
 
+    /**
+     * Gets every project.
+     *
+     * @return a map where the keys are the project ids and the values are the projects
+     */
+    @Override
+    public synchronized HashMap<Integer, Project> getAllProjects() {
+        HashMap<Integer, Project> allProjects = new HashMap<>();
+        for (ProjectInterface project : projects.values()) {
+            allProjects.put(project.getProjectId(), (Project) project);
+        }
+        return allProjects;
+    }
+
     /**
      * Adds tags to a project.
      *
@@ -197,7 +246,7 @@ public class LocalProjectRepository implements IProjectRepository {
      * @return true if the tags were successfully added, false otherwise
      */
     @Override
-    public boolean addTags(int projectId, HashSet<String> tags) {
+    public synchronized boolean addTags(int projectId, HashSet<String> tags) {
         ProjectInterface project = getProjectById(projectId);
         if (project == null) {
             return false;
@@ -209,7 +258,8 @@ public class LocalProjectRepository implements IProjectRepository {
                 project.getProjectBudget(),
                 project.getProjectDescription(),
                 currentTags,
-                embedDataAccess.getEmbedData(projectId));
+                null,
+                null);
 
         return true;
     }
@@ -222,7 +272,7 @@ public class LocalProjectRepository implements IProjectRepository {
      * @return true if the tags were successfully removed, false otherwise
      */
     @Override
-    public boolean removeTags(int projectId, HashSet<String> tags) {
+    public synchronized boolean removeTags(int projectId, HashSet<String> tags) {
         ProjectInterface project = getProjectById(projectId);
         if (project == null) {
             return false;
@@ -234,7 +284,8 @@ public class LocalProjectRepository implements IProjectRepository {
                 project.getProjectBudget(),
                 project.getProjectDescription(),
                 currentTags,
-                embedDataAccess.getEmbedData(projectId));
+                null,
+                null);
 
         return true;
     }
@@ -246,7 +297,7 @@ public class LocalProjectRepository implements IProjectRepository {
      * @return a HashSet of Project objects that match the keyword
      */
     @Override
-    public HashSet<Project> getProjectsByKeyword(String keyword) {
+    public synchronized HashSet<Project> getProjectsByKeyword(String keyword) {
         HashSet<Project> results = new HashSet<>();
         for (ProjectInterface project : projects.values()) {
             if (projectHasKeyword(project, keyword)) {
@@ -256,6 +307,34 @@ public class LocalProjectRepository implements IProjectRepository {
         return results;
     }
 
+    /**
+     * Finds the projects best matching the words of a query, ranked by BM25.
+     * Uses an inverted index kept up to date by this repository's writes, so only projects containing one of
+     * the words are visited.
+     *
+     * @param query the words to search for
+     * @param k the maximum number of projects to return
+     * @return the ids of at most k projects and their BM25 scores, most relevant first
+     */
+    @Override
+    public ScoredIds searchProjectsByKeyword(String query, int k) {
+        return keywordIndex.search(query, k);
+    }
+
+    /**
+     * Finds the projects best matching the words of a query among the given projects, ranked by BM25.
+     * The other projects are skipped while the inverted index is read.
+     *
+     * @param query the words to search for
+     * @param k the maximum number of projects to return
+     * @param projectIds the ids of the projects that may be returned
+     * @return the ids of at most k of the given projects and their BM25 scores, most relevant first
+     */
+    @Override
+    public ScoredIds searchProjectsByKeyword(String query, int k, ProjectIdBitmap projectIds) {
+        return keywordIndex.search(query, k, projectIds);
+    }
+
     /**
      * Checks if a project has a keyword in its title, description, or tags.
      *
@@ -286,27 +365,78 @@ public class LocalProjectRepository implements IProjectRepository {
      * @param budget the new budget of the project
      * @param description the new description of the project
      * @param tags the new tags of the project
-     * @param embeddings the new embeddings of the project
+     * @param embeddings the new embeddings of the project, or null to keep the stored ones
+     * @param contentHash the content hash of the embedded text, or null if it is not known
      * @return true if the project was successfully updated, false otherwise
      */
     @Override
-    public boolean update(int projectId,
+    public synchronized boolean update(int projectId,
                           String title,
                           double budget,
                           String description,
                           HashSet<String> tags,
-                          float[] embeddings) {
+                          float[] embeddings,
+                          String contentHash) {
         ProjectInterface editProject = getProjectById(projectId);
         editProject.setProjectTitle(title);
         editProject.setProjectBudget(budget);
         editProject.setProjectDescription(description);
         editProject.setProjectTags(tags);
-        embedDataAccess.saveEmbedData(embeddings, editProject.getProjectId());
+        keywordIndex.put(projectId, title, description, tags);
+        tagIndex.put(projectId, tags);
+        attributeIndex.setBudget(projectId, budget);
+        if (embeddings != null) {
+            embedDataAccess.saveEmbedData(embeddings, contentHash, projectId);
+            vectorIndex.put(projectId, embeddings);
+        }
         saveToCSV();
+        dataVersion.incrementAndGet();
 
         return true;
     }
 
+    /**
+     * Replaces the embedding of a project. The projects CSV file is left as is, since it holds no embeddings.
+     * Safe to call from any thread, as the embedding pipeline does.
+     *
+     * @param projectId the ID of the project
+     * @param contentHash the content hash of the embedded text
+     * @param embedding the new embedding; an empty embedding marks the project as not embedded
+     * @return true if the project exists, false otherwise
+     */
+    @Override
+    public synchronized boolean updateEmbedding(int projectId, String contentHash, float[] embedding) {
+        if (!projects.containsKey(projectId)) {
+            return false;
+        }
+        embedDataAccess.saveEmbedData(embedding, contentHash, projectId);
+        vectorIndex.put(projectId, embedding);
+        dataVersion.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Retrieves the content hash of the text a project's embedding was computed from.
+     *
+     * @param projectId the ID of the project
+     * @return the content hash, or null if it is not known
+     */
+    @Override
+    public String getContentHash(int projectId) {
+        return embedDataAccess.getContentHash(projectId);
+    }
+
+    /**
+     * Retrieves an embedding stored for any project under the given content hash.
+     *
+     * @param contentHash the content hash of the embedded text
+     * @return the embedding, or null if no project has an embedding with this content hash
+     */
+    @Override
+    public float[] getEmbeddingByContentHash(String contentHash) {
+        return embedDataAccess.getEmbedDataByContentHash(contentHash);
+    }
+
     /**
      * Retrieves all embeddings and their associated project IDs.
      *
@@ -317,6 +447,67 @@ public class LocalProjectRepository implements IProjectRepository {
         return embedDataAccess.getAllEmbeddings();
     }
 
+    /**
+     * Retrieves the embeddings of the given projects.
+     *
+     * @param projectIds the IDs of the projects
+     * @return a hashmap where the key is the project ID and the value is the embedding
+     */
+    @Override
+    public HashMap<Integer, float[]> getEmbeddings(int[] projectIds) {
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        for (int projectId : projectIds) {
+            float[] embedding = embedDataAccess.getEmbedData(projectId);
+            if (embedding != null) {
+                embeddings.put(projectId, embedding);
+            }
+        }
+        return embeddings;
+    }
+
+    /**
+     * Returns the resident vector index of the project embeddings.
+     * It is loaded from the embedding repository once and then updated by this repository's writes.
+     *
+     * @return the vector index
+     */
+    @Override
+    public ProjectVectorIndex getVectorIndex() {
+        return vectorIndex;
+    }
+
+    /**
+     * Returns the resident index of the project tags.
+     * It is filled as the projects are read and then updated by this repository's writes.
+     *
+     * @return the tag index
+     */
+    @Override
+    public TagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    /**
+     * Returns the resident index of the project budgets and owners.
+     * It is filled as the projects are read and then updated by this repository's writes.
+     *
+     * @return the attribute index
+     */
+    @Override
+    public ProjectAttributeIndex getAttributeIndex() {
+        return attributeIndex;
+    }
+
+    /**
+     * Returns the version of the project data, incremented by every write of this repository.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Retrieves the owner ID of a project.
      *
@@ -324,7 +515,7 @@ public class LocalProjectRepository implements IProjectRepository {
      * @return the owner ID, or 0 if no owner is found
      */
     @Override
-    public int getOwnerId(int projectId) {
+    public synchronized int getOwnerId(int projectId) {
         if (projectOwners.containsKey(projectId)) {
             return projectOwners.get(projectId);
         }
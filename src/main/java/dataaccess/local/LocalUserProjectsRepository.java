@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +25,7 @@ public class LocalUserProjectsRepository implements IUserProjectsRepository {
     private final String[] header = {"userID", "projectID"};
     private final HashMap<Integer, HashSet<Integer>> userProjects = new HashMap<>();
     private final HashMap<Integer, HashSet<Integer>> projectUsers = new HashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs a LocalUserProjectsRepository with the specified file path.
@@ -47,6 +49,7 @@ public class LocalUserProjectsRepository implements IUserProjectsRepository {
      * Saves the user-project associations to a CSV file.
      */
     private void saveToCSV() {
+        dataVersion.incrementAndGet(); // every write saves the associations
         CSVWriter writer;
 
         try {
@@ -194,4 +197,28 @@ public class LocalUserProjectsRepository implements IUserProjectsRepository {
     public HashSet<Integer> getUserIdsForProject(int projectId) {
         return projectUsers.get(projectId);
     }
+
+    /**
+     * Retrieves the user IDs of every project.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the IDs of their users
+     */
+    @Override
+    public HashMap<Integer, HashSet<Integer>> getAllUserIds() {
+        HashMap<Integer, HashSet<Integer>> userIds = new HashMap<>();
+        for (int projectId : projectUsers.keySet()) {
+            userIds.put(projectId, new HashSet<>(projectUsers.get(projectId)));
+        }
+        return userIds;
+    }
+
+    /**
+     * Returns the version of the user-project associations, incremented every time they are saved.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
 }
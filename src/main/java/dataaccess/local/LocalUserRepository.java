@@ -16,6 +16,7 @@ import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Local implementation of the IUserRepository interface.
@@ -27,6 +28,7 @@ public class LocalUserRepository implements IUserRepository {
     private final HashMap<Integer, UserInterface> users = new HashMap<>();
     private final HashMap<Integer, String> userPasswords = new HashMap<>();
     private int maxId = 0;
+    private final AtomicLong dataVersion = new AtomicLong();
 
     /**
      * Constructs a LocalUserRepository with the specified file path.
@@ -98,6 +100,20 @@ public class LocalUserRepository implements IUserRepository {
         return null;
     }
 
+    /**
+     * Retrieves every user.
+     *
+     * @return a HashMap where the keys are the user IDs and the values are the users
+     */
+    @Override
+    public HashMap<Integer, User> getAllUsers() {
+        HashMap<Integer, User> allUsers = new HashMap<>();
+        for (UserInterface user : users.values()) {
+            allUsers.put(user.getUserId(), (User) user);
+        }
+        return allUsers;
+    }
+
     /**
      * Updates a user's information.
      *
@@ -180,6 +196,16 @@ public class LocalUserRepository implements IUserRepository {
         return userPasswords.get(user.getUserId());
     }
 
+    /**
+     * Returns the version of the user data, incremented every time the users are saved.
+     *
+     * @return the current data version
+     */
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     /**
      * Converts a UserInterface object to a String array for CSV writing.
      *
@@ -202,6 +228,7 @@ public class LocalUserRepository implements IUserRepository {
      * Saves the users to a CSV file.
      */
     private void saveToCSV() {
+        dataVersion.incrementAndGet(); // every write saves the users
         CSVWriter writer;
         try {
             writer = new CSVWriter(new FileWriter(FILE_PATH));
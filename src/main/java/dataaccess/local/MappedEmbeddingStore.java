@@ -0,0 +1,318 @@
+package dataaccess.local;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Binary, fixed-record embedding storage accessed through memory-mapped files.
+ * <p>
+ * The index file starts with a header (magic number, format version, values per record, number of slots)
+ * followed by the project id stored in every slot, or -1 for a free slot. The data file holds one record per
+ * slot: the length of the embedding, whether it has a content hash, the {@value #HASH_BYTES} bytes of the
+ * SHA-256 content hash of the embedded text, then the values of the embedding. Everything is little-endian.
+ * </p>
+ * <p>
+ * Opening a store only reads the slot ids and content hashes to rebuild the directories, so opening does not
+ * depend on the size of the embeddings. Saving an embedding writes it to a free slot and deleting one frees its
+ * slot for the next save, so a write never rewrites the other records.
+ * An embedding longer than the records rewrites the store with longer records, and stores written by version 1,
+ * whose records had no content hash, are rewritten when they are opened.
+ * </p>
+ * <p>
+ * A save never writes over the record it replaces: the new record is listed in the index only once it is
+ * complete, and the old one is freed afterwards. If the process stops in between, both records are complete and
+ * listed, and opening the store keeps one of them. Mapped pages are not forced to disk, so this holds when the
+ * process stops, not when the machine does; rewriting the whole store is not protected either.
+ * </p>
+ * Files are mapped in chunks of {@value #CHUNK_SLOTS} slots, which stay mapped until the store is rewritten.
+ */
+class MappedEmbeddingStore {
+    private static final int MAGIC = 0x454D4231; // "EMB1"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int CHUNK_SLOTS = 1024;
+    private static final int HASH_BYTES = 32;
+    private static final int RECORD_HEADER_BYTES = 8 + HASH_BYTES;
+    private static final int VERSION_1_RECORD_HEADER_BYTES = 8;
+    private static final int FREE = -1;
+
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final HashMap<Integer, Integer> slotById = new HashMap<>();
+    private final ArrayList<ByteBuffer> indexChunks = new ArrayList<>();
+    private final ArrayList<ByteBuffer> dataChunks = new ArrayList<>();
+
+    private ByteBuffer header;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int recordHeaderBytes = RECORD_HEADER_BYTES;
+    private int recordValues;
+    private int slotCount;
+
+    /**
+     * Opens the store kept in the given files, creating them if they do not exist.
+     *
+     * @param indexPath the file holding the header and the slot ids.
+     * @param dataPath  the file holding the embedding records.
+     * @throws IOException if the files cannot be opened or are not embedding files.
+     */
+    MappedEmbeddingStore(Path indexPath, Path dataPath) throws IOException {
+        boolean exists = Files.exists(indexPath) && Files.size(indexPath) >= HEADER_BYTES;
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataChannel = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        header = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (exists) {
+            int version = header.getInt(4);
+            if (header.getInt(0) != MAGIC || (version != VERSION && version != 1)) {
+                throw new IOException(indexPath + " is not an embedding index");
+            }
+            recordValues = header.getInt(8);
+            slotCount = header.getInt(12);
+            if (version == 1) {
+                recordHeaderBytes = VERSION_1_RECORD_HEADER_BYTES;
+            }
+            loadDirectory();
+            if (version == 1) {
+                HashMap<Integer, float[]> embeddings = getAll();
+                recordHeaderBytes = RECORD_HEADER_BYTES;
+                rewrite(embeddings, new HashMap<>(), recordValues);
+            }
+        } else {
+            writeHeader();
+        }
+    }
+
+    /**
+     * Returns whether the store was created empty and nothing was saved yet.
+     *
+     * @return true if no slot was ever used.
+     */
+    synchronized boolean isNew() {
+        return slotCount == 0;
+    }
+
+    /**
+     * Saves the embedding of a project in a free slot, then frees the slot of its previous embedding.
+     *
+     * @param id          the id of the project.
+     * @param embedding   the embedding of the project.
+     * @param contentHash the hex-encoded SHA-256 content hash of the embedded text, or null if it is not known.
+     * @throws IOException              if the files cannot be grown.
+     * @throws IllegalArgumentException if the content hash is not a hex-encoded SHA-256 hash.
+     */
+    synchronized void put(int id, float[] embedding, String contentHash) throws IOException {
+        byte[] hash = contentHash == null ? null : HexFormat.of().parseHex(contentHash);
+        if (hash != null && hash.length != HASH_BYTES) {
+            throw new IllegalArgumentException(contentHash + " is not a SHA-256 content hash");
+        }
+        if (embedding.length > recordValues) {
+            HashMap<Integer, float[]> all = getAll();
+            HashMap<Integer, String> contentHashes = getContentHashes();
+            all.put(id, embedding);
+            contentHashes.put(id, contentHash);
+            rewrite(all, contentHashes, embedding.length);
+            return;
+        }
+        Integer previous = slotById.get(id);
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount;
+        ByteBuffer data = dataChunk(slot);
+        int offset = recordOffset(slot);
+        data.putInt(offset, embedding.length);
+        data.putInt(offset + 4, hash == null ? 0 : 1);
+        data.put(offset + 8, hash == null ? new byte[HASH_BYTES] : hash);
+        floats(data, offset, embedding.length).put(embedding);
+        indexChunk(slot).putInt(indexOffset(slot), id); // listed once the record is complete
+        if (slot == slotCount) {
+            slotCount++;
+            writeHeader();
+        }
+        slotById.put(id, slot);
+        if (previous != null) {
+            indexChunks.get(previous / CHUNK_SLOTS).putInt(indexOffset(previous), FREE);
+            pushFreeSlot(previous);
+        }
+    }
+
+    /**
+     * Removes the embedding of a project and frees its slot.
+     *
+     * @param id the id of the project.
+     */
+    synchronized void remove(int id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        indexChunks.get(slot / CHUNK_SLOTS).putInt(indexOffset(slot), FREE);
+        pushFreeSlot(slot);
+    }
+
+    /**
+     * Reads the embedding of a project.
+     *
+     * @param id the id of the project.
+     * @return a copy of the embedding, or null if the project has none.
+     */
+    synchronized float[] get(int id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? null : read(slot);
+    }
+
+    /**
+     * Reads every embedding.
+     *
+     * @return a map where the keys are project ids and the values are copies of the embeddings.
+     */
+    synchronized HashMap<Integer, float[]> getAll() {
+        HashMap<Integer, float[]> all = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : slotById.entrySet()) {
+            all.put(entry.getKey(), read(entry.getValue()));
+        }
+        return all;
+    }
+
+    /**
+     * Reads the content hash of every embedding that has one.
+     *
+     * @return a map where the keys are project ids and the values are hex-encoded content hashes.
+     */
+    synchronized HashMap<Integer, String> getContentHashes() {
+        HashMap<Integer, String> contentHashes = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : slotById.entrySet()) {
+            String contentHash = readContentHash(entry.getValue());
+            if (contentHash != null) {
+                contentHashes.put(entry.getKey(), contentHash);
+            }
+        }
+        return contentHashes;
+    }
+
+    /**
+     * Replaces the whole content of the store.
+     * The files are overwritten from the start rather than truncated, since mapped files cannot be truncated
+     * on every platform; whatever lies past the last slot is ignored.
+     *
+     * @param embeddings    the embeddings to store, keyed by project id.
+     * @param contentHashes the content hashes of the embeddings, keyed by project id.
+     * @param recordValues  the number of values each record can hold.
+     * @throws IOException if the files cannot be rewritten.
+     */
+    synchronized void rewrite(Map<Integer, float[]> embeddings, Map<Integer, String> contentHashes,
+                              int recordValues) throws IOException {
+        indexChunks.clear();
+        dataChunks.clear();
+        slotById.clear();
+        freeCount = 0;
+        this.recordValues = recordValues;
+        slotCount = 0;
+        writeHeader();
+        for (Map.Entry<Integer, float[]> data : embeddings.entrySet()) {
+            put(data.getKey(), data.getValue(), contentHashes.get(data.getKey()));
+        }
+    }
+
+    /**
+     * Rebuilds the id to slot directory and the free slot list from the slot ids.
+     * An id listed in two slots was being saved when the process stopped; both records are complete, so the
+     * later slot is kept and the other one is freed.
+     *
+     * @throws IOException if the files cannot be mapped.
+     */
+    private void loadDirectory() throws IOException {
+        for (int slot = 0; slot < slotCount; slot++) {
+            int id = indexChunk(slot).getInt(indexOffset(slot));
+            dataChunk(slot);
+            if (id == FREE) {
+                pushFreeSlot(slot);
+                continue;
+            }
+            Integer duplicate = slotById.put(id, slot);
+            if (duplicate != null) {
+                indexChunk(duplicate).putInt(indexOffset(duplicate), FREE);
+                pushFreeSlot(duplicate);
+            }
+        }
+    }
+
+    private float[] read(int slot) {
+        ByteBuffer data = dataChunks.get(slot / CHUNK_SLOTS);
+        int offset = recordOffset(slot);
+        float[] embedding = new float[data.getInt(offset)];
+        floats(data, offset, embedding.length).get(embedding);
+        return embedding;
+    }
+
+    private String readContentHash(int slot) {
+        ByteBuffer data = dataChunks.get(slot / CHUNK_SLOTS);
+        int offset = recordOffset(slot);
+        if (data.getInt(offset + 4) == 0) {
+            return null;
+        }
+        byte[] hash = new byte[HASH_BYTES];
+        data.get(offset + 8, hash);
+        return HexFormat.of().formatHex(hash);
+    }
+
+    private ByteBuffer indexChunk(int slot) throws IOException {
+        int chunk = slot / CHUNK_SLOTS;
+        while (indexChunks.size() <= chunk) {
+            long position = HEADER_BYTES + (long) indexChunks.size() * CHUNK_SLOTS * Integer.BYTES;
+            indexChunks.add(map(indexChannel, position, (long) CHUNK_SLOTS * Integer.BYTES));
+        }
+        return indexChunks.get(chunk);
+    }
+
+    private ByteBuffer dataChunk(int slot) throws IOException {
+        int chunk = slot / CHUNK_SLOTS;
+        while (dataChunks.size() <= chunk) {
+            long position = (long) dataChunks.size() * CHUNK_SLOTS * recordBytes();
+            dataChunks.add(map(dataChannel, position, (long) CHUNK_SLOTS * recordBytes()));
+        }
+        return dataChunks.get(chunk);
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private FloatBuffer floats(ByteBuffer data, int offset, int length) {
+        return data.slice(offset + recordHeaderBytes, length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    private void writeHeader() {
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, recordValues);
+        header.putInt(12, slotCount);
+    }
+
+    private void pushFreeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int recordBytes() {
+        return recordHeaderBytes + recordValues * Float.BYTES;
+    }
+
+    private int recordOffset(int slot) {
+        return (slot % CHUNK_SLOTS) * recordBytes();
+    }
+
+    private static int indexOffset(int slot) {
+        return (slot % CHUNK_SLOTS) * Integer.BYTES;
+    }
+}
@@ -0,0 +1,166 @@
+package dataaccess.searchindex;
+
+import java.util.Map;
+
+/**
+ * An immutable, point-in-time view of the project embeddings held by a {@link ProjectVectorIndex}.
+ * <p>
+ * The embeddings are stored at unit length, one row after another in a single {@code float[]},
+ * with a parallel {@code int[]} of project ids. Scoring a query is then a dot product over
+ * contiguous memory instead of a cosine similarity over scattered arrays.
+ * </p>
+ * Rows are numbered from 0 to {@link #rowCount()} - 1. A row whose id is negative belongs to a project
+ * that was edited or deleted after the row was written and must be skipped.
+ * <p>
+ * If the index is {@linkplain #quantization() quantized}, the rows hold an approximation of each embedding
+ * and {@link #score(int, float[])} an approximation of each similarity.
+ * </p>
+ */
+public class EmbeddingSnapshot {
+    private final long version;
+    private final int[] ids;
+    private final RowStorage rows;
+    private final int dimension;
+    private final int rowCount;
+    private final int size;
+
+    /**
+     * Constructs an EmbeddingSnapshot over the given rows. The ids and rows are not copied and must not be
+     * modified below {@code rowCount} afterwards.
+     *
+     * @param version   the version of the index when the snapshot was taken.
+     * @param ids       the project id of each row, or -1 for removed rows.
+     * @param rows      the normalized embedding of each row.
+     * @param dimension the length of each embedding.
+     * @param rowCount  the number of rows in the snapshot.
+     * @param size      the number of live rows in the snapshot.
+     */
+    EmbeddingSnapshot(long version, int[] ids, RowStorage rows, int dimension, int rowCount, int size) {
+        this.version = version;
+        this.ids = ids;
+        this.rows = rows;
+        this.dimension = dimension;
+        this.rowCount = rowCount;
+        this.size = size;
+    }
+
+    /**
+     * Creates a standalone snapshot of the given embeddings.
+     * Used when there is no resident index to read from.
+     * Embeddings that are empty or whose length differs from the first embedding are skipped.
+     *
+     * @param embeddings a map where the keys are project ids and the values are embeddings.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if the embeddings do not fit in one array.
+     */
+    public static EmbeddingSnapshot of(Map<Integer, float[]> embeddings) {
+        int dimension = 0;
+        for (float[] embedding : embeddings.values()) {
+            if (embedding != null && embedding.length > 0) {
+                dimension = embedding.length;
+                break;
+            }
+        }
+        if ((long) embeddings.size() * dimension > RowStorage.MAX_VALUES) {
+            throw new IllegalArgumentException(embeddings.size() + " embeddings of length " + dimension
+                    + " do not fit in one snapshot, the limit is " + RowStorage.maxRows(dimension));
+        }
+        int[] ids = new int[embeddings.size()];
+        float[] matrix = new float[embeddings.size() * dimension];
+        int rows = 0;
+        for (Map.Entry<Integer, float[]> data : embeddings.entrySet()) {
+            if (data.getValue() != null && data.getValue().length == dimension && dimension > 0) {
+                ids[rows] = data.getKey();
+                VectorMath.normalizeInto(data.getValue(), matrix, rows * dimension);
+                rows++;
+            }
+        }
+        return new EmbeddingSnapshot(0, ids, new RowStorage.FloatRows(matrix, dimension), dimension, rows, rows);
+    }
+
+    /**
+     * Returns the version of the index when the snapshot was taken.
+     *
+     * @return the version.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns the number of rows, including removed rows.
+     *
+     * @return the number of rows.
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of live projects in the snapshot.
+     *
+     * @return the number of projects with an embedding.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the length of the embeddings in the snapshot.
+     *
+     * @return the dimension, or 0 if the snapshot has never held an embedding.
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns how the embeddings of the snapshot are stored.
+     *
+     * @return the quantization of the rows.
+     */
+    public Quantization quantization() {
+        return rows.quantization();
+    }
+
+    /**
+     * Returns the number of bytes used by the embeddings of the snapshot's index.
+     *
+     * @return the memory used by the rows, not counting the project ids.
+     */
+    public long memoryBytes() {
+        return rows.memoryBytes();
+    }
+
+    /**
+     * Returns the project id stored in a row.
+     *
+     * @param row the row.
+     * @return the project id, or a negative value if the row was removed.
+     */
+    public int idAt(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Returns a copy of the normalized embedding stored in a row.
+     * The embedding is approximate if the snapshot is quantized.
+     *
+     * @param row the row.
+     * @return the embedding.
+     */
+    public float[] vectorAt(int row) {
+        return rows.vectorAt(row);
+    }
+
+    /**
+     * Returns the cosine similarity between a normalized query and the embedding stored in a row.
+     *
+     * @param row   the row.
+     * @param query the query, normalized and of length {@link #dimension()}.
+     * @return the similarity, approximate if the snapshot is quantized.
+     */
+    public float score(int row, float[] query) {
+        return rows.score(row, query);
+    }
+}
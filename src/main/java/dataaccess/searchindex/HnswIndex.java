@@ -0,0 +1,575 @@
+package dataaccess.searchindex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory Hierarchical Navigable Small World (HNSW) graph for approximate nearest neighbour search
+ * over embeddings, using cosine similarity.
+ * <p>
+ * Vectors are normalized when they are added, so similarity is a plain dot product.
+ * The graph is tuned with three knobs:
+ * <ul>
+ *     <li>{@code m}: the number of links per node. Higher values improve recall but use more memory.</li>
+ *     <li>{@code efConstruction}: the candidate list size while inserting. Higher values build a better graph, slower.</li>
+ *     <li>{@code efSearch}: the candidate list size while querying. Higher values improve recall, slower.</li>
+ * </ul>
+ * Removed or replaced vectors are only marked as deleted. They are still used to navigate the graph
+ * but never returned, so callers should rebuild the index once {@link #deletedCount()} becomes large.
+ * </p>
+ * Searches may run concurrently with each other; insertions and removals are exclusive.
+ */
+public class HnswIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int m;
+    private final int maxConnectionsLevelZero;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Integer> nodeByLabel = new HashMap<>();
+    private final ThreadLocal<VisitedList> visitedLists = ThreadLocal.withInitial(VisitedList::new);
+    private volatile int efSearch;
+
+    private int dimensions = -1;
+    private float[][] vectors = new float[INITIAL_CAPACITY][];
+    private int[] labels = new int[INITIAL_CAPACITY];
+    private int[][][] links = new int[INITIAL_CAPACITY][][];
+    private boolean[] deleted = new boolean[INITIAL_CAPACITY];
+    private int nodeCount = 0;
+    private int deletedCount = 0;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * Constructs an empty HnswIndex.
+     *
+     * @param m              the number of links per node on the upper levels (twice as many on the bottom level).
+     * @param efConstruction the size of the candidate list used while inserting.
+     * @param efSearch       the default size of the candidate list used while searching.
+     * @param seed           the seed used to pick node levels, so that builds are reproducible.
+     */
+    public HnswIndex(int m, int efConstruction, int efSearch, long seed) {
+        if (m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("HNSW parameters must be positive and m must be at least 2");
+        }
+        this.m = m;
+        this.maxConnectionsLevelZero = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the default size of the candidate list used while searching.
+     *
+     * @return the efSearch value.
+     */
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    /**
+     * Sets the default size of the candidate list used while searching.
+     * Higher values trade latency for recall.
+     *
+     * @param efSearch the new efSearch value.
+     */
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch must be positive");
+        }
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Returns the number of live (not deleted) vectors in the index.
+     *
+     * @return the number of searchable vectors.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of nodes that were removed or replaced but are still part of the graph.
+     *
+     * @return the number of deleted nodes.
+     */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a vector to the index, replacing the previous vector with the same label if there is one.
+     * Empty vectors only remove the previous vector.
+     *
+     * @param label  the label (project id) of the vector.
+     * @param vector the vector to add.
+     */
+    public void add(int label, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodeByLabel.remove(label);
+            if (previous != null) {
+                markDeleted(previous);
+            }
+            if (vector == null || vector.length == 0) {
+                return;
+            }
+            if (dimensions == -1) {
+                dimensions = vector.length;
+            } else if (vector.length != dimensions) {
+                throw new IllegalArgumentException("Expected a vector of " + dimensions + " dimensions, got " + vector.length);
+            }
+
+            int level = randomLevel();
+            int node = allocateNode(label, VectorMath.normalize(vector), level);
+            nodeByLabel.put(label, node);
+            insert(node, level);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the vector with the given label from the search results.
+     *
+     * @param label the label (project id) of the vector.
+     * @return true if a vector was removed, false if there was no vector with that label.
+     */
+    public boolean remove(int label) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeByLabel.remove(label);
+            if (node == null) {
+                return false;
+            }
+            markDeleted(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches for the vectors most similar to the query using the default efSearch.
+     *
+     * @param query the query vector.
+     * @param k     the maximum number of results.
+     * @return the labels and cosine similarities of the closest vectors, best first.
+     */
+    public ScoredIds search(float[] query, int k) {
+        return search(query, k, efSearch);
+    }
+
+    /**
+     * Searches for the vectors most similar to the query.
+     *
+     * @param query the query vector.
+     * @param k     the maximum number of results.
+     * @param ef    the size of the candidate list, raised to k if smaller.
+     * @return the labels and cosine similarities of the closest vectors, best first.
+     */
+    public ScoredIds search(float[] query, int k, int ef) {
+        return search(query, k, ef, null);
+    }
+
+    /**
+     * Searches for the vectors most similar to the query among the vectors with the given labels.
+     * <p>
+     * The bottom level is traversed as usual, but only nodes with one of the labels are collected, so the
+     * filter does not cut results out of an unfiltered top k. Other nodes are still used to navigate, like deleted
+     * ones. A selective filter makes the traversal visit more nodes before it has ef results: about ef times the
+     * bottom level's connections, divided by the fraction of nodes that have one of the labels. If that is more
+     * than the number of labels, the labelled vectors are scored exactly instead, which is cheaper and finds the
+     * true top k. The traversal also switches to the exact search once it has scored as many nodes as there are
+     * labels, so a search never scores many more vectors than the filter lets through.
+     * </p>
+     *
+     * @param query   the query vector.
+     * @param k       the maximum number of results.
+     * @param ef      the size of the candidate list, raised to k if smaller.
+     * @param allowed the labels that may be returned, or null for every label.
+     * @return the labels and cosine similarities of the closest vectors, best first.
+     */
+    public ScoredIds search(float[] query, int k, int ef, ProjectIdBitmap allowed) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1 || k <= 0 || query == null || query.length != dimensions
+                    || (allowed != null && allowed.isEmpty())) {
+                return ScoredIds.EMPTY;
+            }
+            float[] normalized = VectorMath.normalize(query);
+            int listSize = Math.max(ef, k);
+            if (allowed != null && isCheaperToScoreExactly(allowed.cardinality(), listSize)) {
+                return exactSearch(normalized, k, allowed);
+            }
+            int current = entryPoint;
+            float currentSimilarity = VectorMath.dot(normalized, vectors[current]);
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(normalized, current, currentSimilarity, level);
+                currentSimilarity = VectorMath.dot(normalized, vectors[current]);
+            }
+
+            int scoreLimit = allowed == null ? Integer.MAX_VALUE : allowed.cardinality();
+            ScoreHeap heap = searchLayer(normalized, current, currentSimilarity, listSize, 0, allowed, scoreLimit);
+            if (heap == null) {
+                return exactSearch(normalized, k, allowed);
+            }
+            ScoredIds nodes = heap.drainDescending();
+            int count = Math.min(k, nodes.size());
+            int[] resultLabels = new int[count];
+            for (int i = 0; i < count; i++) {
+                resultLabels[i] = labels[nodes.ids()[i]];
+            }
+            return new ScoredIds(resultLabels, Arrays.copyOf(nodes.scores(), count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates whether scoring the labelled vectors one by one costs less than a traversal that collects ef of
+     * them. The traversal is assumed to score ef times the bottom level's connections to collect ef nodes, times
+     * the inverse of the fraction of live nodes that have one of the labels.
+     *
+     * @param labelCount the number of labels that may be returned.
+     * @param ef         the size of the candidate list.
+     * @return true if the exact search is expected to score fewer vectors.
+     */
+    private boolean isCheaperToScoreExactly(int labelCount, int ef) {
+        long traversed = (long) ef * maxConnectionsLevelZero * (nodeCount - deletedCount);
+        return (long) labelCount * labelCount <= traversed;
+    }
+
+    /**
+     * Scores the vectors with the given labels one by one.
+     *
+     * @param query   the normalized query vector.
+     * @param k       the maximum number of results.
+     * @param allowed the labels to score; labels without a live node are skipped.
+     * @return the labels and cosine similarities of the closest vectors, best first.
+     */
+    private ScoredIds exactSearch(float[] query, int k, ProjectIdBitmap allowed) {
+        TopKCollector collector = new TopKCollector(k, Float.NEGATIVE_INFINITY);
+        allowed.forEach(label -> {
+            Integer node = nodeByLabel.get(label);
+            if (node != null && !deleted[node]) {
+                collector.offer(VectorMath.dot(query, vectors[node]), label);
+            }
+        });
+        return collector.result();
+    }
+
+    /**
+     * Links a freshly allocated node into the graph.
+     *
+     * @param node  the node to insert.
+     * @param level the top level of the node.
+     */
+    private void insert(int node, int level) {
+        if (entryPoint == -1) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        float[] vector = vectors[node];
+        int current = entryPoint;
+        float currentSimilarity = VectorMath.dot(vector, vectors[current]);
+        for (int lc = maxLevel; lc > level; lc--) {
+            current = greedyClosest(vector, current, currentSimilarity, lc);
+            currentSimilarity = VectorMath.dot(vector, vectors[current]);
+        }
+
+        for (int lc = Math.min(level, maxLevel); lc >= 0; lc--) {
+            ScoredIds candidates = searchLayer(vector, current, currentSimilarity, efConstruction, lc).drainDescending();
+            int[] selected = selectNeighbours(candidates, m);
+            int[] nodeLinks = links[node][lc];
+            System.arraycopy(selected, 0, nodeLinks, 1, selected.length);
+            nodeLinks[0] = selected.length;
+
+            int maxConnections = lc == 0 ? maxConnectionsLevelZero : m;
+            for (int neighbour : selected) {
+                connect(neighbour, node, lc, maxConnections);
+            }
+            if (candidates.size() > 0) {
+                current = candidates.ids()[0];
+                currentSimilarity = candidates.scores()[0];
+            }
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Walks a single level of the graph towards the query, always moving to the most similar neighbour.
+     *
+     * @param query             the normalized query vector.
+     * @param start             the node to start from.
+     * @param startSimilarity   the similarity between the query and the start node.
+     * @param level             the level to walk.
+     * @return the closest node found.
+     */
+    private int greedyClosest(float[] query, int start, float startSimilarity, int level) {
+        int current = start;
+        float currentSimilarity = startSimilarity;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] neighbours = links[current][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int candidate = neighbours[i];
+                float candidateSimilarity = VectorMath.dot(query, vectors[candidate]);
+                if (candidateSimilarity > currentSimilarity) {
+                    currentSimilarity = candidateSimilarity;
+                    current = candidate;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Runs a best-first search on a single level of the graph.
+     * Deleted nodes are traversed but never returned.
+     *
+     * @param query           the normalized query vector.
+     * @param entry           the node to start from.
+     * @param entrySimilarity the similarity between the query and the entry node.
+     * @param ef              the size of the candidate list.
+     * @param level           the level to search.
+     * @return a heap containing up to ef of the closest live nodes.
+     */
+    private ScoreHeap searchLayer(float[] query, int entry, float entrySimilarity, int ef, int level) {
+        return searchLayer(query, entry, entrySimilarity, ef, level, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs a best-first search on a single level of the graph, returning only nodes with the given labels.
+     * Deleted nodes and nodes with other labels are traversed but never returned.
+     *
+     * @param query           the normalized query vector.
+     * @param entry           the node to start from.
+     * @param entrySimilarity the similarity between the query and the entry node.
+     * @param ef              the size of the candidate list.
+     * @param level           the level to search.
+     * @param allowed         the labels that may be returned, or null for every label.
+     * @param scoreLimit      the number of nodes that may be scored before the search gives up.
+     * @return a heap containing up to ef of the closest matching nodes, or null if the search gave up.
+     */
+    private ScoreHeap searchLayer(float[] query, int entry, float entrySimilarity, int ef, int level,
+                                  ProjectIdBitmap allowed, int scoreLimit) {
+        VisitedList visited = visitedLists.get();
+        visited.reset(nodeCount);
+
+        ScoreHeap candidates = new ScoreHeap(ef * 2); // scores are negated to pop the closest node first
+        ScoreHeap results = new ScoreHeap(ef + 1);
+        int scored = 0;
+        visited.visit(entry);
+        candidates.push(-entrySimilarity, entry);
+        if (isResult(entry, allowed)) {
+            results.push(entrySimilarity, entry);
+        }
+
+        while (!candidates.isEmpty()) {
+            float candidateSimilarity = -candidates.peekScore();
+            int candidate = candidates.peekId();
+            if (results.size() >= ef && candidateSimilarity < results.peekScore()) {
+                break;
+            }
+            candidates.pop();
+
+            int[] neighbours = links[candidate][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (!visited.visit(neighbour)) {
+                    continue;
+                }
+                if (++scored > scoreLimit) {
+                    return null;
+                }
+                float neighbourSimilarity = VectorMath.dot(query, vectors[neighbour]);
+                if (results.size() < ef || neighbourSimilarity > results.peekScore()) {
+                    candidates.push(-neighbourSimilarity, neighbour);
+                    if (isResult(neighbour, allowed)) {
+                        results.push(neighbourSimilarity, neighbour);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean isResult(int node, ProjectIdBitmap allowed) {
+        return !deleted[node] && (allowed == null || allowed.contains(labels[node]));
+    }
+
+    /**
+     * Picks up to {@code max} neighbours from the candidates, preferring candidates that are closer to the
+     * base vector than to any neighbour already picked. This keeps links spread out in different directions.
+     *
+     * @param candidates the candidates, best first.
+     * @param max        the maximum number of neighbours.
+     * @return the selected nodes.
+     */
+    private int[] selectNeighbours(ScoredIds candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates.ids().clone();
+        }
+        int[] selected = new int[max];
+        int count = 0;
+        for (int i = 0; i < candidates.size() && count < max; i++) {
+            int candidate = candidates.ids()[i];
+            float candidateSimilarity = candidates.scores()[i];
+            boolean keep = true;
+            for (int j = 0; j < count; j++) {
+                if (VectorMath.dot(vectors[candidate], vectors[selected[j]]) > candidateSimilarity) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Adds a link from a neighbour back to a new node, pruning the neighbour's links if it has too many.
+     *
+     * @param neighbour      the existing node.
+     * @param node           the new node.
+     * @param level          the level of the link.
+     * @param maxConnections the maximum number of links on this level.
+     */
+    private void connect(int neighbour, int node, int level, int maxConnections) {
+        int[] neighbourLinks = links[neighbour][level];
+        int count = neighbourLinks[0];
+        if (count < maxConnections) {
+            neighbourLinks[count + 1] = node;
+            neighbourLinks[0] = count + 1;
+            return;
+        }
+
+        float[] base = vectors[neighbour];
+        ScoreHeap heap = new ScoreHeap(count + 1);
+        for (int i = 1; i <= count; i++) {
+            heap.push(VectorMath.dot(base, vectors[neighbourLinks[i]]), neighbourLinks[i]);
+        }
+        heap.push(VectorMath.dot(base, vectors[node]), node);
+        int[] selected = selectNeighbours(heap.drainDescending(), maxConnections);
+        System.arraycopy(selected, 0, neighbourLinks, 1, selected.length);
+        neighbourLinks[0] = selected.length;
+    }
+
+    /**
+     * Stores a node and allocates its link lists.
+     *
+     * @param label  the label of the node.
+     * @param vector the normalized vector of the node.
+     * @param level  the top level of the node.
+     * @return the new node.
+     */
+    private int allocateNode(int label, float[] vector, int level) {
+        if (nodeCount == vectors.length) {
+            int capacity = vectors.length * 2;
+            vectors = Arrays.copyOf(vectors, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+            links = Arrays.copyOf(links, capacity);
+            deleted = Arrays.copyOf(deleted, capacity);
+        }
+        int node = nodeCount++;
+        vectors[node] = vector;
+        labels[node] = label;
+        links[node] = new int[level + 1][];
+        for (int lc = 0; lc <= level; lc++) {
+            links[node][lc] = new int[(lc == 0 ? maxConnectionsLevelZero : m) + 1];
+        }
+        return node;
+    }
+
+    /**
+     * Marks a node as deleted.
+     *
+     * @param node the node to delete.
+     */
+    private void markDeleted(int node) {
+        if (!deleted[node]) {
+            deleted[node] = true;
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Draws the top level of a new node from an exponentially decaying distribution.
+     *
+     * @return the level of the new node.
+     */
+    private int randomLevel() {
+        return (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    /**
+     * Per-thread record of the nodes visited by a search, reset in constant time by bumping a stamp.
+     */
+    private static class VisitedList {
+        private int[] marks = new int[0];
+        private int stamp = 0;
+
+        /**
+         * Prepares the list for a new search over the given number of nodes.
+         *
+         * @param nodes the number of nodes in the graph.
+         */
+        void reset(int nodes) {
+            if (marks.length < nodes) {
+                marks = new int[Math.max(nodes, marks.length * 2)];
+                stamp = 0;
+            }
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        /**
+         * Marks a node as visited.
+         *
+         * @param node the node.
+         * @return true if the node had not been visited yet in this search.
+         */
+        boolean visit(int node) {
+            if (marks[node] == stamp) {
+                return false;
+            }
+            marks[node] = stamp;
+            return true;
+        }
+    }
+}
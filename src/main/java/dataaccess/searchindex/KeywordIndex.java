@@ -0,0 +1,270 @@
+package dataaccess.searchindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory inverted index of the words of projects, ranking keyword queries with BM25.
+ * <p>
+ * The title, description and tags of a project are split into lowercase words. Every word has a postings list
+ * of the projects containing it and how often, so a query only visits the projects containing one of its words.
+ * Words in the title count {@value #TITLE_WEIGHT} times and words in tags {@value #TAG_WEIGHT} times, so they
+ * weigh more than words of the description.
+ * </p>
+ * <p>
+ * Projects are numbered internally in the order they are indexed, and postings lists are only ever appended
+ * to, so they stay sorted. Editing a project indexes it again under a new number and marks the old number as
+ * removed; the postings are compacted once more numbers are removed than in use.
+ * </p>
+ */
+public class KeywordIndex {
+    public static final float K1 = 1.2f;
+    public static final float B = 0.75f;
+    public static final int TITLE_WEIGHT = 3;
+    public static final int TAG_WEIGHT = 2;
+    public static final int DESCRIPTION_WEIGHT = 1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_COMPACTION = 1024; // removed numbers tolerated before compacting small indexes
+
+    private final HashMap<String, Postings> postingsByWord = new HashMap<>();
+    private final HashMap<Integer, Integer> docById = new HashMap<>();
+    private int[] idByDoc = new int[INITIAL_CAPACITY]; // -1 once removed
+    private int[] lengthByDoc = new int[INITIAL_CAPACITY];
+    private String[][] wordsByDoc = new String[INITIAL_CAPACITY][];
+    private int docCount = 0;
+    private int liveDocs = 0;
+    private long totalLength = 0;
+    private float[] scores = new float[INITIAL_CAPACITY]; // scratch space of search, all zero between searches
+    private int[] touched = new int[INITIAL_CAPACITY];
+
+    /**
+     * The projects containing a word and how often, in the order they were indexed.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size = 0;
+        private int live = 0; // postings of projects that are not removed, i.e. the document frequency
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+    }
+
+    /**
+     * Indexes a project, replacing what was indexed for it before.
+     *
+     * @param projectId   the id of the project.
+     * @param title       the title of the project.
+     * @param description the description of the project.
+     * @param tags        the tags of the project, or null if it has none.
+     */
+    public synchronized void put(int projectId, String title, String description, Collection<String> tags) {
+        remove(projectId);
+        LinkedHashMap<String, Integer> frequencies = new LinkedHashMap<>();
+        addWords(frequencies, title, TITLE_WEIGHT);
+        addWords(frequencies, description, DESCRIPTION_WEIGHT);
+        if (tags != null) {
+            for (String tag : tags) {
+                addWords(frequencies, tag, TAG_WEIGHT);
+            }
+        }
+
+        int doc = docCount++;
+        ensureCapacity(docCount);
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postingsByWord.computeIfAbsent(entry.getKey(), word -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        idByDoc[doc] = projectId;
+        lengthByDoc[doc] = length;
+        wordsByDoc[doc] = frequencies.keySet().toArray(new String[0]);
+        docById.put(projectId, doc);
+        liveDocs++;
+        totalLength += length;
+    }
+
+    /**
+     * Removes a project from the index. Does nothing if it is not indexed.
+     *
+     * @param projectId the id of the project.
+     */
+    public synchronized void remove(int projectId) {
+        Integer doc = docById.remove(projectId);
+        if (doc == null) {
+            return;
+        }
+        for (String word : wordsByDoc[doc]) {
+            Postings postings = postingsByWord.get(word);
+            if (--postings.live == 0) {
+                postingsByWord.remove(word);
+            }
+        }
+        idByDoc[doc] = -1;
+        wordsByDoc[doc] = null;
+        liveDocs--;
+        totalLength -= lengthByDoc[doc];
+        if (docCount - liveDocs > Math.max(MIN_COMPACTION, liveDocs)) {
+            compact();
+        }
+    }
+
+    /**
+     * Finds the projects best matching the words of a query, ranked by BM25.
+     * A project matches if it contains at least one of the words; rarer words weigh more.
+     *
+     * @param query the query.
+     * @param k     the maximum number of projects to return.
+     * @return the ids of at most k projects and their BM25 scores, best first.
+     */
+    public ScoredIds search(String query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * Finds the projects best matching the words of a query among the given projects, ranked by BM25.
+     * The other projects are skipped as the postings are read, so they are never scored. Word rarity is still
+     * measured over every project, so a project scores the same with or without the filter.
+     *
+     * @param query      the query.
+     * @param k          the maximum number of projects to return.
+     * @param projectIds the ids of the projects that may be returned, or null for every project.
+     * @return the ids of at most k of the projects and their BM25 scores, best first.
+     */
+    public synchronized ScoredIds search(String query, int k, ProjectIdBitmap projectIds) {
+        if (liveDocs == 0 || k <= 0 || (projectIds != null && projectIds.isEmpty())) {
+            return ScoredIds.EMPTY;
+        }
+        float averageLength = (float) totalLength / liveDocs;
+        int touchedCount = 0;
+        for (String word : new LinkedHashSet<>(tokenize(query))) {
+            Postings postings = postingsByWord.get(word);
+            if (postings == null) {
+                continue;
+            }
+            float idf = (float) Math.log(1 + (liveDocs - postings.live + 0.5) / (postings.live + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (idByDoc[doc] < 0 || (projectIds != null && !projectIds.contains(idByDoc[doc]))) {
+                    continue;
+                }
+                float frequency = postings.frequencies[i];
+                float norm = K1 * (1 - B + B * lengthByDoc[doc] / averageLength);
+                if (scores[doc] == 0) {
+                    touched[touchedCount++] = doc;
+                }
+                scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+
+        TopKCollector collector = new TopKCollector(k, Float.MIN_VALUE);
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            collector.offer(scores[doc], idByDoc[doc]);
+            scores[doc] = 0;
+        }
+        return collector.result();
+    }
+
+    /**
+     * Returns the number of indexed projects.
+     *
+     * @return the number of projects.
+     */
+    public synchronized int size() {
+        return liveDocs;
+    }
+
+    /**
+     * Splits a text into lowercase words: runs of letters and digits.
+     *
+     * @param text the text.
+     * @return the words, in order, including repeated words.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lowercase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowercase.length(); i++) {
+            boolean isWordCharacter = i < lowercase.length() && Character.isLetterOrDigit(lowercase.charAt(i));
+            if (isWordCharacter && start < 0) {
+                start = i;
+            } else if (!isWordCharacter && start >= 0) {
+                words.add(lowercase.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static void addWords(Map<String, Integer> frequencies, String text, int weight) {
+        for (String word : tokenize(text)) {
+            frequencies.merge(word, weight, Integer::sum);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= idByDoc.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, idByDoc.length * 2);
+        idByDoc = Arrays.copyOf(idByDoc, newCapacity);
+        lengthByDoc = Arrays.copyOf(lengthByDoc, newCapacity);
+        wordsByDoc = Arrays.copyOf(wordsByDoc, newCapacity);
+        scores = Arrays.copyOf(scores, newCapacity);
+        touched = Arrays.copyOf(touched, newCapacity);
+    }
+
+    /**
+     * Renumbers the projects that are not removed and drops the postings of removed ones.
+     */
+    private void compact() {
+        int[] newDocByDoc = new int[docCount];
+        int newCount = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (idByDoc[doc] < 0) {
+                newDocByDoc[doc] = -1;
+                continue;
+            }
+            newDocByDoc[doc] = newCount;
+            idByDoc[newCount] = idByDoc[doc];
+            lengthByDoc[newCount] = lengthByDoc[doc];
+            wordsByDoc[newCount] = wordsByDoc[doc];
+            docById.put(idByDoc[newCount], newCount);
+            newCount++;
+        }
+        Arrays.fill(wordsByDoc, newCount, docCount, null);
+        docCount = newCount;
+
+        for (Postings postings : postingsByWord.values()) {
+            int size = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int newDoc = newDocByDoc[postings.docs[i]];
+                if (newDoc >= 0) {
+                    postings.docs[size] = newDoc;
+                    postings.frequencies[size] = postings.frequencies[i];
+                    size++;
+                }
+            }
+            postings.size = size;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package dataaccess.searchindex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Resident, in-memory columns of the project attributes that searches are filtered by.
+ * <p>
+ * The budget and owner of every project are kept in arrays indexed by project id, which both repositories assign
+ * in sequence, next to a {@link ProjectIdBitmap} of the projects of each owner. Together with the
+ * {@link TagIndex} this resolves a {@link ProjectFilter} to the ids of the matching projects without reading any
+ * project, so searches can skip the other projects while they score instead of dropping them from their results
+ * afterwards. The most selective conditions are applied first: the owner and the tags narrow the candidates with
+ * bitmap operations, and the budget range is then checked only for the remaining ids. A budget range on its own
+ * scans the budget column in id order, so the matching ids come out sorted and fill the bitmap a container at a
+ * time.
+ * </p>
+ * Like the {@link TagIndex}, the columns are loaded from storage once and then kept up to date by the project
+ * repository whenever a project is written.
+ */
+public class ProjectAttributeIndex {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final TagIndex tagIndex;
+    private final Supplier<? extends Map<Integer, Attributes>> loader;
+    private final HashMap<Integer, ProjectIdBitmap> projectsByOwner = new HashMap<>();
+    private final ProjectIdBitmap projects = new ProjectIdBitmap();
+    private double[] budgetById = newBudgets(INITIAL_CAPACITY); // NaN for ids without a project
+    private int[] ownerById = new int[INITIAL_CAPACITY];
+    private boolean isLoaded;
+
+    /**
+     * The filterable attributes of a project, other than its tags.
+     *
+     * @param budget  the budget of the project.
+     * @param ownerId the id of the user who owns the project.
+     */
+    public record Attributes(double budget, int ownerId) {
+    }
+
+    /**
+     * Constructs an empty ProjectAttributeIndex, filled by the repository as it reads its projects.
+     *
+     * @param tagIndex the index of the project tags, used for the tag conditions of a filter.
+     */
+    public ProjectAttributeIndex(TagIndex tagIndex) {
+        this.tagIndex = tagIndex;
+        this.loader = null;
+        this.isLoaded = true;
+    }
+
+    /**
+     * Constructs a ProjectAttributeIndex that is loaded from storage on first use.
+     *
+     * @param tagIndex the index of the project tags, used for the tag conditions of a filter.
+     * @param loader   supplies the attributes of every stored project, keyed by project id.
+     */
+    public ProjectAttributeIndex(TagIndex tagIndex, Supplier<? extends Map<Integer, Attributes>> loader) {
+        this.tagIndex = tagIndex;
+        this.loader = loader;
+        this.isLoaded = false;
+    }
+
+    /**
+     * Loads the index from storage if it is not loaded yet.
+     */
+    public synchronized void load() {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        for (Map.Entry<Integer, Attributes> data : loader.get().entrySet()) {
+            index(data.getKey(), data.getValue().budget(), data.getValue().ownerId());
+        }
+    }
+
+    /**
+     * Sets the attributes of a project, replacing its previous attributes.
+     *
+     * @param projectId the id of the project.
+     * @param budget    the budget of the project.
+     * @param ownerId   the id of the user who owns the project.
+     */
+    public synchronized void put(int projectId, double budget, int ownerId) {
+        if (!isLoaded) {
+            return; // the stored attributes will be read when the index is loaded
+        }
+        unindex(projectId);
+        index(projectId, budget, ownerId);
+    }
+
+    /**
+     * Changes the budget of a project, keeping its owner. Projects that are not indexed are ignored.
+     *
+     * @param projectId the id of the project.
+     * @param budget    the new budget of the project.
+     */
+    public synchronized void setBudget(int projectId, double budget) {
+        if (isLoaded && projects.contains(projectId)) {
+            budgetById[projectId] = budget;
+        }
+    }
+
+    /**
+     * Removes a project from the index.
+     *
+     * @param projectId the id of the project.
+     */
+    public synchronized void remove(int projectId) {
+        if (isLoaded) {
+            unindex(projectId);
+        }
+    }
+
+    /**
+     * Finds the projects matching a filter.
+     *
+     * @param filter the filter.
+     * @return the ids of the matching projects; a new bitmap the caller may change.
+     */
+    public synchronized ProjectIdBitmap filter(ProjectFilter filter) {
+        load();
+        ProjectIdBitmap candidates = null; // every project
+        boolean isShared = false;
+        if (filter.ownerId() != ProjectFilter.ANY_OWNER) {
+            candidates = projectsByOwner.get(filter.ownerId());
+            if (candidates == null) {
+                return new ProjectIdBitmap();
+            }
+            isShared = true;
+        }
+        if (!filter.tags().isEmpty()) {
+            ProjectIdBitmap tagged = tagIndex.filter(filter.tags());
+            candidates = candidates == null ? tagged : ProjectIdBitmap.and(candidates, tagged);
+            isShared = false;
+        }
+        if (filter.hasBudgetRange()) {
+            return candidates == null ? scanBudgets(filter.minBudget(), filter.maxBudget())
+                    : retainBudgets(candidates, filter.minBudget(), filter.maxBudget());
+        }
+        if (candidates == null) {
+            return projects.copy();
+        }
+        // the owner bitmaps of the index itself must not leak to the caller
+        return isShared ? candidates.copy() : candidates;
+    }
+
+    /**
+     * Returns the number of indexed projects.
+     *
+     * @return the number of projects.
+     */
+    public synchronized int size() {
+        load();
+        return projects.cardinality();
+    }
+
+    /**
+     * Finds the projects whose budget is in a range by scanning the budget column. Ids without a project hold NaN,
+     * which no range contains.
+     *
+     * @param minBudget the lowest budget, inclusive.
+     * @param maxBudget the highest budget, inclusive.
+     * @return the ids of the matching projects.
+     */
+    private ProjectIdBitmap scanBudgets(double minBudget, double maxBudget) {
+        int[] matches = new int[projects.cardinality()];
+        int matchCount = 0;
+        for (int projectId = 0; projectId < budgetById.length; projectId++) {
+            double budget = budgetById[projectId];
+            if (budget >= minBudget && budget <= maxBudget) {
+                matches[matchCount++] = projectId;
+            }
+        }
+        return ProjectIdBitmap.ofSorted(matches, matchCount);
+    }
+
+    /**
+     * Keeps the candidates whose budget is in a range, looking up the budget of each candidate.
+     *
+     * @param candidates the ids of the candidates.
+     * @param minBudget  the lowest budget, inclusive.
+     * @param maxBudget  the highest budget, inclusive.
+     * @return the ids of the matching candidates.
+     */
+    private ProjectIdBitmap retainBudgets(ProjectIdBitmap candidates, double minBudget, double maxBudget) {
+        int[] matches = new int[candidates.cardinality()];
+        int[] matchCount = {0};
+        candidates.forEach(projectId -> {
+            if (projectId < budgetById.length && budgetById[projectId] >= minBudget
+                    && budgetById[projectId] <= maxBudget) {
+                matches[matchCount[0]++] = projectId;
+            }
+        });
+        return ProjectIdBitmap.ofSorted(matches, matchCount[0]);
+    }
+
+    private void index(int projectId, double budget, int ownerId) {
+        if (projectId >= budgetById.length) {
+            int capacity = Math.max(projectId + 1, budgetById.length * 2);
+            double[] budgets = newBudgets(capacity);
+            System.arraycopy(budgetById, 0, budgets, 0, budgetById.length);
+            budgetById = budgets;
+            ownerById = Arrays.copyOf(ownerById, capacity);
+        }
+        budgetById[projectId] = budget;
+        ownerById[projectId] = ownerId;
+        projects.add(projectId);
+        projectsByOwner.computeIfAbsent(ownerId, key -> new ProjectIdBitmap()).add(projectId);
+    }
+
+    private void unindex(int projectId) {
+        if (!projects.contains(projectId)) {
+            return;
+        }
+        projects.remove(projectId);
+        budgetById[projectId] = Double.NaN;
+        ProjectIdBitmap owned = projectsByOwner.get(ownerById[projectId]);
+        owned.remove(projectId);
+        if (owned.isEmpty()) {
+            projectsByOwner.remove(ownerById[projectId]);
+        }
+    }
+
+    private static double[] newBudgets(int capacity) {
+        double[] budgets = new double[capacity];
+        Arrays.fill(budgets, Double.NaN);
+        return budgets;
+    }
+}
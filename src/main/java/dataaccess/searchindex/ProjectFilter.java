@@ -0,0 +1,77 @@
+package dataaccess.searchindex;
+
+/**
+ * Structured conditions on the projects a search may return: a budget range, a tag query and an owner.
+ * Every condition must hold. The default of each condition puts no restriction on the projects.
+ *
+ * @param minBudget the lowest budget a project may have, inclusive.
+ * @param maxBudget the highest budget a project may have, inclusive.
+ * @param tags      the tags a project must have or must not have.
+ * @param ownerId   the id of the user who must own the project, or {@link #ANY_OWNER}.
+ */
+public record ProjectFilter(double minBudget, double maxBudget, TagFilter tags, int ownerId) {
+    public static final int ANY_OWNER = -1;
+    public static final ProjectFilter NONE = new ProjectFilter(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            TagFilter.NONE, ANY_OWNER);
+
+    /**
+     * Constructs a ProjectFilter. A null tag filter is read as {@link TagFilter#NONE}.
+     *
+     * @param minBudget the lowest budget a project may have, inclusive.
+     * @param maxBudget the highest budget a project may have, inclusive.
+     * @param tags      the tags a project must have or must not have.
+     * @param ownerId   the id of the user who must own the project, or {@link #ANY_OWNER}.
+     */
+    public ProjectFilter {
+        tags = tags == null ? TagFilter.NONE : tags;
+    }
+
+    /**
+     * Returns a copy of this filter with another budget range.
+     *
+     * @param minBudget the lowest budget a project may have, inclusive.
+     * @param maxBudget the highest budget a project may have, inclusive.
+     * @return the new filter.
+     */
+    public ProjectFilter withBudget(double minBudget, double maxBudget) {
+        return new ProjectFilter(minBudget, maxBudget, tags, ownerId);
+    }
+
+    /**
+     * Returns a copy of this filter with another tag query.
+     *
+     * @param tags the tags a project must have or must not have.
+     * @return the new filter.
+     */
+    public ProjectFilter withTags(TagFilter tags) {
+        return new ProjectFilter(minBudget, maxBudget, tags, ownerId);
+    }
+
+    /**
+     * Returns a copy of this filter with another owner.
+     *
+     * @param ownerId the id of the user who must own the project, or {@link #ANY_OWNER}.
+     * @return the new filter.
+     */
+    public ProjectFilter withOwner(int ownerId) {
+        return new ProjectFilter(minBudget, maxBudget, tags, ownerId);
+    }
+
+    /**
+     * Checks whether the filter restricts the budget.
+     *
+     * @return true if either bound of the budget range is finite.
+     */
+    public boolean hasBudgetRange() {
+        return minBudget != Double.NEGATIVE_INFINITY || maxBudget != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether the filter accepts every project.
+     *
+     * @return true if no condition restricts the projects.
+     */
+    public boolean isEmpty() {
+        return !hasBudgetRange() && tags.isEmpty() && ownerId == ANY_OWNER;
+    }
+}
@@ -0,0 +1,652 @@
+package dataaccess.searchindex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of project ids, in the style of a Roaring bitmap.
+ * <p>
+ * Ids are split by their upper 16 bits into chunks of 65536 ids. Each chunk stores its lower 16 bits in the
+ * smaller of two containers: a sorted array of up to {@value #ARRAY_MAX} values, or a bitmap of 65536 bits once
+ * it holds more. Sparse sets therefore cost two bytes per id and dense ones one bit per id, and set operations
+ * work a chunk at a time, on whole words of 64 ids when both chunks are bitmaps.
+ * </p>
+ * Ids must not be negative. A bitmap is not thread-safe; the set operations return new bitmaps and leave
+ * their arguments unchanged.
+ */
+public class ProjectIdBitmap {
+    public static final int ARRAY_MAX = 4096; // an array of more values takes more space than a bitmap
+    private static final int BITMAP_WORDS = 1024; // 65536 bits
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size = 0;
+
+    /**
+     * The lower 16 bits of the ids of one chunk, as a sorted array or as a bitmap.
+     * Exactly one of values and bits is set.
+     */
+    private static final class Container {
+        private char[] values;
+        private long[] bits;
+        private int cardinality;
+
+        private static Container ofArray(char[] values, int cardinality) {
+            Container container = new Container();
+            container.values = values;
+            container.cardinality = cardinality;
+            return container;
+        }
+
+        private static Container ofBits(long[] bits, int cardinality) {
+            Container container = new Container();
+            container.bits = bits;
+            container.cardinality = cardinality;
+            return container.shrink();
+        }
+
+        private boolean contains(char value) {
+            if (bits != null) {
+                return (bits[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        private Container add(char value) {
+            if (bits != null) {
+                long word = bits[value >>> 6];
+                long updated = word | (1L << value);
+                if (updated != word) {
+                    bits[value >>> 6] = updated;
+                    cardinality++;
+                }
+                return this;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                Container container = new Container();
+                container.bits = toBits();
+                container.cardinality = cardinality;
+                return container.add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        private Container remove(char value) {
+            if (bits != null) {
+                long word = bits[value >>> 6];
+                long updated = word & ~(1L << value);
+                if (updated != word) {
+                    bits[value >>> 6] = updated;
+                    cardinality--;
+                }
+                return shrink();
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        /**
+         * Converts a bitmap container that holds few enough values back to an array container.
+         */
+        private Container shrink() {
+            if (bits == null || cardinality > ARRAY_MAX) {
+                return this;
+            }
+            char[] array = new char[cardinality];
+            int count = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    array[count++] = (char) ((word << 6) + Long.numberOfTrailingZeros(remaining));
+                    remaining &= remaining - 1;
+                }
+            }
+            return ofArray(array, cardinality);
+        }
+
+        private long[] toBits() {
+            if (bits != null) {
+                return bits.clone();
+            }
+            long[] result = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                result[values[i] >>> 6] |= 1L << values[i];
+            }
+            return result;
+        }
+
+        private Container copy() {
+            return bits != null ? ofBits(bits.clone(), cardinality) : ofArray(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        private static Container and(Container a, Container b) {
+            if (a.bits != null && b.bits != null) {
+                long[] result = new long[BITMAP_WORDS];
+                int cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] = a.bits[i] & b.bits[i];
+                    cardinality += Long.bitCount(result[i]);
+                }
+                return ofBits(result, cardinality);
+            }
+            if (a.bits != null) {
+                return and(b, a);
+            }
+            char[] result = new char[a.cardinality];
+            int count = 0;
+            if (b.bits != null) {
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (b.contains(a.values[i])) {
+                        result[count++] = a.values[i];
+                    }
+                }
+                return ofArray(result, count);
+            }
+            int i = 0;
+            int j = 0;
+            while (i < a.cardinality && j < b.cardinality) {
+                if (a.values[i] < b.values[j]) {
+                    i++;
+                } else if (a.values[i] > b.values[j]) {
+                    j++;
+                } else {
+                    result[count++] = a.values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return ofArray(result, count);
+        }
+
+        private static int andCardinality(Container a, Container b) {
+            if (a.bits != null && b.bits != null) {
+                int cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    cardinality += Long.bitCount(a.bits[i] & b.bits[i]);
+                }
+                return cardinality;
+            }
+            if (a.bits != null) {
+                return andCardinality(b, a);
+            }
+            int cardinality = 0;
+            if (b.bits != null) {
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (b.contains(a.values[i])) {
+                        cardinality++;
+                    }
+                }
+                return cardinality;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < a.cardinality && j < b.cardinality) {
+                if (a.values[i] < b.values[j]) {
+                    i++;
+                } else if (a.values[i] > b.values[j]) {
+                    j++;
+                } else {
+                    cardinality++;
+                    i++;
+                    j++;
+                }
+            }
+            return cardinality;
+        }
+
+        private static Container or(Container a, Container b) {
+            if (a.bits != null || b.bits != null || a.cardinality + b.cardinality > ARRAY_MAX) {
+                long[] result = a.toBits();
+                if (b.bits != null) {
+                    for (int i = 0; i < BITMAP_WORDS; i++) {
+                        result[i] |= b.bits[i];
+                    }
+                } else {
+                    for (int i = 0; i < b.cardinality; i++) {
+                        result[b.values[i] >>> 6] |= 1L << b.values[i];
+                    }
+                }
+                int cardinality = 0;
+                for (long word : result) {
+                    cardinality += Long.bitCount(word);
+                }
+                return ofBits(result, cardinality);
+            }
+            char[] result = new char[a.cardinality + b.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.cardinality || j < b.cardinality) {
+                if (j == b.cardinality || (i < a.cardinality && a.values[i] < b.values[j])) {
+                    result[count++] = a.values[i++];
+                } else if (i == a.cardinality || b.values[j] < a.values[i]) {
+                    result[count++] = b.values[j++];
+                } else {
+                    result[count++] = a.values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return ofArray(result, count);
+        }
+
+        private static Container andNot(Container a, Container b) {
+            if (a.bits != null) {
+                long[] result = a.bits.clone();
+                if (b.bits != null) {
+                    for (int i = 0; i < BITMAP_WORDS; i++) {
+                        result[i] &= ~b.bits[i];
+                    }
+                } else {
+                    for (int i = 0; i < b.cardinality; i++) {
+                        result[b.values[i] >>> 6] &= ~(1L << b.values[i]);
+                    }
+                }
+                int cardinality = 0;
+                for (long word : result) {
+                    cardinality += Long.bitCount(word);
+                }
+                return ofBits(result, cardinality);
+            }
+            char[] result = new char[a.cardinality];
+            int count = 0;
+            for (int i = 0; i < a.cardinality; i++) {
+                if (!b.contains(a.values[i])) {
+                    result[count++] = a.values[i];
+                }
+            }
+            return ofArray(result, count);
+        }
+
+        private void forEach(int high, IntConsumer action) {
+            if (bits == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(high | values[i]);
+                }
+                return;
+            }
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    action.accept(high | ((word << 6) + Long.numberOfTrailingZeros(remaining)));
+                    remaining &= remaining - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a bitmap of the given ids.
+     *
+     * @param ids the ids, in any order.
+     * @return the bitmap.
+     */
+    public static ProjectIdBitmap of(int... ids) {
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        for (int id : ids) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Creates a bitmap of ids given in increasing order. Each container is built at once instead of by adding
+     * its ids one by one.
+     *
+     * @param ids   the ids, in increasing order.
+     * @param count the number of ids to use.
+     * @return the bitmap.
+     * @throws IllegalArgumentException if an id is negative or the ids are not increasing.
+     */
+    public static ProjectIdBitmap ofSorted(int[] ids, int count) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] < 0 || (i > 0 && ids[i] <= ids[i - 1])) {
+                throw new IllegalArgumentException("Project ids not increasing at index " + i + ": " + ids[i]);
+            }
+        }
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        int start = 0;
+        while (start < count) {
+            int key = ids[start] >>> 16;
+            int end = start + 1;
+            while (end < count && ids[end] >>> 16 == key) {
+                end++;
+            }
+            int cardinality = end - start;
+            Container container;
+            if (cardinality <= ARRAY_MAX) {
+                char[] values = new char[cardinality];
+                for (int i = 0; i < cardinality; i++) {
+                    values[i] = (char) ids[start + i];
+                }
+                container = Container.ofArray(values, cardinality);
+            } else {
+                long[] bits = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    bits[(char) ids[i] >>> 6] |= 1L << ids[i];
+                }
+                container = Container.ofBits(bits, cardinality);
+            }
+            bitmap.insert(bitmap.size, (char) key, container);
+            start = end;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Adds an id to the set.
+     *
+     * @param id the id, not negative.
+     * @throws IllegalArgumentException if the id is negative.
+     */
+    public void add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative project id: " + id);
+        }
+        char key = (char) (id >>> 16);
+        int index = indexOf(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) id);
+            return;
+        }
+        Container container = Container.ofArray(new char[4], 0).add((char) id);
+        insert(-index - 1, key, container);
+    }
+
+    /**
+     * Removes an id from the set. Does nothing if it is not in the set.
+     *
+     * @param id the id.
+     */
+    public void remove(int id) {
+        if (id < 0) {
+            return;
+        }
+        int index = indexOf((char) (id >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) id);
+        if (container.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    /**
+     * Checks whether an id is in the set.
+     *
+     * @param id the id.
+     * @return true if the set contains the id.
+     */
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = indexOf((char) (id >>> 16));
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    /**
+     * Returns the number of ids in the set.
+     *
+     * @return the cardinality.
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     *
+     * @return true if the set has no ids.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls an action for every id in the set, in increasing order.
+     *
+     * @param action the action.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns the ids in the set.
+     *
+     * @return the ids, in increasing order.
+     */
+    public int[] toArray() {
+        int[] ids = new int[cardinality()];
+        int[] count = {0};
+        forEach(id -> ids[count[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * Returns the largest id in the set.
+     *
+     * @return the largest id, or -1 if the set is empty.
+     */
+    public int last() {
+        if (size == 0) {
+            return -1;
+        }
+        Container container = containers[size - 1];
+        int low;
+        if (container.bits == null) {
+            low = container.values[container.cardinality - 1];
+        } else {
+            int word = BITMAP_WORDS - 1;
+            while (container.bits[word] == 0) {
+                word--;
+            }
+            low = (word << 6) + Long.SIZE - 1 - Long.numberOfLeadingZeros(container.bits[word]);
+        }
+        return keys[size - 1] << 16 | low;
+    }
+
+    /**
+     * Returns the ids in the set as a {@link BitSet}, which checks an id with a single word lookup instead of a
+     * search of its container. It takes one bit for every id up to the largest one in the set.
+     *
+     * @return the bit set.
+     */
+    public BitSet toBitSet() {
+        if (size == 0) {
+            return new BitSet();
+        }
+        long[] words = new long[(keys[size - 1] + 1) * BITMAP_WORDS];
+        for (int i = 0; i < size; i++) {
+            Container container = containers[i];
+            int offset = keys[i] * BITMAP_WORDS;
+            if (container.bits != null) {
+                System.arraycopy(container.bits, 0, words, offset, BITMAP_WORDS);
+                continue;
+            }
+            for (int j = 0; j < container.cardinality; j++) {
+                char value = container.values[j];
+                words[offset + (value >>> 6)] |= 1L << value;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns a copy of the set.
+     *
+     * @return the copy.
+     */
+    public ProjectIdBitmap copy() {
+        ProjectIdBitmap copy = new ProjectIdBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(4, size));
+        copy.containers = new Container[copy.keys.length];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the ids in both sets.
+     *
+     * @param a a set.
+     * @param b another set.
+     * @return the intersection.
+     */
+    public static ProjectIdBitmap and(ProjectIdBitmap a, ProjectIdBitmap b) {
+        ProjectIdBitmap result = new ProjectIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = Container.and(a.containers[i], b.containers[j]);
+                if (container.cardinality > 0) {
+                    result.insert(result.size, a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the ids in both sets, without building their intersection.
+     *
+     * @param a a set.
+     * @param b another set.
+     * @return the cardinality of the intersection.
+     */
+    public static int andCardinality(ProjectIdBitmap a, ProjectIdBitmap b) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                cardinality += Container.andCardinality(a.containers[i], b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns the ids in either set.
+     *
+     * @param a a set.
+     * @param b another set.
+     * @return the union.
+     */
+    public static ProjectIdBitmap or(ProjectIdBitmap a, ProjectIdBitmap b) {
+        ProjectIdBitmap result = new ProjectIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.insert(result.size, a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || b.keys[j] < a.keys[i]) {
+                result.insert(result.size, b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.insert(result.size, a.keys[i], Container.or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids in the first set but not in the second.
+     *
+     * @param a a set.
+     * @param b the ids to leave out.
+     * @return the difference.
+     */
+    public static ProjectIdBitmap andNot(ProjectIdBitmap a, ProjectIdBitmap b) {
+        ProjectIdBitmap result = new ProjectIdBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            Container container = j < b.size && b.keys[j] == a.keys[i]
+                    ? Container.andNot(a.containers[i], b.containers[j]) : a.containers[i].copy();
+            if (container.cardinality > 0) {
+                result.insert(result.size, a.keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ProjectIdBitmap bitmap && Arrays.equals(toArray(), bitmap.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,308 @@
+package dataaccess.searchindex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Resident, in-memory index of project embeddings.
+ * <p>
+ * The index is loaded from storage once and then kept up to date by the project repository whenever a
+ * project is created, edited or deleted, so searches no longer have to read every embedding from storage.
+ * Searches read an immutable {@link EmbeddingSnapshot}; writes publish a new snapshot without disturbing
+ * searches that are still running against an older one.
+ * </p>
+ * Embeddings are normalized when they are written and stored in one contiguous matrix, at full precision
+ * or {@linkplain #setQuantization(Quantization) quantized} to save memory.
+ * Rows are only ever appended. Editing or deleting a project marks its old row as removed in the new
+ * snapshot, and the rows are compacted once too many of them are removed.
+ * All embeddings must have the same length; an embedding of another length is not indexed.
+ */
+public class ProjectVectorIndex {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_CHANGE_LOG = 10_000;
+
+    private final Supplier<? extends Map<Integer, float[]>> loader;
+    private final HashMap<Integer, Integer> rowById = new HashMap<>();
+    private final ArrayDeque<Change> changeLog = new ArrayDeque<>();
+    private volatile EmbeddingSnapshot snapshot;
+
+    private Quantization quantization = Quantization.NONE;
+    private int[] ids = new int[0];
+    private RowStorage rows = RowStorage.create(quantization, 0, 0);
+    private int dimension = 0;
+    private int rowCount = 0;
+    private long version = 0;
+
+    /**
+     * A single write applied to the index.
+     *
+     * @param version   the version of the index after the write.
+     * @param projectId the id of the project that was written.
+     * @param embedding the new normalized embedding of the project, or null if it was removed.
+     */
+    public record Change(long version, int projectId, float[] embedding) {
+    }
+
+    /**
+     * Constructs a ProjectVectorIndex that is loaded from storage on first use.
+     *
+     * @param loader supplies every stored embedding, keyed by project id.
+     */
+    public ProjectVectorIndex(Supplier<? extends Map<Integer, float[]>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Loads the index from storage if it is not loaded yet.
+     * Called at startup so that the first search does not pay for the load.
+     */
+    public void load() {
+        if (snapshot == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    Map<Integer, float[]> stored = loader.get();
+                    for (Map.Entry<Integer, float[]> data : stored.entrySet()) {
+                        float[] embedding = data.getValue();
+                        if (embedding != null && embedding.length > 0 && accepts(embedding)) {
+                            append(data.getKey(), VectorMath.normalize(embedding));
+                        }
+                    }
+                    publish();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current snapshot of the index, loading the index first if needed.
+     *
+     * @return the current snapshot.
+     */
+    public EmbeddingSnapshot snapshot() {
+        EmbeddingSnapshot current = snapshot;
+        if (current == null) {
+            load();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the version of the index. The version changes on every write.
+     *
+     * @return the current version.
+     */
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * Sets how the embeddings are stored in memory.
+     * If the index is already loaded and the quantization changes, it is unloaded and read again from storage
+     * on next use, since quantized embeddings cannot be converted back to full precision.
+     *
+     * @param quantization the new quantization.
+     */
+    public synchronized void setQuantization(Quantization quantization) {
+        if (quantization == this.quantization) {
+            return;
+        }
+        this.quantization = quantization;
+        rowById.clear();
+        changeLog.clear(); // derived indexes must rebuild
+        ids = new int[0];
+        rows = RowStorage.create(quantization, dimension, 0);
+        rowCount = 0;
+        if (snapshot != null) {
+            version++;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Returns how the embeddings are stored in memory.
+     *
+     * @return the quantization.
+     */
+    public synchronized Quantization getQuantization() {
+        return quantization;
+    }
+
+    /**
+     * Adds or replaces the embedding of a project.
+     * An empty embedding removes the project from the index.
+     *
+     * @param projectId the id of the project.
+     * @param embedding the embedding of the project.
+     */
+    public synchronized void put(int projectId, float[] embedding) {
+        if (snapshot == null) {
+            return; // the stored embedding will be read when the index is loaded
+        }
+        if (embedding == null || embedding.length == 0) {
+            remove(projectId);
+            return;
+        }
+        Integer row = rowById.get(projectId);
+        if (row != null && embedding.length != dimension) {
+            remove(projectId); // if this was the only project, the index may now change dimension
+            row = null;
+        }
+        if (!accepts(embedding)) {
+            System.err.println("Embedding of project " + projectId + " has length " + embedding.length
+                    + " instead of " + dimension + ", not indexed");
+            return;
+        }
+        float[] normalized = VectorMath.normalize(embedding);
+        if (row != null && rows.matches(row, normalized)) {
+            return;
+        }
+        if (row != null) {
+            removeRow(projectId, row);
+        }
+        append(projectId, normalized);
+        record(projectId, normalized);
+    }
+
+    /**
+     * Removes the embedding of a project.
+     *
+     * @param projectId the id of the project.
+     */
+    public synchronized void remove(int projectId) {
+        if (snapshot == null) {
+            return;
+        }
+        Integer row = rowById.get(projectId);
+        if (row != null) {
+            removeRow(projectId, row);
+            record(projectId, null);
+        }
+    }
+
+    /**
+     * Returns the writes applied after the given version, oldest first.
+     * Used by derived indexes to catch up without rebuilding.
+     *
+     * @param sinceVersion the version the caller is up to date with.
+     * @return the changes, or null if they are no longer available and the caller must rebuild.
+     */
+    public synchronized List<Change> changesSince(long sinceVersion) {
+        if (sinceVersion == version) {
+            return List.of();
+        }
+        if (changeLog.isEmpty() || changeLog.peekFirst().version() > sinceVersion + 1) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>();
+        for (Change change : changeLog) {
+            if (change.version() > sinceVersion) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Checks whether an embedding can be stored next to the embeddings already in the index.
+     * The first embedding stored in an empty index sets the dimension.
+     *
+     * @param embedding the embedding.
+     * @return true if the embedding has the same length as the indexed embeddings.
+     */
+    private boolean accepts(float[] embedding) {
+        if (rowById.isEmpty() && embedding.length != dimension) {
+            dimension = embedding.length;
+            ids = new int[0];
+            rows = RowStorage.create(quantization, dimension, 0);
+            rowCount = 0;
+        }
+        return embedding.length == dimension;
+    }
+
+    /**
+     * Appends a row to the backing arrays, growing or compacting them when they are full.
+     * The arrays double in size, up to the largest number of rows of this dimension that fit in one array.
+     *
+     * @param projectId  the id of the project.
+     * @param normalized the normalized embedding, of length {@code dimension}.
+     * @throws IllegalStateException if the index already holds as many embeddings as fit in one array.
+     */
+    private void append(int projectId, float[] normalized) {
+        if (rowCount == ids.length) {
+            int maxRows = RowStorage.maxRows(dimension);
+            if (rowById.size() >= maxRows) {
+                throw new IllegalStateException("The vector index holds at most " + maxRows
+                        + " embeddings of length " + dimension + ", project " + projectId + " cannot be indexed");
+            }
+            compact((int) Math.min(maxRows, Math.max(INITIAL_CAPACITY, rowById.size() * 2L)));
+        }
+        ids[rowCount] = projectId;
+        rows.set(rowCount, normalized);
+        rowById.put(projectId, rowCount);
+        rowCount++;
+    }
+
+    /**
+     * Marks a row as removed. The ids are copied first because older snapshots still read them.
+     *
+     * @param projectId the id of the project in the row.
+     * @param row       the row to remove.
+     */
+    private void removeRow(int projectId, int row) {
+        rowById.remove(projectId);
+        ids = ids.clone();
+        ids[row] = -1;
+        if (rowCount - rowById.size() > rowCount / 2) {
+            compact(ids.length);
+        }
+    }
+
+    /**
+     * Copies the live rows into fresh arrays with room for the given number of rows.
+     *
+     * @param capacity the number of rows the new arrays can hold.
+     */
+    private void compact(int capacity) {
+        int[] newIds = new int[capacity];
+        RowStorage newRows = RowStorage.create(quantization, dimension, capacity);
+        int newRowCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (ids[row] >= 0) {
+                newIds[newRowCount] = ids[row];
+                rows.copyRow(row, newRows, newRowCount);
+                rowById.put(ids[row], newRowCount);
+                newRowCount++;
+            }
+        }
+        ids = newIds;
+        rows = newRows;
+        rowCount = newRowCount;
+    }
+
+    /**
+     * Records a write in the change log and publishes a new snapshot.
+     *
+     * @param projectId the id of the project that was written.
+     * @param embedding the new normalized embedding, or null if the project was removed.
+     */
+    private void record(int projectId, float[] embedding) {
+        version++;
+        changeLog.addLast(new Change(version, projectId, embedding));
+        if (changeLog.size() > MAX_CHANGE_LOG) {
+            changeLog.removeFirst();
+        }
+        publish();
+    }
+
+    /**
+     * Publishes the current rows as a new snapshot.
+     */
+    private void publish() {
+        snapshot = new EmbeddingSnapshot(version, ids, rows, dimension, rowCount, rowById.size());
+    }
+}
@@ -0,0 +1,41 @@
+package dataaccess.searchindex;
+
+/**
+ * How a {@link ProjectVectorIndex} stores the embeddings it keeps in memory.
+ * <p>
+ * Quantized embeddings take a fraction of the memory of full-precision ones but only approximate their
+ * similarities, so searches over them rescore their best candidates against the full-precision embeddings
+ * kept in storage.
+ * </p>
+ */
+public enum Quantization {
+    /**
+     * Four bytes per value.
+     */
+    NONE(0f),
+    /**
+     * One byte per value, scaled separately for each embedding so that its largest value maps to 127.
+     */
+    INT8(0.02f),
+    /**
+     * Two bytes per value, as IEEE 754 half-precision floats.
+     */
+    FLOAT16(0.002f);
+
+    private final float scoreError;
+
+    Quantization(float scoreError) {
+        this.scoreError = scoreError;
+    }
+
+    /**
+     * Returns how far a similarity computed on quantized embeddings may be from the exact similarity in practice.
+     * Searches lower their minimum score by this much before rescoring, so that projects just above the minimum
+     * are not lost to quantization error.
+     *
+     * @return the error margin of a similarity.
+     */
+    public float scoreError() {
+        return scoreError;
+    }
+}
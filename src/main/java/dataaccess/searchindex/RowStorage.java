@@ -0,0 +1,329 @@
+package dataaccess.searchindex;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity storage for the normalized embedding rows of a {@link ProjectVectorIndex}.
+ * <p>
+ * Rows are written once and never changed afterwards, so snapshots can share the storage while new rows
+ * are appended behind them. Each {@link Quantization} has its own encoding of the rows.
+ * </p>
+ */
+abstract class RowStorage {
+    static final int MAX_VALUES = Integer.MAX_VALUE - 8; // the longest array every JVM can allocate
+
+    protected final int dimension;
+    protected final int capacity;
+
+    private RowStorage(int dimension, int capacity) {
+        if ((long) capacity * dimension > MAX_VALUES) {
+            throw new IllegalArgumentException(capacity + " rows of " + dimension
+                    + " values do not fit in one array, the limit is " + maxRows(dimension) + " rows");
+        }
+        this.dimension = dimension;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the largest number of rows of the given dimension that storage can hold. The rows of a storage
+     * live in one array, so that row offsets fit in an int.
+     *
+     * @param dimension the length of each embedding.
+     * @return the largest capacity.
+     */
+    static int maxRows(int dimension) {
+        return dimension == 0 ? MAX_VALUES : MAX_VALUES / dimension;
+    }
+
+    /**
+     * Creates empty storage.
+     *
+     * @param quantization the encoding of the rows.
+     * @param dimension    the length of each embedding.
+     * @param capacity     the number of rows the storage can hold, at most {@link #maxRows(int)}.
+     * @return the storage.
+     * @throws IllegalArgumentException if the rows do not fit in one array.
+     */
+    static RowStorage create(Quantization quantization, int dimension, int capacity) {
+        return switch (quantization) {
+            case NONE -> new FloatRows(dimension, capacity);
+            case INT8 -> new Int8Rows(dimension, capacity);
+            case FLOAT16 -> new Float16Rows(dimension, capacity);
+        };
+    }
+
+    /**
+     * Returns the number of rows the storage can hold.
+     *
+     * @return the capacity.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the encoding of the rows.
+     *
+     * @return the quantization.
+     */
+    abstract Quantization quantization();
+
+    /**
+     * Writes a row.
+     *
+     * @param row        the row.
+     * @param normalized the normalized embedding, of length {@code dimension}.
+     */
+    abstract void set(int row, float[] normalized);
+
+    /**
+     * Copies a row of this storage into another storage of the same encoding and dimension.
+     *
+     * @param row    the row to copy.
+     * @param target the storage to copy to.
+     * @param to     the row of the target storage.
+     */
+    abstract void copyRow(int row, RowStorage target, int to);
+
+    /**
+     * Checks whether a row already holds the encoding of the given embedding.
+     *
+     * @param row        the row.
+     * @param normalized the normalized embedding.
+     * @return true if writing the embedding would not change the row.
+     */
+    abstract boolean matches(int row, float[] normalized);
+
+    /**
+     * Returns the embedding stored in a row, decoded to floats.
+     *
+     * @param row the row.
+     * @return a copy of the embedding.
+     */
+    abstract float[] vectorAt(int row);
+
+    /**
+     * Returns the similarity between a normalized query and a row.
+     *
+     * @param row   the row.
+     * @param query the query, normalized and of length {@code dimension}.
+     * @return the similarity, exact for full-precision rows and approximate otherwise.
+     */
+    abstract float score(int row, float[] query);
+
+    /**
+     * Returns the number of bytes used by the rows, not counting the project ids.
+     *
+     * @return the memory used by the storage.
+     */
+    abstract long memoryBytes();
+
+    /**
+     * Four bytes per value, scored with the configured {@link SimilarityKernel}.
+     */
+    static final class FloatRows extends RowStorage {
+        private final float[] matrix;
+
+        FloatRows(int dimension, int capacity) {
+            super(dimension, capacity);
+            matrix = new float[capacity * dimension];
+        }
+
+        /**
+         * Wraps an already filled matrix.
+         *
+         * @param matrix    the rows, one after another.
+         * @param dimension the length of each embedding.
+         */
+        FloatRows(float[] matrix, int dimension) {
+            super(dimension, dimension == 0 ? 0 : matrix.length / dimension);
+            this.matrix = matrix;
+        }
+
+        @Override
+        Quantization quantization() {
+            return Quantization.NONE;
+        }
+
+        @Override
+        void set(int row, float[] normalized) {
+            System.arraycopy(normalized, 0, matrix, row * dimension, dimension);
+        }
+
+        @Override
+        void copyRow(int row, RowStorage target, int to) {
+            System.arraycopy(matrix, row * dimension, ((FloatRows) target).matrix, to * dimension, dimension);
+        }
+
+        @Override
+        boolean matches(int row, float[] normalized) {
+            return Arrays.equals(matrix, row * dimension, (row + 1) * dimension, normalized, 0, dimension);
+        }
+
+        @Override
+        float[] vectorAt(int row) {
+            return Arrays.copyOfRange(matrix, row * dimension, (row + 1) * dimension);
+        }
+
+        @Override
+        float score(int row, float[] query) {
+            return VectorMath.dot(query, matrix, row * dimension);
+        }
+
+        @Override
+        long memoryBytes() {
+            return (long) matrix.length * Float.BYTES;
+        }
+    }
+
+    /**
+     * One signed byte per value and one scale per row: value = code * scale.
+     * The scale maps the largest absolute value of the row to 127, so no row loses precision to another.
+     */
+    static final class Int8Rows extends RowStorage {
+        private final byte[] codes;
+        private final float[] scales;
+
+        Int8Rows(int dimension, int capacity) {
+            super(dimension, capacity);
+            codes = new byte[capacity * dimension];
+            scales = new float[capacity];
+        }
+
+        @Override
+        Quantization quantization() {
+            return Quantization.INT8;
+        }
+
+        @Override
+        void set(int row, float[] normalized) {
+            scales[row] = encode(normalized, codes, row * dimension);
+        }
+
+        @Override
+        void copyRow(int row, RowStorage target, int to) {
+            Int8Rows int8Target = (Int8Rows) target;
+            System.arraycopy(codes, row * dimension, int8Target.codes, to * dimension, dimension);
+            int8Target.scales[to] = scales[row];
+        }
+
+        @Override
+        boolean matches(int row, float[] normalized) {
+            byte[] encoded = new byte[dimension];
+            float scale = encode(normalized, encoded, 0);
+            return scale == scales[row] && Arrays.equals(codes, row * dimension, (row + 1) * dimension, encoded, 0, dimension);
+        }
+
+        @Override
+        float[] vectorAt(int row) {
+            float[] vector = new float[dimension];
+            int offset = row * dimension;
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = codes[offset + i] * scales[row];
+            }
+            return vector;
+        }
+
+        @Override
+        float score(int row, float[] query) {
+            int offset = row * dimension;
+            float sum = 0f;
+            for (int i = 0; i < dimension; i++) {
+                sum += query[i] * codes[offset + i];
+            }
+            return sum * scales[row];
+        }
+
+        @Override
+        long memoryBytes() {
+            return codes.length + (long) scales.length * Float.BYTES;
+        }
+
+        /**
+         * Encodes an embedding into bytes.
+         *
+         * @param vector the embedding.
+         * @param target the array to write the codes to.
+         * @param offset the position of the first code in the target.
+         * @return the scale of the codes.
+         */
+        private static float encode(float[] vector, byte[] target, int offset) {
+            float maxAbs = 0f;
+            for (float value : vector) {
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+            float scale = maxAbs / 127f;
+            for (int i = 0; i < vector.length; i++) {
+                target[offset + i] = scale == 0f ? 0 : (byte) Math.round(vector[i] / scale);
+            }
+            return scale;
+        }
+    }
+
+    /**
+     * Two bytes per value, as IEEE 754 half-precision floats.
+     * Normalized embeddings lie well within the range of half-precision floats, so only precision is lost.
+     */
+    static final class Float16Rows extends RowStorage {
+        private final short[] halves;
+
+        Float16Rows(int dimension, int capacity) {
+            super(dimension, capacity);
+            halves = new short[capacity * dimension];
+        }
+
+        @Override
+        Quantization quantization() {
+            return Quantization.FLOAT16;
+        }
+
+        @Override
+        void set(int row, float[] normalized) {
+            int offset = row * dimension;
+            for (int i = 0; i < dimension; i++) {
+                halves[offset + i] = Float.floatToFloat16(normalized[i]);
+            }
+        }
+
+        @Override
+        void copyRow(int row, RowStorage target, int to) {
+            System.arraycopy(halves, row * dimension, ((Float16Rows) target).halves, to * dimension, dimension);
+        }
+
+        @Override
+        boolean matches(int row, float[] normalized) {
+            int offset = row * dimension;
+            for (int i = 0; i < dimension; i++) {
+                if (halves[offset + i] != Float.floatToFloat16(normalized[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        float[] vectorAt(int row) {
+            float[] vector = new float[dimension];
+            int offset = row * dimension;
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = Float.float16ToFloat(halves[offset + i]);
+            }
+            return vector;
+        }
+
+        @Override
+        float score(int row, float[] query) {
+            int offset = row * dimension;
+            float sum = 0f;
+            for (int i = 0; i < dimension; i++) {
+                sum += query[i] * Float.float16ToFloat(halves[offset + i]);
+            }
+            return sum;
+        }
+
+        @Override
+        long memoryBytes() {
+            return (long) halves.length * Short.BYTES;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dataaccess.searchindex;
+
+/**
+ * Plain Java similarity kernel. Used when the Vector API is not available.
+ */
+public class ScalarSimilarityKernel implements SimilarityKernel {
+
+    @Override
+    public float dot(float[] query, float[] matrix, int offset) {
+        float sum = 0;
+        for (int i = 0; i < query.length; i++) {
+            sum += query[i] * matrix[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
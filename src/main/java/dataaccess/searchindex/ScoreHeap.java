@@ -0,0 +1,132 @@
+package dataaccess.searchindex;
+
+import java.util.Arrays;
+
+/**
+ * A growable binary min-heap of primitive (score, id) pairs.
+ * The pair with the lowest score is always at the top of the heap.
+ * Used by the search indexes to keep candidate lists without boxing every score.
+ */
+public class ScoreHeap {
+    private float[] scores;
+    private int[] ids;
+    private int size = 0;
+
+    /**
+     * Creates an empty heap with the given initial capacity.
+     *
+     * @param initialCapacity the number of pairs the heap can hold before growing.
+     */
+    public ScoreHeap(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.scores = new float[capacity];
+        this.ids = new int[capacity];
+    }
+
+    /**
+     * Returns the number of pairs in the heap.
+     *
+     * @return the size of the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the heap is empty.
+     *
+     * @return true if the heap has no pairs, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a pair to the heap.
+     *
+     * @param score the score of the pair.
+     * @param id    the id of the pair.
+     */
+    public void push(float score, int id) {
+        if (size == scores.length) {
+            scores = Arrays.copyOf(scores, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            scores[index] = scores[parent];
+            ids[index] = ids[parent];
+            index = parent;
+        }
+        scores[index] = score;
+        ids[index] = id;
+    }
+
+    /**
+     * Returns the lowest score in the heap.
+     *
+     * @return the score at the top of the heap.
+     */
+    public float peekScore() {
+        return scores[0];
+    }
+
+    /**
+     * Returns the id paired with the lowest score in the heap.
+     *
+     * @return the id at the top of the heap.
+     */
+    public int peekId() {
+        return ids[0];
+    }
+
+    /**
+     * Removes the pair with the lowest score from the heap.
+     */
+    public void pop() {
+        size--;
+        if (size == 0) {
+            return;
+        }
+        float score = scores[size];
+        int id = ids[size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && scores[right] < scores[child]) {
+                child = right;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            scores[index] = scores[child];
+            ids[index] = ids[child];
+            index = child;
+        }
+        scores[index] = score;
+        ids[index] = id;
+    }
+
+    /**
+     * Removes every pair from the heap and returns them ordered from the highest to the lowest score.
+     *
+     * @return the pairs of the heap, best first.
+     */
+    public ScoredIds drainDescending() {
+        int count = size;
+        int[] sortedIds = new int[count];
+        float[] sortedScores = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            sortedIds[i] = peekId();
+            sortedScores[i] = peekScore();
+            pop();
+        }
+        return new ScoredIds(sortedIds, sortedScores);
+    }
+}
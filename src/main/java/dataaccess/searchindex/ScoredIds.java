@@ -0,0 +1,24 @@
+package dataaccess.searchindex;
+
+/**
+ * An immutable list of ids and their scores, ordered from the best to the worst score.
+ *
+ * @param ids    the ids, best first.
+ * @param scores the score of each id, aligned with {@code ids}.
+ */
+public record ScoredIds(int[] ids, float[] scores) {
+
+    /**
+     * An empty result.
+     */
+    public static final ScoredIds EMPTY = new ScoredIds(new int[0], new float[0]);
+
+    /**
+     * Returns the number of ids in the result.
+     *
+     * @return the number of ids.
+     */
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,214 @@
+package dataaccess.searchindex;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Exact, exhaustive scoring of an {@link EmbeddingSnapshot} against a query.
+ * <p>
+ * Snapshots with at least {@code parallelThreshold} rows are split into shards that are scored in parallel
+ * on a {@link ForkJoinPool}. Each shard keeps its own top k and the shards are merged pairwise as they finish.
+ * Smaller snapshots are scored on the calling thread, where forking would cost more than it saves.
+ * </p>
+ */
+public class ShardedScanner {
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 20_000;
+    private static final int MIN_SHARD_ROWS = 2_048;
+    private static final int SHARDS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    /**
+     * Constructs a ShardedScanner on the common pool with the default parallel threshold.
+     */
+    public ShardedScanner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Constructs a ShardedScanner.
+     *
+     * @param pool              the pool the shards are scored on.
+     * @param parallelThreshold the number of rows from which a scan is split into shards.
+     */
+    public ShardedScanner(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns the k best projects of the snapshot that score at least {@code minScore}.
+     *
+     * @param snapshot the embeddings to score.
+     * @param query    the query, normalized and of the snapshot's dimension.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest score a project may have to be returned.
+     * @return the project ids and their scores, best first.
+     */
+    public ScoredIds topK(EmbeddingSnapshot snapshot, float[] query, int k, float minScore) {
+        return topK(snapshot, query, k, minScore, null);
+    }
+
+    /**
+     * Returns the k best projects of the snapshot that score at least {@code minScore}, among the given projects.
+     * Rows of other projects are skipped before they are scored, so a selective filter scores few rows. The scan
+     * is only split into shards if the projects to score, not the rows, reach the parallel threshold.
+     *
+     * @param snapshot   the embeddings to score.
+     * @param query      the query, normalized and of the snapshot's dimension.
+     * @param k          the maximum number of projects to return.
+     * @param minScore   the lowest score a project may have to be returned.
+     * @param projectIds the ids of the projects that may be returned, or null for every project.
+     * @return the project ids and their scores, best first.
+     */
+    public ScoredIds topK(EmbeddingSnapshot snapshot, float[] query, int k, float minScore,
+                          ProjectIdBitmap projectIds) {
+        int rows = snapshot.rowCount();
+        int scored = projectIds == null ? rows : Math.min(rows, projectIds.cardinality());
+        IntPredicate accepts = projectIds == null ? null : membership(projectIds, rows);
+        if (scored < parallelThreshold) {
+            return scanTopK(snapshot, query, k, minScore, accepts, 0, rows).result();
+        }
+        return pool.invoke(new TopKShard(snapshot, query, k, minScore, accepts, 0, rows, shardRows(rows))).result();
+    }
+
+    /**
+     * Returns the membership test the scan checks every row with. The bitmap is expanded to a bit set, whose
+     * lookups cost less than the dot product they save, unless the ids are so sparse that the bit set would take
+     * more than a word per row.
+     *
+     * @param projectIds the ids of the projects that may be returned.
+     * @param rows       the number of rows to scan.
+     * @return the test of whether a project id may be returned.
+     */
+    private static IntPredicate membership(ProjectIdBitmap projectIds, int rows) {
+        if (projectIds.last() / Long.SIZE > rows) {
+            return projectIds::contains;
+        }
+        return projectIds.toBitSet()::get;
+    }
+
+    /**
+     * Scores every row of the snapshot. Removed rows are left at 0.
+     *
+     * @param snapshot the embeddings to score.
+     * @param query    the query, normalized and of the snapshot's dimension.
+     * @return the score of each row.
+     */
+    public float[] scoreAll(EmbeddingSnapshot snapshot, float[] query) {
+        int rows = snapshot.rowCount();
+        float[] scores = new float[rows];
+        if (rows < parallelThreshold) {
+            scanScores(snapshot, query, scores, 0, rows);
+        } else {
+            pool.invoke(new ScoreShard(snapshot, query, scores, 0, rows, shardRows(rows)));
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the number of rows per shard, so that every thread gets a few shards to balance the load.
+     *
+     * @param rows the number of rows to scan.
+     * @return the shard size.
+     */
+    private int shardRows(int rows) {
+        return Math.max(MIN_SHARD_ROWS, rows / (pool.getParallelism() * SHARDS_PER_THREAD));
+    }
+
+    private static TopKCollector scanTopK(EmbeddingSnapshot snapshot, float[] query, int k, float minScore,
+                                          IntPredicate accepts, int from, int to) {
+        TopKCollector collector = new TopKCollector(k, minScore);
+        for (int row = from; row < to; row++) {
+            int projectId = snapshot.idAt(row);
+            if (projectId >= 0 && (accepts == null || accepts.test(projectId))) {
+                collector.offer(snapshot.score(row, query), projectId);
+            }
+        }
+        return collector;
+    }
+
+    private static void scanScores(EmbeddingSnapshot snapshot, float[] query, float[] scores, int from, int to) {
+        for (int row = from; row < to; row++) {
+            if (snapshot.idAt(row) >= 0) {
+                scores[row] = snapshot.score(row, query);
+            }
+        }
+    }
+
+    /**
+     * Collects the top k of a range of rows, splitting the range in half until it is one shard long.
+     */
+    private static class TopKShard extends RecursiveTask<TopKCollector> {
+        private final EmbeddingSnapshot snapshot;
+        private final float[] query;
+        private final int k;
+        private final float minScore;
+        private final IntPredicate accepts;
+        private final int from;
+        private final int to;
+        private final int shardRows;
+
+        TopKShard(EmbeddingSnapshot snapshot, float[] query, int k, float minScore, IntPredicate accepts,
+                  int from, int to, int shardRows) {
+            this.snapshot = snapshot;
+            this.query = query;
+            this.k = k;
+            this.minScore = minScore;
+            this.accepts = accepts;
+            this.from = from;
+            this.to = to;
+            this.shardRows = shardRows;
+        }
+
+        @Override
+        protected TopKCollector compute() {
+            if (to - from <= shardRows) {
+                return scanTopK(snapshot, query, k, minScore, accepts, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            TopKShard left = new TopKShard(snapshot, query, k, minScore, accepts, from, middle, shardRows);
+            left.fork();
+            TopKCollector right = new TopKShard(snapshot, query, k, minScore, accepts, middle, to, shardRows)
+                    .compute();
+            TopKCollector merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Scores a range of rows, splitting the range in half until it is one shard long.
+     */
+    private static class ScoreShard extends RecursiveAction {
+        private final EmbeddingSnapshot snapshot;
+        private final float[] query;
+        private final float[] scores;
+        private final int from;
+        private final int to;
+        private final int shardRows;
+
+        ScoreShard(EmbeddingSnapshot snapshot, float[] query, float[] scores, int from, int to, int shardRows) {
+            this.snapshot = snapshot;
+            this.query = query;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+            this.shardRows = shardRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= shardRows) {
+                scanScores(snapshot, query, scores, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreShard(snapshot, query, scores, from, middle, shardRows),
+                    new ScoreShard(snapshot, query, scores, middle, to, shardRows));
+        }
+    }
+}
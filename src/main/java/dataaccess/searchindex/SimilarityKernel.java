@@ -0,0 +1,26 @@
+package dataaccess.searchindex;
+
+/**
+ * Computes the dot products used to score normalized embeddings.
+ * Implementations differ only in speed; {@link VectorMath#getKernel()} picks the fastest one available.
+ */
+public interface SimilarityKernel {
+
+    /**
+     * Returns the dot product of {@code query} and the row of {@code matrix} that starts at {@code offset}.
+     * The row is assumed to be as long as the query.
+     *
+     * @param query  the query vector.
+     * @param matrix the rows, stored one after another.
+     * @param offset the index of the first element of the row.
+     * @return the dot product.
+     */
+    float dot(float[] query, float[] matrix, int offset);
+
+    /**
+     * Returns a short name of the kernel for logs and benchmarks.
+     *
+     * @return the name of the kernel.
+     */
+    String name();
+}
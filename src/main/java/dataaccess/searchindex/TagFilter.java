@@ -0,0 +1,58 @@
+package dataaccess.searchindex;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A boolean query over project tags: projects with all of some tags, at least one of others, and none of others.
+ * An empty set puts no condition on the projects.
+ *
+ * @param allOf  the tags a project must all have.
+ * @param anyOf  the tags a project must have at least one of.
+ * @param noneOf the tags a project must not have.
+ */
+public record TagFilter(Set<String> allOf, Set<String> anyOf, Set<String> noneOf) {
+    public static final TagFilter NONE = new TagFilter(Set.of(), Set.of(), Set.of());
+
+    /**
+     * Constructs a TagFilter. Null sets are read as empty sets.
+     *
+     * @param allOf  the tags a project must all have.
+     * @param anyOf  the tags a project must have at least one of.
+     * @param noneOf the tags a project must not have.
+     */
+    public TagFilter {
+        allOf = allOf == null ? Set.of() : Set.copyOf(allOf);
+        anyOf = anyOf == null ? Set.of() : Set.copyOf(anyOf);
+        noneOf = noneOf == null ? Set.of() : Set.copyOf(noneOf);
+    }
+
+    /**
+     * Returns a filter for the projects having all the given tags.
+     *
+     * @param tags the tags.
+     * @return the filter.
+     */
+    public static TagFilter allOf(String... tags) {
+        return new TagFilter(Set.copyOf(List.of(tags)), Set.of(), Set.of());
+    }
+
+    /**
+     * Returns a filter for the projects having at least one of the given tags.
+     *
+     * @param tags the tags.
+     * @return the filter.
+     */
+    public static TagFilter anyOf(String... tags) {
+        return new TagFilter(Set.of(), Set.copyOf(List.of(tags)), Set.of());
+    }
+
+    /**
+     * Checks whether the filter accepts every project.
+     *
+     * @return true if all three sets are empty.
+     */
+    public boolean isEmpty() {
+        return allOf.isEmpty() && anyOf.isEmpty() && noneOf.isEmpty();
+    }
+}
@@ -0,0 +1,198 @@
+package dataaccess.searchindex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Resident, in-memory index from project tags to the projects having them.
+ * <p>
+ * Every tag has a {@link ProjectIdBitmap} of its projects, so boolean tag queries and facet counts are answered
+ * with a few bitmap operations instead of reading the tags of every project. Like the {@link ProjectVectorIndex},
+ * the index is loaded from storage once and then kept up to date by the project repository whenever a project
+ * or its tags are written. Tags are matched exactly, as they are stored.
+ * </p>
+ */
+public class TagIndex {
+    private final Supplier<? extends Map<Integer, ? extends Collection<String>>> loader;
+    private final HashMap<String, ProjectIdBitmap> projectsByTag = new HashMap<>();
+    private final HashMap<Integer, Set<String>> tagsById = new HashMap<>();
+    private final ProjectIdBitmap allProjects = new ProjectIdBitmap();
+    private boolean isLoaded;
+
+    /**
+     * Constructs an empty TagIndex, filled by the repository as it reads its projects.
+     */
+    public TagIndex() {
+        this.loader = null;
+        this.isLoaded = true;
+    }
+
+    /**
+     * Constructs a TagIndex that is loaded from storage on first use.
+     *
+     * @param loader supplies the tags of every stored project, keyed by project id, including projects without tags.
+     */
+    public TagIndex(Supplier<? extends Map<Integer, ? extends Collection<String>>> loader) {
+        this.loader = loader;
+        this.isLoaded = false;
+    }
+
+    /**
+     * Loads the index from storage if it is not loaded yet.
+     */
+    public synchronized void load() {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        for (Map.Entry<Integer, ? extends Collection<String>> data : loader.get().entrySet()) {
+            index(data.getKey(), data.getValue());
+        }
+    }
+
+    /**
+     * Sets the tags of a project, replacing its previous tags.
+     *
+     * @param projectId the id of the project.
+     * @param tags      the tags of the project, or null if it has none.
+     */
+    public synchronized void put(int projectId, Collection<String> tags) {
+        if (!isLoaded) {
+            return; // the stored tags will be read when the index is loaded
+        }
+        unindex(projectId);
+        index(projectId, tags);
+    }
+
+    /**
+     * Removes a project from the index.
+     *
+     * @param projectId the id of the project.
+     */
+    public synchronized void remove(int projectId) {
+        if (isLoaded) {
+            unindex(projectId);
+        }
+    }
+
+    /**
+     * Finds the projects matching a tag filter.
+     *
+     * @param filter the filter.
+     * @return the ids of the matching projects; a new bitmap the caller may change.
+     */
+    public synchronized ProjectIdBitmap filter(TagFilter filter) {
+        load();
+        List<ProjectIdBitmap> required = new ArrayList<>();
+        for (String tag : filter.allOf()) {
+            ProjectIdBitmap projects = projectsByTag.get(tag);
+            if (projects == null) {
+                return new ProjectIdBitmap();
+            }
+            required.add(projects);
+        }
+        required.sort(Comparator.comparingInt(ProjectIdBitmap::cardinality)); // smallest first keeps the work small
+        ProjectIdBitmap result = required.isEmpty() ? allProjects : required.get(0);
+        for (int i = 1; i < required.size(); i++) {
+            result = ProjectIdBitmap.and(result, required.get(i));
+        }
+        if (!filter.anyOf().isEmpty()) {
+            ProjectIdBitmap anyProjects = new ProjectIdBitmap();
+            for (String tag : filter.anyOf()) {
+                ProjectIdBitmap projects = projectsByTag.get(tag);
+                if (projects != null) {
+                    anyProjects = ProjectIdBitmap.or(anyProjects, projects);
+                }
+            }
+            result = ProjectIdBitmap.and(result, anyProjects);
+        }
+        for (String tag : filter.noneOf()) {
+            ProjectIdBitmap projects = projectsByTag.get(tag);
+            if (projects != null) {
+                result = ProjectIdBitmap.andNot(result, projects);
+            }
+        }
+        // the bitmaps of the index itself must not leak to the caller
+        boolean isShared = result == allProjects || (required.size() == 1 && result == required.get(0));
+        return isShared ? result.copy() : result;
+    }
+
+    /**
+     * Counts, for every tag, how many of the given projects have it.
+     *
+     * @param projects the ids of the projects, e.g. the result of {@link #filter(TagFilter)}.
+     * @return the number of the projects having each tag, for the tags at least one of them has, most common first.
+     */
+    public synchronized Map<String, Integer> facetCounts(ProjectIdBitmap projects) {
+        load();
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        for (Map.Entry<String, ProjectIdBitmap> entry : projectsByTag.entrySet()) {
+            int count = ProjectIdBitmap.andCardinality(entry.getValue(), projects);
+            if (count > 0) {
+                counts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Counts, for every tag, how many of the projects matching a filter have it.
+     *
+     * @param filter the filter.
+     * @return the number of matching projects having each tag, most common first.
+     */
+    public synchronized Map<String, Integer> facetCounts(TagFilter filter) {
+        return facetCounts(filter.isEmpty() ? allProjects : filter(filter));
+    }
+
+    /**
+     * Returns the number of indexed projects.
+     *
+     * @return the number of projects.
+     */
+    public synchronized int size() {
+        load();
+        return tagsById.size();
+    }
+
+    private void index(int projectId, Collection<String> tags) {
+        HashSet<String> projectTags = new HashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null && !tag.isEmpty() && projectTags.add(tag)) {
+                    projectsByTag.computeIfAbsent(tag, key -> new ProjectIdBitmap()).add(projectId);
+                }
+            }
+        }
+        tagsById.put(projectId, projectTags);
+        allProjects.add(projectId);
+    }
+
+    private void unindex(int projectId) {
+        Set<String> tags = tagsById.remove(projectId);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            ProjectIdBitmap projects = projectsByTag.get(tag);
+            projects.remove(projectId);
+            if (projects.isEmpty()) {
+                projectsByTag.remove(tag);
+            }
+        }
+        allProjects.remove(projectId);
+    }
+}
@@ -0,0 +1,74 @@
+package dataaccess.searchindex;
+
+/**
+ * Keeps the k best (score, id) pairs offered to it, using a fixed-size min-heap of primitives.
+ * Collecting the best k of n candidates costs O(n log k) time and O(k) memory, with no boxing.
+ */
+public class TopKCollector {
+    private final int k;
+    private final float minScore;
+    private final ScoreHeap heap;
+
+    /**
+     * Creates a collector for the k best pairs scoring at least {@code minScore}.
+     *
+     * @param k        the maximum number of pairs to keep.
+     * @param minScore the lowest score a pair may have to be kept.
+     */
+    public TopKCollector(int k, float minScore) {
+        this.k = Math.max(0, k);
+        this.minScore = minScore;
+        this.heap = new ScoreHeap(Math.min(this.k, 1024));
+    }
+
+    /**
+     * Offers a pair to the collector. It is kept if it scores at least the minimum score and
+     * better than the worst pair kept so far, or if fewer than k pairs are kept.
+     *
+     * @param score the score of the pair.
+     * @param id    the id of the pair.
+     */
+    public void offer(float score, int id) {
+        if (!(score >= minScore) || k == 0) {
+            return; // also rejects NaN
+        }
+        if (heap.size() < k) {
+            heap.push(score, id);
+        } else if (score > heap.peekScore()) {
+            heap.pop();
+            heap.push(score, id);
+        }
+    }
+
+    /**
+     * Offers every pair kept by another collector to this one.
+     * Used to merge the results of collectors that saw different candidates.
+     * The other collector is emptied.
+     *
+     * @param other the collector to merge.
+     */
+    public void merge(TopKCollector other) {
+        while (!other.heap.isEmpty()) {
+            offer(other.heap.peekScore(), other.heap.peekId());
+            other.heap.pop();
+        }
+    }
+
+    /**
+     * Returns the number of pairs kept so far.
+     *
+     * @return the number of pairs.
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Removes the kept pairs and returns them ordered from the highest to the lowest score.
+     *
+     * @return the kept pairs, best first.
+     */
+    public ScoredIds result() {
+        return heap.drainDescending();
+    }
+}
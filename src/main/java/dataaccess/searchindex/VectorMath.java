@@ -0,0 +1,107 @@
+package dataaccess.searchindex;
+
+/**
+ * Vector helpers shared by the search indexes.
+ * Embeddings are stored at unit length, so cosine similarity is computed as a plain dot product.
+ * Dot products are delegated to a {@link SimilarityKernel}: the SIMD kernel when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, the scalar kernel otherwise.
+ */
+public final class VectorMath {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "dataaccess.searchindex.VectorSimilarityKernel";
+
+    private static SimilarityKernel kernel = detectKernel();
+
+    // Private constructor to prevent instantiation
+    private VectorMath() {}
+
+    /**
+     * Returns a unit-length copy of the vector.
+     *
+     * @param vector the vector to normalize.
+     * @return the normalized vector, or a copy of the vector if it has no length.
+     */
+    public static float[] normalize(float[] vector) {
+        float[] result = new float[vector.length];
+        normalizeInto(vector, result, 0);
+        return result;
+    }
+
+    /**
+     * Writes a unit-length copy of the vector into {@code target}, starting at {@code offset}.
+     * A vector with no length is copied as is.
+     *
+     * @param vector the vector to normalize.
+     * @param target the array to write to.
+     * @param offset the index of {@code target} to start writing at.
+     */
+    public static void normalizeInto(float[] vector, float[] target, int offset) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 1f;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = vector[i] * scale;
+        }
+    }
+
+    /**
+     * Returns the dot product of two vectors of the same length.
+     *
+     * @param a the first vector.
+     * @param b the second vector.
+     * @return the dot product.
+     */
+    public static float dot(float[] a, float[] b) {
+        return dot(a, b, 0);
+    }
+
+    /**
+     * Returns the dot product of {@code query} and the row of {@code matrix} that starts at {@code offset}.
+     * The row is assumed to be as long as the query.
+     *
+     * @param query  the query vector.
+     * @param matrix the rows, stored one after another.
+     * @param offset the index of the first element of the row.
+     * @return the dot product.
+     */
+    public static float dot(float[] query, float[] matrix, int offset) {
+        return kernel.dot(query, matrix, offset);
+    }
+
+    /**
+     * Returns the kernel used for dot products.
+     *
+     * @return the similarity kernel.
+     */
+    public static SimilarityKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Replaces the kernel used for dot products. Meant to be called at startup, before any search runs.
+     *
+     * @param newKernel the similarity kernel to use.
+     */
+    public static void setKernel(SimilarityKernel newKernel) {
+        kernel = newKernel;
+    }
+
+    /**
+     * Picks the SIMD kernel if the Vector API module is present, the scalar kernel otherwise.
+     * The SIMD kernel is loaded reflectively so that this class still loads without the module.
+     *
+     * @return the fastest available kernel.
+     */
+    static SimilarityKernel detectKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (SimilarityKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector API kernel unavailable, using scalar kernel: " + e);
+            }
+        }
+        return new ScalarSimilarityKernel();
+    }
+}
@@ -0,0 +1,47 @@
+package dataaccess.searchindex;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD similarity kernel built on the incubating Java Vector API, using the widest vectors the CPU supports.
+ * <p>
+ * This class needs the {@code jdk.incubator.vector} module, which is only present when the JVM is started
+ * with {@code --add-modules jdk.incubator.vector}. It is therefore only ever loaded reflectively by
+ * {@link VectorMath}, which falls back to {@link ScalarSimilarityKernel} when the module is missing.
+ * </p>
+ */
+public class VectorSimilarityKernel implements SimilarityKernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] query, float[] matrix, int offset) {
+        int length = query.length;
+        int bound = SPECIES.loopBound(length);
+        FloatVector first = FloatVector.zero(SPECIES);
+        FloatVector second = FloatVector.zero(SPECIES);
+        int i = 0;
+        // two accumulators so consecutive fused multiply-adds do not wait on each other
+        for (; i + SPECIES.length() < bound; i += 2 * SPECIES.length()) {
+            first = FloatVector.fromArray(SPECIES, query, i)
+                    .fma(FloatVector.fromArray(SPECIES, matrix, offset + i), first);
+            second = FloatVector.fromArray(SPECIES, query, i + SPECIES.length())
+                    .fma(FloatVector.fromArray(SPECIES, matrix, offset + i + SPECIES.length()), second);
+        }
+        for (; i < bound; i += SPECIES.length()) {
+            first = FloatVector.fromArray(SPECIES, query, i)
+                    .fma(FloatVector.fromArray(SPECIES, matrix, offset + i), first);
+        }
+        float sum = first.add(second).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += query[i] * matrix[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}
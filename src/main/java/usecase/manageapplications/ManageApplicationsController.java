@@ -6,19 +6,24 @@ import usecase.manageapplications.getapplications.GetApplicationsInputBoundary;
 import usecase.manageapplications.getapplications.GetApplicationsInputData;
 import usecase.manageapplications.rejectapplication.RejectApplicationInputBoundary;
 import usecase.manageapplications.rejectapplication.RejectApplicationInputData;
+import usecase.manageapplications.suggestteam.SuggestTeamInputBoundary;
+import usecase.manageapplications.suggestteam.SuggestTeamInputData;
 
 public class ManageApplicationsController {
     private final GetApplicationsInputBoundary getApplicationsInteractor;
     private final AcceptApplicationInputBoundary acceptApplicationInteractor;
     private final RejectApplicationInputBoundary rejectApplicationInteractor;
+    private final SuggestTeamInputBoundary suggestTeamInteractor;
 
     public ManageApplicationsController(
             GetApplicationsInputBoundary getApplicationsInteractor,
             AcceptApplicationInputBoundary acceptApplicationInteractor,
-            RejectApplicationInputBoundary rejectApplicationInteractor) {
+            RejectApplicationInputBoundary rejectApplicationInteractor,
+            SuggestTeamInputBoundary suggestTeamInteractor) {
         this.getApplicationsInteractor = getApplicationsInteractor;
         this.acceptApplicationInteractor = acceptApplicationInteractor;
         this.rejectApplicationInteractor = rejectApplicationInteractor;
+        this.suggestTeamInteractor = suggestTeamInteractor;
     }
 
     /**
@@ -52,4 +57,14 @@ public class ManageApplicationsController {
         AcceptApplicationInputData inputData = new AcceptApplicationInputData(projectId, userId);
         acceptApplicationInteractor.acceptApplicant(inputData);
     }
+
+    /**
+     * Suggests the applicants to accept for a project.
+     *
+     * @param projectId the ID of the project.
+     */
+    public void suggestTeam(int projectId) {
+        SuggestTeamInputData inputData = new SuggestTeamInputData(projectId);
+        suggestTeamInteractor.suggestTeam(inputData);
+    }
 }
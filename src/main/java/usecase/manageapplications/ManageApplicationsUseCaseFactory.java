@@ -2,6 +2,7 @@ package usecase.manageapplications;
 
 import config.DataAccessConfig;
 import dataaccess.IApplicationRepository;
+import dataaccess.IProjectRepository;
 import dataaccess.IUserProjectsRepository;
 import dataaccess.IUserRepository;
 import usecase.manageapplications.acceptapplication.AcceptApplicationInputBoundary;
@@ -16,12 +17,28 @@ import usecase.manageapplications.rejectapplication.RejectApplicationInputBounda
 import usecase.manageapplications.rejectapplication.RejectApplicationInteractor;
 import usecase.manageapplications.rejectapplication.RejectApplicationOutputBoundary;
 import usecase.manageapplications.rejectapplication.RejectApplicationPresenter;
+import usecase.manageapplications.suggestteam.SuggestTeamInputBoundary;
+import usecase.manageapplications.suggestteam.SuggestTeamInteractor;
+import usecase.manageapplications.suggestteam.SuggestTeamOutputBoundary;
+import usecase.manageapplications.suggestteam.SuggestTeamPresenter;
+import usecase.manageapplications.suggestteam.TeamFormationSolver;
 import viewmodel.DisplayProjectApplicationViewModel;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 public class ManageApplicationsUseCaseFactory {
     private static final IApplicationRepository applicationRepository = DataAccessConfig.getApplicationRepository();
     private static final IUserRepository userRepository = DataAccessConfig.getUserRepository();
     private static final IUserProjectsRepository userProjectsRepository = DataAccessConfig.getUserProjectsRepository();
+    private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
+    private static final TeamFormationSolver teamFormationSolver = new TeamFormationSolver(ForkJoinPool.commonPool());
+    private static final ExecutorService teamSuggestionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-suggestion");
+        thread.setDaemon(true);
+        return thread;
+    });
 
 
     // Private constructor to prevent instantiation
@@ -38,6 +55,13 @@ public class ManageApplicationsUseCaseFactory {
         RejectApplicationOutputBoundary rejectApplicationPresenter = new RejectApplicationPresenter(displayProjectApplicationViewModel);
         RejectApplicationInputBoundary rejectApplicationsInteractor = new RejectApplicationInteractor(rejectApplicationPresenter, applicationRepository, userRepository);
 
-        return new ManageApplicationsController(getApplicationsInteractor, acceptApplicationsInteractor, rejectApplicationsInteractor);
+        SuggestTeamOutputBoundary suggestTeamPresenter = new SuggestTeamPresenter(displayProjectApplicationViewModel);
+        SuggestTeamInputBoundary suggestTeamInteractor = new SuggestTeamInteractor(suggestTeamPresenter, projectRepository,
+                                                                                   applicationRepository, userProjectsRepository,
+                                                                                   userRepository, teamFormationSolver,
+                                                                                   teamSuggestionExecutor);
+
+        return new ManageApplicationsController(getApplicationsInteractor, acceptApplicationsInteractor, rejectApplicationsInteractor,
+                                                suggestTeamInteractor);
     }
 }
@@ -0,0 +1,14 @@
+package usecase.manageapplications.suggestteam;
+
+/**
+ * Input boundary interface for suggesting teams.
+ * Defines the method to suggest a team for a project.
+ */
+public interface SuggestTeamInputBoundary {
+    /**
+     * Suggests the applicants to accept for a project.
+     *
+     * @param inputData the input data containing the project ID.
+     */
+    void suggestTeam(SuggestTeamInputData inputData);
+}
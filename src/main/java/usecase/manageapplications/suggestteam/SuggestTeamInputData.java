@@ -0,0 +1,10 @@
+package usecase.manageapplications.suggestteam;
+
+/**
+ * This is an immutable data structure responsible for storing the input
+ * data related to suggesting a team.
+ *
+ * @param projectId the ID of the project.
+ */
+public record SuggestTeamInputData(int projectId) {
+}
@@ -0,0 +1,209 @@
+package usecase.manageapplications.suggestteam;
+
+import dataaccess.IApplicationRepository;
+import dataaccess.IProjectRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import entities.Project;
+import entities.User;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Interactor class for suggesting teams.
+ * <p>
+ * Suggestions are made for all projects at once, so that an applicant who fits several projects is suggested
+ * where they fit best and no budget is spent twice on the same applicant. Members already paid from a project's
+ * budget reduce the budget left for applicants. The suggestions are not applied: the owner of the project accepts
+ * the applicants they agree with.
+ * </p>
+ * <p>
+ * The projects, members, applications and users are read with one query per table, and the suggestions for all
+ * projects are kept until one of the repositories is written to, so suggesting a team for another project, or for
+ * the same project again, does not solve the problem again. Suggestions are made on a background executor and
+ * presented from it.
+ * </p>
+ */
+public class SuggestTeamInteractor implements SuggestTeamInputBoundary {
+    private final SuggestTeamOutputBoundary suggestTeamPresenter;
+    private final IProjectRepository projectRepository;
+    private final IApplicationRepository applicationRepository;
+    private final IUserProjectsRepository userProjectsRepository;
+    private final IUserRepository userRepository;
+    private final TeamFormationSolver solver;
+    private final ExecutorService backgroundExecutor;
+    private DataVersions assignmentVersions; // guarded by this
+    private TeamAssignment assignment; // guarded by this
+
+    /**
+     * The data versions of the repositories the suggestions are computed from.
+     *
+     * @param projects     the version of the projects.
+     * @param applications the version of the applications.
+     * @param members      the version of the user-project associations.
+     * @param users        the version of the users.
+     */
+    private record DataVersions(long projects, long applications, long members, long users) {
+    }
+
+    /**
+     * Constructs a SuggestTeamInteractor that suggests teams on the calling thread.
+     *
+     * @param suggestTeamPresenter   the presenter to handle output.
+     * @param projectRepository      the repository to handle project data.
+     * @param applicationRepository  the repository to handle application data.
+     * @param userProjectsRepository the repository to handle user-project associations.
+     * @param userRepository         the repository to handle user data.
+     * @param solver                 the solver that suggests the teams.
+     */
+    public SuggestTeamInteractor(SuggestTeamOutputBoundary suggestTeamPresenter,
+                                 IProjectRepository projectRepository,
+                                 IApplicationRepository applicationRepository,
+                                 IUserProjectsRepository userProjectsRepository,
+                                 IUserRepository userRepository,
+                                 TeamFormationSolver solver) {
+        this(suggestTeamPresenter, projectRepository, applicationRepository, userProjectsRepository, userRepository,
+             solver, null);
+    }
+
+    /**
+     * Constructs a SuggestTeamInteractor.
+     *
+     * @param suggestTeamPresenter   the presenter to handle output.
+     * @param projectRepository      the repository to handle project data.
+     * @param applicationRepository  the repository to handle application data.
+     * @param userProjectsRepository the repository to handle user-project associations.
+     * @param userRepository         the repository to handle user data.
+     * @param solver                 the solver that suggests the teams.
+     * @param backgroundExecutor     the executor suggesting the teams, or null to suggest them on the calling thread.
+     */
+    public SuggestTeamInteractor(SuggestTeamOutputBoundary suggestTeamPresenter,
+                                 IProjectRepository projectRepository,
+                                 IApplicationRepository applicationRepository,
+                                 IUserProjectsRepository userProjectsRepository,
+                                 IUserRepository userRepository,
+                                 TeamFormationSolver solver,
+                                 ExecutorService backgroundExecutor) {
+        this.suggestTeamPresenter = suggestTeamPresenter;
+        this.projectRepository = projectRepository;
+        this.applicationRepository = applicationRepository;
+        this.userProjectsRepository = userProjectsRepository;
+        this.userRepository = userRepository;
+        this.solver = solver;
+        this.backgroundExecutor = backgroundExecutor;
+    }
+
+    /**
+     * Suggests the applicants to accept for a project, in the background if there is a background executor.
+     *
+     * @param inputData the input data containing the project ID.
+     */
+    @Override
+    public void suggestTeam(SuggestTeamInputData inputData) {
+        if (backgroundExecutor == null) {
+            suggestTeam(inputData.projectId());
+            return;
+        }
+        try {
+            backgroundExecutor.submit(() -> suggestTeam(inputData.projectId()));
+        } catch (RejectedExecutionException e) {
+            System.err.println("Team suggestion could not be started: " + e.getMessage());
+            suggestTeamPresenter.prepareFailView("Team suggestion could not be started.");
+        }
+    }
+
+    /**
+     * Suggests the applicants to accept for a project and presents them.
+     *
+     * @param projectId the ID of the project.
+     */
+    private void suggestTeam(int projectId) {
+        try {
+            if (projectRepository.getProjectById(projectId) == null) {
+                suggestTeamPresenter.prepareFailView("Project not found.");
+                return;
+            }
+            HashSet<Integer> suggestedUserIds = new HashSet<>();
+            for (int userId : getAssignment().getTeam(projectId)) {
+                suggestedUserIds.add(userId);
+            }
+            suggestTeamPresenter.prepareSuccessView(new SuggestTeamOutputData(projectId, suggestedUserIds));
+        } catch (CancellationException e) {
+            // interrupted while the teams were suggested, e.g. at shutdown
+        } catch (RuntimeException e) {
+            System.err.println("Team suggestion failed: " + e.getMessage());
+            suggestTeamPresenter.prepareFailView("Team suggestion failed.");
+        }
+    }
+
+    /**
+     * Returns the suggestions for all projects, solving the problem again only if the data changed since.
+     * The versions are read before the data, so a write made while the data is read leaves the suggestions stale.
+     * Suggestions made concurrently wait for each other, so the problem is solved once.
+     *
+     * @return the suggestions.
+     */
+    private synchronized TeamAssignment getAssignment() {
+        DataVersions versions = new DataVersions(projectRepository.getDataVersion(),
+                                                 applicationRepository.getDataVersion(),
+                                                 userProjectsRepository.getDataVersion(),
+                                                 userRepository.getDataVersion());
+        if (assignment == null || !versions.equals(assignmentVersions)) {
+            assignment = solver.solve(loadProblem());
+            assignmentVersions = versions;
+        }
+        return assignment;
+    }
+
+    /**
+     * Reads every project with its applicants and members into a problem for the solver.
+     *
+     * @return the problem.
+     */
+    private TeamFormationProblem loadProblem() {
+        HashMap<Integer, Project> projects = projectRepository.getAllProjects();
+        HashMap<Integer, HashSet<Integer>> memberIdsByProject = userProjectsRepository.getAllUserIds();
+        HashMap<Integer, HashSet<Integer>> applicantIdsByProject = applicationRepository.getAllApplicantIds();
+        HashMap<Integer, User> users = userRepository.getAllUsers();
+
+        TeamFormationProblem problem = new TeamFormationProblem();
+        for (Project project : projects.values()) {
+            int projectId = project.getProjectId();
+            HashSet<Integer> memberIds = memberIdsByProject.getOrDefault(projectId, new HashSet<>());
+            double budget = project.getProjectBudget();
+            for (int memberId : memberIds) {
+                User member = users.get(memberId);
+                if (member != null) {
+                    budget -= member.getDesiredCompensation();
+                }
+            }
+            problem.addProject(projectId, budget, project.getProjectTags());
+        }
+        for (Map.Entry<Integer, HashSet<Integer>> applicants : applicantIdsByProject.entrySet()) {
+            int projectId = applicants.getKey();
+            if (!projects.containsKey(projectId)) {
+                continue;
+            }
+            HashSet<Integer> memberIds = memberIdsByProject.getOrDefault(projectId, new HashSet<>());
+            for (int userId : applicants.getValue()) {
+                if (memberIds.contains(userId)) {
+                    continue;
+                }
+                if (!problem.hasUser(userId)) {
+                    User user = users.get(userId);
+                    if (user == null) {
+                        continue;
+                    }
+                    problem.addUser(userId, user.getDesiredCompensation(), user.getTags());
+                }
+                problem.addCandidate(userId, projectId);
+            }
+        }
+        return problem;
+    }
+}
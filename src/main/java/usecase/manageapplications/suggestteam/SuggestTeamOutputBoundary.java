@@ -0,0 +1,21 @@
+package usecase.manageapplications.suggestteam;
+
+/**
+ * Output boundary interface for suggesting teams.
+ * Defines methods to prepare success and failure views.
+ */
+public interface SuggestTeamOutputBoundary {
+    /**
+     * Prepares the success view with the provided output data.
+     *
+     * @param outputData the output data to present in case of success.
+     */
+    void prepareSuccessView(SuggestTeamOutputData outputData);
+
+    /**
+     * Prepares the failure view with the provided error message.
+     *
+     * @param errorMessage the error message to present in case of failure.
+     */
+    void prepareFailView(String errorMessage);
+}
@@ -0,0 +1,13 @@
+package usecase.manageapplications.suggestteam;
+
+import java.util.HashSet;
+
+/**
+ * This is an immutable data structure responsible for storing the output
+ * data related to suggesting a team.
+ *
+ * @param projectId        the ID of the project.
+ * @param suggestedUserIds the IDs of the applicants suggested for the project; empty if there are none.
+ */
+public record SuggestTeamOutputData(int projectId, HashSet<Integer> suggestedUserIds) {
+}
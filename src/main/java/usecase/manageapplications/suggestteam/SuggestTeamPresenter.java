@@ -0,0 +1,40 @@
+package usecase.manageapplications.suggestteam;
+
+import viewmodel.DisplayProjectApplicationViewModel;
+
+/**
+ * Presenter class for suggesting teams.
+ * Implements the output boundary to prepare views for team suggestions.
+ */
+public class SuggestTeamPresenter implements SuggestTeamOutputBoundary {
+    private final DisplayProjectApplicationViewModel applicationViewModel;
+
+    /**
+     * Constructs a SuggestTeamPresenter with the specified view model.
+     *
+     * @param applicationViewModel the view model to update with the suggestions.
+     */
+    public SuggestTeamPresenter(DisplayProjectApplicationViewModel applicationViewModel) {
+        this.applicationViewModel = applicationViewModel;
+    }
+
+    /**
+     * Prepares the success view with the provided output data.
+     *
+     * @param outputData the output data containing the suggested applicants.
+     */
+    @Override
+    public void prepareSuccessView(SuggestTeamOutputData outputData) {
+        applicationViewModel.suggestionResult(outputData);
+    }
+
+    /**
+     * Prepares the failure view with the provided error message.
+     *
+     * @param errorMessage the error message to present in case of failure.
+     */
+    @Override
+    public void prepareFailView(String errorMessage) {
+        applicationViewModel.suggestionError(errorMessage);
+    }
+}
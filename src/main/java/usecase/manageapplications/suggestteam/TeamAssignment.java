@@ -0,0 +1,74 @@
+package usecase.manageapplications.suggestteam;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The result of a {@link TeamFormationSolver}: the users suggested for each project.
+ * Every user is suggested for at most one project, and the desired compensations of the users suggested for a
+ * project fit in its remaining budget.
+ */
+public class TeamAssignment {
+    public static final int NO_PROJECT = -1;
+
+    private static final int[] NO_TEAM = new int[0];
+
+    private final Map<Integer, int[]> teamsByProject;
+    private final Map<Integer, Integer> projectsByUser;
+    private final double totalScore;
+
+    /**
+     * Constructs a TeamAssignment.
+     *
+     * @param teamsByProject the ids of the users suggested for each project, sorted, keyed by project id.
+     * @param totalScore     the sum of the scores of all suggestions.
+     */
+    TeamAssignment(Map<Integer, int[]> teamsByProject, double totalScore) {
+        this.teamsByProject = teamsByProject;
+        this.projectsByUser = new HashMap<>();
+        for (Map.Entry<Integer, int[]> team : teamsByProject.entrySet()) {
+            for (int userId : team.getValue()) {
+                projectsByUser.put(userId, team.getKey());
+            }
+        }
+        this.totalScore = totalScore;
+    }
+
+    /**
+     * Returns the users suggested for a project.
+     *
+     * @param projectId the id of the project.
+     * @return the ids of the suggested users in ascending order; empty if there are none.
+     */
+    public int[] getTeam(int projectId) {
+        return teamsByProject.getOrDefault(projectId, NO_TEAM).clone();
+    }
+
+    /**
+     * Returns the project a user is suggested for.
+     *
+     * @param userId the id of the user.
+     * @return the id of the project, or {@value #NO_PROJECT} if the user is not suggested for any project.
+     */
+    public int getProjectId(int userId) {
+        return projectsByUser.getOrDefault(userId, NO_PROJECT);
+    }
+
+    /**
+     * Returns the number of users suggested for a project.
+     *
+     * @return the number of suggested users.
+     */
+    public int size() {
+        return projectsByUser.size();
+    }
+
+    /**
+     * Returns the sum of the scores of all suggestions, which the solver maximizes.
+     *
+     * @return the total score.
+     */
+    public double getTotalScore() {
+        return totalScore;
+    }
+}
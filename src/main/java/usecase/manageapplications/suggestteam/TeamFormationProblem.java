@@ -0,0 +1,171 @@
+package usecase.manageapplications.suggestteam;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * The input of a {@link TeamFormationSolver}: the projects that can take new members, the users who applied to
+ * them, and which user applied to which project.
+ * <p>
+ * Projects and users are numbered in the order they are added, and their attributes are kept in arrays by that
+ * number, so a problem with tens of thousands of projects and users and many more applications stays compact.
+ * </p>
+ */
+public class TeamFormationProblem {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final HashMap<Integer, Integer> projectIndexById = new HashMap<>();
+    private final HashMap<Integer, Integer> userIndexById = new HashMap<>();
+    private int[] projectIds = new int[INITIAL_CAPACITY];
+    private double[] budgets = new double[INITIAL_CAPACITY];
+    private Set<?>[] projectTags = new Set<?>[INITIAL_CAPACITY];
+    private int[] userIds = new int[INITIAL_CAPACITY];
+    private double[] compensations = new double[INITIAL_CAPACITY];
+    private Set<?>[] userTags = new Set<?>[INITIAL_CAPACITY];
+    private int[] candidateUsers = new int[INITIAL_CAPACITY];
+    private int[] candidateProjects = new int[INITIAL_CAPACITY];
+    private int projectCount;
+    private int userCount;
+    private int candidateCount;
+
+    /**
+     * Adds a project that can take new members.
+     *
+     * @param projectId the id of the project.
+     * @param budget    the part of the budget of the project not yet paid to its members.
+     * @param tags      the tags of the project.
+     * @throws IllegalArgumentException if the project was already added.
+     */
+    public void addProject(int projectId, double budget, Set<String> tags) {
+        if (projectIndexById.putIfAbsent(projectId, projectCount) != null) {
+            throw new IllegalArgumentException("Project " + projectId + " was already added");
+        }
+        if (projectCount == projectIds.length) {
+            int capacity = projectCount * 2;
+            projectIds = Arrays.copyOf(projectIds, capacity);
+            budgets = Arrays.copyOf(budgets, capacity);
+            projectTags = Arrays.copyOf(projectTags, capacity);
+        }
+        projectIds[projectCount] = projectId;
+        budgets[projectCount] = budget;
+        projectTags[projectCount] = tags == null ? Set.of() : tags;
+        projectCount++;
+    }
+
+    /**
+     * Adds a user who may join a project.
+     *
+     * @param userId              the id of the user.
+     * @param desiredCompensation the compensation the user wants from the budget of the project they join.
+     * @param tags                the tags of the user.
+     * @throws IllegalArgumentException if the user was already added.
+     */
+    public void addUser(int userId, double desiredCompensation, Set<String> tags) {
+        if (userIndexById.putIfAbsent(userId, userCount) != null) {
+            throw new IllegalArgumentException("User " + userId + " was already added");
+        }
+        if (userCount == userIds.length) {
+            int capacity = userCount * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            compensations = Arrays.copyOf(compensations, capacity);
+            userTags = Arrays.copyOf(userTags, capacity);
+        }
+        userIds[userCount] = userId;
+        compensations[userCount] = desiredCompensation;
+        userTags[userCount] = tags == null ? Set.of() : tags;
+        userCount++;
+    }
+
+    /**
+     * Records that a user may join a project, e.g. because they applied to it.
+     *
+     * @param userId    the id of the user, added with {@link #addUser}.
+     * @param projectId the id of the project, added with {@link #addProject}.
+     * @throws IllegalArgumentException if the user or the project was not added.
+     */
+    public void addCandidate(int userId, int projectId) {
+        Integer user = userIndexById.get(userId);
+        Integer project = projectIndexById.get(projectId);
+        if (user == null || project == null) {
+            throw new IllegalArgumentException("User " + userId + " or project " + projectId + " was not added");
+        }
+        if (candidateCount == candidateUsers.length) {
+            int capacity = candidateCount * 2;
+            candidateUsers = Arrays.copyOf(candidateUsers, capacity);
+            candidateProjects = Arrays.copyOf(candidateProjects, capacity);
+        }
+        candidateUsers[candidateCount] = user;
+        candidateProjects[candidateCount] = project;
+        candidateCount++;
+    }
+
+    /**
+     * Checks whether a user was added.
+     *
+     * @param userId the id of the user.
+     * @return true if the user was added.
+     */
+    public boolean hasUser(int userId) {
+        return userIndexById.containsKey(userId);
+    }
+
+    /**
+     * Returns the number of projects.
+     *
+     * @return the number of projects.
+     */
+    public int getProjectCount() {
+        return projectCount;
+    }
+
+    /**
+     * Returns the number of users.
+     *
+     * @return the number of users.
+     */
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /**
+     * Returns the number of candidate pairs of a user and a project.
+     *
+     * @return the number of candidates.
+     */
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    int projectId(int project) {
+        return projectIds[project];
+    }
+
+    double budget(int project) {
+        return budgets[project];
+    }
+
+    Set<?> projectTags(int project) {
+        return projectTags[project];
+    }
+
+    int userId(int user) {
+        return userIds[user];
+    }
+
+    double compensation(int user) {
+        return compensations[user];
+    }
+
+    Set<?> userTags(int user) {
+        return userTags[user];
+    }
+
+    int candidateUser(int candidate) {
+        return candidateUsers[candidate];
+    }
+
+    int candidateProject(int candidate) {
+        return candidateProjects[candidate];
+    }
+}
@@ -0,0 +1,414 @@
+package usecase.manageapplications.suggestteam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Suggests teams for all projects at once from the users who applied to them.
+ * <p>
+ * Every application is a candidate pair of a user and a project, scored {@value #APPLICATION_SCORE} plus
+ * {@value #TAG_WEIGHT} times the Jaccard similarity of the user and project tags. The solver looks for the
+ * suggestions with the highest total score such that every user is suggested for at most one project and the
+ * desired compensations of the users suggested for a project fit in its remaining budget.
+ * </p>
+ * <p>
+ * Because a project takes users until their compensations use up its budget, rather than a fixed number of them,
+ * this is a knapsack problem per project and a matching or flow algorithm cannot solve it exactly. Instead, each
+ * project is filled greedily with its best scoring candidates, and a local search then improves the suggestions:
+ * a user moves to a better project with room for them, or takes the place of a member of a full project, who is
+ * moved to their best other project with room, as long as this raises the total score.
+ * </p>
+ * <p>
+ * Applications only connect a user to a few projects, so the candidates fall apart into many connected
+ * components that do not share users or projects. The components are solved independently and concurrently, and
+ * since a component is always solved the same way, the result does not depend on the executor.
+ * </p>
+ */
+public class TeamFormationSolver {
+    public static final double APPLICATION_SCORE = 1.0; // every suggestion scores this, so fuller teams score higher
+    public static final double TAG_WEIGHT = 1.0; // added for a user whose tags are those of the project
+    public static final int MAX_ROUNDS = 20; // local search passes over the users of a component
+    public static final int MIN_TASK_CANDIDATES = 4096; // small components are batched into tasks of this many
+
+    private static final double EPSILON = 1e-9;
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a TeamFormationSolver.
+     *
+     * @param executor the executor the components are solved on, or null to solve them on the calling thread.
+     */
+    public TeamFormationSolver(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Suggests teams for the projects of a problem.
+     *
+     * @param problem the projects, users and candidates.
+     * @return the users suggested for each project.
+     * @throws CancellationException if the thread is interrupted while the components are solved.
+     */
+    public TeamAssignment solve(TeamFormationProblem problem) {
+        return new Solution(problem).solve();
+    }
+
+    /**
+     * Returns the Jaccard similarity of two tag sets.
+     *
+     * @param a the first tags.
+     * @param b the second tags.
+     * @return the number of shared tags divided by the number of distinct tags, or 0 if either set is empty.
+     */
+    static double jaccard(Set<?> a, Set<?> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        Set<?> smaller = a.size() <= b.size() ? a : b;
+        Set<?> larger = smaller == a ? b : a;
+        int shared = 0;
+        for (Object tag : smaller) {
+            if (larger.contains(tag)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    private static boolean fits(double compensation, double budget) {
+        return compensation <= budget + EPSILON;
+    }
+
+    /**
+     * The state of one run of the solver.
+     * Users, projects and candidates are numbered as in the problem, and candidates that can never fit are
+     * dropped. Tasks only write the entries of the users and projects of their own components.
+     */
+    private final class Solution {
+        private final TeamFormationProblem problem;
+        private final double[] compensations;
+        private final double[] remaining;
+        private final int[] candidateUsers;
+        private final int[] candidateProjects;
+        private final double[] scores;
+        private final int candidateCount;
+        private final int[] userCandidateStart;
+        private final int[] userCandidates;
+        private final int[] suggested; // the candidate each user is suggested by, or -1
+        private final int[][] teams; // the candidates suggested for each project
+        private final int[] teamSizes;
+
+        Solution(TeamFormationProblem problem) {
+            this.problem = problem;
+            int userCount = problem.getUserCount();
+            int projectCount = problem.getProjectCount();
+            compensations = new double[userCount];
+            for (int user = 0; user < userCount; user++) {
+                compensations[user] = Math.max(0, problem.compensation(user));
+            }
+            remaining = new double[projectCount];
+            for (int project = 0; project < projectCount; project++) {
+                remaining[project] = Math.max(0, problem.budget(project));
+            }
+
+            candidateUsers = new int[problem.getCandidateCount()];
+            candidateProjects = new int[problem.getCandidateCount()];
+            int count = 0;
+            for (int candidate = 0; candidate < problem.getCandidateCount(); candidate++) {
+                int user = problem.candidateUser(candidate);
+                int project = problem.candidateProject(candidate);
+                if (fits(compensations[user], remaining[project])) {
+                    candidateUsers[count] = user;
+                    candidateProjects[count] = project;
+                    count++;
+                }
+            }
+            candidateCount = count;
+            scores = new double[count];
+
+            userCandidateStart = new int[userCount + 1];
+            for (int candidate = 0; candidate < count; candidate++) {
+                userCandidateStart[candidateUsers[candidate] + 1]++;
+            }
+            for (int user = 0; user < userCount; user++) {
+                userCandidateStart[user + 1] += userCandidateStart[user];
+            }
+            userCandidates = new int[count];
+            int[] next = Arrays.copyOf(userCandidateStart, userCount);
+            for (int candidate = 0; candidate < count; candidate++) {
+                userCandidates[next[candidateUsers[candidate]]++] = candidate;
+            }
+
+            suggested = new int[userCount];
+            Arrays.fill(suggested, -1);
+            teams = new int[projectCount][];
+            teamSizes = new int[projectCount];
+        }
+
+        TeamAssignment solve() {
+            int userCount = problem.getUserCount();
+            int[] parents = new int[userCount + problem.getProjectCount()];
+            for (int node = 0; node < parents.length; node++) {
+                parents[node] = node;
+            }
+            for (int candidate = 0; candidate < candidateCount; candidate++) {
+                int userRoot = find(parents, candidateUsers[candidate]);
+                int projectRoot = find(parents, userCount + candidateProjects[candidate]);
+                parents[userRoot] = projectRoot;
+            }
+
+            // order the candidates by component, keeping their order within a component
+            int[] componentByRoot = new int[parents.length];
+            Arrays.fill(componentByRoot, -1);
+            int[] candidateComponents = new int[candidateCount];
+            int componentCount = 0;
+            for (int candidate = 0; candidate < candidateCount; candidate++) {
+                int root = find(parents, candidateUsers[candidate]);
+                if (componentByRoot[root] < 0) {
+                    componentByRoot[root] = componentCount++;
+                }
+                candidateComponents[candidate] = componentByRoot[root];
+            }
+            int[] componentStart = new int[componentCount + 1];
+            for (int candidate = 0; candidate < candidateCount; candidate++) {
+                componentStart[candidateComponents[candidate] + 1]++;
+            }
+            for (int component = 0; component < componentCount; component++) {
+                componentStart[component + 1] += componentStart[component];
+            }
+            int[] ordered = new int[candidateCount];
+            int[] next = Arrays.copyOf(componentStart, componentCount);
+            for (int candidate = 0; candidate < candidateCount; candidate++) {
+                ordered[next[candidateComponents[candidate]]++] = candidate;
+            }
+
+            ArrayList<Callable<Void>> tasks = new ArrayList<>();
+            int first = 0;
+            for (int component = 0; component < componentCount; component++) {
+                int size = componentStart[component + 1] - componentStart[first];
+                if (size >= MIN_TASK_CANDIDATES || component == componentCount - 1) {
+                    int from = first;
+                    int to = component + 1;
+                    tasks.add(() -> {
+                        for (int solved = from; solved < to; solved++) {
+                            solveComponent(ordered, componentStart[solved], componentStart[solved + 1]);
+                        }
+                        return null;
+                    });
+                    first = to;
+                }
+            }
+            run(tasks);
+            return toAssignment();
+        }
+
+        private void run(List<Callable<Void>> tasks) {
+            if (executor == null || tasks.size() <= 1) {
+                for (Callable<Void> task : tasks) {
+                    try {
+                        task.call();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return;
+            }
+            try {
+                for (Future<Void> result : executor.invokeAll(tasks)) {
+                    result.get();
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Team formation was interrupted");
+            }
+        }
+
+        /**
+         * Suggests teams for the projects of one component.
+         *
+         * @param ordered the candidates, ordered by component.
+         * @param from    the position of the first candidate of the component.
+         * @param to      the position after the last candidate of the component.
+         */
+        private void solveComponent(int[] ordered, int from, int to) {
+            Integer[] byScore = new Integer[to - from];
+            for (int position = from; position < to; position++) {
+                int candidate = ordered[position];
+                scores[candidate] = APPLICATION_SCORE + TAG_WEIGHT * jaccard(
+                        problem.userTags(candidateUsers[candidate]),
+                        problem.projectTags(candidateProjects[candidate]));
+                byScore[position - from] = candidate;
+            }
+            Arrays.sort(byScore, Comparator.<Integer>comparingDouble(candidate -> -scores[candidate])
+                    .thenComparingDouble(candidate -> compensations[candidateUsers[candidate]])
+                    .thenComparingInt(candidate -> candidate));
+            for (int candidate : byScore) {
+                int user = candidateUsers[candidate];
+                if (suggested[user] < 0 && fits(compensations[user], remaining[candidateProjects[candidate]])) {
+                    add(candidate);
+                }
+            }
+
+            for (int round = 0; round < MAX_ROUNDS; round++) {
+                boolean isImproved = false;
+                for (int position = from; position < to; position++) {
+                    int candidate = ordered[position];
+                    int user = candidateUsers[candidate];
+                    if (userCandidates[userCandidateStart[user]] == candidate) { // each user once per round
+                        isImproved |= improve(user);
+                    }
+                }
+                if (!isImproved) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Makes the move of a user that raises the total score the most, if any: joining a project with room for
+         * them, or taking the place of a member of a project, who then joins their best other project with room.
+         *
+         * @param user the user.
+         * @return true if the user moved.
+         */
+        private boolean improve(int user) {
+            int current = suggested[user];
+            double currentScore = current < 0 ? 0 : scores[current];
+            int currentProject = current < 0 ? -1 : candidateProjects[current];
+            double compensation = compensations[user];
+            double bestGain = EPSILON;
+            int bestCandidate = -1;
+            int bestReplaced = -1;
+            int bestReplacement = -1;
+            for (int index = userCandidateStart[user]; index < userCandidateStart[user + 1]; index++) {
+                int candidate = userCandidates[index];
+                int project = candidateProjects[candidate];
+                double gain = scores[candidate] - currentScore;
+                if (project == currentProject || gain <= bestGain) {
+                    continue;
+                }
+                if (fits(compensation, remaining[project])) {
+                    bestGain = gain;
+                    bestCandidate = candidate;
+                    bestReplaced = -1;
+                    continue;
+                }
+                for (int member = 0; member < teamSizes[project]; member++) {
+                    int replaced = teams[project][member];
+                    int replacedUser = candidateUsers[replaced];
+                    if (!fits(compensation, remaining[project] + compensations[replacedUser])) {
+                        continue;
+                    }
+                    int replacement = bestOtherProject(replacedUser, project);
+                    double netGain = gain - scores[replaced] + (replacement < 0 ? 0 : scores[replacement]);
+                    if (netGain > bestGain) {
+                        bestGain = netGain;
+                        bestCandidate = candidate;
+                        bestReplaced = replaced;
+                        bestReplacement = replacement;
+                    }
+                }
+            }
+            if (bestCandidate < 0) {
+                return false;
+            }
+            if (bestReplaced >= 0) {
+                remove(candidateUsers[bestReplaced]);
+            }
+            if (current >= 0) {
+                remove(user);
+            }
+            add(bestCandidate);
+            if (bestReplaced >= 0 && bestReplacement >= 0) {
+                add(bestReplacement); // its project had room before, and the moves above only freed budget there
+            }
+            return true;
+        }
+
+        /**
+         * Finds the best project with room for a user other than a given project.
+         *
+         * @param user     the user.
+         * @param excluded the project the user leaves.
+         * @return the best candidate of the user for another project with room, or -1 if there is none.
+         */
+        private int bestOtherProject(int user, int excluded) {
+            int best = -1;
+            for (int index = userCandidateStart[user]; index < userCandidateStart[user + 1]; index++) {
+                int candidate = userCandidates[index];
+                int project = candidateProjects[candidate];
+                if (project != excluded && fits(compensations[user], remaining[project])
+                        && (best < 0 || scores[candidate] > scores[best])) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+
+        private void add(int candidate) {
+            int user = candidateUsers[candidate];
+            int project = candidateProjects[candidate];
+            suggested[user] = candidate;
+            remaining[project] -= compensations[user];
+            if (teams[project] == null) {
+                teams[project] = new int[4];
+            } else if (teamSizes[project] == teams[project].length) {
+                teams[project] = Arrays.copyOf(teams[project], teamSizes[project] * 2);
+            }
+            teams[project][teamSizes[project]++] = candidate;
+        }
+
+        private void remove(int user) {
+            int candidate = suggested[user];
+            int project = candidateProjects[candidate];
+            suggested[user] = -1;
+            remaining[project] += compensations[user];
+            int[] team = teams[project];
+            for (int member = 0; member < teamSizes[project]; member++) {
+                if (team[member] == candidate) {
+                    team[member] = team[--teamSizes[project]];
+                    break;
+                }
+            }
+        }
+
+        private TeamAssignment toAssignment() {
+            HashMap<Integer, int[]> teamsByProject = new HashMap<>();
+            double totalScore = 0;
+            for (int project = 0; project < teams.length; project++) {
+                if (teamSizes[project] == 0) {
+                    continue;
+                }
+                int[] userIds = new int[teamSizes[project]];
+                for (int member = 0; member < userIds.length; member++) {
+                    int candidate = teams[project][member];
+                    userIds[member] = problem.userId(candidateUsers[candidate]);
+                    totalScore += scores[candidate];
+                }
+                Arrays.sort(userIds);
+                teamsByProject.put(problem.projectId(project), userIds);
+            }
+            return new TeamAssignment(teamsByProject, totalScore);
+        }
+    }
+
+    private static int find(int[] parents, int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+        return node;
+    }
+}
@@ -1,7 +1,6 @@
 package usecase.manageprojects;
 
 import api.embeddingapi.EmbeddingAPIInterface;
-import api.embeddingapi.OpenAPIDataEmbed;
 import config.DataAccessConfig;
 import dataaccess.IProjectRepository;
 import dataaccess.IUserProjectsRepository;
@@ -27,10 +26,13 @@ import viewmodel.EditProjectPanelViewModel;
 import viewmodel.MyProjectsPanelViewModel;
 
 public class ManageProjectsUseCaseFactory {
+    public static int USE_ASYNC_EMBEDDING = 1; // Set this to 1 to save projects at once and embed them in the background, 0 to embed them before saving
+
     private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
     private static final IUserProjectsRepository userProjectsRepository = DataAccessConfig.getUserProjectsRepository();
     private static final ILoginUserDetails loginUserDetails = DataAccessConfig.getLoginUserDetails();
-    private static final EmbeddingAPIInterface embeddingAPI = new OpenAPIDataEmbed();
+    private static final EmbeddingAPIInterface embeddingAPI = DataAccessConfig.getEmbeddingAPI();
+    private static final ProjectEmbeddingPipeline embeddingPipeline = new ProjectEmbeddingPipeline(projectRepository, embeddingAPI);
 
     // Private constructor to prevent instantiation
     private ManageProjectsUseCaseFactory() {}
@@ -51,14 +53,32 @@ public class ManageProjectsUseCaseFactory {
         GetProjectsOutputBoundary getProjectsPresenter = new GetProjectsPresenter(myProjectsPanelViewModel);
         GetProjectsInputBoundary getProjectsInteractor = new GetProjectsInteractor(getProjectsPresenter, userProjectsRepository, projectRepository);
         CreateProjectOutputBoundary createProjectPresenter = new CreateProjectPresenter(addProjectPanelViewModel);
-        CreateProjectInputBoundary createProjectInteractor = new CreateProjectInteractor(projectRepository, userProjectsRepository,
-                                                                                         createProjectPresenter, embeddingAPI);
+        CreateProjectInputBoundary createProjectInteractor;
         EditProjectOutputBoundary editProjectPresenter = new EditProjectPresenter(editProjectPanelViewModel);
-        EditProjectInputBoundary editProjectInteractor = new EditProjectInteractor(projectRepository, editProjectPresenter, embeddingAPI);
+        EditProjectInputBoundary editProjectInteractor;
+        if (USE_ASYNC_EMBEDDING == 1) {
+            createProjectInteractor = new CreateProjectInteractor(projectRepository, userProjectsRepository,
+                                                                  createProjectPresenter, embeddingPipeline);
+            editProjectInteractor = new EditProjectInteractor(projectRepository, editProjectPresenter, embeddingPipeline);
+        } else {
+            createProjectInteractor = new CreateProjectInteractor(projectRepository, userProjectsRepository,
+                                                                  createProjectPresenter, embeddingAPI);
+            editProjectInteractor = new EditProjectInteractor(projectRepository, editProjectPresenter, embeddingAPI);
+        }
         DeleteProjectOutputBoundary deleteProjectPresenter = new DeleteProjectPresenter(myProjectsPanelViewModel);
         DeleteProjectInputBoundary deleteProjectInteractor = new DeleteProjectInteractor(deleteProjectPresenter, projectRepository,
                                                                                          loginUserDetails, userProjectsRepository);
 
         return new ManageProjectsController(getProjectsInteractor, createProjectInteractor, editProjectInteractor, deleteProjectInteractor);
     }
+
+    /**
+     * Returns the pipeline that embeds created and edited projects in the background.
+     * Search uses it to find projects whose embeddings are not stored yet.
+     *
+     * @return the project embedding pipeline
+     */
+    public static ProjectEmbeddingPipeline getEmbeddingPipeline() {
+        return embeddingPipeline;
+    }
 }
@@ -0,0 +1,328 @@
+package usecase.manageprojects;
+
+import api.embeddingapi.ContentHash;
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes project embeddings in the background, after the projects are saved.
+ * <p>
+ * A project is pending from the moment it is submitted until its embedding is stored with
+ * {@link IProjectRepository#updateEmbedding(int, String, float[])}. Pending projects have no stored embedding, so
+ * vector search does not see them; {@link #getPendingProjectIds()} lets search match them another way.
+ * </p>
+ * <p>
+ * A fixed number of workers embed the queued projects. Each worker takes every queued project, up to the
+ * batch size, and embeds them with a single call of the embedding API. A failed batch is queued again after
+ * an exponentially growing delay; projects that still fail after the last attempt stay pending. If a project
+ * is submitted again before its embedding is stored, only the latest text is embedded. A project whose text
+ * has the same content hash as an embedding already in the repository reuses that embedding without calling the
+ * embedding API.
+ * </p>
+ */
+public class ProjectEmbeddingPipeline {
+    public static final int DEFAULT_WORKERS = 2;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 500;
+
+    private final IProjectRepository projectRepository;
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    private final LinkedBlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Integer, Long> pendingVersions = new ConcurrentHashMap<>();
+    private final AtomicLong nextVersion = new AtomicLong();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retries;
+    private final Object idleLock = new Object();
+    private int outstanding = 0; // tasks submitted or scheduled for retry that are not done yet
+
+    /**
+     * A project to embed.
+     *
+     * @param projectId   the id of the project.
+     * @param text        the text to embed.
+     * @param contentHash the content hash of the text.
+     * @param version     the submission this task belongs to; older versions are dropped.
+     * @param attempt     the number of the attempt, starting at 1.
+     */
+    private record Task(int projectId, String text, String contentHash, long version, int attempt) {
+    }
+
+    /**
+     * Constructs a ProjectEmbeddingPipeline with the default number of workers, batch size and retries.
+     *
+     * @param projectRepository the repository the embeddings are stored in.
+     * @param embeddingAPI      the embedding API.
+     */
+    public ProjectEmbeddingPipeline(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, DEFAULT_WORKERS, DEFAULT_BATCH_SIZE, DEFAULT_MAX_ATTEMPTS,
+                DEFAULT_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * Constructs a ProjectEmbeddingPipeline.
+     *
+     * @param projectRepository the repository the embeddings are stored in.
+     * @param embeddingAPI      the embedding API.
+     * @param workers           the maximum number of concurrent embedding API calls.
+     * @param batchSize         the maximum number of projects embedded by one call.
+     * @param maxAttempts       the number of times a project is tried before it is given up.
+     * @param retryDelayMillis  the delay before the first retry, doubled for every further retry.
+     */
+    public ProjectEmbeddingPipeline(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                    int workers, int batchSize, int maxAttempts, long retryDelayMillis) {
+        this.projectRepository = projectRepository;
+        this.embeddingAPI = embeddingAPI;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+        this.workers = Executors.newFixedThreadPool(workers, daemonThreads("project-embedding-worker"));
+        this.retries = Executors.newSingleThreadScheduledExecutor(daemonThreads("project-embedding-retry"));
+    }
+
+    /**
+     * Queues a project to be embedded and marks it as pending.
+     *
+     * @param projectId the id of the project.
+     * @param text      the text to embed.
+     */
+    public void submit(int projectId, String text) {
+        long version = nextVersion.incrementAndGet();
+        pendingVersions.put(projectId, version);
+        enqueue(new Task(projectId, text, ContentHash.of(embeddingAPI.getModelId(), text), version, 1), true);
+    }
+
+    /**
+     * Returns the id of the model the pipeline embeds with, which is part of the content hash of every text.
+     *
+     * @return the model id of the embedding API.
+     */
+    public String getModelId() {
+        return embeddingAPI.getModelId();
+    }
+
+    /**
+     * Drops the queued text of a project, so that it does not replace an embedding stored another way.
+     * Does nothing if the project is not pending.
+     *
+     * @param projectId the id of the project.
+     */
+    public synchronized void cancel(int projectId) {
+        pendingVersions.remove(projectId);
+    }
+
+    /**
+     * Returns whether a project is waiting for its embedding.
+     *
+     * @param projectId the id of the project.
+     * @return true if the project is pending.
+     */
+    public boolean isPending(int projectId) {
+        return pendingVersions.containsKey(projectId);
+    }
+
+    /**
+     * Returns the ids of the projects waiting for their embeddings.
+     *
+     * @return a copy of the pending project ids.
+     */
+    public Set<Integer> getPendingProjectIds() {
+        return new HashSet<>(pendingVersions.keySet());
+    }
+
+    /**
+     * Waits until every submitted project is embedded or given up.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return true if the pipeline is idle, false if the timeout elapsed first.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (idleLock) {
+            while (outstanding > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idleLock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops the workers. Projects that are still queued stay pending.
+     */
+    public void shutdown() {
+        retries.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void enqueue(Task task, boolean isNew) {
+        if (isNew) {
+            synchronized (idleLock) {
+                outstanding++;
+            }
+        }
+        queue.add(task);
+        workers.execute(this::drain);
+    }
+
+    private void done(int tasks) {
+        synchronized (idleLock) {
+            outstanding -= tasks;
+            if (outstanding == 0) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Embeds the queued projects, up to the batch size, with one call of the embedding API.
+     * Projects whose text already has a stored embedding reuse it instead.
+     * Every submission runs this once, so batches grow when projects are submitted faster than they are embedded.
+     */
+    private void drain() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        int superseded = 0;
+        while (batch.size() < batchSize) {
+            Task task = queue.poll();
+            if (task == null) {
+                break;
+            }
+            if (!isLatest(task)) {
+                superseded++;
+            } else if (!storeExisting(task)) {
+                batch.add(task);
+            }
+        }
+        done(superseded);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<float[]> embeddings;
+        try {
+            List<String> texts = new ArrayList<>(batch.size());
+            for (Task task : batch) {
+                texts.add(task.text());
+            }
+            embeddings = embeddingAPI.getEmbedData(texts);
+        } catch (RuntimeException e) {
+            System.err.println("Could not embed " + batch.size() + " projects: " + e.getMessage());
+            for (Task task : batch) {
+                retry(task);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Task task = batch.get(i);
+            float[] embedding = embeddings.get(i);
+            if (embedding.length == 0) {
+                retry(task); // the embedding API was unavailable
+                continue;
+            }
+            try {
+                store(task, embedding);
+                done(1);
+            } catch (RuntimeException e) {
+                System.err.println("Could not store the embedding of project " + task.projectId() + ": " + e.getMessage());
+                retry(task);
+            }
+        }
+    }
+
+    /**
+     * Stores the embedding already in the repository for the text of a task, if there is one.
+     *
+     * @param task the task.
+     * @return true if the task is done, false if its text has to be embedded.
+     */
+    private boolean storeExisting(Task task) {
+        float[] embedding;
+        try {
+            embedding = projectRepository.getEmbeddingByContentHash(task.contentHash());
+        } catch (RuntimeException e) {
+            return false; // embed it instead
+        }
+        if (embedding == null || embedding.length == 0) {
+            return false;
+        }
+        try {
+            store(task, embedding);
+            done(1);
+        } catch (RuntimeException e) {
+            System.err.println("Could not store the embedding of project " + task.projectId() + ": " + e.getMessage());
+            retry(task);
+        }
+        return true;
+    }
+
+    /**
+     * Stores an embedding unless the project was submitted again in the meantime.
+     * Stores are serialized, so an older embedding never overwrites a newer one.
+     *
+     * @param task      the task.
+     * @param embedding the embedding of its text.
+     */
+    private synchronized void store(Task task, float[] embedding) {
+        if (!isLatest(task)) {
+            return;
+        }
+        if (!projectRepository.updateEmbedding(task.projectId(), task.contentHash(), embedding)) {
+            System.err.println("Project " + task.projectId() + " was deleted before its embedding was stored");
+        }
+        pendingVersions.remove(task.projectId(), task.version());
+    }
+
+    private void retry(Task task) {
+        if (!isLatest(task)) {
+            done(1);
+            return;
+        }
+        if (task.attempt() >= maxAttempts) {
+            System.err.println("Gave up embedding project " + task.projectId() + " after " + maxAttempts + " attempts");
+            done(1);
+            return;
+        }
+        long delay = retryDelayMillis << Math.min(task.attempt() - 1, 20);
+        Task next = new Task(task.projectId(), task.text(), task.contentHash(), task.version(), task.attempt() + 1);
+        try {
+            retries.schedule(() -> enqueue(next, false), delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            done(1); // shut down
+        }
+    }
+
+    private boolean isLatest(Task task) {
+        Long version = pendingVersions.get(task.projectId());
+        return version != null && version == task.version();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,10 +1,11 @@
 package usecase.manageprojects.createproject;
 
+import api.embeddingapi.ContentHash;
 import api.embeddingapi.EmbeddingAPIInterface;
-import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.IUserProjectsRepository;
 import entities.Project;
 import dataaccess.IProjectRepository;
+import usecase.manageprojects.ProjectEmbeddingPipeline;
 
 /**
  * Interactor for the Create Project use case.
@@ -15,9 +16,11 @@ public class CreateProjectInteractor implements CreateProjectInputBoundary {
     private final CreateProjectOutputBoundary projectPresenter;
     private final EmbeddingAPIInterface embeddingAPI;
     private final IUserProjectsRepository userProjectsRepository;
+    private final ProjectEmbeddingPipeline embeddingPipeline;
 
     /**
      * Constructs a CreateApplicationInteractor with the specified repository and presenter.
+     * The project is embedded before it is saved.
      *
      * @param projectRepository the repository to interact with the database.
      * @param projectPresenter  the presenter to handle the output presentation.
@@ -30,22 +33,53 @@ public class CreateProjectInteractor implements CreateProjectInputBoundary {
         this.projectPresenter = projectPresenter;
         this.userProjectsRepository = userProjectsRepository;
         this.embeddingAPI = embeddingAPI;
+        this.embeddingPipeline = null;
+    }
+
+    /**
+     * Constructs a CreateApplicationInteractor that saves the project at once, without an embedding,
+     * and leaves the embedding to the given pipeline.
+     *
+     * @param projectRepository      the repository to interact with the database.
+     * @param userProjectsRepository the repository of the project members.
+     * @param projectPresenter       the presenter to handle the output presentation.
+     * @param embeddingPipeline      the pipeline that embeds the project in the background.
+     */
+    public CreateProjectInteractor(IProjectRepository projectRepository,
+                                   IUserProjectsRepository userProjectsRepository,
+                                   CreateProjectOutputBoundary projectPresenter,
+                                   ProjectEmbeddingPipeline embeddingPipeline) {
+        this.projectRepository = projectRepository;
+        this.projectPresenter = projectPresenter;
+        this.userProjectsRepository = userProjectsRepository;
+        this.embeddingAPI = null;
+        this.embeddingPipeline = embeddingPipeline;
     }
 
     /**
      * Creates a project with the provided input data.
+     * If another project has the same description, its embedding is reused instead of calling the embedding API.
      *
      * @param inputData the input data required to create a project.
      */
     @Override
     public void createProject(CreateProjectInputData inputData) {
         String stringToEmbed = inputData.getDescription();
-        float[] embeddings = embeddingAPI.getEmbedData(stringToEmbed);
-        Project project = projectRepository.createProject(inputData.getTitle(), inputData.getBudget(), inputData.getDescription(), inputData.getTags(), embeddings, inputData.getCreatorUserId());
+        String contentHash = contentHash(stringToEmbed);
+        float[] embeddings = projectRepository.getEmbeddingByContentHash(contentHash);
+        boolean embedLater = false;
+        if (embeddings == null || embeddings.length == 0) {
+            embedLater = embeddingPipeline != null;
+            embeddings = embedLater ? new float[0] : embeddingAPI.getEmbedData(stringToEmbed);
+        }
+        Project project = projectRepository.createProject(inputData.getTitle(), inputData.getBudget(), inputData.getDescription(), inputData.getTags(), embeddings, contentHash, inputData.getCreatorUserId());
 
         CreateProjectOutputData outputData;
 
         if (project != null) {
+            if (embedLater) {
+                embeddingPipeline.submit(project.getProjectId(), stringToEmbed);
+            }
             userProjectsRepository.addUserToProject(inputData.getCreatorUserId(), project.getProjectId());
             outputData = new CreateProjectOutputData(project.getProjectId(), project.getProjectTitle(), project.getProjectBudget(), project.getProjectDescription(), project.getProjectTags());
             projectPresenter.prepareSuccessView(outputData);
@@ -53,4 +87,15 @@ public class CreateProjectInteractor implements CreateProjectInputBoundary {
             projectPresenter.prepareFailView("Failed to create project.");
         }
     }
+
+    /**
+     * Returns the content hash of a text embedded by the model this interactor embeds with.
+     *
+     * @param text the text to be embedded.
+     * @return the content hash of the text.
+     */
+    private String contentHash(String text) {
+        String modelId = embeddingPipeline != null ? embeddingPipeline.getModelId() : embeddingAPI.getModelId();
+        return ContentHash.of(modelId, text);
+    }
 }
@@ -1,7 +1,9 @@
 package usecase.manageprojects.editproject;
 
+import api.embeddingapi.ContentHash;
 import api.embeddingapi.EmbeddingAPIInterface;
 import dataaccess.IProjectRepository;
+import usecase.manageprojects.ProjectEmbeddingPipeline;
 
 import java.util.HashSet;
 
@@ -13,9 +15,11 @@ public class EditProjectInteractor implements EditProjectInputBoundary {
     private final IProjectRepository projectRepository;
     private final EditProjectOutputBoundary projectPresenter;
     private final EmbeddingAPIInterface embeddingAPI;
+    private final ProjectEmbeddingPipeline embeddingPipeline;
 
     /**
      * Constructs an EditProjectInteractor with the specified repository, presenter, and embedding API.
+     * The project is embedded before it is saved.
      *
      * @param projectRepository  the project repository.
      * @param projectPresenter   the presenter to handle output.
@@ -25,16 +29,33 @@ public class EditProjectInteractor implements EditProjectInputBoundary {
         this.projectRepository = projectRepository;
         this.projectPresenter = projectPresenter;
         this.embeddingAPI = apiInterface;
+        this.embeddingPipeline = null;
+    }
+
+    /**
+     * Constructs an EditProjectInteractor that saves the project at once, without an embedding,
+     * and leaves the embedding to the given pipeline.
+     *
+     * @param projectRepository the project repository.
+     * @param projectPresenter  the presenter to handle output.
+     * @param embeddingPipeline the pipeline that embeds the project in the background.
+     */
+    public EditProjectInteractor(IProjectRepository projectRepository, EditProjectOutputBoundary projectPresenter, ProjectEmbeddingPipeline embeddingPipeline) {
+        this.projectRepository = projectRepository;
+        this.projectPresenter = projectPresenter;
+        this.embeddingAPI = null;
+        this.embeddingPipeline = embeddingPipeline;
     }
 
     /**
      * Edits a project with the provided input data.
+     * The stored embedding is kept if the description did not change, and the embedding of another project with
+     * the same description is reused; the embedding API is only called for new descriptions.
      *
      * @param inputData the input data required to edit a project.
      */
     @Override
     public void editProject(EditProjectInputData inputData) {
-        float[] embedding = embeddingAPI.getEmbedData(inputData.getDescription());
         int projectId = inputData.getProjectId();
         String title = inputData.getTitle();
         double budget = inputData.getBudget();
@@ -44,11 +65,42 @@ public class EditProjectInteractor implements EditProjectInputBoundary {
 
         if (projectRepository.getOwnerId(projectId) != editorId) {
             projectPresenter.prepareFailView("Insufficient Permissions.");
-        } else if (projectRepository.update(projectId, title, budget, description, tags, embedding)) {
+            return;
+        }
+
+        String contentHash = contentHash(description);
+        float[] embedding = null; // keeps the stored embedding
+        boolean embedLater = false;
+        if (!contentHash.equals(projectRepository.getContentHash(projectId))) {
+            embedding = projectRepository.getEmbeddingByContentHash(contentHash);
+            if (embedding == null || embedding.length == 0) {
+                embedLater = embeddingPipeline != null;
+                embedding = embedLater ? new float[0] : embeddingAPI.getEmbedData(description);
+            }
+        }
+
+        if (embeddingPipeline != null && !embedLater) {
+            embeddingPipeline.cancel(projectId); // an older description may still be waiting for its embedding
+        }
+        if (projectRepository.update(projectId, title, budget, description, tags, embedding, contentHash)) {
+            if (embedLater) {
+                embeddingPipeline.submit(projectId, description);
+            }
             EditProjectOutputData outputData = new EditProjectOutputData(projectId, title, budget, description, tags);
             projectPresenter.prepareSuccessView(outputData);
         } else {
             projectPresenter.prepareFailView("Failed to edit project.");
         }
     }
+
+    /**
+     * Returns the content hash of a text embedded by the model this interactor embeds with.
+     *
+     * @param text the text to be embedded.
+     * @return the content hash of the text.
+     */
+    private String contentHash(String text) {
+        String modelId = embeddingPipeline != null ? embeddingPipeline.getModelId() : embeddingAPI.getModelId();
+        return ContentHash.of(modelId, text);
+    }
 }
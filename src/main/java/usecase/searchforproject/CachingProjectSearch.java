@@ -0,0 +1,278 @@
+package usecase.searchforproject;
+
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectFilter;
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A ProjectSearchInterface decorator that remembers the results of recent searches.
+ * <p>
+ * Results are keyed by the normalized query, with case and runs of whitespace folded, and by the parameters and
+ * filter of the search. The query is searched in its normalized form, so every query sharing a key gets the
+ * same results. Each result is stamped with the repository's data version read before the search ran; a result
+ * whose version is no longer current is dropped when it is next looked up and searched again. The most recently
+ * used results are kept, up to a fixed number of entries.
+ * </p>
+ * Empty results, returned when the query cannot be embedded, the results of searches cancelled by an
+ * interrupt, and degraded results, reported with {@link SearchDegradation} when a stage of the search could not
+ * run, are not cached. Degraded results are searched again on the next lookup, so the complete results are
+ * cached once the stage recovers.
+ */
+public class CachingProjectSearch implements ProjectSearchInterface {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final ProjectSearchInterface projectSearch;
+    private final IProjectRepository projectRepository;
+    private final LinkedHashMap<Key, Entry> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleMisses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong degradedMisses = new AtomicLong();
+
+    /**
+     * The parameters a cached result was searched with.
+     *
+     * @param query    the normalized query.
+     * @param ranking  whether the result holds project ids rather than projects.
+     * @param k        the maximum number of results, or -1 for the default search.
+     * @param minScore the lowest similarity of the results.
+     * @param filter   the filter of the search.
+     */
+    private record Key(String query, boolean ranking, int k, float minScore, ProjectFilter filter) {
+    }
+
+    /**
+     * A cached result and the data version it was computed at.
+     *
+     * @param version the data version read before the search ran.
+     * @param result  the projects or project ids found.
+     */
+    private record Entry(long version, Object result) {
+    }
+
+    /**
+     * Constructs a CachingProjectSearch keeping the default number of results.
+     *
+     * @param projectSearch     the search to cache.
+     * @param projectRepository the repository whose data version stamps the results.
+     */
+    public CachingProjectSearch(ProjectSearchInterface projectSearch, IProjectRepository projectRepository) {
+        this(projectSearch, projectRepository, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a CachingProjectSearch.
+     *
+     * @param projectSearch     the search to cache.
+     * @param projectRepository the repository whose data version stamps the results.
+     * @param maxEntries        the maximum number of results kept.
+     */
+    public CachingProjectSearch(ProjectSearchInterface projectSearch, IProjectRepository projectRepository,
+                                int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.projectSearch = projectSearch;
+        this.projectRepository = projectRepository;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Searches for projects based on the given query, from the cache if the result is current.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        String normalizedQuery = normalize(query);
+        return projects(new Key(normalizedQuery, false, -1, Float.NaN, ProjectFilter.NONE),
+                () -> projectSearch.searchProjects(normalizedQuery));
+    }
+
+    /**
+     * Ranks the projects matching the given query, from the cache if the ranking is current.
+     *
+     * @param query the query to search for.
+     * @return the ids of the projects that match the query, best first.
+     */
+    @Override
+    public int[] rankProjects(String query) {
+        String normalizedQuery = normalize(query);
+        int[] projectIds = lookup(new Key(normalizedQuery, true, -1, Float.NaN, ProjectFilter.NONE),
+                () -> projectSearch.rankProjects(normalizedQuery), result -> result.length == 0);
+        return projectIds.clone();
+    }
+
+    /**
+     * Searches for the projects most similar to the given query, from the cache if the result is current.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @return at most k projects scoring at least minScore, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore) {
+        String normalizedQuery = normalize(query);
+        return projects(new Key(normalizedQuery, false, k, minScore, ProjectFilter.NONE),
+                () -> projectSearch.searchProjects(normalizedQuery, k, minScore));
+    }
+
+    /**
+     * Searches for the projects most similar to the given query among the projects matching a filter,
+     * from the cache if the result is current.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects scoring at least minScore, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter) {
+        String normalizedQuery = normalize(query);
+        return projects(new Key(normalizedQuery, false, k, minScore, filter),
+                () -> projectSearch.searchProjects(normalizedQuery, k, minScore, filter));
+    }
+
+    /**
+     * Returns the number of searches answered from the cache.
+     *
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of searches that ran, including those whose cached result was stale.
+     *
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of searches that ran because their cached result was computed at an older data version.
+     *
+     * @return the number of stale misses.
+     */
+    public long getStaleMissCount() {
+        return staleMisses.get();
+    }
+
+    /**
+     * Returns the number of results dropped to keep the cache within its size.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the number of searches whose results were not cached because the search reported them as degraded.
+     *
+     * @return the number of degraded misses.
+     */
+    public long getDegradedMissCount() {
+        return degradedMisses.get();
+    }
+
+    /**
+     * Returns the share of searches answered from the cache.
+     *
+     * @return the hit rate, from 0 to 1, or 0 if nothing was searched yet.
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the number of results in the cache, including stale ones not looked up since they became stale.
+     *
+     * @return the number of cached results.
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    private ArrayList<ProjectInterface> projects(Key key, Supplier<ArrayList<ProjectInterface>> search) {
+        return new ArrayList<>(lookup(key, search, ArrayList::isEmpty)); // callers may modify the list they get
+    }
+
+    /**
+     * Returns the cached result of a search if it is current, otherwise runs the search and caches its result.
+     * The data version is read before the search runs, so a write made during the search leaves the result stale.
+     * Results of searches whose thread was interrupted are not cached, since parts of them may have been cut off,
+     * and neither are results the search reported as degraded. The degradation is reported again to the caller.
+     *
+     * @param key    the parameters of the search.
+     * @param search runs the search.
+     * @param empty  tells whether a result is empty and should not be cached.
+     * @return the result.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(Key key, Supplier<T> search, Predicate<T> empty) {
+        long version = projectRepository.getDataVersion();
+        synchronized (this) {
+            Entry entry = cache.get(key);
+            if (entry != null && entry.version() == version) {
+                hits.incrementAndGet();
+                return (T) entry.result();
+            }
+            if (entry != null) {
+                cache.remove(key);
+                staleMisses.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        boolean reported = SearchDegradation.clear();
+        T result = search.get();
+        boolean degraded = SearchDegradation.clear();
+        if (degraded) {
+            degradedMisses.incrementAndGet();
+        } else if (!empty.test(result) && !Thread.currentThread().isInterrupted()) { // a cancelled one may be partial
+            synchronized (this) {
+                cache.put(key, new Entry(version, result));
+            }
+        }
+        if (reported || degraded) {
+            SearchDegradation.report();
+        }
+        return result;
+    }
+
+    /**
+     * Folds the case and the runs of whitespace of a query.
+     *
+     * @param query the query.
+     * @return the normalized query.
+     */
+    private static String normalize(String query) {
+        return query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,233 @@
+package usecase.searchforproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.EmbeddingSnapshot;
+import dataaccess.searchindex.HnswIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.ScoredIds;
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate implementation for searching projects.
+ * Uses an in-memory HNSW graph over the project embeddings instead of scoring every project,
+ * trading a little accuracy for much lower latency on large project sets.
+ * The graph follows the writes recorded by the repository's vector index, so it stays current
+ * without being rebuilt.
+ * Filtered searches only collect matching projects while they walk the graph, and score the matching projects
+ * exactly when the filter is so narrow that walking the graph would cost more.
+ */
+public class HnswProjectSearchObject implements ProjectSearchInterface {
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 200;
+    public static final int DEFAULT_EF_SEARCH = 64;
+    public static final int DEFAULT_MAX_RESULTS = 20;
+    private static final long SEED = 42;
+
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final IProjectRepository projectDataAccess;
+    private final int m;
+    private final int efConstruction;
+
+    private volatile HnswIndex index;
+    private long indexVersion = -1;
+    private volatile int efSearch = DEFAULT_EF_SEARCH;
+    private volatile int maxResults = DEFAULT_MAX_RESULTS;
+
+    /**
+     * Constructs a HnswProjectSearchObject with the default graph parameters.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI      the embedding API used for the queries.
+     */
+    public HnswProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, DEFAULT_M, DEFAULT_EF_CONSTRUCTION);
+    }
+
+    /**
+     * Constructs a HnswProjectSearchObject.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI      the embedding API used for the queries.
+     * @param m                 the number of links per node in the graph.
+     * @param efConstruction    the size of the candidate list used while building the graph.
+     */
+    public HnswProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                   int m, int efConstruction) {
+        this.projectDataAccess = projectRepository;
+        this.embeddingAPI = embeddingAPI;
+        this.m = m;
+        this.efConstruction = efConstruction;
+    }
+
+    /**
+     * Searches for the projects closest to the given query.
+     * The graph is built from the repository on the first search.
+     *
+     * @param query  the query to search for.
+     * @return the list of projects that match the query, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return searchProjects(query, maxResults, Float.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Ranks the projects closest to the given query without looking them up.
+     *
+     * @param query the query to search for.
+     * @return the ids of at most maxResults projects, most similar first.
+     */
+    @Override
+    public int[] rankProjects(String query) {
+        return getIndex().search(embed(query), maxResults, efSearch).ids();
+    }
+
+    /**
+     * Searches for the projects closest to the given query.
+     * The candidate list is widened to k if k is larger than efSearch.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @return at most k projects scoring at least minScore, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore) {
+        return searchProjects(query, k, minScore, ProjectFilter.NONE);
+    }
+
+    /**
+     * Searches for the projects closest to the given query among the projects matching a filter.
+     * The filter is resolved to project ids with the repository's attribute index before the graph is searched.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects scoring at least minScore, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter) {
+        ProjectIdBitmap projectIds = filter.isEmpty() ? null : projectDataAccess.getAttributeIndex().filter(filter);
+        if (projectIds != null && projectIds.isEmpty()) {
+            return new ArrayList<>(); // no project matches, so the query need not be embedded
+        }
+        float[] queryEmbedding = embed(query);
+        ScoredIds hits = getIndex().search(queryEmbedding, k, efSearch, projectIds);
+
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        for (int i = 0; i < hits.size() && hits.scores()[i] >= minScore; i++) {
+            ProjectInterface project = projectDataAccess.getProjectById(hits.ids()[i]);
+            if (project != null) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the graph from the embeddings currently held by the repository.
+     * This also drops the nodes left behind by edited and deleted projects.
+     */
+    public synchronized void rebuild() {
+        HnswIndex newIndex = new HnswIndex(m, efConstruction, efSearch, SEED);
+        ProjectVectorIndex vectorIndex = projectDataAccess.getVectorIndex();
+        if (vectorIndex != null) {
+            EmbeddingSnapshot snapshot = vectorIndex.snapshot();
+            for (int row = 0; row < snapshot.rowCount(); row++) {
+                if (snapshot.idAt(row) >= 0) {
+                    newIndex.add(snapshot.idAt(row), snapshot.vectorAt(row));
+                }
+            }
+            indexVersion = snapshot.version();
+        } else {
+            for (Map.Entry<Integer, float[]> data : projectDataAccess.getAllEmbeddings().entrySet()) {
+                newIndex.add(data.getKey(), data.getValue());
+            }
+        }
+        index = newIndex;
+    }
+
+    /**
+     * Sets the size of the candidate list used while searching.
+     * Higher values give better recall at the cost of latency.
+     *
+     * @param efSearch the new efSearch value.
+     */
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch must be positive");
+        }
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Sets the maximum number of projects returned by a search.
+     *
+     * @param maxResults the new maximum number of results.
+     */
+    public void setMaxResults(int maxResults) {
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("maxResults must be positive");
+        }
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Embeds a query, reporting the search as degraded if the query could not be embedded.
+     *
+     * @param query the query.
+     * @return the embedding of the query, empty if it could not be embedded.
+     */
+    private float[] embed(String query) {
+        float[] queryEmbedding = embeddingAPI.getEmbedData(query);
+        if (queryEmbedding.length == 0) {
+            SearchDegradation.report();
+        }
+        return queryEmbedding;
+    }
+
+    /**
+     * Returns the graph, building it on first use and applying the repository's writes since the last search.
+     *
+     * @return the HNSW index.
+     */
+    private synchronized HnswIndex getIndex() {
+        ProjectVectorIndex vectorIndex = projectDataAccess.getVectorIndex();
+        if (index == null) {
+            rebuild();
+        } else if (vectorIndex != null && vectorIndex.version() != indexVersion) {
+            catchUp(vectorIndex);
+        }
+        return index;
+    }
+
+    /**
+     * Applies the writes recorded by the vector index since the graph was last updated.
+     * Rebuilds the graph instead if the writes are no longer available or too many nodes are deleted.
+     *
+     * @param vectorIndex the repository's vector index.
+     */
+    private void catchUp(ProjectVectorIndex vectorIndex) {
+        List<ProjectVectorIndex.Change> changes = vectorIndex.changesSince(indexVersion);
+        if (changes == null || index.deletedCount() > index.size()) {
+            rebuild();
+            return;
+        }
+        for (ProjectVectorIndex.Change change : changes) {
+            if (change.embedding() == null) {
+                index.remove(change.projectId());
+            } else {
+                index.add(change.projectId(), change.embedding());
+            }
+            indexVersion = change.version();
+        }
+    }
+}
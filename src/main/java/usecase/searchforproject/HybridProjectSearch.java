@@ -0,0 +1,277 @@
+package usecase.searchforproject;
+
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectFilter;
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToIntFunction;
+
+/**
+ * A ProjectSearchInterface that combines keyword search and vector search.
+ * <p>
+ * Vector search finds projects described in other words than the query, but can miss exact matches on project
+ * names and tags, which keyword search ranks first. Both searches run concurrently and their rankings are fused
+ * with reciprocal rank fusion: a project scores 1 / ({@value #RRF_K} + rank) for each ranking it appears in, so
+ * projects ranked well by both come first, without comparing cosine similarities to BM25 scores.
+ * </p>
+ * <p>
+ * Each search has a deadline counted from the start of the query. A search that misses it, or fails, is left
+ * out, so a slow or unavailable embedding API degrades the results to keyword search instead of stalling the
+ * search panel. The search is then reported as degraded with {@link SearchDegradation}, as it is when a search
+ * running on the executor reports a degradation of its own.
+ * </p>
+ */
+public class HybridProjectSearch implements ProjectSearchInterface {
+    public static final int RRF_K = 60;
+    public static final int MIN_CANDIDATES = 50; // projects taken from each ranking before fusing
+
+    private final ProjectSearchInterface vectorSearch;
+    private final IProjectRepository projectRepository;
+    private final ExecutorService executor;
+    private final long vectorTimeoutMillis;
+    private final long keywordTimeoutMillis;
+
+    /**
+     * The results of a search run on the executor.
+     *
+     * @param results    the results.
+     * @param isDegraded whether the search reported a degradation on the thread it ran on.
+     */
+    private record Retrieval<T>(List<T> results, boolean isDegraded) {
+    }
+
+    /**
+     * Constructs a HybridProjectSearch.
+     *
+     * @param vectorSearch         the vector search.
+     * @param projectRepository    the repository searched by keyword.
+     * @param executor             the executor both searches run on.
+     * @param vectorTimeoutMillis  how long the vector search may take.
+     * @param keywordTimeoutMillis how long the keyword search may take.
+     */
+    public HybridProjectSearch(ProjectSearchInterface vectorSearch, IProjectRepository projectRepository,
+                               ExecutorService executor, long vectorTimeoutMillis, long keywordTimeoutMillis) {
+        this.vectorSearch = vectorSearch;
+        this.projectRepository = projectRepository;
+        this.executor = executor;
+        this.vectorTimeoutMillis = vectorTimeoutMillis;
+        this.keywordTimeoutMillis = keywordTimeoutMillis;
+    }
+
+    /**
+     * Searches for projects based on the given query.
+     * Fuses the projects the vector search returns with the best {@value #MIN_CANDIDATES} keyword matches.
+     *
+     * @param query the query to search for.
+     * @return the projects found by either search, best first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return search(() -> vectorSearch.searchProjects(query), query, MIN_CANDIDATES, Integer.MAX_VALUE,
+                ProjectFilter.NONE);
+    }
+
+    /**
+     * Searches for the projects best matching the given query.
+     * Both searches return more than k candidates, so that projects ranked lower by one of them can still
+     * make the fused top k.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project found by the vector search may have.
+     * @return at most k projects, best first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore) {
+        int candidates = Math.max(k, MIN_CANDIDATES);
+        return search(() -> vectorSearch.searchProjects(query, candidates, minScore), query, candidates, k,
+                ProjectFilter.NONE);
+    }
+
+    /**
+     * Searches for the projects best matching the given query among the projects matching a filter.
+     * Both searches apply the filter themselves, so neither ranking is cut short by projects the filter rejects.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project found by the vector search may have.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects, best first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter) {
+        int candidates = Math.max(k, MIN_CANDIDATES);
+        return search(() -> vectorSearch.searchProjects(query, candidates, minScore, filter), query, candidates, k,
+                filter);
+    }
+
+    /**
+     * Ranks the projects matching the given query without looking them up.
+     * Fuses the ids the vector search ranks with the ids of the best {@value #MIN_CANDIDATES} keyword matches.
+     *
+     * @param query the query to search for.
+     * @return the ids of the projects found by either search, best first.
+     */
+    @Override
+    public int[] rankProjects(String query) {
+        List<Integer> fused = searchAndFuse(() -> boxed(vectorSearch.rankProjects(query)),
+                () -> boxed(projectRepository.searchProjectsByKeyword(query, MIN_CANDIDATES).ids()),
+                Integer::intValue, Integer.MAX_VALUE);
+        return fused.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Runs both searches and fuses their rankings.
+     *
+     * @param vectorRetriever   the vector search to run.
+     * @param query             the query searched by keyword.
+     * @param keywordCandidates the number of projects to take from the keyword search.
+     * @param k                 the maximum number of projects to return.
+     * @param filter            the conditions the projects found by keyword must meet.
+     * @return at most k projects, best first.
+     */
+    private ArrayList<ProjectInterface> search(Callable<ArrayList<ProjectInterface>> vectorRetriever, String query,
+                                               int keywordCandidates, int k, ProjectFilter filter) {
+        return searchAndFuse(vectorRetriever, () -> searchByKeyword(query, keywordCandidates, filter),
+                ProjectInterface::getProjectId, k);
+    }
+
+    /**
+     * Runs both retrievers concurrently and fuses their rankings.
+     *
+     * @param vectorRetriever  the vector search to run.
+     * @param keywordRetriever the keyword search to run.
+     * @param projectId        gives the project id of a result.
+     * @param k                the maximum number of results to return.
+     * @return at most k results, best first.
+     */
+    private <T> ArrayList<T> searchAndFuse(Callable<? extends List<T>> vectorRetriever,
+                                           Callable<? extends List<T>> keywordRetriever,
+                                           ToIntFunction<T> projectId, int k) {
+        long start = System.nanoTime();
+        Future<Retrieval<T>> vectorResults = submit(vectorRetriever);
+        Future<Retrieval<T>> keywordResults = submit(keywordRetriever);
+        List<T> keywordRanking = await(keywordResults, start, keywordTimeoutMillis, "Keyword");
+        List<T> vectorRanking = await(vectorResults, start, vectorTimeoutMillis, "Vector");
+        return fuse(vectorRanking, keywordRanking, projectId, k);
+    }
+
+    /**
+     * Fuses two rankings with reciprocal rank fusion.
+     * Projects with equal scores keep the order of the vector ranking, then of the keyword ranking.
+     *
+     * @param vectorRanking  the projects found by the vector search, best first.
+     * @param keywordRanking the projects found by the keyword search, best first.
+     * @param projectId      gives the project id of a result.
+     * @param k              the maximum number of projects to return.
+     * @return at most k projects, best first.
+     */
+    private static <T> ArrayList<T> fuse(List<T> vectorRanking, List<T> keywordRanking, ToIntFunction<T> projectId,
+                                         int k) {
+        LinkedHashMap<Integer, T> projects = new LinkedHashMap<>();
+        LinkedHashMap<Integer, Double> scores = new LinkedHashMap<>();
+        for (List<T> ranking : List.of(vectorRanking, keywordRanking)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                T project = ranking.get(rank);
+                projects.putIfAbsent(projectId.applyAsInt(project), project);
+                scores.merge(projectId.applyAsInt(project), 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+        ArrayList<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder()));
+        ArrayList<T> results = new ArrayList<>(Math.min(k, ranked.size()));
+        for (Map.Entry<Integer, Double> entry : ranked) {
+            if (results.size() >= k) {
+                break;
+            }
+            results.add(projects.get(entry.getKey()));
+        }
+        return results;
+    }
+
+    private static List<Integer> boxed(int[] projectIds) {
+        return Arrays.stream(projectIds).boxed().toList();
+    }
+
+    private ArrayList<ProjectInterface> searchByKeyword(String query, int k, ProjectFilter filter) {
+        int[] projectIds = (filter.isEmpty() ? projectRepository.searchProjectsByKeyword(query, k)
+                : projectRepository.searchProjectsByKeyword(query, k,
+                        projectRepository.getAttributeIndex().filter(filter))).ids();
+        ArrayList<ProjectInterface> results = new ArrayList<>(projectIds.length);
+        for (int projectId : projectIds) {
+            ProjectInterface project = projectRepository.getProjectById(projectId);
+            if (project != null) {
+                results.add(project);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Starts a search on the executor, carrying a degradation it reports back to the calling thread.
+     *
+     * @param retriever the search to run.
+     * @return the pending results, or null if the search could not be started.
+     */
+    private <T> Future<Retrieval<T>> submit(Callable<? extends List<T>> retriever) {
+        try {
+            return executor.submit(() -> {
+                SearchDegradation.clear(); // executor threads are reused
+                List<T> results = retriever.call();
+                return new Retrieval<>(results, SearchDegradation.clear());
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Search could not be started: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the results of a search until its deadline.
+     * Reports the search as degraded if it could not be started, failed, missed its deadline or reported a
+     * degradation itself.
+     *
+     * @param results       the pending results, or null if the search could not be started.
+     * @param start         when the query started, from {@link System#nanoTime()}.
+     * @param timeoutMillis how long after the start the search may take.
+     * @param name          the name of the search, for the error output.
+     * @return the results, or an empty list if the search failed or missed its deadline.
+     */
+    private static <T> List<T> await(Future<Retrieval<T>> results, long start, long timeoutMillis, String name) {
+        if (results == null) {
+            SearchDegradation.report();
+            return List.of();
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - start);
+        try {
+            Retrieval<T> retrieval = results.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            if (retrieval.isDegraded()) {
+                SearchDegradation.report();
+            }
+            return retrieval.results();
+        } catch (TimeoutException e) {
+            results.cancel(true);
+            System.err.println(name + " search timed out after " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            System.err.println(name + " search failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            results.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        SearchDegradation.report();
+        return List.of();
+    }
+}
@@ -0,0 +1,132 @@
+package usecase.searchforproject;
+
+import api.embeddingapi.EmbeddingAPIException;
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ScoredIds;
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * A ProjectSearchInterface decorator that keeps search working while the embedding API is unavailable.
+ * <p>
+ * Queries are searched by the decorated vector search. If the query cannot be embedded, because the embedding
+ * API failed or refused the request, the repository's keyword search ranks the projects by the words of the
+ * query in their title, description or tags instead, and the search is reported as degraded with
+ * {@link SearchDegradation}, since the results may miss projects described in other words.
+ * </p>
+ */
+public class KeywordFallbackSearch implements ProjectSearchInterface {
+    private final ProjectSearchInterface projectSearch;
+    private final IProjectRepository projectRepository;
+
+    /**
+     * Constructs a KeywordFallbackSearch.
+     *
+     * @param projectSearch     the vector search.
+     * @param projectRepository the repository searched by keyword when the vector search fails.
+     */
+    public KeywordFallbackSearch(ProjectSearchInterface projectSearch, IProjectRepository projectRepository) {
+        this.projectSearch = projectSearch;
+        this.projectRepository = projectRepository;
+    }
+
+    /**
+     * Searches for projects based on the given query, by keyword if the query cannot be embedded.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        try {
+            return projectSearch.searchProjects(query);
+        } catch (EmbeddingAPIException e) {
+            System.err.println("Searching by keyword, the embedding API is unavailable: " + e.getMessage());
+            SearchDegradation.report();
+            return searchByKeyword(query, Integer.MAX_VALUE, ProjectFilter.NONE);
+        }
+    }
+
+    /**
+     * Ranks the projects matching the given query without looking them up, by keyword if the query cannot be
+     * embedded.
+     *
+     * @param query the query to search for.
+     * @return the ids of the projects that match the query, best first.
+     */
+    @Override
+    public int[] rankProjects(String query) {
+        try {
+            return projectSearch.rankProjects(query);
+        } catch (EmbeddingAPIException e) {
+            System.err.println("Searching by keyword, the embedding API is unavailable: " + e.getMessage());
+            SearchDegradation.report();
+            return projectRepository.searchProjectsByKeyword(query, Integer.MAX_VALUE).ids();
+        }
+    }
+
+    /**
+     * Searches for the projects most similar to the given query, by keyword if the query cannot be embedded.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project found by the vector search may have.
+     * @return at most k projects.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore) {
+        try {
+            return projectSearch.searchProjects(query, k, minScore);
+        } catch (EmbeddingAPIException e) {
+            System.err.println("Searching by keyword, the embedding API is unavailable: " + e.getMessage());
+            SearchDegradation.report();
+            return searchByKeyword(query, k, ProjectFilter.NONE);
+        }
+    }
+
+    /**
+     * Searches for the projects most similar to the given query among the projects matching a filter,
+     * by keyword if the query cannot be embedded.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project found by the vector search may have.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter) {
+        try {
+            return projectSearch.searchProjects(query, k, minScore, filter);
+        } catch (EmbeddingAPIException e) {
+            System.err.println("Searching by keyword, the embedding API is unavailable: " + e.getMessage());
+            SearchDegradation.report();
+            return searchByKeyword(query, k, filter);
+        }
+    }
+
+    /**
+     * Finds the projects best matching the words of the query with the repository's keyword search.
+     * Projects that no longer exist are skipped.
+     *
+     * @param query  the query.
+     * @param k      the maximum number of projects to return.
+     * @param filter the conditions the projects must meet.
+     * @return at most k projects, most relevant first.
+     */
+    private ArrayList<ProjectInterface> searchByKeyword(String query, int k, ProjectFilter filter) {
+        ScoredIds hits = filter.isEmpty() ? projectRepository.searchProjectsByKeyword(query, k)
+                : projectRepository.searchProjectsByKeyword(query, k,
+                        projectRepository.getAttributeIndex().filter(filter));
+        ArrayList<ProjectInterface> results = new ArrayList<>(hits.size());
+        for (int projectId : hits.ids()) {
+            ProjectInterface project = projectRepository.getProjectById(projectId);
+            if (project != null) {
+                results.add(project);
+            }
+        }
+        return results;
+    }
+}
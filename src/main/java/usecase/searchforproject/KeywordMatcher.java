@@ -0,0 +1,50 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.Locale;
+
+/**
+ * Matches projects against the words of a query without embeddings.
+ * A project matches if every word of the query appears in its title, description or tags, ignoring case.
+ */
+final class KeywordMatcher {
+
+    // This class should not be instantiated
+    private KeywordMatcher() { }
+
+    /**
+     * Splits a query into lowercase words.
+     *
+     * @param query the query.
+     * @return the words, or an empty array if the query is blank.
+     */
+    static String[] words(String query) {
+        String trimmed = query.toLowerCase(Locale.ROOT).trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    /**
+     * Returns whether every word appears in the title, description or tags of a project.
+     *
+     * @param project the project.
+     * @param words   the lowercase words of the query.
+     * @return true if the project matches.
+     */
+    static boolean matches(ProjectInterface project, String[] words) {
+        StringBuilder text = new StringBuilder();
+        text.append(project.getProjectTitle()).append('\n').append(project.getProjectDescription());
+        if (project.getProjectTags() != null) {
+            for (String tag : project.getProjectTags()) {
+                text.append('\n').append(tag);
+            }
+        }
+        String content = text.toString().toLowerCase(Locale.ROOT);
+        for (String word : words) {
+            if (!content.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
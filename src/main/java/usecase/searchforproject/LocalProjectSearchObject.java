@@ -2,24 +2,37 @@ package usecase.searchforproject;
 
 import api.embeddingapi.EmbeddingAPIInterface;
 import dataaccess.IProjectRepository;
+import dataaccess.searchindex.EmbeddingSnapshot;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.Quantization;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.ShardedScanner;
+import dataaccess.searchindex.TopKCollector;
+import dataaccess.searchindex.VectorMath;
 import entities.ProjectInterface;
 
-import java.util.*;
-
-import static java.lang.Math.max;
-import static java.lang.Math.min;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Local implementation for searching projects.
  * Uses an embedding API to search for projects based on cosine similarity.
+ * The project embeddings are stored normalized, so each project is scored with a single dot product,
+ * and the best projects are kept in a bounded heap rather than sorting every score.
+ * Large project sets are scored in parallel shards by a {@link ShardedScanner}.
+ * Filtered searches only score the projects matching the filter, so they get cheaper as the filter gets narrower.
+ * If the vector index is quantized, the best candidates of the scan are rescored against the full-precision
+ * embeddings held by the repository. The default search only rescores the projects whose quantized similarity is
+ * too close to the midpoint to tell which side of it they are on, and keeps the others as scored.
  */
-@SuppressWarnings("FieldCanBeLocal")
 public class LocalProjectSearchObject implements ProjectSearchInterface {
+    private static final int RESCORE_FACTOR = 4; // candidates rescored per result on quantized indexes
 
     private final EmbeddingAPIInterface embeddingAPI;
     private final IProjectRepository projectDataAccess;
-
-    private float threshold = 0f;
+    private final ShardedScanner scanner;
 
     /**
      * Constructs a LocalProjectSearchObject using the given project repository.
@@ -28,86 +41,200 @@ public class LocalProjectSearchObject implements ProjectSearchInterface {
      * @param projectRepository the project repository to use.
      */
     public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, new ShardedScanner());
+    }
+
+    /**
+     * Constructs a LocalProjectSearchObject that scores large project sets in parallel with the given scanner.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI      the embedding API used for the queries.
+     * @param scanner           the scanner that scores the projects.
+     */
+    public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                    ShardedScanner scanner) {
         this.embeddingAPI = embeddingAPI;
         this.projectDataAccess = projectRepository;
+        this.scanner = scanner;
     }
 
     /**
      * Searches for projects based on the given query.
+     * Returns every project whose similarity is at least halfway between the lowest and the highest similarity.
      *
      * @param query  the query to search for.
-     * @return the list of projects that match the query.
+     * @return the list of projects that match the query, most similar first.
      */
     @Override
     public ArrayList<ProjectInterface> searchProjects(String query) {
+        return getProjects(rank(query));
+    }
+
+    /**
+     * Ranks the projects whose similarity is at least halfway between the lowest and the highest similarity,
+     * without looking them up.
+     *
+     * @param query the query to search for.
+     * @return the ids of the projects that match the query, most similar first.
+     */
+    @Override
+    public int[] rankProjects(String query) {
+        return rank(query).ids();
+    }
+
+    private ScoredIds rank(String query) {
         float[] queryEmbedding = embeddingAPI.getEmbedData(query);
-        float maxSimilarity = 1;
-        float minSimilarity = -1;
-
-        Map<Integer, Float> cosineSimilarityMap = new LinkedHashMap<>();
-        HashMap<Integer, float[]> dataVector = projectDataAccess.getAllEmbeddings(); //<projectId, embedding>
-        for (Map.Entry<Integer, float[]> data : dataVector.entrySet()) {
-            float thisSim = calcCosineSimilarity(queryEmbedding, data.getValue());
-            cosineSimilarityMap.put(data.getKey(), thisSim);
-            maxSimilarity = min(maxSimilarity, thisSim);
-            minSimilarity = max(minSimilarity, thisSim);
+        EmbeddingSnapshot snapshot = getEmbeddingSnapshot();
+        if (queryEmbedding.length != snapshot.dimension()) {
+            reportDegradation(queryEmbedding, snapshot);
+            return ScoredIds.EMPTY; // the query could not be embedded the same way as the projects
         }
-        cosineSimilarityMap = sortByValue(cosineSimilarityMap);
+        float[] normalizedQuery = VectorMath.normalize(queryEmbedding);
+
+        float[] scores = scanner.scoreAll(snapshot, normalizedQuery);
+        float minSimilarity = 1;
+        float maxSimilarity = -1;
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (snapshot.idAt(row) >= 0) {
+                minSimilarity = Math.min(minSimilarity, scores[row]);
+                maxSimilarity = Math.max(maxSimilarity, scores[row]);
+            }
+        }
+        float threshold = (minSimilarity + maxSimilarity) / 2; // local, as searches run concurrently
+
+        float scoreError = snapshot.quantization().scoreError();
+        TopKCollector collector = new TopKCollector(snapshot.size(), threshold);
+        TopKCollector uncertain = new TopKCollector(snapshot.size(), threshold - scoreError);
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (snapshot.idAt(row) < 0) {
+                continue;
+            }
+            if (scores[row] >= threshold + scoreError) {
+                collector.offer(scores[row], snapshot.idAt(row));
+            } else {
+                uncertain.offer(scores[row], snapshot.idAt(row));
+            }
+        }
+        if (uncertain.size() > 0) {
+            ScoredIds rescored = rescore(uncertain.result(), normalizedQuery, snapshot.size(), threshold);
+            for (int i = 0; i < rescored.size(); i++) {
+                collector.offer(rescored.scores()[i], rescored.ids()[i]);
+            }
+        }
+        return collector.result();
+    }
 
-        ArrayList<ProjectInterface> result = new ArrayList<>();
+    /**
+     * Searches for the projects most similar to the given query.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @return at most k projects scoring at least minScore, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore) {
+        return searchProjects(query, k, minScore, ProjectFilter.NONE);
+    }
 
-        System.out.println("values: " + cosineSimilarityMap.values());
-        threshold = (maxSimilarity + minSimilarity) / 2;
+    /**
+     * Searches for the projects most similar to the given query among the projects matching a filter.
+     * The filter is resolved to project ids with the repository's attribute index, and the scan skips the rows
+     * of every other project before scoring them.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects scoring at least minScore, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter) {
+        ProjectIdBitmap projectIds = filter.isEmpty() ? null : projectDataAccess.getAttributeIndex().filter(filter);
+        if (projectIds != null && projectIds.isEmpty()) {
+            return new ArrayList<>(); // no project matches, so the query need not be embedded
+        }
+        float[] queryEmbedding = embeddingAPI.getEmbedData(query);
+        EmbeddingSnapshot snapshot = getEmbeddingSnapshot();
+        if (queryEmbedding.length != snapshot.dimension()) {
+            reportDegradation(queryEmbedding, snapshot);
+            return new ArrayList<>();
+        }
+        float[] normalizedQuery = VectorMath.normalize(queryEmbedding);
+        Quantization quantization = snapshot.quantization();
+        if (quantization == Quantization.NONE) {
+            return getProjects(scanner.topK(snapshot, normalizedQuery, k, minScore, projectIds));
+        }
+        int candidates = (int) Math.min(Integer.MAX_VALUE, (long) k * RESCORE_FACTOR);
+        ScoredIds hits = scanner.topK(snapshot, normalizedQuery, candidates, minScore - quantization.scoreError(),
+                projectIds);
+        return getProjects(rescore(hits, normalizedQuery, k, minScore));
+    }
 
-        while (!cosineSimilarityMap.isEmpty()) {
-            int projectId = cosineSimilarityMap.keySet().iterator().next();
-            if (cosineSimilarityMap.get(projectId) < threshold) {
-                break;
+    /**
+     * Scores the candidates of a quantized scan again with their full-precision embeddings.
+     * Candidates whose embedding is gone or has another length are dropped.
+     *
+     * @param candidates      the candidates of the scan.
+     * @param normalizedQuery the normalized query.
+     * @param k               the maximum number of projects to keep.
+     * @param minScore        the lowest cosine similarity a project may have to be kept.
+     * @return at most k project ids scoring at least minScore, best first.
+     */
+    private ScoredIds rescore(ScoredIds candidates, float[] normalizedQuery, int k, float minScore) {
+        HashMap<Integer, float[]> embeddings = projectDataAccess.getEmbeddings(candidates.ids());
+        TopKCollector collector = new TopKCollector(k, minScore);
+        for (int projectId : candidates.ids()) {
+            float[] embedding = embeddings.get(projectId);
+            if (embedding != null && embedding.length == normalizedQuery.length) {
+                collector.offer(VectorMath.dot(normalizedQuery, VectorMath.normalize(embedding)), projectId);
             }
-            result.add(projectDataAccess.getProjectById(projectId));
-            cosineSimilarityMap.remove(projectId);
         }
-
-        return result;
+        return collector.result();
     }
 
     /**
-     * Sorts the map by its values.
+     * Returns a consistent view of the project embeddings to score against.
+     * Uses the repository's resident vector index, or reads every embedding if the repository has none.
      *
-     * @param map the map to sort.
-     * @param <K> the type of keys.
-     * @param <V> the type of values.
-     * @return the sorted map.
+     * @return the embeddings snapshot.
      */
-    private <K, V extends Comparable<? super V>> Map<K, V> sortByValue(Map<K, V> map) {
-        List<Map.Entry<K, V>> list = new ArrayList<>(map.entrySet());
-        list.sort(Map.Entry.comparingByValue());
-        Collections.reverse(list);
-
-        Map<K, V> result = new LinkedHashMap<>();
-        for (Map.Entry<K, V> entry : list) {
-            result.put(entry.getKey(), entry.getValue());
+    private EmbeddingSnapshot getEmbeddingSnapshot() {
+        ProjectVectorIndex vectorIndex = projectDataAccess.getVectorIndex();
+        if (vectorIndex != null) {
+            return vectorIndex.snapshot();
         }
+        return EmbeddingSnapshot.of(projectDataAccess.getAllEmbeddings());
+    }
 
-        return result;
+    /**
+     * Reports the search as degraded if the query could not be embedded, or was embedded by another model than
+     * the stored projects. A search over no stored embeddings is complete, since it could not find anything.
+     *
+     * @param queryEmbedding the embedding of the query.
+     * @param snapshot       the embeddings searched.
+     */
+    private static void reportDegradation(float[] queryEmbedding, EmbeddingSnapshot snapshot) {
+        if (queryEmbedding.length == 0 || snapshot.dimension() > 0) {
+            SearchDegradation.report();
+        }
     }
 
     /**
-     * Calculates the cosine similarity between two vectors.
+     * Looks up the projects of a search result, keeping their order.
+     * Projects that no longer exist are skipped.
      *
-     * @param vectorA the first vector.
-     * @param vectorB the second vector.
-     * @return the cosine similarity.
+     * @param hits the ids of the projects, best first.
+     * @return the projects.
      */
-    private float calcCosineSimilarity(float[] vectorA, float[] vectorB) {
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += Math.pow(vectorA[i], 2);
-            normB += Math.pow(vectorB[i], 2);
+    private ArrayList<ProjectInterface> getProjects(ScoredIds hits) {
+        ArrayList<ProjectInterface> result = new ArrayList<>(hits.size());
+        for (int projectId : hits.ids()) {
+            ProjectInterface project = projectDataAccess.getProjectById(projectId);
+            if (project != null) {
+                result.add(project);
+            }
         }
-        return (float) (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
+        return result;
     }
 }
@@ -0,0 +1,141 @@
+package usecase.searchforproject;
+
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A ProjectSearchInterface decorator that also finds projects whose embeddings are not stored yet.
+ * <p>
+ * Vector search cannot see projects that are waiting for their embeddings. This search matches them by
+ * keyword instead: a pending project is a result if every word of the query appears in its title,
+ * description or tags, ignoring case. Keyword results follow the results of the vector search.
+ * </p>
+ */
+public class PendingProjectSearch implements ProjectSearchInterface {
+    private final ProjectSearchInterface projectSearch;
+    private final IProjectRepository projectRepository;
+    private final Supplier<Set<Integer>> pendingProjectIds;
+
+    /**
+     * Constructs a PendingProjectSearch.
+     *
+     * @param projectSearch     the vector search.
+     * @param projectRepository the repository the pending projects are read from.
+     * @param pendingProjectIds supplies the ids of the projects waiting for their embeddings.
+     */
+    public PendingProjectSearch(ProjectSearchInterface projectSearch, IProjectRepository projectRepository,
+                                Supplier<Set<Integer>> pendingProjectIds) {
+        this.projectSearch = projectSearch;
+        this.projectRepository = projectRepository;
+        this.pendingProjectIds = pendingProjectIds;
+    }
+
+    /**
+     * Searches for projects based on the given query, then adds the pending projects matching its words.
+     *
+     * @param query the query to search for.
+     * @return the projects found by the vector search, then the pending projects.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return addPendingProjects(projectSearch.searchProjects(query), query, Integer.MAX_VALUE, ProjectFilter.NONE);
+    }
+
+    /**
+     * Ranks the projects matching the given query without looking them up, then adds the pending projects
+     * matching its words. Only the pending projects are looked up, to match their words.
+     *
+     * @param query the query to search for.
+     * @return the ids of the projects found by the vector search, then of the pending projects.
+     */
+    @Override
+    public int[] rankProjects(String query) {
+        int[] ranked = projectSearch.rankProjects(query);
+        Set<Integer> pending = pendingProjectIds.get();
+        String[] words = KeywordMatcher.words(query);
+        if (pending.isEmpty() || words.length == 0) {
+            return ranked;
+        }
+        LinkedHashSet<Integer> projectIds = new LinkedHashSet<>();
+        for (int projectId : ranked) {
+            projectIds.add(projectId);
+        }
+        for (int projectId : pending) {
+            if (projectIds.contains(projectId)) {
+                continue;
+            }
+            ProjectInterface project = projectRepository.getProjectById(projectId);
+            if (project != null && KeywordMatcher.matches(project, words)) {
+                projectIds.add(projectId);
+            }
+        }
+        return projectIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Searches for the projects most similar to the given query, then adds the pending projects matching its
+     * words while there are fewer than k results.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project found by the vector search may have.
+     * @return at most k projects.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore) {
+        return addPendingProjects(projectSearch.searchProjects(query, k, minScore), query, k, ProjectFilter.NONE);
+    }
+
+    /**
+     * Searches for the projects most similar to the given query among the projects matching a filter, then adds
+     * the matching pending projects containing its words while there are fewer than k results.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project found by the vector search may have.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter) {
+        return addPendingProjects(projectSearch.searchProjects(query, k, minScore, filter), query, k, filter);
+    }
+
+    private ArrayList<ProjectInterface> addPendingProjects(ArrayList<ProjectInterface> results, String query, int k,
+                                                           ProjectFilter filter) {
+        Set<Integer> pending = pendingProjectIds.get();
+        if (pending.isEmpty() || results.size() >= k) {
+            return results;
+        }
+        String[] words = KeywordMatcher.words(query);
+        if (words.length == 0) {
+            return results;
+        }
+        ProjectIdBitmap matching = filter.isEmpty() ? null : projectRepository.getAttributeIndex().filter(filter);
+        HashSet<Integer> found = new HashSet<>();
+        for (ProjectInterface project : results) {
+            found.add(project.getProjectId());
+        }
+        for (int projectId : pending) {
+            if (results.size() >= k) {
+                break;
+            }
+            if (found.contains(projectId) || (matching != null && !matching.contains(projectId))) {
+                continue;
+            }
+            ProjectInterface project = projectRepository.getProjectById(projectId);
+            if (project != null && KeywordMatcher.matches(project, words)) {
+                results.add(project);
+            }
+        }
+        return results;
+    }
+}
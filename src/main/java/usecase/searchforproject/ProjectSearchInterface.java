@@ -1,5 +1,6 @@
 package usecase.searchforproject;
 
+import dataaccess.searchindex.ProjectFilter;
 import entities.ProjectInterface;
 
 import java.util.ArrayList;
@@ -16,4 +17,44 @@ public interface ProjectSearchInterface {
      * @return the list of projects that match the query.
      */
     ArrayList<ProjectInterface> searchProjects(String query);
+
+    /**
+     * Ranks the projects matching the given query without looking them up, so that callers can look up only
+     * the projects they show. Ranks the same projects as {@link #searchProjects(String)}, in the same order,
+     * but may include projects deleted since they were indexed.
+     *
+     * @param query the query to search for.
+     * @return the ids of the projects that match the query, best first.
+     */
+    default int[] rankProjects(String query) {
+        ArrayList<ProjectInterface> projects = searchProjects(query);
+        int[] projectIds = new int[projects.size()];
+        for (int i = 0; i < projectIds.length; i++) {
+            projectIds[i] = projects.get(i).getProjectId();
+        }
+        return projectIds;
+    }
+
+    /**
+     * Searches for the projects most similar to the given query.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @return at most k projects scoring at least minScore, most similar first.
+     */
+    ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore);
+
+    /**
+     * Searches for the projects most similar to the given query among the projects matching a filter.
+     * The filter is applied while the projects are searched, not to the results, so the search returns k
+     * projects whenever k matching projects score at least minScore.
+     *
+     * @param query    the query to search for.
+     * @param k        the maximum number of projects to return.
+     * @param minScore the lowest cosine similarity a project may have to be returned.
+     * @param filter   the conditions the projects must meet.
+     * @return at most k matching projects scoring at least minScore, most similar first.
+     */
+    ArrayList<ProjectInterface> searchProjects(String query, int k, float minScore, ProjectFilter filter);
 }
@@ -0,0 +1,81 @@
+package usecase.searchforproject;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * The position of a page in the results of a search.
+ * <p>
+ * A cursor names a search retained by a {@link SearchSessionStore}, so loading a page never embeds the query or
+ * scores the projects again. Callers only see cursors as opaque tokens, from {@link #encode()}.
+ * </p>
+ *
+ * @param sessionId the id of the retained search.
+ * @param offset    the rank of the first project of the page, from 0.
+ * @param pageSize  the number of projects per page.
+ */
+public record SearchCursor(long sessionId, int offset, int pageSize) {
+    private static final int ENCODED_BYTES = Long.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * Constructs a SearchCursor.
+     *
+     * @throws IllegalArgumentException if the offset is negative or the page size is not positive.
+     */
+    public SearchCursor {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+    }
+
+    /**
+     * Returns the cursor of the page after this one.
+     *
+     * @return the cursor of the next page.
+     */
+    public SearchCursor next() {
+        return new SearchCursor(sessionId, offset + pageSize, pageSize);
+    }
+
+    /**
+     * Returns the cursor of the page before this one.
+     *
+     * @return the cursor of the previous page, starting at 0 at the earliest.
+     */
+    public SearchCursor previous() {
+        return new SearchCursor(sessionId, Math.max(0, offset - pageSize), pageSize);
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.putLong(sessionId).putInt(offset).putInt(pageSize);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a token made by {@link #encode()}.
+     *
+     * @param token the token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is not a cursor.
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Not a search cursor: null");
+        }
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        if (bytes.length != ENCODED_BYTES) {
+            throw new IllegalArgumentException("Not a search cursor: " + token);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new SearchCursor(buffer.getLong(), buffer.getInt(), buffer.getInt());
+    }
+}
@@ -0,0 +1,35 @@
+package usecase.searchforproject;
+
+/**
+ * Records, per thread, that a search returned degraded results.
+ * <p>
+ * A search is degraded when one of its stages could not run and it returned what the others found, e.g. keyword
+ * matches only because the embedding API was unavailable or slow. Such results are correct but incomplete, so
+ * decorators that keep results, like {@link CachingProjectSearch}, must not keep them. A search reports the
+ * degradation on the thread that called it; the caller clears the flag before the search and reads it after.
+ * </p>
+ */
+public final class SearchDegradation {
+    private static final ThreadLocal<Boolean> DEGRADED = ThreadLocal.withInitial(() -> false);
+
+    private SearchDegradation() {
+    }
+
+    /**
+     * Records that the search running on the current thread returned degraded results.
+     */
+    public static void report() {
+        DEGRADED.set(true);
+    }
+
+    /**
+     * Returns whether a degradation was reported on the current thread since the last call, and clears it.
+     *
+     * @return true if a degradation was reported.
+     */
+    public static boolean clear() {
+        boolean degraded = DEGRADED.get();
+        DEGRADED.remove();
+        return degraded;
+    }
+}
@@ -25,4 +25,22 @@ public class SearchProjectController {
     public void searchProjects(String keywords) {
         interactor.searchProjects(keywords);
     }
+
+    /**
+     * Searches for projects in the background as the user types.
+     *
+     * @param keywords the keywords typed so far.
+     */
+    public void searchAsYouType(String keywords) {
+        interactor.searchAsYouType(keywords);
+    }
+
+    /**
+     * Loads another page of the results of an earlier search.
+     *
+     * @param cursor the cursor of the page.
+     */
+    public void loadPage(String cursor) {
+        interactor.loadPage(cursor);
+    }
 }
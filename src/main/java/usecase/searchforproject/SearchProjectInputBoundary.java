@@ -2,14 +2,37 @@ package usecase.searchforproject;
 
 /**
  * Input boundary interface for searching projects.
- * Defines the method to search for projects based on the given keywords.
+ * Defines the methods to search for projects based on the given keywords and to page through the results.
  */
 public interface SearchProjectInputBoundary {
 
     /**
-     * Searches for projects based on the given keywords.
+     * Searches for projects based on the given keywords and presents the first page of results.
      *
      * @param keywords the keywords to search for.
      */
     void searchProjects(String keywords);
+
+    /**
+     * Searches for projects based on the given keywords and presents the first page of results.
+     *
+     * @param keywords the keywords to search for.
+     * @param pageSize the number of projects per page.
+     */
+    void searchProjects(String keywords, int pageSize);
+
+    /**
+     * Searches for projects in the background as the user types, cancelling the search in flight.
+     * The results are presented as they become available, and never after the results of a newer search.
+     *
+     * @param keywords the keywords typed so far.
+     */
+    void searchAsYouType(String keywords);
+
+    /**
+     * Presents another page of the results of an earlier search.
+     *
+     * @param cursor the cursor of the page, as given with an earlier page.
+     */
+    void loadPage(String cursor);
 }
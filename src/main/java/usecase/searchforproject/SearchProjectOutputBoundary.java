@@ -16,4 +16,18 @@ public interface SearchProjectOutputBoundary {
      * @param projects the list of projects to be presented.
      */
     void presentProjects(ArrayList<ProjectInterface> projects);
+
+    /**
+     * Sends a page of search results to be presented to the presenter.
+     *
+     * @param page the page to be presented.
+     */
+    void presentPage(SearchProjectPageOutputData page);
+
+    /**
+     * Reports that a page could not be loaded, because its search expired or the cursor is invalid.
+     *
+     * @param errorMessage the reason the page could not be loaded.
+     */
+    void prepareFailView(String errorMessage);
 }
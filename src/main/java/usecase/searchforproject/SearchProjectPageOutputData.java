@@ -0,0 +1,19 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * This is an immutable data structure responsible for storing a page of search results.
+ *
+ * @param projects       the projects of the page, best first.
+ * @param offset         the rank of the first project of the page, from 0.
+ * @param totalResults   the number of projects the search ranked.
+ * @param nextCursor     the cursor of the next page, or null if this is the last page.
+ * @param previousCursor the cursor of the previous page, or null if this is the first page.
+ */
+public record SearchProjectPageOutputData(ArrayList<ProjectInterface> projects, int offset, int totalResults,
+                                          String nextCursor, String previousCursor) {
+
+}
@@ -1,17 +1,45 @@
 package usecase.searchforproject;
 
 import api.embeddingapi.EmbeddingAPIInterface;
-import api.embeddingapi.OpenAPIDataEmbed;
 import config.DataAccessConfig;
 import dataaccess.IProjectRepository;
+import dataaccess.searchindex.Quantization;
+import dataaccess.searchindex.ShardedScanner;
+import usecase.manageprojects.ManageProjectsUseCaseFactory;
+import usecase.manageprojects.ProjectEmbeddingPipeline;
 import viewmodel.SearchPanelViewModel;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Factory class for creating instances of the SearchProject use case.
  */
 public class SearchProjectUseCaseFactory {
+    public static int USE_HNSW = 0; // Set this to 1 to search with the HNSW index, 0 to score every project
+    public static int SEARCH_THREADS = 0; // Threads used to score every project in parallel, 0 to use one per core
+    public static int PARALLEL_SEARCH_THRESHOLD = ShardedScanner.DEFAULT_PARALLEL_THRESHOLD; // Fewer projects are scored on the calling thread
+    public static Quantization QUANTIZATION = Quantization.NONE; // Set this to INT8 or FLOAT16 to keep the embeddings quantized in memory
+    public static int USE_HYBRID_SEARCH = 1; // Set this to 1 to fuse keyword and vector search, 0 to search by keyword only when embedding fails
+    public static long VECTOR_SEARCH_TIMEOUT_MILLIS = 2000; // Hybrid search leaves out vector results that take longer
+    public static long KEYWORD_SEARCH_TIMEOUT_MILLIS = 1000; // Hybrid search leaves out keyword results that take longer
+    public static int CACHE_SEARCH_RESULTS = 1; // Set this to 1 to reuse the results of recent searches until the projects change, 0 to always search
+    public static int SEARCH_CACHE_ENTRIES = CachingProjectSearch.DEFAULT_MAX_ENTRIES; // Results of recent searches kept
+
     private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
-    private static final EmbeddingAPIInterface embeddingAPI = new OpenAPIDataEmbed();
+    private static final EmbeddingAPIInterface embeddingAPI = DataAccessConfig.getEmbeddingAPI();
+    private static final SearchSessionStore searchSessions = new SearchSessionStore();
+    private static final ExecutorService searchExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "project-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService searchAsYouTypeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "project-search-as-you-type");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // Private constructor to prevent instantiation
     private SearchProjectUseCaseFactory() {}
@@ -23,8 +51,36 @@ public class SearchProjectUseCaseFactory {
      * @return the search project controller.
      */
     public static SearchProjectController createSearchProjectController(SearchPanelViewModel searchPanelViewModel) {
+        projectRepository.getVectorIndex().setQuantization(QUANTIZATION);
+        projectRepository.getVectorIndex().load(); // load the embeddings now rather than on the first search
         SearchProjectOutputBoundary presenter = new SearchProjectsPresenter(searchPanelViewModel);
-        SearchProjectInputBoundary interactor = new SearchProjectsInteractor(presenter, projectRepository, embeddingAPI);
+        ProjectEmbeddingPipeline embeddingPipeline = ManageProjectsUseCaseFactory.getEmbeddingPipeline();
+        ProjectSearchInterface vectorSearch = createProjectSearch();
+        ProjectSearchInterface storedProjectSearch = USE_HYBRID_SEARCH == 1
+                ? new HybridProjectSearch(vectorSearch, projectRepository, searchExecutor,
+                        VECTOR_SEARCH_TIMEOUT_MILLIS, KEYWORD_SEARCH_TIMEOUT_MILLIS)
+                : new KeywordFallbackSearch(vectorSearch, projectRepository);
+        ProjectSearchInterface projectSearch = new PendingProjectSearch(storedProjectSearch, projectRepository,
+                embeddingPipeline::getPendingProjectIds);
+        if (CACHE_SEARCH_RESULTS == 1) {
+            projectSearch = new CachingProjectSearch(projectSearch, projectRepository, SEARCH_CACHE_ENTRIES);
+        }
+        SearchProjectInputBoundary interactor = new SearchProjectsInteractor(presenter, projectSearch, projectRepository,
+                searchSessions, searchAsYouTypeExecutor);
         return new SearchProjectController(interactor);
     }
+
+    /**
+     * Creates the search implementation selected by {@link #USE_HNSW}.
+     *
+     * @return the project search implementation.
+     */
+    private static ProjectSearchInterface createProjectSearch() {
+        if (USE_HNSW == 1) {
+            return new HnswProjectSearchObject(projectRepository, embeddingAPI);
+        }
+        ForkJoinPool pool = SEARCH_THREADS > 0 ? new ForkJoinPool(SEARCH_THREADS) : ForkJoinPool.commonPool();
+        ShardedScanner scanner = new ShardedScanner(pool, PARALLEL_SEARCH_THRESHOLD);
+        return new LocalProjectSearchObject(projectRepository, embeddingAPI, scanner);
+    }
 }
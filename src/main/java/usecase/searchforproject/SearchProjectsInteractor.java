@@ -5,14 +5,37 @@ import entities.ProjectInterface;
 import dataaccess.IProjectRepository;
 
 import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Interactor class for searching projects.
  * Implements the input boundary to handle project search logic.
+ * <p>
+ * Results are presented a page at a time. A search ranks the project ids once and retains the ranking in a
+ * {@link SearchSessionStore}; each page then looks up only its own projects, and later pages are read from the
+ * retained ranking without embedding the query or scoring the projects again.
+ * </p>
+ * <p>
+ * Searches made as the user types run on a background executor, one at a time. A new search cancels the one in
+ * flight by interrupting it, which also cancels its pending embedding request, and the results of a superseded
+ * search are never presented. Each search first presents the best keyword matches, which need no embedding,
+ * then replaces them with the full results once they are ranked.
+ * </p>
  */
 public class SearchProjectsInteractor implements SearchProjectInputBoundary {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
     private final ProjectSearchInterface projectDAO;
+    private final IProjectRepository projectRepository;
+    private final SearchSessionStore sessions;
     private final SearchProjectOutputBoundary presenter;
+    private final ExecutorService backgroundExecutor;
+    private final Object presentLock = new Object();
+    private long latestSearch = 0; // guarded by presentLock
+    private Future<?> runningSearch; // guarded by presentLock
 
     /**
      * Creates a new SearchProjectsInteractor using the given project repository.
@@ -23,18 +46,207 @@ public class SearchProjectsInteractor implements SearchProjectInputBoundary {
      */
     public SearchProjectsInteractor(SearchProjectOutputBoundary presenter, IProjectRepository projectRepository,
                                     EmbeddingAPIInterface embeddingAPI) {
+        this(presenter, new LocalProjectSearchObject(projectRepository, embeddingAPI), projectRepository,
+                new SearchSessionStore());
+    }
+
+    /**
+     * Creates a new SearchProjectsInteractor using the given search implementation.
+     *
+     * @param presenter the output boundary.
+     * @param projectSearch the search implementation to use.
+     * @param projectRepository the repository the projects of each page are looked up in.
+     * @param sessions the store retaining the rankings of the searches.
+     */
+    public SearchProjectsInteractor(SearchProjectOutputBoundary presenter, ProjectSearchInterface projectSearch,
+                                    IProjectRepository projectRepository, SearchSessionStore sessions) {
+        this(presenter, projectSearch, projectRepository, sessions, null);
+    }
+
+    /**
+     * Creates a new SearchProjectsInteractor that runs the searches made as the user types in the background.
+     *
+     * @param presenter the output boundary.
+     * @param projectSearch the search implementation to use.
+     * @param projectRepository the repository the projects of each page are looked up in.
+     * @param sessions the store retaining the rankings of the searches.
+     * @param backgroundExecutor the executor running the searches made as the user types, or null to run them
+     *                           on the calling thread.
+     */
+    public SearchProjectsInteractor(SearchProjectOutputBoundary presenter, ProjectSearchInterface projectSearch,
+                                    IProjectRepository projectRepository, SearchSessionStore sessions,
+                                    ExecutorService backgroundExecutor) {
         this.presenter = presenter;
-        this.projectDAO = new LocalProjectSearchObject(projectRepository, embeddingAPI);
+        this.projectDAO = projectSearch;
+        this.projectRepository = projectRepository;
+        this.sessions = sessions;
+        this.backgroundExecutor = backgroundExecutor;
     }
 
     /**
-     * Searches for projects based on the given keywords.
+     * Searches for projects based on the given keywords and presents the first page of results.
      *
      * @param keywords the keywords to search for.
      */
     @Override
     public void searchProjects(String keywords) {
-        ArrayList<ProjectInterface> projects = projectDAO.searchProjects(keywords);
-        presenter.presentProjects(projects);
+        searchProjects(keywords, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Searches for projects based on the given keywords and presents the first page of results.
+     *
+     * @param keywords the keywords to search for.
+     * @param pageSize the number of projects per page.
+     */
+    @Override
+    public void searchProjects(String keywords, int pageSize) {
+        supersede();
+        int[] projectIds = projectDAO.rankProjects(keywords);
+        long sessionId = sessions.open(projectIds);
+        presentPage(new SearchCursor(sessionId, 0, pageSize), projectIds);
+    }
+
+    /**
+     * Searches for projects in the background, cancelling the search in flight.
+     * Presents the first page of the best keyword matches, then the first page of the full results.
+     * A blank query cancels the search in flight and presents no projects.
+     *
+     * @param keywords the keywords to search for.
+     */
+    @Override
+    public void searchAsYouType(String keywords) {
+        long search = supersede();
+        if (keywords.isBlank()) {
+            presentLatest(search, new SearchCursor(0, 0, DEFAULT_PAGE_SIZE), new int[0]);
+            return;
+        }
+        if (backgroundExecutor == null) {
+            searchInBackground(search, keywords);
+            return;
+        }
+        synchronized (presentLock) {
+            if (search != latestSearch) {
+                return; // superseded before it started
+            }
+            try {
+                runningSearch = backgroundExecutor.submit(() -> searchInBackground(search, keywords));
+            } catch (RejectedExecutionException e) {
+                System.err.println("Search could not be started: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs a search made as the user types, presenting its results while it is the latest search.
+     *
+     * @param search   the number of the search.
+     * @param keywords the keywords to search for.
+     */
+    private void searchInBackground(long search, String keywords) {
+        try {
+            int[] keywordMatches = projectRepository.searchProjectsByKeyword(keywords, DEFAULT_PAGE_SIZE).ids();
+            if (keywordMatches.length > 0) {
+                presentLatest(search, new SearchCursor(sessions.open(keywordMatches), 0, DEFAULT_PAGE_SIZE),
+                        keywordMatches);
+            }
+            int[] projectIds = projectDAO.rankProjects(keywords);
+            if (Thread.currentThread().isInterrupted()) {
+                return; // superseded, the ranking may be partial
+            }
+            presentLatest(search, new SearchCursor(sessions.open(projectIds), 0, DEFAULT_PAGE_SIZE), projectIds);
+        } catch (CancellationException e) {
+            // superseded while the query was embedded
+        } catch (RuntimeException e) {
+            System.err.println("Search failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Presents a page of a search made as the user types, unless a newer search was made since.
+     * The projects are looked up before the check, so that newer searches do not wait for the lookups.
+     *
+     * @param search     the number of the search.
+     * @param cursor     the cursor of the page.
+     * @param projectIds the ids of the ranked projects, best first.
+     */
+    private void presentLatest(long search, SearchCursor cursor, int[] projectIds) {
+        SearchProjectPageOutputData page = getPage(cursor, projectIds);
+        synchronized (presentLock) {
+            if (search == latestSearch) {
+                presenter.presentPage(page);
+            }
+        }
+    }
+
+    /**
+     * Makes the next search the latest one, cancelling the search made as the user types that is in flight.
+     *
+     * @return the number of the next search.
+     */
+    private long supersede() {
+        synchronized (presentLock) {
+            if (runningSearch != null) {
+                runningSearch.cancel(true);
+                runningSearch = null;
+            }
+            return ++latestSearch;
+        }
+    }
+
+    /**
+     * Presents another page of the results of an earlier search.
+     *
+     * @param cursor the cursor of the page, as given with an earlier page.
+     */
+    @Override
+    public void loadPage(String cursor) {
+        supersede();
+        SearchCursor searchCursor;
+        try {
+            searchCursor = SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            presenter.prepareFailView("Invalid search cursor");
+            return;
+        }
+        int[] projectIds = sessions.get(searchCursor.sessionId());
+        if (projectIds == null) {
+            presenter.prepareFailView("The search expired, please search again");
+            return;
+        }
+        presentPage(searchCursor, projectIds);
+    }
+
+    /**
+     * Looks up the projects of a page and presents them.
+     *
+     * @param cursor     the cursor of the page.
+     * @param projectIds the ids of the ranked projects, best first.
+     */
+    private void presentPage(SearchCursor cursor, int[] projectIds) {
+        presenter.presentPage(getPage(cursor, projectIds));
+    }
+
+    /**
+     * Looks up the projects of a page.
+     * Projects deleted since the search are skipped, so a page may hold fewer projects than the page size.
+     *
+     * @param cursor     the cursor of the page.
+     * @param projectIds the ids of the ranked projects, best first.
+     * @return the page.
+     */
+    private SearchProjectPageOutputData getPage(SearchCursor cursor, int[] projectIds) {
+        int start = Math.min(cursor.offset(), projectIds.length);
+        int end = (int) Math.min(projectIds.length, (long) start + cursor.pageSize());
+        ArrayList<ProjectInterface> projects = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            ProjectInterface project = projectRepository.getProjectById(projectIds[i]);
+            if (project != null) {
+                projects.add(project);
+            }
+        }
+        String nextCursor = end < projectIds.length ? cursor.next().encode() : null;
+        String previousCursor = start > 0 ? cursor.previous().encode() : null;
+        return new SearchProjectPageOutputData(projects, start, projectIds.length, nextCursor, previousCursor);
     }
 }
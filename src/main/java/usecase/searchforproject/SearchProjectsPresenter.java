@@ -27,7 +27,28 @@ public class SearchProjectsPresenter implements SearchProjectOutputBoundary {
      * @param projects the list of projects to be presented.
      */
     public void presentProjects(ArrayList<ProjectInterface> projects) {
-        searchPanelViewModel.setProjects(projects);
-        searchPanelViewModel.firePropertyChanged();
+        presentPage(new SearchProjectPageOutputData(projects, 0, projects.size(), null, null));
+    }
+
+    /**
+     * Sends a page of search results to be presented to the presenter.
+     * The page is handed to the view model as one value, since searches present their pages from the thread
+     * they ran on, and a newer search may present its page before the view renders this one.
+     *
+     * @param page the page to be presented.
+     */
+    @Override
+    public void presentPage(SearchProjectPageOutputData page) {
+        searchPanelViewModel.presentPage(page);
+    }
+
+    /**
+     * Reports that a page could not be loaded.
+     *
+     * @param errorMessage the reason the page could not be loaded.
+     */
+    @Override
+    public void prepareFailView(String errorMessage) {
+        searchPanelViewModel.errorSearchPage(errorMessage);
     }
 }
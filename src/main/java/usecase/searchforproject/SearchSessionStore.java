@@ -0,0 +1,138 @@
+package usecase.searchforproject;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Retains the rankings of recent searches, so that their later pages are read from memory.
+ * <p>
+ * A session holds the ids of the ranked projects only, 4 bytes per result, never the projects themselves.
+ * Sessions expire once they have not been read for a while, and the least recently read sessions are dropped
+ * when there are too many. Session ids are random, so a cursor cannot be guessed from another one.
+ * </p>
+ */
+public class SearchSessionStore {
+    public static final int DEFAULT_MAX_SESSIONS = 64;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final int maxSessions;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final SecureRandom random = new SecureRandom();
+    private final LinkedHashMap<Long, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * A retained ranking and when it was last read.
+     */
+    private static final class Session {
+        private final int[] projectIds;
+        private long lastRead;
+
+        private Session(int[] projectIds, long lastRead) {
+            this.projectIds = projectIds;
+            this.lastRead = lastRead;
+        }
+    }
+
+    /**
+     * Constructs a SearchSessionStore with the default limits.
+     */
+    public SearchSessionStore() {
+        this(DEFAULT_MAX_SESSIONS, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructs a SearchSessionStore.
+     *
+     * @param maxSessions the maximum number of sessions retained.
+     * @param ttlMillis   how long a session is retained after it was last read.
+     */
+    public SearchSessionStore(int maxSessions, long ttlMillis) {
+        this(maxSessions, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs a SearchSessionStore that reads the time from the given clock.
+     *
+     * @param maxSessions the maximum number of sessions retained.
+     * @param ttlMillis   how long a session is retained after it was last read.
+     * @param nanoClock   the clock, in nanoseconds.
+     */
+    public SearchSessionStore(int maxSessions, long ttlMillis, LongSupplier nanoClock) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be positive");
+        }
+        this.maxSessions = maxSessions;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Retains a ranking.
+     *
+     * @param projectIds the ids of the ranked projects, best first.
+     * @return the id of the new session.
+     */
+    public synchronized long open(int[] projectIds) {
+        long now = nanoClock.getAsLong();
+        evictExpired(now);
+        long sessionId;
+        do {
+            sessionId = random.nextLong();
+        } while (sessions.containsKey(sessionId));
+        sessions.put(sessionId, new Session(projectIds, now));
+        Iterator<Long> oldest = sessions.keySet().iterator();
+        while (sessions.size() > maxSessions) {
+            oldest.next();
+            oldest.remove();
+        }
+        return sessionId;
+    }
+
+    /**
+     * Reads a retained ranking, which keeps it from expiring for another while.
+     *
+     * @param sessionId the id of the session.
+     * @return the ids of the ranked projects, best first, or null if the session expired or never existed.
+     */
+    public synchronized int[] get(long sessionId) {
+        long now = nanoClock.getAsLong();
+        evictExpired(now);
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return null;
+        }
+        session.lastRead = now;
+        return session.projectIds;
+    }
+
+    /**
+     * Returns the number of sessions retained.
+     *
+     * @return the number of sessions.
+     */
+    public synchronized int size() {
+        evictExpired(nanoClock.getAsLong());
+        return sessions.size();
+    }
+
+    /**
+     * Drops the sessions not read within the time to live.
+     * Sessions are kept in the order they were read, so the scan stops at the first live session.
+     *
+     * @param now the current time, in nanoseconds.
+     */
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<Long, Session>> iterator = sessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue().lastRead < ttlNanos) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+}
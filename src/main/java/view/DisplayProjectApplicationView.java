@@ -2,6 +2,7 @@ package view;
 
 import entities.ProjectInterface;
 import usecase.manageapplications.ManageApplicationsController;
+import usecase.manageapplications.suggestteam.SuggestTeamOutputData;
 import view.components.ButtonAction;
 import view.components.ButtonColumn;
 import config.HoverVoiceServiceConfig;
@@ -25,6 +26,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 /**
@@ -40,6 +42,8 @@ public class DisplayProjectApplicationView extends JFrame implements ActionListe
     private final int[] columnWidths = {400, 200, 200, 200};
     private final String[] columnNames = {"Applicant", "view", "Accept", "Decline"};
     private final JTable infoTable = new JTable();
+    private final JButton suggestTeamButton = new JButton("Suggest team");
+    private HashSet<Integer> suggestedUserIds = new HashSet<>();
 
     private final DisplayProjectApplicationViewModel displayProjectApplicationViewModel;
 
@@ -72,6 +76,9 @@ public class DisplayProjectApplicationView extends JFrame implements ActionListe
         setLayout(new BorderLayout());
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
+        suggestTeamButton.addActionListener(this);
+        add(suggestTeamButton, BorderLayout.NORTH);
+
         manageApplicationsController.getApplicationsForProject(projectId);
         this.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
@@ -96,12 +103,13 @@ public class DisplayProjectApplicationView extends JFrame implements ActionListe
 
         DisplayProjectApplicationView temp = this;
         for (int i = 0; i < applicationsData.length; i++) {
-            info[i][0] = applicationsData[i][0];
+            boolean isSuggested = suggestedUserIds.contains((Integer) applicationsData[i][1]);
+            info[i][0] = isSuggested ? applicationsData[i][0] + " (suggested)" : applicationsData[i][0];
             info[i][1] = "view";
             info[i][2] = "Accept";
             info[i][3] = "Decline";
 
-            buttonSpeechMap.put(new Point(i, 0), "Application info: " + applicationsData[i][0]);
+            buttonSpeechMap.put(new Point(i, 0), "Application info: " + info[i][0]);
             buttonSpeechMap.put(new Point(i, 1), "Press to download application");
             buttonSpeechMap.put(new Point(i, 2), "Press to accept application");
             buttonSpeechMap.put(new Point(i, 3), "Press to decline application");
@@ -187,11 +195,18 @@ public class DisplayProjectApplicationView extends JFrame implements ActionListe
 
     @Override
     public void actionPerformed(ActionEvent e) {
-
+        if (e.getSource() == suggestTeamButton) {
+            suggestTeamButton.setEnabled(false); // until the suggestion is presented
+            manageApplicationsController.suggestTeam(projectId);
+        }
     }
 
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> propertyChange(evt)); // team suggestions are presented in the background
+            return;
+        }
         if(evt.getPropertyName().equals("displayDetailProject")){
             ProjectInterface project = (ProjectInterface) evt.getNewValue();
             projectTitleField.setText(project.getProjectTitle());
@@ -209,6 +224,25 @@ public class DisplayProjectApplicationView extends JFrame implements ActionListe
             }
         }
 
+        if (evt.getPropertyName().equals("suggestSuccess")) {
+            SuggestTeamOutputData suggestion = (SuggestTeamOutputData) evt.getNewValue();
+            if (suggestion.projectId() == projectId) { // other windows may suggest teams for their projects
+                suggestTeamButton.setEnabled(true);
+                suggestedUserIds = new HashSet<>(suggestion.suggestedUserIds());
+                String message = suggestedUserIds.isEmpty() ? "No applicants are suggested for this project."
+                        : "Suggested " + suggestedUserIds.size() + " applicants. Accept the ones you agree with.";
+                playVoiceService.playVoice(message);
+                JOptionPane.showMessageDialog(null, message);
+                manageApplicationsController.getApplicationsForProject(projectId);
+            }
+        }
+
+        if (evt.getPropertyName().equals("suggestError")) {
+            suggestTeamButton.setEnabled(true);
+            playVoiceService.playVoice("Failed to suggest a team: " + evt.getNewValue());
+            JOptionPane.showMessageDialog(null, evt.getNewValue());
+        }
+
         if (evt.getPropertyName().equals("acceptSuccess")) {
             Boolean success = (Boolean) evt.getNewValue();
             if (success) {
@@ -4,6 +4,7 @@ import entities.ProjectInterface;
 import usecase.manageapplications.createapplication.CreateApplicationController;
 import usecase.manageusers.getloggedinuser.GetLoggedInUserController;
 import usecase.searchforproject.SearchProjectController;
+import usecase.searchforproject.SearchProjectPageOutputData;
 import usecase.searchforuser.SearchUserController;
 import usecase.searchprojectbyid.SearchProjectByIdController;
 import view.components.ButtonAction;
@@ -17,6 +18,8 @@ import viewmodel.SearchPanelViewModel;
 import viewmodel.ViewManagerModel;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -32,6 +35,7 @@ import java.util.Map;
  */
 @SuppressWarnings("FieldCanBeLocal")
 public class SearchPanel extends JPanel implements ActionListener, PropertyChangeListener {
+    public static int SEARCH_DELAY_MILLIS = 250; // Projects are searched once typing pauses this long
 
     private final SearchPanelViewModel searchPanelModel;
     private SearchUserController searchUserController;
@@ -51,6 +55,11 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
     private final int[] columnWidths = {200, 400, 100};
     private final String[] columnNames = {"Project Title", "Description", "View Details", "Request joining"};
     private final JScrollPane infoPanel = new JScrollPane(infoTable);
+    private final JPanel pagePanel = new JPanel();
+    private final JButton previousPageButton = new JButton("Previous");
+    private final JButton nextPageButton = new JButton("Next");
+    private final JLabel pageLabel = new JLabel();
+    private SearchProjectPageOutputData displayedPage = SearchPanelViewModel.EMPTY_PAGE; // only used on the EDT
 
     private final IHoverVoiceService hoverVoiceService;
     private final IPlayVoiceService playVoiceService;
@@ -90,7 +99,39 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
                        CreateApplicationController createApplicationController) {
         this(viewManagerModel, searchPanelModel, getLoggedInUserController, createApplicationController);
         this.searchProjectController = searchProjectController;
-        searchButton.addActionListener(_ -> searchProjectController.searchProjects(searchBar.getText()));
+        Timer searchDelay = new Timer(SEARCH_DELAY_MILLIS, _ -> searchProjectController.searchAsYouType(searchBar.getText()));
+        searchDelay.setRepeats(false);
+        searchBar.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchDelay.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchDelay.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // attribute changes do not change the text
+            }
+        });
+        searchButton.addActionListener(_ -> {
+            searchDelay.stop();
+            searchProjectController.searchAsYouType(searchBar.getText());
+        });
+        previousPageButton.addActionListener(_ -> searchProjectController.loadPage(displayedPage.previousCursor()));
+        nextPageButton.addActionListener(_ -> searchProjectController.loadPage(displayedPage.nextCursor()));
+
+        hoverVoiceService.addHoverVoice(previousPageButton, "Press to show the previous page of projects");
+        hoverVoiceService.addHoverVoice(nextPageButton, "Press to show the next page of projects");
+
+        pagePanel.add(previousPageButton);
+        pagePanel.add(pageLabel);
+        pagePanel.add(nextPageButton);
+        this.add(pagePanel, BorderLayout.SOUTH);
+        updatePageControls();
     }
 
     /**
@@ -162,6 +203,16 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
 
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
+        if (evt.getPropertyName().equals("searchPage")) {
+            // queued even on the EDT, so pages are displayed in the order they were presented
+            SearchProjectPageOutputData page = (SearchProjectPageOutputData) evt.getNewValue();
+            SwingUtilities.invokeLater(() -> displayPage(page)); // not the view model, a newer page may be there
+            return;
+        }
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> propertyChange(evt)); // searches present their results in the background
+            return;
+        }
         if (evt.getPropertyName().equals("rankProjects")) {
             if (evt.getNewValue() instanceof ArrayList<?>){
                 ArrayList<ProjectInterface> projectRankingList = SafeCastCollectionService.convertToCollection(evt.getNewValue(),
@@ -171,11 +222,18 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
             }
 
         }
+        if (evt.getPropertyName().equals("searchPageError")) {
+            playVoiceService.playVoice("Error loading projects : " + evt.getNewValue());
+            JOptionPane.showMessageDialog(null, evt.getNewValue());
+        }
         if (evt.getPropertyName().equals("login")) {
             getLoggedInUserController.getLoggedInUser();
             searchBar.setText("");
-            searchPanelModel.setProjects(new ArrayList<>());
-            displaySearchResult(new ArrayList<>());
+            if (searchProjectController != null) {
+                searchProjectController.searchAsYouType(""); // cancels the search of the previous user, presents no projects
+            } else {
+                displayPage(SearchPanelViewModel.EMPTY_PAGE);
+            }
         }
         if (evt.getPropertyName().equals("application")) {
             boolean success = (boolean) evt.getNewValue();
@@ -205,6 +263,29 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
         return str.substring(0, maxLength) + "...";
     }
 
+    /**
+     * Displays a page of search results and the controls to move between pages.
+     *
+     * @param page the page to display
+     */
+    private void displayPage(SearchProjectPageOutputData page) {
+        displayedPage = page;
+        displaySearchResult(page.projects());
+        updatePageControls();
+    }
+
+    /**
+     * Shows the position of the displayed page and enables the buttons of the pages that exist.
+     */
+    private void updatePageControls() {
+        int total = displayedPage.totalResults();
+        int first = Math.min(total, displayedPage.offset() + 1);
+        int last = Math.min(total, displayedPage.offset() + displayedPage.projects().size());
+        pageLabel.setText(total == 0 ? "No results" : "Results " + first + "-" + last + " of " + total);
+        previousPageButton.setEnabled(displayedPage.previousCursor() != null);
+        nextPageButton.setEnabled(displayedPage.nextCursor() != null);
+    }
+
     /**
      * Displays the search results in the table.
      *
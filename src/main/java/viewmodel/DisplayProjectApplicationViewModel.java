@@ -1,5 +1,7 @@
 package viewmodel;
 
+import usecase.manageapplications.suggestteam.SuggestTeamOutputData;
+
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 
@@ -93,6 +95,25 @@ public class DisplayProjectApplicationViewModel {
         support.firePropertyChange("rejectSuccess", null, success);
     }
 
+    /**
+     * Fires a property change event carrying the applicants suggested for a project.
+     * Suggestions are made in the background, so they are passed with the event rather than kept here.
+     *
+     * @param suggestion the project and the IDs of the applicants suggested for it
+     */
+    public void suggestionResult(SuggestTeamOutputData suggestion) {
+        support.firePropertyChange("suggestSuccess", null, suggestion);
+    }
+
+    /**
+     * Fires a property change event carrying the reason no applicants could be suggested.
+     *
+     * @param errorMessage the error message
+     */
+    public void suggestionError(String errorMessage) {
+        support.firePropertyChange("suggestError", null, errorMessage);
+    }
+
     /**
      * Adds a property change listener.
      *
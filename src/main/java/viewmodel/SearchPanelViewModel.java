@@ -4,6 +4,7 @@ import entities.ProjectInterface;
 import entities.User;
 import entities.UserInterface;
 import usecase.manageusers.getloggedinuser.LoggedInDataAccessViewModel;
+import usecase.searchforproject.SearchProjectPageOutputData;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -12,13 +13,25 @@ import java.util.HashSet;
 
 /**
  * ViewModel for the Search Panel.
+ * <p>
+ * Pages of search results are presented from the thread the search ran on. Each page is kept and fired as one
+ * immutable value, so a listener rendering the event value, and a reader of the page getters, never see the
+ * projects of one page with the position of another.
+ * </p>
  */
 public class SearchPanelViewModel extends ViewModel implements LoggedInDataAccessViewModel {
+    /**
+     * The page shown before anything is searched.
+     */
+    public static final SearchProjectPageOutputData EMPTY_PAGE =
+            new SearchProjectPageOutputData(new ArrayList<>(), 0, 0, null, null);
+
     private final PropertyChangeSupport support = new PropertyChangeSupport(this);
-    private ArrayList<ProjectInterface> projects;
+    private volatile ArrayList<ProjectInterface> projects;
     private ArrayList<UserInterface> users;
     private User loggedInUser;
     private String errorApplicationMessage;
+    private volatile SearchProjectPageOutputData page = EMPTY_PAGE;
 
     /**
      * Constructs a SearchPanelViewModel.
@@ -53,6 +66,72 @@ public class SearchPanelViewModel extends ViewModel implements LoggedInDataAcces
         this.projects = projects;
     }
 
+    /**
+     * Keeps a page of search results and fires a property change event carrying it.
+     * May be called from any thread; listeners should render the page of the event rather than read the getters.
+     *
+     * @param page the page of search results
+     */
+    public void presentPage(SearchProjectPageOutputData page) {
+        this.page = page;
+        this.projects = page.projects();
+        support.firePropertyChange("searchPage", null, page);
+    }
+
+    /**
+     * Returns the last page of search results presented.
+     *
+     * @return the page
+     */
+    public SearchProjectPageOutputData getPage() {
+        return page;
+    }
+
+    /**
+     * Returns the rank of the first project of the last page presented.
+     *
+     * @return the offset of the page, from 0
+     */
+    public int getPageOffset() {
+        return page.offset();
+    }
+
+    /**
+     * Returns the number of projects the search ranked.
+     *
+     * @return the number of results
+     */
+    public int getTotalResults() {
+        return page.totalResults();
+    }
+
+    /**
+     * Returns the cursor of the page after the last one presented.
+     *
+     * @return the cursor, or null if that page is the last one
+     */
+    public String getNextPageCursor() {
+        return page.nextCursor();
+    }
+
+    /**
+     * Returns the cursor of the page before the last one presented.
+     *
+     * @return the cursor, or null if that page is the first one
+     */
+    public String getPreviousPageCursor() {
+        return page.previousCursor();
+    }
+
+    /**
+     * Fires a property change event indicating a page of results could not be loaded.
+     *
+     * @param errorMessage the error message
+     */
+    public void errorSearchPage(String errorMessage) {
+        support.firePropertyChange("searchPageError", null, errorMessage);
+    }
+
     /**
      * Returns the logged-in user.
      *
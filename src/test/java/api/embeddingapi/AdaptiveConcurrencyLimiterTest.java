@@ -0,0 +1,84 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdaptiveConcurrencyLimiter class.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    /**
+     * Tests that the limit grows by about one per round of successful requests and halves once per burst of
+     * overloaded requests.
+     */
+    @Test
+    public void testIncreaseAndDecrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertEquals(4, limiter.getLimit()); // 4 + 4 * (about 1 / 4) stays just under 5
+        limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertEquals(5, limiter.getLimit());
+
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        assertEquals(2, limiter.getInFlight());
+        limiter.release(first, AdaptiveConcurrencyLimiter.Outcome.OVERLOADED);
+        limiter.release(second, AdaptiveConcurrencyLimiter.Outcome.OVERLOADED);
+        assertEquals(2, limiter.getLimit()); // halved once, not twice
+        assertEquals(0, limiter.getInFlight());
+
+        limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+        assertEquals(2, limiter.getLimit());
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.OVERLOADED);
+        }
+        assertEquals(1, limiter.getLimit());
+        for (int i = 0; i < 1000; i++) {
+            limiter.release(limiter.acquire(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertEquals(8, limiter.getLimit());
+    }
+
+    /**
+     * Tests that requests over the limit wait for a request to end, and are refused when the queue is full or
+     * the wait times out.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testQueue() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, 5_000);
+        long permit = limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        AtomicLong queuedPermit = new AtomicLong();
+        Thread waiting = new Thread(() -> {
+            queuedPermit.set(limiter.acquire());
+            acquired.countDown();
+        });
+        waiting.start();
+        while (limiter.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(EmbeddingUnavailableException.class, limiter::acquire);
+        assertEquals(1, limiter.getRejectedCount());
+        limiter.release(permit, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(1, limiter.getInFlight());
+        limiter.release(queuedPermit.get(), AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+
+        AdaptiveConcurrencyLimiter impatient = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 10);
+        impatient.acquire();
+        assertThrows(EmbeddingUnavailableException.class, impatient::acquire);
+        assertEquals(0, impatient.getQueueDepth());
+    }
+}
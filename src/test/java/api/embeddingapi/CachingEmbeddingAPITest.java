@@ -0,0 +1,167 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CachingEmbeddingAPI class.
+ */
+public class CachingEmbeddingAPITest {
+    private final static Path CACHE_DIRECTORY = Path.of("local_data/test/api/embedding_cache/");
+    private int calls;
+    private EmbeddingAPIInterface embeddingAPI;
+
+    /**
+     * Empties the cache directory and sets up an embedding API that counts its calls before each test.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        File[] files = CACHE_DIRECTORY.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        calls = 0;
+        embeddingAPI = text -> {
+            calls++;
+            return text.isEmpty() ? new float[0] : new float[]{text.length(), calls};
+        };
+    }
+
+    /**
+     * Tests that repeated texts are served from memory.
+     */
+    @Test
+    public void testMemoryHits() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(embeddingAPI, "model", 10);
+        float[] first = cache.getEmbedData("query");
+        first[0] = -1; // callers cannot corrupt the cache
+        assertArrayEquals(new float[]{5f, 1f}, cache.getEmbedData("query"));
+        assertArrayEquals(new float[]{4f, 2f}, cache.getEmbedData("text"));
+        assertEquals(2, calls);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    /**
+     * Tests that the least recently used embedding is evicted first.
+     */
+    @Test
+    public void testEviction() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(embeddingAPI, "model", 2);
+        cache.getEmbedData("a");
+        cache.getEmbedData("b");
+        cache.getEmbedData("a");
+        cache.getEmbedData("c"); // evicts b
+        assertEquals(2, cache.size());
+        cache.getEmbedData("a");
+        assertEquals(3, calls);
+        cache.getEmbedData("b");
+        assertEquals(4, calls);
+    }
+
+    /**
+     * Tests that embeddings saved on disk are reused by a new cache and that models do not share entries.
+     */
+    @Test
+    public void testDiskCache() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(embeddingAPI, "model", 10, CACHE_DIRECTORY);
+        cache.getEmbedData("query");
+
+        CachingEmbeddingAPI restarted = new CachingEmbeddingAPI(embeddingAPI, "model", 10, CACHE_DIRECTORY);
+        assertArrayEquals(new float[]{5f, 1f}, restarted.getEmbedData("query"));
+        assertEquals(1, restarted.getDiskHitCount());
+        assertEquals(0, restarted.getMissCount());
+        restarted.getEmbedData("query");
+        assertEquals(1, restarted.getHitCount());
+
+        CachingEmbeddingAPI otherModel = new CachingEmbeddingAPI(embeddingAPI, "other-model", 10, CACHE_DIRECTORY);
+        assertArrayEquals(new float[]{5f, 2f}, otherModel.getEmbedData("query"));
+        assertEquals(2, calls);
+    }
+
+    /**
+     * Tests that the cache directory keeps only the most recently used embeddings, also across restarts.
+     */
+    @Test
+    public void testDiskEviction() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(embeddingAPI, "model", 1, CACHE_DIRECTORY, 2);
+        cache.getEmbedData("a");
+        cache.getEmbedData("b");
+        cache.getEmbedData("c"); // evicts a from disk
+        assertEquals(2, cache.diskSize());
+        assertEquals(1, cache.getDiskEvictionCount());
+        assertEquals(2, CACHE_DIRECTORY.toFile().listFiles().length);
+
+        CachingEmbeddingAPI restarted = new CachingEmbeddingAPI(embeddingAPI, "model", 1, CACHE_DIRECTORY, 2);
+        assertEquals(2, restarted.diskSize());
+        restarted.getEmbedData("b");
+        assertEquals(1, restarted.getDiskHitCount());
+        restarted.getEmbedData("a");
+        assertEquals(4, calls);
+        assertEquals(2, CACHE_DIRECTORY.toFile().listFiles().length);
+    }
+
+    /**
+     * Tests that empty embeddings, returned when the API is unavailable, are not cached.
+     */
+    @Test
+    public void testEmptyEmbeddingNotCached() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(embeddingAPI, "model", 10, CACHE_DIRECTORY);
+        assertEquals(0, cache.getEmbedData("").length);
+        assertEquals(0, cache.getEmbedData("").length);
+        assertEquals(2, calls);
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that a list of texts only sends the texts that are not cached, together.
+     */
+    @Test
+    public void testBatch() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(new EmbeddingAPIInterface() {
+            @Override
+            public float[] getEmbedData(String text) {
+                throw new AssertionError("texts must be sent together");
+            }
+
+            @Override
+            public List<float[]> getEmbedData(List<String> texts) {
+                calls++;
+                return texts.stream().map(text -> new float[]{text.length()}).toList();
+            }
+        }, "model", 10);
+        cache.getEmbedData(List.of("a", "bb"));
+        List<float[]> embeddings = cache.getEmbedData(List.of("bb", "ccc", "a"));
+        assertArrayEquals(new float[]{2f}, embeddings.get(0));
+        assertArrayEquals(new float[]{3f}, embeddings.get(1));
+        assertArrayEquals(new float[]{1f}, embeddings.get(2));
+        assertEquals(2, calls);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    /**
+     * Tests that asynchronous calls are served from the cache and fill it.
+     */
+    @Test
+    public void testAsync() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(embeddingAPI, "model", 10);
+        assertArrayEquals(new float[]{5f, 1f}, cache.getEmbedDataAsync("query").join());
+        assertArrayEquals(new float[]{5f, 1f}, cache.getEmbedData("query"));
+        assertArrayEquals(new float[]{5f, 1f}, cache.getEmbedDataAsync("query").join());
+        assertEquals(1, calls);
+        assertEquals(2, cache.getHitCount());
+    }
+}
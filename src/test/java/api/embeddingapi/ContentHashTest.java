@@ -0,0 +1,36 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ContentHash class.
+ */
+public class ContentHashTest {
+
+    /**
+     * Tests that the content hash depends on both the model and the text.
+     */
+    @Test
+    public void testHashCoversModelAndText() {
+        String hash = ContentHash.of("text-embedding-3-small/1536", "A web app for sharing recipes");
+        assertEquals(64, hash.length());
+        assertEquals(hash, ContentHash.of("text-embedding-3-small/1536", "A web app for sharing recipes"));
+        assertNotEquals(hash, ContentHash.of("text-embedding-3-small/512", "A web app for sharing recipes"));
+        assertNotEquals(hash, ContentHash.of("text-embedding-3-small/1536", "A web app for sharing photos"));
+        assertNotEquals(ContentHash.of("ab", "c"), ContentHash.of("a", "bc"));
+    }
+
+    /**
+     * Tests that embedding APIs with different models or dimensions have different model ids.
+     */
+    @Test
+    public void testModelIds() {
+        assertEquals(OpenAPIDataEmbed.API_MODEL + "/" + OpenAPIDataEmbed.API_DIMENSION,
+                new OpenAPIDataEmbed("http://localhost", null, 0).getModelId());
+        HashingEmbeddingAPI hashing = new HashingEmbeddingAPI(64, 1);
+        assertNotEquals(hashing.getModelId(), new HashingEmbeddingAPI(128, 1).getModelId());
+        assertEquals(hashing.getModelId(), new CachingEmbeddingAPI(hashing, hashing.getModelId(), 10).getModelId());
+    }
+}
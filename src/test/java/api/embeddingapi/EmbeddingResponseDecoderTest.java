@@ -0,0 +1,105 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EmbeddingResponseDecoder class.
+ */
+public class EmbeddingResponseDecoderTest {
+
+    /**
+     * Tests that the embeddings of a typical response are decoded.
+     *
+     * @throws IOException if the response cannot be decoded
+     */
+    @Test
+    public void testDecode() throws IOException {
+        String response = """
+                {
+                  "object": "list",
+                  "data": [
+                    {"object": "embedding", "index": 0, "embedding": [0.0023064255, -0.009327292, 1]},
+                    {"object": "embedding", "index": 1, "embedding": [-0.5, 0.25, 0.0]}
+                  ],
+                  "model": "text-embedding-3-small",
+                  "usage": {"prompt_tokens": 8, "total_tokens": 8}
+                }""";
+        List<float[]> embeddings = EmbeddingResponseDecoder.decode(new StringReader(response), 2);
+        assertArrayEquals(new float[]{0.0023064255f, -0.009327292f, 1f}, embeddings.get(0));
+        assertArrayEquals(new float[]{-0.5f, 0.25f, 0f}, embeddings.get(1));
+    }
+
+    /**
+     * Tests that items are placed by their index and that unknown fields of any type are skipped.
+     *
+     * @throws IOException if the response cannot be decoded
+     */
+    @Test
+    public void testOrderAndSkippedFields() throws IOException {
+        String response = "{\"usage\":{\"nested\":[1,{\"a\":[]},\"x\\\"]\"],\"flag\":true,\"none\":null},"
+                + "\"data\":[{\"embedding\":[2],\"extra\":{},\"index\":1},{\"index\":0,\"note\":\"\\u00e9\\n\",\"embedding\":[1]}]}";
+        List<float[]> embeddings = EmbeddingResponseDecoder.decode(new StringReader(response), 2);
+        assertArrayEquals(new float[]{1f}, embeddings.get(0));
+        assertArrayEquals(new float[]{2f}, embeddings.get(1));
+    }
+
+    /**
+     * Tests that numbers outside the fast path are parsed like Float.parseFloat does.
+     *
+     * @throws IOException if the response cannot be decoded
+     */
+    @Test
+    public void testNumbers() throws IOException {
+        String[] numbers = {"1e-3", "-2.5E+2", "0.12345678901234567890", "123456789012345678901", "-0", "0.000001"};
+        String response = "{\"data\":[{\"index\":0,\"embedding\":[" + String.join(",", numbers) + "]}]}";
+        float[] embedding = EmbeddingResponseDecoder.decode(new StringReader(response), 1).get(0);
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(Float.parseFloat(numbers[i]), embedding[i]);
+        }
+    }
+
+    /**
+     * Tests that embeddings longer than the internal buffers are read whole.
+     *
+     * @throws IOException if the response cannot be decoded
+     */
+    @Test
+    public void testLongEmbedding() throws IOException {
+        StringBuilder response = new StringBuilder("{\"data\":[{\"index\":0,\"embedding\":[");
+        for (int i = 0; i < 5000; i++) {
+            response.append(i == 0 ? "" : ", ").append(i).append(".5");
+        }
+        response.append("]}]}");
+        float[] embedding = EmbeddingResponseDecoder.decode(new StringReader(response.toString()), 1).get(0);
+        assertEquals(5000, embedding.length);
+        assertEquals(4999.5f, embedding[4999]);
+    }
+
+    /**
+     * Tests that malformed, truncated or incomplete responses are rejected.
+     */
+    @Test
+    public void testInvalidResponses() {
+        String[] responses = {
+                "",
+                "{\"data\":[{\"index\":0,\"embedding\":[0.1,0.2",
+                "{\"data\":[{\"index\":0,\"embedding\":[0.1,,0.2]}]}",
+                "{\"data\":[{\"index\":0,\"embedding\":[0.1 0.2]}]}",
+                "{\"data\":[{\"embedding\":[0.1]}]}",
+                "{\"data\":[{\"index\":5,\"embedding\":[0.1]}]}",
+                "{\"data\":[{\"index\":0,\"embedding\":[-]}]}",
+                "{\"data\":[],\"flag\":maybe}",
+                "{\"data\":[]}",
+        };
+        for (String response : responses) {
+            assertThrows(IOException.class, () -> EmbeddingResponseDecoder.decode(new StringReader(response), 1),
+                    response);
+        }
+    }
+}
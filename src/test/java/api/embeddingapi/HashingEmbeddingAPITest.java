@@ -0,0 +1,59 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HashingEmbeddingAPI class.
+ */
+public class HashingEmbeddingAPITest {
+    private final HashingEmbeddingAPI embeddingAPI = new HashingEmbeddingAPI();
+
+    /**
+     * Tests that embeddings have the configured dimension, unit length, and do not change between instances.
+     */
+    @Test
+    public void testDeterministic() {
+        float[] embedding = embeddingAPI.getEmbedData("A web app for sharing recipes");
+        assertEquals(HashingEmbeddingAPI.DEFAULT_DIMENSION, embedding.length);
+        assertEquals(1.0, dot(embedding, embedding), 1e-5);
+        assertArrayEquals(embedding, new HashingEmbeddingAPI().getEmbedData("A web app for sharing recipes"));
+        assertArrayEquals(embedding, embeddingAPI.getEmbedData("a WEB app, for sharing recipes!"));
+
+        HashingEmbeddingAPI otherSeed = new HashingEmbeddingAPI(HashingEmbeddingAPI.DEFAULT_DIMENSION, 7);
+        assertNotEquals(embeddingAPI.getModelId(), otherSeed.getModelId());
+        assertTrue(dot(embedding, otherSeed.getEmbedData("A web app for sharing recipes")) < 0.5);
+        assertEquals(64, new HashingEmbeddingAPI(64, 1).getEmbedData("text").length);
+    }
+
+    /**
+     * Tests that texts sharing words or word stems are closer than unrelated texts.
+     */
+    @Test
+    public void testSimilarity() {
+        float[] query = embeddingAPI.getEmbedData("machine learning project");
+        float[] related = embeddingAPI.getEmbedData("A project using machine learning to classify images");
+        float[] stem = embeddingAPI.getEmbedData("learned machines");
+        float[] unrelated = embeddingAPI.getEmbedData("Gardening club schedule for the summer");
+        assertTrue(dot(query, related) > dot(query, unrelated) + 0.2);
+        assertTrue(dot(query, stem) > dot(query, unrelated));
+    }
+
+    /**
+     * Tests that a text without words gets a zero vector.
+     */
+    @Test
+    public void testEmptyText() {
+        assertArrayEquals(new float[HashingEmbeddingAPI.DEFAULT_DIMENSION], embeddingAPI.getEmbedData(" ,.! "));
+        assertThrows(IllegalArgumentException.class, () -> new HashingEmbeddingAPI(0, 1));
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,259 @@
+package api.embeddingapi;
+
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the OpenAPIDataEmbed class, against a local server that imitates the embeddings endpoint.
+ * The embedding of a text is {length of the text, position of the text in its request}.
+ */
+public class OpenAPIDataEmbedTest {
+    private HttpServer server;
+    private String url;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis = 0;
+
+    /**
+     * Starts the local server before each test.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/embeddings", exchange -> {
+            requests.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            JSONObject request = new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals("Bearer token", exchange.getRequestHeaders().getFirst("Authorization"));
+            JSONArray input = request.getJSONArray("input");
+            JSONArray data = new JSONArray();
+            for (int i = input.length() - 1; i >= 0; i--) { // out of order, as the API does not promise an order
+                JSONObject embedding = new JSONObject();
+                embedding.put("index", i);
+                embedding.put("embedding", new JSONArray(List.of(input.getString(i).length(), i)));
+                data.put(embedding);
+            }
+            byte[] response = (status == 200 ? new JSONObject().put("data", data).toString()
+                    : "{\"error\": {\"message\": \"rate limited\"}}").getBytes(StandardCharsets.UTF_8);
+            if (status == 429) {
+                exchange.getResponseHeaders().add("retry-after-ms", "1500");
+            }
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/embeddings";
+    }
+
+    /**
+     * Stops the local server after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Tests that a list of texts is embedded with one request and the embeddings keep the order of the texts.
+     */
+    @Test
+    public void testBatch() {
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 0);
+        List<float[]> embeddings = embedAPI.getEmbedData(List.of("a", "bb", "ccc"));
+        assertEquals(1, requests.get());
+        assertArrayEquals(new float[]{1f, 0f}, embeddings.get(0));
+        assertArrayEquals(new float[]{2f, 1f}, embeddings.get(1));
+        assertArrayEquals(new float[]{3f, 2f}, embeddings.get(2));
+    }
+
+    /**
+     * Tests that a list longer than the API accepts is split into several requests.
+     */
+    @Test
+    public void testBatchSplit() {
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 0);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < OpenAPIDataEmbed.MAX_BATCH_INPUTS + 10; i++) {
+            texts.add("text " + i);
+        }
+        List<float[]> embeddings = embedAPI.getEmbedData(texts);
+        assertEquals(2, requests.get());
+        assertEquals(texts.size(), embeddings.size());
+        assertArrayEquals(new float[]{texts.get(OpenAPIDataEmbed.MAX_BATCH_INPUTS + 3).length(), 3f},
+                embeddings.get(OpenAPIDataEmbed.MAX_BATCH_INPUTS + 3));
+    }
+
+    /**
+     * Tests that single texts requested at the same time are sent in one request.
+     *
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 500);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String text = "x".repeat(i + 1);
+            results.add(threads.submit(() -> {
+                start.await();
+                return embedAPI.getEmbedData(text);
+            }));
+        }
+        start.countDown();
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i + 1, results.get(i).get()[0]);
+        }
+        threads.shutdown();
+        assertEquals(1, requests.get());
+    }
+
+    /**
+     * Tests that every coalesced caller sees the failure of the request.
+     *
+     * @throws Exception if the threads fail to run
+     */
+    @Test
+    public void testCoalescedFailure() throws Exception {
+        status = 429;
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 200);
+        ExecutorService threads = Executors.newFixedThreadPool(3);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(threads.submit(() -> {
+                try {
+                    embedAPI.getEmbedData("text");
+                    return false;
+                } catch (RuntimeException e) {
+                    return true;
+                }
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        threads.shutdown();
+    }
+
+    /**
+     * Tests that interrupting a thread waiting for an embedding cancels the request instead of waiting for it.
+     *
+     * @throws Exception if the thread fails to run
+     */
+    @Test
+    public void testInterruptCancels() throws Exception {
+        delayMillis = 10_000;
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 5);
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        Future<Boolean> cancelled = threads.submit(() -> {
+            try {
+                embedAPI.getEmbedData("text");
+                return false;
+            } catch (EmbeddingCancelledException e) {
+                return Thread.currentThread().isInterrupted();
+            }
+        });
+        while (requests.get() == 0) {
+            Thread.sleep(5);
+        }
+        threads.shutdownNow();
+        assertTrue(cancelled.get(2, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that asynchronous calls complete with the same embeddings as blocking calls,
+     * and that lists longer than the API accepts are sent as several requests.
+     *
+     * @throws Exception if a request fails
+     */
+    @Test
+    public void testAsync() throws Exception {
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 0);
+        assertArrayEquals(new float[]{4f, 0f}, embedAPI.getEmbedDataAsync("text").get());
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < OpenAPIDataEmbed.MAX_BATCH_INPUTS + 10; i++) {
+            texts.add("text " + i);
+        }
+        List<float[]> embeddings = embedAPI.getEmbedDataAsync(texts).get();
+        assertEquals(3, requests.get());
+        assertEquals(texts.size(), embeddings.size());
+        assertArrayEquals(new float[]{texts.get(OpenAPIDataEmbed.MAX_BATCH_INPUTS + 3).length(), 3f},
+                embeddings.get(OpenAPIDataEmbed.MAX_BATCH_INPUTS + 3));
+    }
+
+    /**
+     * Tests that a failed asynchronous call completes the future exceptionally.
+     */
+    @Test
+    public void testAsyncFailure() {
+        status = 429;
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 0);
+        CompletableFuture<float[]> embedding = embedAPI.getEmbedDataAsync("text");
+        ExecutionException e = assertThrows(ExecutionException.class, embedding::get);
+        assertInstanceOf(EmbeddingAPIException.class, e.getCause());
+    }
+
+    /**
+     * Tests that a failed request throws the status of the response and the delay the API asked for.
+     */
+    @Test
+    public void testFailureStatus() {
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, "token", 0);
+        status = 429;
+        EmbeddingAPIException rateLimited = assertThrows(EmbeddingAPIException.class, () -> embedAPI.getEmbedData("text"));
+        assertEquals(429, rateLimited.getStatusCode());
+        assertEquals(1500, rateLimited.getRetryAfterMillis());
+        assertTrue(rateLimited.isRetryable());
+
+        status = 400;
+        EmbeddingAPIException badRequest = assertThrows(EmbeddingAPIException.class, () -> embedAPI.getEmbedData("text"));
+        assertEquals(400, badRequest.getStatusCode());
+        assertEquals(-1, badRequest.getRetryAfterMillis());
+        assertFalse(badRequest.isRetryable());
+    }
+
+    /**
+     * Tests that no request is sent without an API key.
+     */
+    @Test
+    public void testNoToken() {
+        OpenAPIDataEmbed embedAPI = new OpenAPIDataEmbed(url, null, 0);
+        assertEquals(0, embedAPI.getEmbedData("text").length);
+        assertEquals(2, embedAPI.getEmbedData(List.of("a", "b")).size());
+        assertEquals(0, embedAPI.getEmbedDataAsync("text").join().length);
+        assertEquals(0, requests.get());
+    }
+}
@@ -0,0 +1,108 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ResilientEmbeddingAPI class, around an embedding API that fails as the tests ask.
+ */
+public class ResilientEmbeddingAPITest {
+    private final Queue<RuntimeException> failures = new ArrayDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private AdaptiveConcurrencyLimiter limiter;
+    private ResilientEmbeddingAPI embeddingAPI;
+
+    /**
+     * Sets up an embedding API that throws the queued failures, then embeds every text as {its length}.
+     */
+    @BeforeEach
+    public void setUp() {
+        EmbeddingAPIInterface failingAPI = new EmbeddingAPIInterface() {
+            @Override
+            public float[] getEmbedData(String text) {
+                calls.incrementAndGet();
+                RuntimeException failure = failures.poll();
+                if (failure != null) {
+                    throw failure;
+                }
+                return new float[]{text.length()};
+            }
+        };
+        limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 10, 1000);
+        embeddingAPI = new ResilientEmbeddingAPI(failingAPI, limiter, new CircuitBreaker(3, 60_000), 3, 1);
+    }
+
+    /**
+     * Tests that rate limited and failed requests are retried, and that rate limiting lowers the concurrency limit.
+     */
+    @Test
+    public void testRetries() {
+        failures.add(new EmbeddingAPIException("rate limited", 429, 5));
+        failures.add(new EmbeddingAPIException("unavailable", 503, -1));
+        long start = System.nanoTime();
+        assertArrayEquals(new float[]{4f}, embeddingAPI.getEmbedData("text"));
+        assertTrue(System.nanoTime() - start >= 5_000_000); // waited as long as the API asked
+        assertEquals(3, calls.get());
+        assertEquals(2, embeddingAPI.getConcurrencyLimit());
+        assertEquals(0, embeddingAPI.getInFlight());
+        assertEquals(0, embeddingAPI.getQueueDepth());
+        List<float[]> embeddings = embeddingAPI.getEmbedData(List.of("a", "bb"));
+        assertArrayEquals(new float[]{2f}, embeddings.get(1));
+    }
+
+    /**
+     * Tests that cancelled requests are neither retried nor counted against the API.
+     */
+    @Test
+    public void testCancelledNotCounted() {
+        for (int i = 0; i < 3; i++) {
+            failures.add(new EmbeddingCancelledException("cancelled"));
+            assertThrows(EmbeddingCancelledException.class, () -> embeddingAPI.getEmbedData("text"));
+        }
+        assertEquals(3, calls.get());
+        assertEquals(4, embeddingAPI.getConcurrencyLimit());
+        assertEquals(0, embeddingAPI.getInFlight());
+        assertTrue(embeddingAPI.isAvailable());
+    }
+
+    /**
+     * Tests that requests the API rejects as invalid are not retried.
+     */
+    @Test
+    public void testNotRetried() {
+        failures.add(new EmbeddingAPIException("bad request", 400, -1));
+        EmbeddingAPIException e = assertThrows(EmbeddingAPIException.class, () -> embeddingAPI.getEmbedData("text"));
+        assertEquals(400, e.getStatusCode());
+        assertEquals(1, calls.get());
+        assertEquals(4, embeddingAPI.getConcurrencyLimit());
+        assertTrue(embeddingAPI.isAvailable());
+    }
+
+    /**
+     * Tests that a request failing every attempt throws its last failure, and that the API then fails fast
+     * without being called until the circuit breaker lets a request through again.
+     */
+    @Test
+    public void testCircuitBreaker() {
+        for (int i = 0; i < 3; i++) {
+            failures.add(new RuntimeException("connection reset"));
+        }
+        EmbeddingAPIException e = assertThrows(EmbeddingAPIException.class, () -> embeddingAPI.getEmbedData("text"));
+        assertFalse(e instanceof EmbeddingUnavailableException);
+        assertEquals(EmbeddingAPIException.NO_STATUS, e.getStatusCode());
+        assertEquals(3, calls.get());
+
+        assertFalse(embeddingAPI.isAvailable());
+        assertEquals(CircuitBreaker.State.OPEN, embeddingAPI.getCircuitState());
+        assertThrows(EmbeddingUnavailableException.class, () -> embeddingAPI.getEmbedData("text"));
+        assertEquals(3, calls.get());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,215 @@
+package benchmark;
+
+import api.embeddingapi.OpenAPIDataEmbed;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the embedding client against the client it replaced, on a local server that imitates the
+ * embeddings endpoint with 1536-dimension embeddings.
+ * <p>
+ * The legacy variant creates an OkHttpClient for every request and decodes the response into a JSONObject,
+ * as OpenAPIDataEmbed used to. The other variants go through OpenAPIDataEmbed, which shares one pooled client
+ * and decodes the response as it is read. The concurrent variants send {@value #CONCURRENT_REQUESTS}
+ * single-text requests at once, blocking one thread per request or asynchronously.
+ * </p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingClientBenchmark {
+    private static final int DIMENSION = 1536;
+    private static final int CONCURRENT_REQUESTS = 16;
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    @Param({"1", "32"})
+    private int texts;
+
+    private HttpServer server;
+    private String url;
+    private OpenAPIDataEmbed embedAPI;
+    private List<String> batch;
+    private final ConcurrentHashMap<Integer, byte[]> responses = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the local server.
+     *
+     * @throws IOException if the server cannot be started.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/embeddings", exchange -> {
+            JSONObject request = new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] response = responses.computeIfAbsent(request.getJSONArray("input").length(),
+                    EmbeddingClientBenchmark::createResponse);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(CONCURRENT_REQUESTS));
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/embeddings";
+        embedAPI = new OpenAPIDataEmbed(url, "token", 0);
+        batch = new ArrayList<>();
+        for (int i = 0; i < texts; i++) {
+            batch.add("A project about embedding number " + i);
+        }
+    }
+
+    /**
+     * Stops the local server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Embeds the texts with a new client and a JSONObject decode.
+     *
+     * @return the embeddings.
+     * @throws IOException if the request fails.
+     */
+    @Benchmark
+    public List<float[]> legacyClient() throws IOException {
+        return legacyRequest(batch);
+    }
+
+    /**
+     * Embeds the texts with the shared client and the streaming decoder.
+     *
+     * @return the embeddings.
+     */
+    @Benchmark
+    public List<float[]> sharedClient() {
+        return embedAPI.getEmbedData(batch);
+    }
+
+    /**
+     * Sends concurrent single-text requests, one blocked thread per request, with a new client for each.
+     *
+     * @return the embeddings.
+     */
+    @Benchmark
+    public List<float[]> legacyConcurrent() {
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            String text = batch.get(i % batch.size());
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return legacyRequest(List.of(text)).get(0);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Sends concurrent single-text requests asynchronously through the shared client.
+     *
+     * @return the embeddings.
+     */
+    @Benchmark
+    public List<float[]> asyncConcurrent() {
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            futures.add(embedAPI.getEmbedDataAsync(batch.get(i % batch.size())));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmbeddingClientBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private List<float[]> legacyRequest(List<String> texts) throws IOException {
+        OkHttpClient client = new OkHttpClient();
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("input", new JSONArray(texts));
+        requestBody.put("model", OpenAPIDataEmbed.API_MODEL);
+        Request request = new Request.Builder()
+                .url(url)
+                .method("POST", RequestBody.create(requestBody.toString(), JSON))
+                .addHeader("Authorization", "Bearer token")
+                .addHeader("Content-Type", "application/json")
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            JSONArray data = new JSONObject(response.body().string()).getJSONArray("data");
+            float[][] embeddings = new float[texts.size()][];
+            for (int i = 0; i < data.length(); i++) {
+                JSONObject item = data.getJSONObject(i);
+                JSONArray values = item.getJSONArray("embedding");
+                float[] embedding = new float[values.length()];
+                for (int j = 0; j < embedding.length; j++) {
+                    embedding[j] = values.getFloat(j);
+                }
+                embeddings[item.getInt("index")] = embedding;
+            }
+            return List.of(embeddings);
+        }
+    }
+
+    private static byte[] createResponse(int count) {
+        Random random = new Random(count);
+        StringBuilder response = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        for (int i = 0; i < count; i++) {
+            response.append(i == 0 ? "" : ",").append("{\"object\":\"embedding\",\"index\":").append(i)
+                    .append(",\"embedding\":[");
+            for (int j = 0; j < DIMENSION; j++) {
+                response.append(j == 0 ? "" : ",").append((float) (random.nextGaussian() * 0.03));
+            }
+            response.append("]}");
+        }
+        response.append("],\"model\":\"text-embedding-3-small\",\"usage\":{\"prompt_tokens\":")
+                .append(8 * count).append(",\"total_tokens\":").append(8 * count).append("}}");
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import dataaccess.searchindex.EmbeddingSnapshot;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.VectorMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scoring every project against a query with the original cosine similarity over a
+ * {@code HashMap<Integer, float[]>} and with the dot product over the contiguous, normalized
+ * {@link EmbeddingSnapshot}.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE.
+ * The 1,000,000 project case holds two copies of the embeddings, so the fork is given a 6 GB heap.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class EmbeddingScanBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int projects;
+
+    @Param({"256"})
+    private int dimension;
+
+    private HashMap<Integer, float[]> embeddings;
+    private EmbeddingSnapshot snapshot;
+    private float[] query;
+
+    /**
+     * Generates random embeddings and loads them into a vector index.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        embeddings = new HashMap<>();
+        for (int i = 1; i <= projects; i++) {
+            embeddings.put(i, randomVector(random));
+        }
+        snapshot = new ProjectVectorIndex(() -> embeddings).snapshot();
+        query = randomVector(random);
+    }
+
+    /**
+     * Scores every project the way LocalProjectSearchObject did before the embeddings were normalized.
+     *
+     * @return the id of the most similar project.
+     */
+    @Benchmark
+    public int hashMapCosine() {
+        int best = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (Map.Entry<Integer, float[]> data : embeddings.entrySet()) {
+            float score = calcCosineSimilarity(query, data.getValue());
+            if (score > bestScore) {
+                bestScore = score;
+                best = data.getKey();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores every project with a dot product over the normalized snapshot.
+     *
+     * @return the id of the most similar project.
+     */
+    @Benchmark
+    public int snapshotDotProduct() {
+        float[] normalizedQuery = VectorMath.normalize(query);
+        int best = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (snapshot.idAt(row) < 0) {
+                continue;
+            }
+            float score = snapshot.score(row, normalizedQuery);
+            if (score > bestScore) {
+                bestScore = score;
+                best = snapshot.idAt(row);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmbeddingScanBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static float calcCosineSimilarity(float[] vectorA, float[] vectorB) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < vectorA.length; i++) {
+            dotProduct += vectorA[i] * vectorB[i];
+            normA += Math.pow(vectorA[i], 2);
+            normB += Math.pow(vectorB[i], 2);
+        }
+        return (float) (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+}
@@ -0,0 +1,143 @@
+package benchmark;
+
+import dataaccess.searchindex.EmbeddingSnapshot;
+import dataaccess.searchindex.HnswIndex;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.ShardedScanner;
+import dataaccess.searchindex.TagIndex;
+import dataaccess.searchindex.VectorMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares unfiltered searches with searches filtered by a budget range that {@code selectivity} of the projects
+ * fall in, for the exact scan and for the HNSW graph. The filtered searches include resolving the filter.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE. The scans run on the calling thread so
+ * that the timings follow the number of projects scored.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class FilteredSearchBenchmark {
+    private static final int K = 10;
+
+    @Param({"100000"})
+    private int projects;
+
+    @Param({"256"})
+    private int dimension;
+
+    @Param({"0.01", "0.1", "0.5"})
+    private double selectivity;
+
+    private final ShardedScanner scanner = new ShardedScanner(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    private final ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(new TagIndex());
+    private EmbeddingSnapshot snapshot;
+    private HnswIndex graph;
+    private ProjectFilter filter;
+    private float[] query;
+
+    /**
+     * Generates projects with random embeddings and budgets between 0 and 1, and builds the graph.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        graph = new HnswIndex(16, 100, 64, 42);
+        for (int id = 1; id <= projects; id++) {
+            float[] embedding = randomVector(random);
+            embeddings.put(id, embedding);
+            graph.add(id, embedding);
+            attributeIndex.put(id, random.nextDouble(), id % 100);
+        }
+        snapshot = new ProjectVectorIndex(() -> embeddings).snapshot();
+        filter = ProjectFilter.NONE.withBudget(0, selectivity);
+        query = VectorMath.normalize(randomVector(random));
+    }
+
+    /**
+     * Scores every project.
+     *
+     * @return the k best projects.
+     */
+    @Benchmark
+    public ScoredIds scanUnfiltered() {
+        return scanner.topK(snapshot, query, K, Float.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Scores only the projects in the budget range.
+     *
+     * @return the k best projects in the range.
+     */
+    @Benchmark
+    public ScoredIds scanFiltered() {
+        ProjectIdBitmap projectIds = attributeIndex.filter(filter);
+        return scanner.topK(snapshot, query, K, Float.NEGATIVE_INFINITY, projectIds);
+    }
+
+    /**
+     * Walks the graph without a filter.
+     *
+     * @return the k closest projects found.
+     */
+    @Benchmark
+    public ScoredIds hnswUnfiltered() {
+        return graph.search(query, K);
+    }
+
+    /**
+     * Walks the graph collecting only the projects in the budget range, or scores them exactly if there are few.
+     *
+     * @return the k closest projects in the range found.
+     */
+    @Benchmark
+    public ScoredIds hnswFiltered() {
+        return graph.search(query, K, graph.getEfSearch(), attributeIndex.filter(filter));
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FilteredSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,121 @@
+package benchmark;
+
+import dataaccess.searchindex.KeywordIndex;
+import dataaccess.searchindex.ScoredIds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ranked keyword search with the KeywordIndex against the substring scan LocalProjectRepository
+ * used for getProjectsByKeyword.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE. Project texts draw their words from a
+ * vocabulary with a Zipf-like distribution, so a few words are very common and most are rare, as in real text.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class KeywordIndexBenchmark {
+    private static final int K = 10;
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 100;
+
+    @Param({"100000"})
+    private int projects;
+
+    private final KeywordIndex index = new KeywordIndex();
+    private String[] texts;
+    private String[] queries;
+    private int next;
+
+    /**
+     * Generates the projects and the queries, and indexes the projects.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        texts = new String[projects];
+        for (int id = 0; id < projects; id++) {
+            String title = words(random, 3);
+            String description = words(random, 30);
+            List<String> tags = List.of(words(random, 1), words(random, 1));
+            index.put(id, title, description, tags);
+            texts[id] = title + " " + description + " " + String.join(" ", tags);
+        }
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = words(random, 2);
+        }
+    }
+
+    /**
+     * Ranks the projects by BM25 with the inverted index.
+     *
+     * @return the ids of the best projects.
+     */
+    @Benchmark
+    public ScoredIds index() {
+        return index.search(queries[next++ % QUERIES], K);
+    }
+
+    /**
+     * Scans every project for the query, as the substring search did.
+     *
+     * @return the ids of the matching projects.
+     */
+    @Benchmark
+    public List<Integer> scan() {
+        String query = queries[next++ % QUERIES];
+        List<Integer> matches = new ArrayList<>();
+        for (int id = 0; id < texts.length; id++) {
+            if (texts[id].contains(query)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KeywordIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            // rank ~ VOCABULARY^u is roughly Zipf distributed
+            int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+            text.append("w").append(rank);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package benchmark;
+
+import dataaccess.searchindex.EmbeddingSnapshot;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.Quantization;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.ShardedScanner;
+import dataaccess.searchindex.TopKCollector;
+import dataaccess.searchindex.VectorMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares top-k project search over full-precision, int8 and float16 vector indexes.
+ * Quantized searches scan the quantized rows for {@value #RESCORE_FACTOR} times k candidates and rescore
+ * them against the full-precision embeddings, as LocalProjectSearchObject does.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE. It first prints the memory used by
+ * each index and the recall@k of the quantized scan with and without rescoring, then runs the benchmark.
+ * The embeddings are drawn around a few hundred random topics, so that neighbours are meaningful.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "--add-modules", "jdk.incubator.vector"})
+public class QuantizedSearchBenchmark {
+    private static final int K = 10;
+    private static final int RESCORE_FACTOR = 4;
+    private static final int TOPICS = 500;
+    private static final int QUERIES = 100;
+
+    @Param({"100000"})
+    private int projects;
+
+    @Param({"1536"})
+    private int dimension;
+
+    @Param({"NONE", "INT8", "FLOAT16"})
+    private Quantization quantization;
+
+    private final ShardedScanner scanner = new ShardedScanner(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+    private HashMap<Integer, float[]> embeddings;
+    private EmbeddingSnapshot snapshot;
+    private float[][] queries;
+    private int next;
+
+    /**
+     * Generates the embeddings and the queries, and loads the embeddings into a vector index.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        float[][] topics = new float[TOPICS][];
+        for (int i = 0; i < TOPICS; i++) {
+            topics[i] = randomVector(random, null, 1f);
+        }
+        embeddings = new HashMap<>();
+        for (int id = 1; id <= projects; id++) {
+            embeddings.put(id, randomVector(random, topics[random.nextInt(TOPICS)], 0.5f));
+        }
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = VectorMath.normalize(randomVector(random, topics[random.nextInt(TOPICS)], 0.5f));
+        }
+        ProjectVectorIndex index = new ProjectVectorIndex(() -> embeddings);
+        index.setQuantization(quantization);
+        snapshot = index.snapshot();
+    }
+
+    /**
+     * Searches the k most similar projects, rescoring the candidates of quantized indexes.
+     *
+     * @return the ids of the projects.
+     */
+    @Benchmark
+    public ScoredIds search() {
+        float[] query = queries[next++ % QUERIES];
+        return search(query, true);
+    }
+
+    /**
+     * Prints the memory and recall of each quantization, then runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        QuantizedSearchBenchmark exact = new QuantizedSearchBenchmark();
+        exact.projects = 100_000;
+        exact.dimension = 1536;
+        exact.quantization = Quantization.NONE;
+        exact.setUp();
+        System.out.printf("%-8s %12s %9s %16s %14s%n", "", "index MB", "savings", "recall@10 (scan)", "recall@10");
+        for (Quantization quantization : Quantization.values()) {
+            QuantizedSearchBenchmark candidate = new QuantizedSearchBenchmark();
+            candidate.embeddings = exact.embeddings;
+            candidate.queries = exact.queries;
+            ProjectVectorIndex index = new ProjectVectorIndex(() -> exact.embeddings);
+            index.setQuantization(quantization);
+            candidate.snapshot = index.snapshot();
+            double scanRecall = 0;
+            double recall = 0;
+            for (float[] query : exact.queries) {
+                ScoredIds truth = exact.search(query, false);
+                scanRecall += recall(truth, candidate.search(query, false));
+                recall += recall(truth, candidate.search(query, true));
+            }
+            System.out.printf("%-8s %12.1f %8.2fx %16.3f %14.3f%n", quantization,
+                    candidate.snapshot.memoryBytes() / 1e6,
+                    (double) exact.snapshot.memoryBytes() / candidate.snapshot.memoryBytes(),
+                    scanRecall / QUERIES, recall / QUERIES);
+        }
+        new Runner(new OptionsBuilder().include(QuantizedSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private ScoredIds search(float[] query, boolean rescore) {
+        if (!rescore || snapshot.quantization() == Quantization.NONE) {
+            return scanner.topK(snapshot, query, K, Float.NEGATIVE_INFINITY);
+        }
+        ScoredIds candidates = scanner.topK(snapshot, query, K * RESCORE_FACTOR, Float.NEGATIVE_INFINITY);
+        TopKCollector collector = new TopKCollector(K, Float.NEGATIVE_INFINITY);
+        for (int projectId : candidates.ids()) {
+            collector.offer(VectorMath.dot(query, VectorMath.normalize(embeddings.get(projectId))), projectId);
+        }
+        return collector.result();
+    }
+
+    private static double recall(ScoredIds truth, ScoredIds found) {
+        HashSet<Integer> expected = new HashSet<>();
+        for (int id : truth.ids()) {
+            expected.add(id);
+        }
+        int hits = 0;
+        for (int id : found.ids()) {
+            if (expected.contains(id)) {
+                hits++;
+            }
+        }
+        return (double) hits / truth.size();
+    }
+
+    private float[] randomVector(Random random, float[] center, float noise) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (center == null ? 0f : center[i]) + noise * (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
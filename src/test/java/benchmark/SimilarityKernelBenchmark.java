@@ -0,0 +1,140 @@
+package benchmark;
+
+import dataaccess.searchindex.ScalarSimilarityKernel;
+import dataaccess.searchindex.SimilarityKernel;
+import dataaccess.searchindex.VectorMath;
+import dataaccess.searchindex.VectorSimilarityKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the similarity kernels on 1536-dimension vectors, the size of text-embedding-3-small
+ * embeddings, by scoring one query against a block of stored embeddings.
+ * The original double-precision cosine similarity is included as the baseline.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SimilarityKernelBenchmark {
+    private static final int ROWS = 1000;
+
+    @Param({"1536"})
+    private int dimension;
+
+    private final SimilarityKernel scalarKernel = new ScalarSimilarityKernel();
+    private final SimilarityKernel vectorKernel = new VectorSimilarityKernel();
+
+    private float[][] rawRows;
+    private float[] matrix;
+    private float[] rawQuery;
+    private float[] query;
+
+    /**
+     * Generates the stored embeddings and the query.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rawRows = new float[ROWS][];
+        matrix = new float[ROWS * dimension];
+        for (int row = 0; row < ROWS; row++) {
+            rawRows[row] = randomVector(random);
+            VectorMath.normalizeInto(rawRows[row], matrix, row * dimension);
+        }
+        rawQuery = randomVector(random);
+        query = VectorMath.normalize(rawQuery);
+    }
+
+    /**
+     * Scores the block with the cosine similarity LocalProjectSearchObject originally used.
+     *
+     * @return the sum of the scores.
+     */
+    @Benchmark
+    public float cosineSimilarity() {
+        float sum = 0;
+        for (float[] row : rawRows) {
+            sum += calcCosineSimilarity(rawQuery, row);
+        }
+        return sum;
+    }
+
+    /**
+     * Scores the block with the scalar kernel.
+     *
+     * @return the sum of the scores.
+     */
+    @Benchmark
+    public float scalarKernel() {
+        return scoreAll(scalarKernel);
+    }
+
+    /**
+     * Scores the block with the Vector API kernel.
+     *
+     * @return the sum of the scores.
+     */
+    @Benchmark
+    public float vectorKernel() {
+        return scoreAll(vectorKernel);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SimilarityKernelBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private float scoreAll(SimilarityKernel kernel) {
+        float sum = 0;
+        for (int row = 0; row < ROWS; row++) {
+            sum += kernel.dot(query, matrix, row * dimension);
+        }
+        return sum;
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static float calcCosineSimilarity(float[] vectorA, float[] vectorB) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < vectorA.length; i++) {
+            dotProduct += vectorA[i] * vectorB[i];
+            normA += Math.pow(vectorA[i], 2);
+            normB += Math.pow(vectorB[i], 2);
+        }
+        return (float) (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.TagFilter;
+import dataaccess.searchindex.TagIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares filtering projects by tags with the TagIndex against reading the tags of every project.
+ * <p>
+ * Run {@link #main(String[])} from the test classpath, e.g. in the IDE. Each project has a few tags drawn from a
+ * Zipf-like distribution over {@value #TAGS} tags, so some tags are on many projects and most on few.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class TagIndexBenchmark {
+    private static final int TAGS = 200;
+    private static final int TAGS_PER_PROJECT = 4;
+
+    @Param({"100000"})
+    private int projects;
+
+    private final TagIndex index = new TagIndex();
+    private final HashMap<Integer, Set<String>> tagsById = new HashMap<>();
+    private final TagFilter filter = new TagFilter(Set.of("tag1"), Set.of("tag5", "tag10", "tag20"), Set.of("tag2"));
+
+    /**
+     * Generates and indexes the projects.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int id = 1; id <= projects; id++) {
+            HashSet<String> tags = new HashSet<>();
+            for (int i = 0; i < TAGS_PER_PROJECT; i++) {
+                tags.add("tag" + (int) Math.pow(TAGS, random.nextDouble()));
+            }
+            tagsById.put(id, tags);
+            index.put(id, tags);
+        }
+    }
+
+    /**
+     * Filters the projects with bitmap operations.
+     *
+     * @return the matching projects.
+     */
+    @Benchmark
+    public ProjectIdBitmap filterIndex() {
+        return index.filter(filter);
+    }
+
+    /**
+     * Counts the matching projects per tag with bitmap operations.
+     *
+     * @return the counts.
+     */
+    @Benchmark
+    public Map<String, Integer> facetCountsIndex() {
+        return index.facetCounts(filter);
+    }
+
+    /**
+     * Filters the projects by reading the tags of each one.
+     *
+     * @return the ids of the matching projects.
+     */
+    @Benchmark
+    public List<Integer> filterScan() {
+        List<Integer> matches = new ArrayList<>();
+        for (Map.Entry<Integer, Set<String>> entry : tagsById.entrySet()) {
+            Set<String> tags = entry.getValue();
+            if (tags.containsAll(filter.allOf()) && filter.anyOf().stream().anyMatch(tags::contains)
+                    && filter.noneOf().stream().noneMatch(tags::contains)) {
+                matches.add(entry.getKey());
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if the benchmark fails to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TagIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -73,7 +74,7 @@ class ApplicationRepositoryTest {
         HashSet<String> projectTags = new HashSet<>();
         projectTags.add("Java");
         projectTags.add("SQL");
-        Project project = projectRepository.createProject("Test Project", 1000.0, "This is a test project", projectTags, new float[]{0.1f, 0.2f, 0.3f}, testUserId);
+        Project project = projectRepository.createProject("Test Project", 1000.0, "This is a test project", projectTags, new float[]{0.1f, 0.2f, 0.3f}, null, testUserId);
         testProjectId = project.getProjectId();
     }
 
@@ -160,4 +161,15 @@ class ApplicationRepositoryTest {
         Application application = applicationRepository.getApplication(testUserId, testProjectId);
         assertNull(application);
     }
+
+    @Test
+    void getAllApplicantIds() {
+        long version = applicationRepository.getDataVersion();
+        applicationRepository.createApplication(testUserId, testProjectId, "Test Application Text", new byte[0]);
+
+        HashMap<Integer, HashSet<Integer>> applicantIds = applicationRepository.getAllApplicantIds();
+
+        assertTrue(applicantIds.get(testProjectId).contains(testUserId));
+        assertTrue(applicationRepository.getDataVersion() > version);
+    }
 }
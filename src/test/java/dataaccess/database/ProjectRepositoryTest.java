@@ -1,20 +1,38 @@
 package dataaccess.database;
 
+import api.embeddingapi.ContentHash;
 import dataaccess.database.manager.*;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.TagFilter;
+import dataaccess.searchindex.TagIndex;
 import entities.Project;
 import entities.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ProjectRepositoryTest {
+    private static final String MODEL_ID = "test-model";
+
     private ProjectRepository projectRepository;
     private UserRepository userRepository;
+    private ProjectEmbeddingsManager projectEmbeddingsManager;
+    private ProjectManager projectManager;
 
     private int testProjectId;
     private int testOwnerId;
@@ -28,9 +46,9 @@ class ProjectRepositoryTest {
         UserProjectsManager userProjectsManager = new UserProjectsManager(databaseName);
         UserManager userManager = new UserManager(databaseName);
 
-        ProjectManager projectManager = new ProjectManager(databaseName);
+        this.projectManager = new ProjectManager(databaseName);
         ProjectTagsManager projectTagsManager = new ProjectTagsManager(databaseName);
-        ProjectEmbeddingsManager projectEmbeddingsManager = new ProjectEmbeddingsManager(databaseName);
+        this.projectEmbeddingsManager = new ProjectEmbeddingsManager(databaseName);
 
         // Create facade instances
         this.userRepository = new UserRepository(userManager, userTagsManager, userProjectsManager);
@@ -66,7 +84,8 @@ class ProjectRepositoryTest {
         tags.add("Java");
         tags.add("SQL");
 
-        Project project = projectRepository.createProject("Test Project", 1000.0, "This is a test project", tags, new float[]{0.1f, 0.2f, 0.3f}, testOwnerId);
+        Project project = projectRepository.createProject("Test Project", 1000.0, "This is a test project", tags, new float[]{0.1f, 0.2f, 0.3f},
+                ContentHash.of(MODEL_ID, "This is a test project"), testOwnerId);
         testProjectId = project.getProjectId();
     }
 
@@ -90,7 +109,8 @@ class ProjectRepositoryTest {
         tags.add("Java");
         tags.add("SQL");
 
-        Project project = projectRepository.createProject("Another Test Project", 2000.0, "This is another test project", tags, new float[]{0.1f, 0.2f, 0.3f}, testOwnerId);
+        Project project = projectRepository.createProject("Another Test Project", 2000.0, "This is another test project", tags, new float[]{0.1f, 0.2f, 0.3f},
+                ContentHash.of(MODEL_ID, "This is another test project"), testOwnerId);
 
         assertNotNull(project);
         assertEquals("Another Test Project", project.getProjectTitle());
@@ -120,6 +140,17 @@ class ProjectRepositoryTest {
         assertTrue(project.getProjectTags().contains("SQL"));
     }
 
+    @Test
+    void getAllProjects() {
+        Project project = projectRepository.getAllProjects().get(testProjectId);
+
+        assertNotNull(project);
+        assertEquals("Test Project", project.getProjectTitle());
+        assertEquals(1000.0, project.getProjectBudget(), 0);
+        assertTrue(project.getProjectTags().contains("Java"));
+        assertTrue(project.getProjectTags().contains("SQL"));
+    }
+
     @Test
     void addTags() {
         HashSet<String> newTags = new HashSet<>();
@@ -156,7 +187,8 @@ class ProjectRepositoryTest {
 
         float[] newEmbeddings = {0.4f, 0.5f, 0.6f};
 
-        projectRepository.update(testProjectId, "Updated Title", 1500.0, "Updated Description", newTags, newEmbeddings);
+        projectRepository.update(testProjectId, "Updated Title", 1500.0, "Updated Description", newTags, newEmbeddings,
+                ContentHash.of(MODEL_ID, "Updated Description"));
 
         Project updatedProject = projectRepository.getProjectById(testProjectId);
 
@@ -190,9 +222,208 @@ class ProjectRepositoryTest {
         assertEquals(0.3f, embeddings[2], 0);
     }
 
+    @Test
+    void updateReplacesEmbeddings() {
+        float[] newEmbeddings = {0.7f, 0.8f, 0.9f, 1.0f};
+
+        projectRepository.update(testProjectId, "Test Project", 1000.0, "This is a test project", new HashSet<>(), newEmbeddings,
+                ContentHash.of(MODEL_ID, "This is a test project"));
+        assertArrayEquals(newEmbeddings, projectRepository.getAllEmbeddings().get(testProjectId));
+
+        projectRepository.update(testProjectId, "Test Project", 1000.0, "This is a test project", new HashSet<>(), new float[0],
+                ContentHash.of(MODEL_ID, "This is a test project"));
+        assertFalse(projectRepository.getAllEmbeddings().containsKey(testProjectId));
+    }
+
+    @Test
+    void updateKeepsEmbeddingsWhenNull() {
+        projectRepository.update(testProjectId, "Renamed Project", 1000.0, "This is a test project", new HashSet<>(), null, null);
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, projectRepository.getAllEmbeddings().get(testProjectId));
+        assertEquals(ContentHash.of(MODEL_ID, "This is a test project"), projectRepository.getContentHash(testProjectId));
+    }
+
+    @Test
+    void identicalDescriptionsShareEmbeddings() {
+        String description = "A shared description " + testProjectId;
+        float[] embeddings = {0.4f, 0.5f, 0.6f};
+        Project first = projectRepository.createProject("First", 10.0, description, new HashSet<>(), embeddings,
+                ContentHash.of(MODEL_ID, description), testOwnerId);
+        assertArrayEquals(embeddings, projectRepository.getEmbeddingByContentHash(ContentHash.of(MODEL_ID, description)));
+
+        float[] newEmbeddings = {0.7f, 0.8f, 0.9f};
+        Project second = projectRepository.createProject("Second", 20.0, description, new HashSet<>(), newEmbeddings,
+                ContentHash.of(MODEL_ID, description), testOwnerId);
+        assertArrayEquals(newEmbeddings, projectRepository.getAllEmbeddings().get(first.getProjectId()));
+
+        projectRepository.deleteProject(first.getProjectId());
+        assertArrayEquals(newEmbeddings, projectRepository.getEmbeddingByContentHash(ContentHash.of(MODEL_ID, description)));
+        projectRepository.deleteProject(second.getProjectId());
+        assertNull(projectRepository.getEmbeddingByContentHash(ContentHash.of(MODEL_ID, description)));
+    }
+
+    @Test
+    void embeddingsOfAnotherModelAreNotShared() {
+        String description = "A description embedded twice " + testProjectId;
+        float[] embeddings = {0.4f, 0.5f, 0.6f};
+        Project project = projectRepository.createProject("First", 10.0, description, new HashSet<>(), embeddings,
+                ContentHash.of(MODEL_ID, description), testOwnerId);
+
+        assertNull(projectRepository.getEmbeddingByContentHash(ContentHash.of("other-model", description)));
+        projectRepository.deleteProject(project.getProjectId());
+    }
+
+    @Test
+    void embeddingsWithoutContentHashAreNotShared() {
+        float[] embeddings = {0.4f, 0.5f, 0.6f};
+        Project first = projectRepository.createProject("First", 10.0, "Same text", new HashSet<>(), embeddings, null, testOwnerId);
+        Project second = projectRepository.createProject("Second", 10.0, "Same text", new HashSet<>(), new float[]{0.7f, 0.8f, 0.9f}, null, testOwnerId);
+
+        assertArrayEquals(embeddings, projectRepository.getAllEmbeddings().get(first.getProjectId()));
+        assertNotEquals(projectRepository.getContentHash(first.getProjectId()), projectRepository.getContentHash(second.getProjectId()));
+        projectRepository.deleteProject(first.getProjectId());
+        projectRepository.deleteProject(second.getProjectId());
+    }
+
+    @Test
+    void migrateLegacyEmbeddings() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:refactoredtest.db");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE ProjectEmbeddings (ProjectId INTEGER NOT NULL, EmbeddingIndex INTEGER NOT NULL, EmbeddingValue FLOAT NOT NULL, PRIMARY KEY (ProjectId, EmbeddingIndex))");
+            statement.executeUpdate("INSERT INTO ProjectEmbeddings VALUES (-5, 1, 0.5), (-5, 0, 0.25), (-5, 2, 0.75)");
+        }
+
+        projectEmbeddingsManager.initialize();
+
+        assertArrayEquals(new float[]{0.25f, 0.5f, 0.75f}, projectRepository.getAllEmbeddings().get(-5));
+        projectEmbeddingsManager.removeEmbeddings(-5);
+    }
+
+    @Test
+    void getProjectsByKeyword() {
+        assertTrue(projectRepository.getProjectsByKeyword("TEST PROJECT").stream()
+                .anyMatch(project -> project.getProjectId() == testProjectId && project.getProjectTags().contains("Java")));
+        assertTrue(projectRepository.getProjectsByKeyword("sql").stream()
+                .anyMatch(project -> project.getProjectId() == testProjectId));
+        assertTrue(projectRepository.getProjectsByKeyword("100%").isEmpty());
+    }
+
+    @Test
+    void searchProjectsByKeyword() {
+        Project project = projectRepository.createProject("Quokka Tracker", 10.0, "Counts quokkas on the island",
+                new HashSet<>(List.of("Wombat")), new float[]{0.1f, 0.2f, 0.3f}, null, testOwnerId);
+        int projectId = project.getProjectId();
+        assertArrayEquals(new int[]{projectId}, projectRepository.searchProjectsByKeyword("QUOKKA", 10).ids());
+        assertArrayEquals(new int[]{projectId}, projectRepository.searchProjectsByKeyword("wombat", 10).ids());
+
+        projectRepository.update(projectId, "Numbat Tracker", 10.0, "Counts numbats",
+                new HashSet<>(List.of("Bilby")), null, null);
+        assertEquals(0, projectRepository.searchProjectsByKeyword("quokka wombat", 10).size());
+        assertArrayEquals(new int[]{projectId}, projectRepository.searchProjectsByKeyword("numbat bilby", 10).ids());
+
+        assertTrue(projectManager.rebuildSearchIndex());
+        assertArrayEquals(new int[]{projectId}, projectRepository.searchProjectsByKeyword("bilby", 10).ids());
+
+        projectRepository.deleteProject(projectId);
+        assertEquals(0, projectRepository.searchProjectsByKeyword("numbat bilby", 10).size());
+        assertEquals(0, projectRepository.searchProjectsByKeyword("!?", 10).size());
+    }
+
+    @Test
+    void mergeSearchIndexAfterBatchOfInserts() {
+        assertTrue(projectManager.setSearchIndexAutomerge(0));
+        List<Integer> projectIds = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                Project project = projectRepository.createProject("Wallaby Survey " + i, 10.0, "Counts wallabies",
+                        new HashSet<>(List.of("Marsupial")), new float[]{0.1f, 0.2f, 0.3f}, null, testOwnerId);
+                projectIds.add(project.getProjectId());
+            }
+
+            assertTrue(projectManager.mergeSearchIndex(500));
+            int merges = 1;
+            while (projectManager.mergeSearchIndex(500)) {
+                assertTrue(++merges < 100, "merging never finished");
+            }
+            assertFalse(projectManager.mergeSearchIndex(500));
+
+            assertTrue(ids(projectRepository.searchProjectsByKeyword("wallabies", 1000)).containsAll(projectIds));
+            int editedId = projectIds.get(7);
+            projectRepository.update(editedId, "Numbat Survey", 10.0, "Counts numbats",
+                    new HashSet<>(List.of("Marsupial")), null, null);
+            assertFalse(ids(projectRepository.searchProjectsByKeyword("wallabies", 1000)).contains(editedId));
+            assertTrue(ids(projectRepository.searchProjectsByKeyword("numbats", 1000)).contains(editedId));
+        } finally {
+            projectManager.setSearchIndexAutomerge(4); // the FTS5 default
+            for (int projectId : projectIds) {
+                projectRepository.deleteProject(projectId);
+            }
+        }
+        assertTrue(ids(projectRepository.searchProjectsByKeyword("wallabies", 1000)).stream().noneMatch(projectIds::contains));
+    }
+
+    private static List<Integer> ids(ScoredIds scoredIds) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id : scoredIds.ids()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Test
+    void tagIndexFollowsWrites() {
+        TagIndex tagIndex = projectRepository.getTagIndex();
+        assertTrue(tagIndex.filter(TagFilter.allOf("Java", "SQL")).contains(testProjectId));
+
+        projectRepository.addTags(testProjectId, new HashSet<>(List.of("Platypus")));
+        projectRepository.removeTags(testProjectId, new HashSet<>(List.of("SQL")));
+        assertArrayEquals(new int[]{testProjectId}, tagIndex.filter(TagFilter.allOf("Platypus")).toArray());
+        assertFalse(tagIndex.filter(TagFilter.allOf("SQL")).contains(testProjectId));
+        assertEquals(Map.of("Java", 1, "Platypus", 1), tagIndex.facetCounts(TagFilter.allOf("Platypus")));
+
+        projectRepository.deleteProject(testProjectId);
+        assertTrue(tagIndex.filter(TagFilter.allOf("Platypus")).isEmpty());
+    }
+
+    @Test
+    void attributeIndexFollowsWrites() {
+        ProjectAttributeIndex attributeIndex = projectRepository.getAttributeIndex();
+        ProjectFilter owned = ProjectFilter.NONE.withOwner(testOwnerId);
+        assertTrue(attributeIndex.filter(owned.withBudget(500, 1500)).contains(testProjectId));
+
+        Project project = projectRepository.createProject("Echidna Census", 50.0, "Counts echidnas",
+                new HashSet<>(List.of("Java")), new float[]{0.3f, 0.2f, 0.1f}, null, testOwnerId);
+        int projectId = project.getProjectId();
+        ProjectIdBitmap cheap = attributeIndex.filter(owned.withBudget(0, 100).withTags(TagFilter.allOf("Java")));
+        assertArrayEquals(new int[]{projectId}, cheap.toArray());
+        assertArrayEquals(new int[]{projectId}, projectRepository.searchProjectsByKeyword("echidnas test", 10, cheap).ids());
+        assertEquals(0, projectRepository.searchProjectsByKeyword("test", 10, cheap).size());
+
+        projectRepository.update(testProjectId, "Test Project", 20.0, "This is a test project",
+                new HashSet<>(List.of("Java")), null, null);
+        assertTrue(attributeIndex.filter(owned.withBudget(0, 100)).contains(testProjectId));
+
+        projectRepository.deleteProject(projectId);
+        assertFalse(attributeIndex.filter(owned).contains(projectId));
+    }
+
     @Test
     void getOwnerId() {
         int ownerId = projectRepository.getOwnerId(testProjectId);
         assertEquals(testOwnerId, ownerId);
     }
+
+    @Test
+    void dataVersionFollowsWrites() {
+        long version = projectRepository.getDataVersion();
+        projectRepository.update(testProjectId, "Test Project", 20.0, "This is a test project",
+                new HashSet<>(List.of("Java")), null, null);
+        assertTrue(projectRepository.getDataVersion() > version);
+
+        version = projectRepository.getDataVersion();
+        projectRepository.getProjectById(testProjectId);
+        assertEquals(version, projectRepository.getDataVersion());
+
+        projectRepository.deleteProject(testProjectId);
+        assertTrue(projectRepository.getDataVersion() > version);
+    }
 }
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -72,7 +73,7 @@ class UserProjectsRepositoryTest {
         HashSet<String> projectTags = new HashSet<>();
         projectTags.add("Java");
         projectTags.add("SQL");
-        Project project = projectRepository.createProject("Test Project", 1000.0, "This is a test project", projectTags, new float[]{0.1f, 0.2f, 0.3f}, testUserId);
+        Project project = projectRepository.createProject("Test Project", 1000.0, "This is a test project", projectTags, new float[]{0.1f, 0.2f, 0.3f}, null, testUserId);
         testProjectId = project.getProjectId();
     }
 
@@ -190,4 +191,18 @@ class UserProjectsRepositoryTest {
         assertNotNull(userIds);
         assertTrue(userIds.contains(newUserId));
     }
+
+    /**
+     * Tests the retrieval of the user IDs of every project, and that adding a user changes the data version.
+     */
+    @Test
+    void getAllUserIds() {
+        long version = userProjectsRepository.getDataVersion();
+        userProjectsRepository.addUserToProject(newUserId, testProjectId);
+
+        HashMap<Integer, HashSet<Integer>> userIds = userProjectsRepository.getAllUserIds();
+
+        assertTrue(userIds.get(testProjectId).contains(newUserId));
+        assertTrue(userProjectsRepository.getDataVersion() > version);
+    }
 }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -110,6 +111,25 @@ class UserRepositoryTest {
         assertEquals(50000.0, user.getDesiredCompensation(), 0);
     }
 
+    @Test
+    void getAllUsers() {
+        HashMap<Integer, User> users = userRepository.getAllUsers();
+
+        User user = users.get(testUserId);
+        assertNotNull(user);
+        assertEquals("Test", user.getFirstName());
+        assertEquals(50000.0, user.getDesiredCompensation(), 0);
+        assertTrue(user.getTags().contains("Developer"));
+    }
+
+    @Test
+    void dataVersionFollowsWrites() {
+        long version = userRepository.getDataVersion();
+        userRepository.updateUser(testUserId, "Test", "User", 40000.0, new HashSet<>());
+
+        assertTrue(userRepository.getDataVersion() > version);
+    }
+
     @Test
     void deleteUser() {
         boolean deleted = userRepository.deleteUser(testUserId);
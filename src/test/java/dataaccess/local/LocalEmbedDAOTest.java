@@ -0,0 +1,199 @@
+package dataaccess.local;
+
+import api.embeddingapi.ContentHash;
+import api.embeddingapi.EmbeddingAPIInterface;
+import api.embeddingapi.OpenAPIDataEmbed;
+import com.opencsv.CSVWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for the LocalEmbedRepository class.
+ */
+public class LocalEmbedDAOTest {
+    private final static String SAVE_LOCATION = "local_data/test/data_access/local_embed_dao/";
+    private final static String[] FILES = {"embeds.idx", "embeds.bin", "embeds.csv", "embeds.csv.bak", "embed_hashes.csv", "embed_hashes.csv.bak"};
+    private final static String MODEL_ID = "test-model";
+    private static EmbeddingAPIInterface apiInterface;
+
+    /**
+     * Deletes the embedding files before each test.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @BeforeEach
+    public void setUpEach() throws IOException {
+        for (String file : FILES) {
+            Files.deleteIfExists(new File(SAVE_LOCATION + file).toPath());
+        }
+        apiInterface = mock(OpenAPIDataEmbed.class);
+    }
+
+    /**
+     * Tests that saved embeddings are read back and survive reopening the repository.
+     */
+    @Test
+    public void testSaveAndReopen() {
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f, 0.3f}, 1);
+        embedRepository.saveEmbedData(new float[]{0.4f, 0.5f, 0.6f}, 2);
+        embedRepository.saveEmbedData(new float[]{0.7f, 0.8f, 0.9f}, 1);
+        assertArrayEquals(new float[]{0.7f, 0.8f, 0.9f}, embedRepository.getEmbedData(1));
+
+        ILocalEmbedRepository reopened = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertArrayEquals(new float[]{0.7f, 0.8f, 0.9f}, reopened.getEmbedData(1));
+        assertArrayEquals(new float[]{0.4f, 0.5f, 0.6f}, reopened.getEmbedData(2));
+        assertNull(reopened.getEmbedData(3));
+        assertEquals(2, reopened.getAllEmbeddings().size());
+    }
+
+    /**
+     * Tests that removing an embedding frees its record for the next project instead of growing the file.
+     */
+    @Test
+    public void testRemoveReusesRecord() {
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f}, 1);
+        embedRepository.saveEmbedData(new float[]{0.3f, 0.4f}, 2);
+        embedRepository.removeEmbedData(1);
+        assertNull(embedRepository.getEmbedData(1));
+        embedRepository.saveEmbedData(new float[]{0.5f, 0.6f}, 3);
+
+        ILocalEmbedRepository reopened = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertNull(reopened.getEmbedData(1));
+        assertArrayEquals(new float[]{0.3f, 0.4f}, reopened.getEmbedData(2));
+        assertArrayEquals(new float[]{0.5f, 0.6f}, reopened.getEmbedData(3));
+        assertEquals(2, reopened.getAllEmbeddings().size());
+
+        reopened.removeEmbedData(2);
+        reopened.saveEmbedData(new float[]{0.7f, 0.8f}, 4);
+        reopened.saveEmbedData(new float[]{0.9f, 1.0f}, 5);
+        assertEquals(3, new LocalEmbedRepository(SAVE_LOCATION, apiInterface).getAllEmbeddings().size());
+    }
+
+    /**
+     * Tests that a save interrupted after its new record was listed, but before the old record was freed,
+     * leaves one complete embedding for the project.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testInterruptedOverwrite() throws IOException {
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f}, 1);
+        embedRepository.saveEmbedData(new float[]{0.3f, 0.4f}, 1);
+        try (FileChannel index = FileChannel.open(new File(SAVE_LOCATION + "embeds.idx").toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer firstSlot = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1);
+            index.write(firstSlot, 16); // the old record of project 1 is listed again
+        }
+
+        ILocalEmbedRepository reopened = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertArrayEquals(new float[]{0.3f, 0.4f}, reopened.getEmbedData(1));
+        assertEquals(1, reopened.getAllEmbeddings().size());
+        reopened.saveEmbedData(new float[]{0.5f, 0.6f}, 2);
+        ILocalEmbedRepository again = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertArrayEquals(new float[]{0.3f, 0.4f}, again.getEmbedData(1));
+        assertArrayEquals(new float[]{0.5f, 0.6f}, again.getEmbedData(2));
+    }
+
+    /**
+     * Tests that an embedding longer than the stored ones keeps the existing embeddings.
+     */
+    @Test
+    public void testLongerEmbedding() {
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f}, 1);
+        embedRepository.saveEmbedData(new float[0], 2);
+        embedRepository.saveEmbedData(new float[]{0.3f, 0.4f, 0.5f, 0.6f}, 3);
+
+        ILocalEmbedRepository reopened = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertArrayEquals(new float[]{0.1f, 0.2f}, reopened.getEmbedData(1));
+        assertArrayEquals(new float[0], reopened.getEmbedData(2));
+        assertArrayEquals(new float[]{0.3f, 0.4f, 0.5f, 0.6f}, reopened.getEmbedData(3));
+    }
+
+    /**
+     * Tests that the embeddings of the CSV file used by older versions are converted.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testMigrateFromCSV() throws IOException {
+        Files.createDirectories(new File(SAVE_LOCATION).toPath());
+        try (CSVWriter writer = new CSVWriter(new FileWriter(SAVE_LOCATION + "embeds.csv"))) {
+            writer.writeNext(new String[]{"projectId", "embedding"});
+            writer.writeNext(new String[]{"1", "[0.1, 0.2, 0.3]"});
+            writer.writeNext(new String[]{"2", "[0.4, 0.5, 0.6]"});
+        }
+
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, embedRepository.getEmbedData(1));
+        assertArrayEquals(new float[]{0.4f, 0.5f, 0.6f}, embedRepository.getEmbedData(2));
+        assertFalse(new File(SAVE_LOCATION + "embeds.csv").exists());
+        assertTrue(new File(SAVE_LOCATION + "embeds.csv.bak").exists());
+    }
+
+    /**
+     * Tests that content hashes are saved with the embeddings, survive reopening the repository,
+     * and are forgotten when the embedding is removed or replaced without one.
+     */
+    @Test
+    public void testContentHashes() {
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f}, ContentHash.of(MODEL_ID, "a"), 1);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f}, ContentHash.of(MODEL_ID, "a"), 2);
+        embedRepository.saveEmbedData(new float[]{0.3f, 0.4f}, ContentHash.of(MODEL_ID, "b"), 3);
+        embedRepository.saveEmbedData(new float[0], ContentHash.of(MODEL_ID, "c"), 4);
+
+        ILocalEmbedRepository reopened = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertEquals(ContentHash.of(MODEL_ID, "a"), reopened.getContentHash(1));
+        assertEquals(ContentHash.of(MODEL_ID, "b"), reopened.getContentHash(3));
+        assertNull(reopened.getContentHash(4));
+        assertArrayEquals(new float[]{0.1f, 0.2f}, reopened.getEmbedDataByContentHash(ContentHash.of(MODEL_ID, "a")));
+        assertNull(reopened.getEmbedDataByContentHash(ContentHash.of(MODEL_ID, "c")));
+
+        reopened.removeEmbedData(1);
+        assertArrayEquals(new float[]{0.1f, 0.2f}, reopened.getEmbedDataByContentHash(ContentHash.of(MODEL_ID, "a")));
+        reopened.saveEmbedData(new float[]{0.5f, 0.6f}, 2);
+        assertNull(reopened.getEmbedDataByContentHash(ContentHash.of(MODEL_ID, "a")));
+        assertNull(new LocalEmbedRepository(SAVE_LOCATION, apiInterface).getContentHash(2));
+    }
+
+    /**
+     * Tests that the content hashes of the CSV file used by older versions are moved into the embedding records.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testMigrateHashesFromCSV() throws IOException {
+        ILocalEmbedRepository embedRepository = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        embedRepository.saveEmbedData(new float[]{0.1f, 0.2f}, 1);
+        embedRepository.saveEmbedData(new float[]{0.3f, 0.4f}, 2);
+        try (CSVWriter writer = new CSVWriter(new FileWriter(SAVE_LOCATION + "embed_hashes.csv"))) {
+            writer.writeNext(new String[]{"projectId", "contentHash"});
+            writer.writeNext(new String[]{"1", ContentHash.of(MODEL_ID, "a")});
+            writer.writeNext(new String[]{"2", "not a hash"});
+            writer.writeNext(new String[]{"3", ContentHash.of(MODEL_ID, "c")});
+        }
+
+        new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertFalse(new File(SAVE_LOCATION + "embed_hashes.csv").exists());
+        ILocalEmbedRepository reopened = new LocalEmbedRepository(SAVE_LOCATION, apiInterface);
+        assertEquals(ContentHash.of(MODEL_ID, "a"), reopened.getContentHash(1));
+        assertNull(reopened.getContentHash(2));
+        assertNull(reopened.getContentHash(3));
+        assertArrayEquals(new float[]{0.3f, 0.4f}, reopened.getEmbedData(2));
+    }
+}
@@ -1,8 +1,16 @@
 package dataaccess.local;
 
+import api.embeddingapi.ContentHash;
 import api.embeddingapi.EmbeddingAPIInterface;
 import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.IProjectRepository;
+import dataaccess.searchindex.EmbeddingSnapshot;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.TagFilter;
+import dataaccess.searchindex.TagIndex;
+import dataaccess.searchindex.VectorMath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -12,6 +20,10 @@ import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -22,6 +34,7 @@ import static org.mockito.Mockito.mock;
 @SuppressWarnings("FieldCanBeLocal")
 public class LocalProjectDAOTest {
     private final static String SAVE_LOCATION = "local_data/test/data_access/local_dao/";
+    private final static String MODEL_ID = "test-model";
     private static IProjectRepository projectRepository;
     private final static File saveFile = new File(SAVE_LOCATION + "projects.csv");
     private static ILocalEmbedRepository embedRepository;
@@ -42,6 +55,7 @@ public class LocalProjectDAOTest {
                 1000.0, "This is a test project.",
                 new HashSet<>(Arrays.asList("Java", "Programming")),
                 new float[]{0.1f, 0.2f, 0.3f, 0.4f, 0.5f},
+                ContentHash.of(MODEL_ID, "This is a test project."),
                 10);
     }
 
@@ -87,7 +101,7 @@ public class LocalProjectDAOTest {
     public void testUpdateProject(){
         projectRepository.update(1, "Test Project 2", 2000.0, "This is a test project 2.",
                 new HashSet<>(Arrays.asList("Python", "Coding")),
-                new float[]{0.6f, 0.7f, 0.8f, 0.9f, 1.0f});
+                new float[]{0.6f, 0.7f, 0.8f, 0.9f, 1.0f}, ContentHash.of(MODEL_ID, "This is a test project 2."));
         assertEquals(projectRepository.getProjectById(1).getProjectTitle(), "Test Project 2");
         assertEquals(projectRepository.getProjectById(1).getProjectBudget(), 2000.0);
         assertEquals(projectRepository.getProjectById(1).getProjectDescription(), "This is a test project 2.");
@@ -122,4 +136,136 @@ public class LocalProjectDAOTest {
         assertEquals(0, projectRepository.getProjectsByKeyword("Cool Project").size());
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that the ranked keyword search ignores case and follows project writes.
+     */
+    @Test
+    public void testSearchProjectsByKeyword() {
+        projectRepository.createProject("Chess Engine", 500.0, "A java chess engine.",
+                new HashSet<>(List.of("Games")), new float[]{0.5f, 0.4f, 0.3f, 0.2f, 0.1f},
+                ContentHash.of(MODEL_ID, "A java chess engine."), 10);
+        assertArrayEquals(new int[]{1, 2}, projectRepository.searchProjectsByKeyword("JAVA", 10).ids());
+        assertArrayEquals(new int[]{2}, projectRepository.searchProjectsByKeyword("chess", 10).ids());
+
+        projectRepository.update(2, "Chess Engine", 500.0, "A kotlin chess engine.",
+                new HashSet<>(List.of("Games")), null, null);
+        assertArrayEquals(new int[]{1}, projectRepository.searchProjectsByKeyword("java", 10).ids());
+
+        projectRepository.deleteProject(2);
+        assertEquals(0, projectRepository.searchProjectsByKeyword("chess", 10).size());
+    }
+
+    /**
+     * Tests that the attribute index follows project writes and the keyword search honours its filters.
+     */
+    @Test
+    public void testAttributeIndexFollowsWrites() {
+        projectRepository.createProject("Test Game", 300.0, "Another test project.",
+                new HashSet<>(List.of("Games")), new float[]{0.5f, 0.4f, 0.3f, 0.2f, 0.1f},
+                ContentHash.of(MODEL_ID, "Another test project."), 20);
+        ProjectAttributeIndex attributeIndex = projectRepository.getAttributeIndex();
+        assertArrayEquals(new int[]{2}, attributeIndex.filter(ProjectFilter.NONE.withOwner(20)).toArray());
+        ProjectIdBitmap cheap = attributeIndex.filter(ProjectFilter.NONE.withBudget(0, 500));
+        assertArrayEquals(new int[]{2}, projectRepository.searchProjectsByKeyword("test", 10, cheap).ids());
+
+        projectRepository.update(1, "Test Project", 200.0, "This is a test project.",
+                new HashSet<>(List.of("Java")), null, null);
+        assertArrayEquals(new int[]{1, 2}, attributeIndex.filter(ProjectFilter.NONE.withBudget(0, 500)).toArray());
+        assertArrayEquals(new int[]{1}, attributeIndex.filter(ProjectFilter.NONE.withOwner(10)).toArray());
+
+        projectRepository.deleteProject(2);
+        assertTrue(attributeIndex.filter(ProjectFilter.NONE.withOwner(20)).isEmpty());
+        assertEquals(1, attributeIndex.size());
+    }
+
+    /**
+     * Tests that the tag index follows project writes.
+     */
+    @Test
+    public void testTagIndexFollowsWrites() {
+        TagIndex tagIndex = projectRepository.getTagIndex();
+        assertArrayEquals(new int[]{1}, tagIndex.filter(TagFilter.allOf("Java", "Programming")).toArray());
+
+        projectRepository.addTags(1, new HashSet<>(List.of("Games")));
+        projectRepository.removeTags(1, new HashSet<>(List.of("Java")));
+        assertTrue(tagIndex.filter(TagFilter.allOf("Java")).isEmpty());
+        assertEquals(Map.of("Programming", 1, "Games", 1), tagIndex.facetCounts(TagFilter.NONE));
+
+        projectRepository.deleteProject(1);
+        assertEquals(0, tagIndex.size());
+    }
+
+    /**
+     * Tests that the vector index follows project writes.
+     */
+    @Test
+    public void testVectorIndexFollowsWrites() {
+        EmbeddingSnapshot before = projectRepository.getVectorIndex().snapshot();
+        assertEquals(1, before.size());
+
+        projectRepository.update(1, "Test Project", 1000.0, "This is a test project.",
+                new HashSet<>(Arrays.asList("Java", "Programming")),
+                new float[]{0.6f, 0.7f, 0.8f, 0.9f, 1.0f}, ContentHash.of(MODEL_ID, "This is a test project."));
+        EmbeddingSnapshot after = projectRepository.getVectorIndex().snapshot();
+        assertEquals(1, after.size());
+        for (int row = 0; row < after.rowCount(); row++) {
+            if (after.idAt(row) == 1) {
+                assertArrayEquals(VectorMath.normalize(new float[]{0.6f, 0.7f, 0.8f, 0.9f, 1.0f}), after.vectorAt(row));
+            }
+        }
+
+        projectRepository.deleteProject(1);
+        assertEquals(0, projectRepository.getVectorIndex().snapshot().size());
+        assertEquals(1, before.size());
+    }
+
+    /**
+     * Tests that every write increments the data version.
+     */
+    @Test
+    public void testDataVersionFollowsWrites() {
+        long version = projectRepository.getDataVersion();
+        projectRepository.addTags(1, new HashSet<>(List.of("Search")));
+        assertTrue(projectRepository.getDataVersion() > version);
+
+        version = projectRepository.getDataVersion();
+        projectRepository.updateEmbedding(1, ContentHash.of(MODEL_ID, "This is a test project."), new float[]{0.5f, 0.4f, 0.3f, 0.2f, 0.1f});
+        assertTrue(projectRepository.getDataVersion() > version);
+
+        version = projectRepository.getDataVersion();
+        projectRepository.deleteProject(1);
+        assertTrue(projectRepository.getDataVersion() > version);
+
+        version = projectRepository.getDataVersion();
+        projectRepository.getProjectById(1);
+        assertEquals(version, projectRepository.getDataVersion());
+    }
+
+    /**
+     * Tests that embeddings can be updated from another thread while projects are created, as the embedding
+     * pipeline does.
+     *
+     * @throws Exception if the updating thread fails
+     */
+    @Test
+    public void testUpdateEmbeddingWhileCreating() throws Exception {
+        ExecutorService pipeline = Executors.newSingleThreadExecutor();
+        Future<Integer> updated = pipeline.submit(() -> {
+            int count = 0;
+            for (int i = 0; i < 200; i++) {
+                if (projectRepository.updateEmbedding(1, ContentHash.of(MODEL_ID, "This is a test project."), new float[]{0.5f, 0.4f, 0.3f, 0.2f, 0.1f})) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        for (int i = 0; i < 50; i++) {
+            projectRepository.createProject("Project " + i, 100.0, "Description " + i,
+                    new HashSet<>(List.of("Java")), new float[]{0.1f, 0.2f, 0.3f, 0.4f, 0.5f},
+                    ContentHash.of(MODEL_ID, "Description " + i), 10);
+        }
+        assertEquals(200, updated.get());
+        pipeline.shutdown();
+        assertEquals(51, projectRepository.getAttributeIndex().size());
+    }
+}
@@ -0,0 +1,198 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HnswIndex class.
+ */
+public class HnswIndexTest {
+    private static final int DIMENSIONS = 32;
+    private static final int VECTORS = 2000;
+
+    private HnswIndex index;
+    private float[][] vectors;
+
+    /**
+     * Builds an index over random vectors before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(7);
+        index = new HnswIndex(16, 200, 100, 42);
+        vectors = new float[VECTORS][];
+        for (int i = 0; i < VECTORS; i++) {
+            vectors[i] = randomVector(random);
+            index.add(i, vectors[i]);
+        }
+    }
+
+    /**
+     * Tests that the graph finds most of the exact nearest neighbours.
+     */
+    @Test
+    public void testRecallAgainstBruteForce() {
+        Random random = new Random(11);
+        int queries = 50;
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            HashSet<Integer> expected = bruteForce(query, k);
+            for (int id : index.search(query, k).ids()) {
+                if (expected.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        double recall = (double) found / (queries * k);
+        assertTrue(recall >= 0.9, "recall was " + recall);
+    }
+
+    /**
+     * Tests that a filtered traversal only returns the given labels and still finds most of their nearest
+     * neighbours. The filter lets most labels through, so the graph is traversed rather than scored exactly.
+     */
+    @Test
+    public void testFilteredSearch() {
+        ProjectIdBitmap allowed = new ProjectIdBitmap();
+        for (int id = 0; id < VECTORS; id++) {
+            if (id % 5 != 0) {
+                allowed.add(id);
+            }
+        }
+        Random random = new Random(13);
+        int queries = 50;
+        int k = 10;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            HashSet<Integer> expected = bruteForce(query, k, allowed);
+            ScoredIds result = index.search(query, k, 32, allowed);
+            assertEquals(k, result.size());
+            for (int id : result.ids()) {
+                assertTrue(allowed.contains(id), "label " + id + " is not allowed");
+                if (expected.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        double recall = (double) found / (queries * k);
+        assertTrue(recall >= 0.9, "recall was " + recall);
+    }
+
+    /**
+     * Tests that a search filtered down to a few labels scores them exactly, and skips removed labels.
+     */
+    @Test
+    public void testNarrowFilterIsExact() {
+        ProjectIdBitmap allowed = ProjectIdBitmap.of(4, 40, 400, 1400, 1999, VECTORS + 5);
+        index.remove(40);
+        float[] query = randomVector(new Random(17));
+        HashSet<Integer> expected = bruteForce(query, 3, ProjectIdBitmap.of(4, 400, 1400, 1999));
+        HashSet<Integer> actual = new HashSet<>();
+        for (int id : index.search(query, 3, 100, allowed).ids()) {
+            actual.add(id);
+        }
+        assertEquals(expected, actual);
+        assertEquals(4, index.search(query, 10, 100, allowed).size());
+        assertEquals(0, index.search(query, 10, 100, new ProjectIdBitmap()).size());
+    }
+
+    /**
+     * Tests that results are ordered by similarity and scores are cosine similarities.
+     */
+    @Test
+    public void testResultsAreSorted() {
+        ScoredIds result = index.search(vectors[5], 10);
+        assertEquals(10, result.size());
+        assertEquals(5, result.ids()[0]);
+        assertEquals(1.0f, result.scores()[0], 1e-5);
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.scores()[i - 1] >= result.scores()[i]);
+        }
+    }
+
+    /**
+     * Tests that removed vectors are no longer returned.
+     */
+    @Test
+    public void testRemove() {
+        assertTrue(index.remove(5));
+        assertFalse(index.remove(5));
+        for (int id : index.search(vectors[5], 10).ids()) {
+            assertNotEquals(5, id);
+        }
+        assertEquals(VECTORS - 1, index.size());
+        assertEquals(1, index.deletedCount());
+    }
+
+    /**
+     * Tests that adding an existing label replaces its vector.
+     */
+    @Test
+    public void testReplace() {
+        index.add(5, vectors[6]);
+        ScoredIds result = index.search(vectors[6], 2);
+        assertEquals(new HashSet<>(java.util.List.of(5, 6)), new HashSet<>(java.util.List.of(result.ids()[0], result.ids()[1])));
+        assertEquals(VECTORS, index.size());
+    }
+
+    /**
+     * Tests that an empty index and mismatched queries return no results.
+     */
+    @Test
+    public void testEmptyResults() {
+        HnswIndex empty = new HnswIndex(16, 200, 100, 42);
+        assertEquals(0, empty.search(new float[DIMENSIONS], 10).size());
+        assertEquals(0, index.search(new float[0], 10).size());
+        assertThrows(IllegalArgumentException.class, () -> index.add(VECTORS, new float[3]));
+    }
+
+    private HashSet<Integer> bruteForce(float[] query, int k) {
+        return bruteForce(query, k, null);
+    }
+
+    private HashSet<Integer> bruteForce(float[] query, int k, ProjectIdBitmap allowed) {
+        ScoreHeap heap = new ScoreHeap(k + 1);
+        for (int i = 0; i < VECTORS; i++) {
+            if (allowed != null && !allowed.contains(i)) {
+                continue;
+            }
+            heap.push(cosine(query, vectors[i]), i);
+            if (heap.size() > k) {
+                heap.pop();
+            }
+        }
+        HashSet<Integer> ids = new HashSet<>();
+        for (int id : heap.drainDescending().ids()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return (float) (dot / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
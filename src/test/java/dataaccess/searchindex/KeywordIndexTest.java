@@ -0,0 +1,122 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the KeywordIndex class.
+ */
+public class KeywordIndexTest {
+
+    /**
+     * Tests that texts are split into lowercase runs of letters and digits.
+     */
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("c", "game", "engine", "v2"), KeywordIndex.tokenize("C++ Game-Engine (v2)"));
+        assertEquals(List.of("caf\u00e9", "caf\u00e9"), KeywordIndex.tokenize("Caf\u00e9 CAF\u00c9"));
+        assertTrue(KeywordIndex.tokenize("  !? ").isEmpty());
+        assertTrue(KeywordIndex.tokenize(null).isEmpty());
+    }
+
+    /**
+     * Tests that a filtered search ranks only the given projects, with the scores of an unfiltered search.
+     */
+    @Test
+    public void testFilteredSearch() {
+        KeywordIndex index = new KeywordIndex();
+        index.put(1, "Java Server", "A web server.", List.of("Backend"));
+        index.put(2, "Java Tool", "A command line tool.", List.of("Tools"));
+        index.put(3, "Android App", "Written in java.", List.of("Mobile"));
+
+        ScoredIds filtered = index.search("java", 10, ProjectIdBitmap.of(1, 3));
+        assertArrayEquals(new int[]{1, 3}, filtered.ids());
+        ScoredIds all = index.search("java", 10);
+        for (int i = 0; i < all.size(); i++) {
+            if (all.ids()[i] == 3) {
+                assertEquals(all.scores()[i], filtered.scores()[1]);
+            }
+        }
+        assertArrayEquals(new int[]{1}, index.search("java", 1, ProjectIdBitmap.of(1, 3)).ids());
+        assertArrayEquals(new int[]{3}, index.search("java", 10, ProjectIdBitmap.of(3, 7)).ids());
+        assertEquals(0, index.search("java", 10, new ProjectIdBitmap()).size());
+    }
+
+    /**
+     * Tests that words in the title weigh more than words in tags, which weigh more than words of the description.
+     */
+    @Test
+    public void testFieldWeights() {
+        KeywordIndex index = new KeywordIndex();
+        index.put(1, "Web Server", "Written in java.", List.of("Backend"));
+        index.put(2, "Java Tool", "A command line tool.", List.of("Tools"));
+        index.put(3, "Android App", "A mobile app.", List.of("Java"));
+        index.put(4, "Python Scripts", "Automating tasks.", List.of("Python"));
+
+        ScoredIds result = index.search("JAVA", 10);
+        assertArrayEquals(new int[]{2, 3, 1}, result.ids());
+        assertTrue(result.scores()[2] > 0);
+    }
+
+    /**
+     * Tests that projects containing more of the words rank first, and that rarer words weigh more.
+     */
+    @Test
+    public void testRanking() {
+        KeywordIndex index = new KeywordIndex();
+        index.put(1, "Chess Engine", "A game.", null);
+        index.put(2, "Game Server", "A game server.", null);
+        index.put(3, "Game Client", "A game client.", null);
+        index.put(4, "Chess Game", "A chess game.", null);
+
+        ScoredIds result = index.search("chess game", 10);
+        assertEquals(4, result.ids()[0]);
+        assertEquals(1, result.ids()[1]);
+        assertEquals(4, result.size());
+        assertEquals(1, index.search("chess game", 1).size());
+        assertEquals(0, index.search("rust", 10).size());
+        assertEquals(0, index.search("", 10).size());
+    }
+
+    /**
+     * Tests that editing a project replaces its words and removing it drops them.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        KeywordIndex index = new KeywordIndex();
+        index.put(1, "Java Tool", "A command line tool.", List.of("Tools"));
+        index.put(2, "Web Server", "A server.", null);
+
+        index.put(1, "Kotlin Tool", "A command line tool.", List.of("Tools"));
+        assertEquals(0, index.search("java", 10).size());
+        assertArrayEquals(new int[]{1}, index.search("kotlin", 10).ids());
+        assertEquals(2, index.size());
+
+        index.remove(1);
+        index.remove(1);
+        assertEquals(0, index.search("kotlin tool", 10).size());
+        assertArrayEquals(new int[]{2}, index.search("server", 10).ids());
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Tests that results stay correct after many edits compact the postings.
+     */
+    @Test
+    public void testCompaction() {
+        KeywordIndex index = new KeywordIndex();
+        for (int round = 0; round < 50; round++) {
+            for (int id = 0; id < 100; id++) {
+                index.put(id, "Project " + id, "Round " + (1000 + round), List.of(id % 2 == 0 ? "even" : "odd"));
+            }
+        }
+        assertEquals(100, index.size());
+        assertEquals(50, index.search("even", 100).size());
+        assertEquals(100, index.search("1049", 100).size());
+        assertEquals(0, index.search("1048", 100).size());
+        assertArrayEquals(new int[]{7}, index.search("7", 10).ids());
+    }
+}
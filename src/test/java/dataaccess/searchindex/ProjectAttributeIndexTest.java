@@ -0,0 +1,108 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProjectAttributeIndex class.
+ */
+public class ProjectAttributeIndexTest {
+    private TagIndex tagIndex;
+    private ProjectAttributeIndex index;
+
+    /**
+     * Indexes four projects: 1 Java by owner 10 for 100, 2 Java by owner 20 for 500, 3 Python by owner 10 for 900,
+     * 4 without tags by owner 20 for 50.
+     */
+    @BeforeEach
+    public void setUp() {
+        tagIndex = new TagIndex();
+        index = new ProjectAttributeIndex(tagIndex);
+        put(1, List.of("Java"), 100, 10);
+        put(2, List.of("Java"), 500, 20);
+        put(3, List.of("Python"), 900, 10);
+        put(4, null, 50, 20);
+    }
+
+    /**
+     * Tests each condition on its own and combined.
+     */
+    @Test
+    public void testFilter() {
+        assertArrayEquals(new int[]{1, 2, 3, 4}, index.filter(ProjectFilter.NONE).toArray());
+        assertArrayEquals(new int[]{1, 2}, index.filter(ProjectFilter.NONE.withBudget(100, 500)).toArray());
+        assertArrayEquals(new int[]{3}, index.filter(ProjectFilter.NONE.withBudget(600, Double.POSITIVE_INFINITY)).toArray());
+        assertArrayEquals(new int[]{1, 3}, index.filter(ProjectFilter.NONE.withOwner(10)).toArray());
+        assertArrayEquals(new int[]{1, 2}, index.filter(ProjectFilter.NONE.withTags(TagFilter.allOf("Java"))).toArray());
+        assertArrayEquals(new int[]{1}, index.filter(ProjectFilter.NONE.withTags(TagFilter.allOf("Java")).withOwner(10)).toArray());
+        assertArrayEquals(new int[]{2}, index.filter(ProjectFilter.NONE.withTags(TagFilter.allOf("Java")).withBudget(200, 1000)).toArray());
+        assertArrayEquals(new int[]{3}, index.filter(ProjectFilter.NONE.withOwner(10).withBudget(200, 1000)).toArray());
+        assertTrue(index.filter(ProjectFilter.NONE.withOwner(30)).isEmpty());
+        assertTrue(index.filter(ProjectFilter.NONE.withBudget(600, 100)).isEmpty());
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * Tests that filter results can be changed without changing the index.
+     */
+    @Test
+    public void testFilterReturnsCopies() {
+        index.filter(ProjectFilter.NONE.withOwner(10)).add(2);
+        index.filter(ProjectFilter.NONE).remove(1);
+        assertArrayEquals(new int[]{1, 3}, index.filter(ProjectFilter.NONE.withOwner(10)).toArray());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, index.filter(ProjectFilter.NONE).toArray());
+    }
+
+    /**
+     * Tests that writes replace the attributes of a project and removals drop it, keeping the other rows.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        index.put(1, 700, 20);
+        assertArrayEquals(new int[]{3}, index.filter(ProjectFilter.NONE.withOwner(10)).toArray());
+        assertArrayEquals(new int[]{1, 3}, index.filter(ProjectFilter.NONE.withBudget(600, 1000)).toArray());
+
+        index.setBudget(3, 10);
+        index.setBudget(8, 10);
+        assertArrayEquals(new int[]{3, 4}, index.filter(ProjectFilter.NONE.withBudget(0, 50)).toArray());
+
+        index.remove(1);
+        assertArrayEquals(new int[]{2, 4}, index.filter(ProjectFilter.NONE.withOwner(20)).toArray());
+        assertArrayEquals(new int[]{2, 3, 4}, index.filter(ProjectFilter.NONE.withBudget(0, 1000)).toArray());
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Tests that an index with a loader reads storage on first use and ignores earlier writes, which storage
+     * already holds.
+     */
+    @Test
+    public void testLoader() {
+        HashMap<Integer, ProjectAttributeIndex.Attributes> stored = new HashMap<>();
+        stored.put(5, new ProjectAttributeIndex.Attributes(250, 10));
+        stored.put(6, new ProjectAttributeIndex.Attributes(750, 30));
+        int[] loads = {0};
+        ProjectAttributeIndex loaded = new ProjectAttributeIndex(new TagIndex(), () -> {
+            loads[0]++;
+            return stored;
+        });
+        loaded.put(5, 250, 10);
+        loaded.setBudget(6, 1);
+        assertEquals(0, loads[0]);
+
+        assertArrayEquals(new int[]{6}, loaded.filter(ProjectFilter.NONE.withBudget(500, 1000)).toArray());
+        loaded.put(7, 800, 30);
+        assertArrayEquals(new int[]{6, 7}, loaded.filter(ProjectFilter.NONE.withOwner(30)).toArray());
+        assertEquals(1, loads[0]);
+    }
+
+    private void put(int projectId, List<String> tags, double budget, int ownerId) {
+        tagIndex.put(projectId, tags);
+        index.put(projectId, budget, ownerId);
+    }
+}
@@ -0,0 +1,143 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProjectIdBitmap class.
+ */
+public class ProjectIdBitmapTest {
+
+    /**
+     * Tests adding, removing and reading ids across array and bitmap containers and several chunks.
+     */
+    @Test
+    public void testAddRemove() {
+        Random random = new Random(1);
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(3 * 65536);
+            bitmap.add(id);
+            expected.add(id);
+        }
+        for (int i = 0; i < 15_000; i++) {
+            int id = random.nextInt(3 * 65536);
+            bitmap.remove(id);
+            expected.remove(id);
+        }
+        assertArrayEquals(toArray(expected), bitmap.toArray());
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (int id = 0; id < 3 * 65536; id += 7) {
+            assertEquals(expected.contains(id), bitmap.contains(id));
+        }
+        assertFalse(bitmap.contains(-1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    /**
+     * Tests that a chunk turns into a bitmap past {@value ProjectIdBitmap#ARRAY_MAX} ids and back into an array below.
+     */
+    @Test
+    public void testContainerConversion() {
+        ProjectIdBitmap bitmap = new ProjectIdBitmap();
+        for (int id = 0; id <= ProjectIdBitmap.ARRAY_MAX; id++) {
+            bitmap.add(id * 2);
+        }
+        assertEquals(ProjectIdBitmap.ARRAY_MAX + 1, bitmap.cardinality());
+        bitmap.remove(0);
+        bitmap.remove(2);
+        assertEquals(ProjectIdBitmap.ARRAY_MAX - 1, bitmap.cardinality());
+        assertTrue(bitmap.contains(4));
+        assertFalse(bitmap.contains(5));
+        for (int id = 2; id <= ProjectIdBitmap.ARRAY_MAX; id++) {
+            bitmap.remove(id * 2);
+        }
+        assertTrue(bitmap.isEmpty());
+    }
+
+    /**
+     * Tests the set operations against sets of ids, for sparse and dense chunks.
+     */
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            TreeSet<Integer> a = randomSet(random, round % 2 == 0 ? 3000 : 30_000);
+            TreeSet<Integer> b = randomSet(random, round % 3 == 0 ? 500 : 20_000);
+            ProjectIdBitmap bitmapA = ProjectIdBitmap.of(toArray(a));
+            ProjectIdBitmap bitmapB = ProjectIdBitmap.of(toArray(b));
+
+            TreeSet<Integer> and = new TreeSet<>(a);
+            and.retainAll(b);
+            TreeSet<Integer> or = new TreeSet<>(a);
+            or.addAll(b);
+            TreeSet<Integer> andNot = new TreeSet<>(a);
+            andNot.removeAll(b);
+
+            assertArrayEquals(toArray(and), ProjectIdBitmap.and(bitmapA, bitmapB).toArray());
+            assertEquals(and.size(), ProjectIdBitmap.andCardinality(bitmapA, bitmapB));
+            assertArrayEquals(toArray(or), ProjectIdBitmap.or(bitmapA, bitmapB).toArray());
+            assertArrayEquals(toArray(andNot), ProjectIdBitmap.andNot(bitmapA, bitmapB).toArray());
+            assertArrayEquals(toArray(a), bitmapA.toArray()); // arguments are left unchanged
+        }
+    }
+
+    /**
+     * Tests that a copy does not share its containers with the original.
+     */
+    @Test
+    public void testCopy() {
+        ProjectIdBitmap bitmap = ProjectIdBitmap.of(1, 2, 70_000);
+        ProjectIdBitmap copy = bitmap.copy();
+        copy.add(3);
+        copy.remove(70_000);
+        assertArrayEquals(new int[]{1, 2, 70_000}, bitmap.toArray());
+        assertArrayEquals(new int[]{1, 2, 3}, copy.toArray());
+        assertEquals(ProjectIdBitmap.of(3, 2, 1), copy);
+    }
+
+    /**
+     * Tests building a bitmap from sorted ids, with chunks on either side of the container threshold, and reading
+     * it back as a bit set.
+     */
+    @Test
+    public void testOfSortedAndBitSet() {
+        TreeSet<Integer> expected = new TreeSet<>(randomSet(new Random(3), 100));
+        for (int id = 65536; id < 65536 + 3 * ProjectIdBitmap.ARRAY_MAX; id += 2) {
+            expected.add(id);
+        }
+        int[] ids = toArray(expected);
+        ProjectIdBitmap bitmap = ProjectIdBitmap.ofSorted(ids, ids.length);
+        assertArrayEquals(ids, bitmap.toArray());
+        assertEquals((int) expected.last(), bitmap.last());
+        assertEquals(ProjectIdBitmap.of(ids), bitmap);
+
+        BitSet bits = bitmap.toBitSet();
+        assertEquals(expected.size(), bits.cardinality());
+        expected.forEach(id -> assertTrue(bits.get(id)));
+
+        assertArrayEquals(new int[]{1, 5}, ProjectIdBitmap.ofSorted(new int[]{1, 5, 3}, 2).toArray());
+        assertEquals(-1, ProjectIdBitmap.ofSorted(new int[0], 0).last());
+        assertThrows(IllegalArgumentException.class, () -> ProjectIdBitmap.ofSorted(new int[]{1, 5, 3}, 3));
+        assertThrows(IllegalArgumentException.class, () -> ProjectIdBitmap.ofSorted(new int[]{-1}, 1));
+    }
+
+    private static TreeSet<Integer> randomSet(Random random, int count) {
+        TreeSet<Integer> set = new TreeSet<>();
+        int bound = 2 * 65536;
+        for (int i = 0; i < count; i++) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
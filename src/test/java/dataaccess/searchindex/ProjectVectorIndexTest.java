@@ -0,0 +1,171 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProjectVectorIndex class.
+ */
+public class ProjectVectorIndexTest {
+    private HashMap<Integer, float[]> stored;
+    private int loads;
+    private ProjectVectorIndex index;
+
+    /**
+     * Sets up an index over two stored embeddings before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        stored = new HashMap<>();
+        stored.put(1, new float[]{1f, 0f});
+        stored.put(2, new float[]{0f, 1f});
+        loads = 0;
+        index = new ProjectVectorIndex(() -> {
+            loads++;
+            return stored;
+        });
+    }
+
+    /**
+     * Tests that the index is loaded from storage only once.
+     */
+    @Test
+    public void testLoadsOnce() {
+        index.put(3, new float[]{1f, 1f}); // ignored, not loaded yet
+        assertEquals(2, index.snapshot().size());
+        index.snapshot();
+        index.load();
+        assertEquals(1, loads);
+    }
+
+    /**
+     * Tests that writes are visible in new snapshots but not in snapshots taken before them.
+     */
+    @Test
+    public void testSnapshotIsolation() {
+        EmbeddingSnapshot before = index.snapshot();
+        index.put(3, new float[]{1f, 1f});
+        index.put(1, new float[]{0.5f, 0.5f});
+        index.remove(2);
+
+        assertEquals(2, before.size());
+        assertArrayEquals(VectorMath.normalize(new float[]{1f, 0f}), find(before, 1));
+        assertArrayEquals(VectorMath.normalize(new float[]{0f, 1f}), find(before, 2));
+        assertNull(find(before, 3));
+
+        EmbeddingSnapshot after = index.snapshot();
+        assertEquals(2, after.size());
+        assertArrayEquals(VectorMath.normalize(new float[]{0.5f, 0.5f}), find(after, 1));
+        assertNull(find(after, 2));
+        assertArrayEquals(VectorMath.normalize(new float[]{1f, 1f}), find(after, 3));
+    }
+
+    /**
+     * Tests that the index keeps its own copy of the embeddings.
+     */
+    @Test
+    public void testCopiesEmbeddings() {
+        index.load();
+        float[] embedding = {1f, 2f};
+        index.put(3, embedding);
+        embedding[0] = 5f;
+        assertArrayEquals(VectorMath.normalize(new float[]{1f, 2f}), find(index.snapshot(), 3));
+    }
+
+    /**
+     * Tests that embeddings are stored at unit length and scored with a dot product.
+     */
+    @Test
+    public void testStoresNormalizedEmbeddings() {
+        index.load();
+        index.put(3, new float[]{3f, 4f});
+        EmbeddingSnapshot snapshot = index.snapshot();
+        assertEquals(2, snapshot.dimension());
+        assertArrayEquals(new float[]{0.6f, 0.8f}, find(snapshot, 3), 1e-6f);
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (snapshot.idAt(row) == 3) {
+                assertEquals(1f, snapshot.score(row, new float[]{0.6f, 0.8f}), 1e-6f);
+                assertEquals(0.8f, snapshot.score(row, new float[]{0f, 1f}), 1e-6f);
+            }
+        }
+    }
+
+    /**
+     * Tests that embeddings of another length are not indexed until the index is empty.
+     */
+    @Test
+    public void testDimensionMismatch() {
+        index.load();
+        index.put(3, new float[]{1f, 2f, 3f});
+        assertNull(find(index.snapshot(), 3));
+        index.put(1, new float[]{1f, 2f, 3f});
+        assertNull(find(index.snapshot(), 1));
+        index.remove(2);
+        index.put(3, new float[]{1f, 2f, 3f});
+        assertEquals(3, index.snapshot().dimension());
+        assertArrayEquals(VectorMath.normalize(new float[]{1f, 2f, 3f}), find(index.snapshot(), 3));
+    }
+
+    /**
+     * Tests that empty embeddings remove the project and unchanged embeddings are not rewritten.
+     */
+    @Test
+    public void testPutEmptyAndUnchanged() {
+        long version = index.version();
+        index.put(1, new float[]{1f, 0f});
+        assertEquals(version, index.version());
+        index.put(1, new float[0]);
+        assertNull(find(index.snapshot(), 1));
+        assertEquals(1, index.snapshot().size());
+    }
+
+    /**
+     * Tests that the change log replays the writes since a version.
+     */
+    @Test
+    public void testChangesSince() {
+        long version = index.version();
+        index.put(3, new float[]{1f, 1f});
+        index.remove(1);
+        List<ProjectVectorIndex.Change> changes = index.changesSince(version);
+        assertEquals(2, changes.size());
+        assertEquals(3, changes.get(0).projectId());
+        assertArrayEquals(VectorMath.normalize(new float[]{1f, 1f}), changes.get(0).embedding());
+        assertEquals(1, changes.get(1).projectId());
+        assertNull(changes.get(1).embedding());
+        assertTrue(index.changesSince(index.version()).isEmpty());
+    }
+
+    /**
+     * Tests that many edits compact the rows without losing projects.
+     */
+    @Test
+    public void testCompaction() {
+        index.load();
+        for (int i = 0; i < 1000; i++) {
+            index.put(1, new float[]{i, 0f});
+            index.put(100 + i, new float[]{0f, i + 1});
+        }
+        EmbeddingSnapshot snapshot = index.snapshot();
+        assertEquals(1002, snapshot.size());
+        assertTrue(snapshot.rowCount() < 2 * snapshot.size());
+        assertArrayEquals(VectorMath.normalize(new float[]{999f, 0f}), find(snapshot, 1));
+        assertArrayEquals(VectorMath.normalize(new float[]{0f, 1000f}), find(snapshot, 1099));
+    }
+
+    private static float[] find(EmbeddingSnapshot snapshot, int projectId) {
+        float[] found = null;
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (snapshot.idAt(row) == projectId) {
+                assertNull(found, "project " + projectId + " appears twice");
+                found = snapshot.vectorAt(row);
+            }
+        }
+        return found;
+    }
+}
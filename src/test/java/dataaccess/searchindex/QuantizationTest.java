@@ -0,0 +1,142 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the quantized storage of a ProjectVectorIndex.
+ */
+public class QuantizationTest {
+    private static final int DIMENSION = 256;
+    private static final int PROJECTS = 500;
+
+    /**
+     * Tests that int8 similarities stay within the error margin and take about a quarter of the memory.
+     */
+    @Test
+    public void testInt8() {
+        checkQuantization(Quantization.INT8, 4 * DIMENSION / (DIMENSION + 4));
+    }
+
+    /**
+     * Tests that float16 similarities stay within the error margin and take half of the memory.
+     */
+    @Test
+    public void testFloat16() {
+        checkQuantization(Quantization.FLOAT16, 2);
+    }
+
+    /**
+     * Tests that the row storage refuses capacities whose values do not fit in one array, instead of
+     * overflowing the array length, and that the largest capacity is computed in long arithmetic.
+     */
+    @Test
+    public void testCapacityLimit() {
+        assertEquals(1_398_101, RowStorage.maxRows(1536));
+        assertTrue((long) RowStorage.maxRows(1536) * 1536 <= RowStorage.MAX_VALUES);
+        assertEquals(RowStorage.MAX_VALUES, RowStorage.maxRows(0));
+        for (Quantization quantization : Quantization.values()) {
+            assertThrows(IllegalArgumentException.class, () -> RowStorage.create(quantization, 1536, 1_398_102));
+            assertThrows(IllegalArgumentException.class, () -> RowStorage.create(quantization, 1536, 2_097_152));
+        }
+    }
+
+    /**
+     * Tests that quantized indexes follow writes and compactions like full-precision ones.
+     */
+    @Test
+    public void testWritesOnQuantizedIndex() {
+        HashMap<Integer, float[]> stored = new HashMap<>();
+        stored.put(1, new float[]{1f, 0f});
+        ProjectVectorIndex index = new ProjectVectorIndex(() -> stored);
+        index.setQuantization(Quantization.INT8);
+        index.load();
+        for (int id = 2; id <= 100; id++) {
+            index.put(id, new float[]{id, 1f});
+        }
+        for (int id = 2; id <= 90; id++) {
+            index.remove(id);
+        }
+        index.put(1, new float[]{1f, 0f}); // unchanged, not recorded
+        index.put(95, new float[]{0f, 1f});
+
+        EmbeddingSnapshot snapshot = index.snapshot();
+        assertEquals(Quantization.INT8, snapshot.quantization());
+        assertEquals(11, snapshot.size());
+        assertEquals(1f, score(snapshot, 1, new float[]{1f, 0f}), 0.01f);
+        assertEquals(1f, score(snapshot, 95, new float[]{0f, 1f}), 0.01f);
+        assertEquals(VectorMath.normalize(new float[]{100f, 1f})[1], vector(snapshot, 100)[1], 0.01f);
+    }
+
+    /**
+     * Tests that changing the quantization of a loaded index reloads it from storage and makes
+     * derived indexes rebuild.
+     */
+    @Test
+    public void testSetQuantizationReloads() {
+        HashMap<Integer, float[]> stored = new HashMap<>();
+        stored.put(1, new float[]{1f, 0f});
+        stored.put(2, new float[]{0f, 1f});
+        ProjectVectorIndex index = new ProjectVectorIndex(() -> stored);
+        long version = index.version();
+        index.put(3, new float[]{1f, 1f});
+        stored.put(3, new float[]{1f, 1f});
+
+        index.setQuantization(Quantization.FLOAT16);
+        assertEquals(Quantization.FLOAT16, index.getQuantization());
+        assertEquals(3, index.snapshot().size());
+        assertEquals(Quantization.FLOAT16, index.snapshot().quantization());
+        assertNull(index.changesSince(version));
+    }
+
+    private static void checkQuantization(Quantization quantization, int minSavings) {
+        Random random = new Random(42);
+        HashMap<Integer, float[]> stored = new HashMap<>();
+        for (int id = 1; id <= PROJECTS; id++) {
+            stored.put(id, randomVector(random));
+        }
+        EmbeddingSnapshot exact = new ProjectVectorIndex(() -> stored).snapshot();
+        ProjectVectorIndex quantizedIndex = new ProjectVectorIndex(() -> stored);
+        quantizedIndex.setQuantization(quantization);
+        EmbeddingSnapshot quantized = quantizedIndex.snapshot();
+
+        assertEquals(quantization, quantized.quantization());
+        assertEquals(PROJECTS, quantized.size());
+        assertTrue(exact.memoryBytes() / quantized.memoryBytes() >= minSavings);
+        for (int q = 0; q < 20; q++) {
+            float[] query = VectorMath.normalize(randomVector(random));
+            for (int id = 1; id <= PROJECTS; id++) {
+                assertEquals(score(exact, id, query), score(quantized, id, query), quantization.scoreError());
+            }
+        }
+    }
+
+    private static float score(EmbeddingSnapshot snapshot, int id, float[] query) {
+        return snapshot.score(row(snapshot, id), VectorMath.normalize(query));
+    }
+
+    private static float[] vector(EmbeddingSnapshot snapshot, int id) {
+        return snapshot.vectorAt(row(snapshot, id));
+    }
+
+    private static int row(EmbeddingSnapshot snapshot, int id) {
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (snapshot.idAt(row) == id) {
+                return row;
+            }
+        }
+        throw new AssertionError("project " + id + " is not indexed");
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
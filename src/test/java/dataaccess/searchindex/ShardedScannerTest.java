@@ -0,0 +1,124 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ShardedScanner class.
+ */
+public class ShardedScannerTest {
+    private static final int PROJECTS = 10_000;
+    private static final int DIMENSION = 16;
+
+    private ForkJoinPool pool;
+    private EmbeddingSnapshot snapshot;
+    private float[] query;
+
+    /**
+     * Sets up a snapshot of random embeddings, with some projects removed, before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        Random random = new Random(11);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        for (int id = 1; id <= PROJECTS; id++) {
+            embeddings.put(id, randomVector(random));
+        }
+        ProjectVectorIndex index = new ProjectVectorIndex(() -> embeddings);
+        index.load();
+        for (int id = 1; id <= PROJECTS; id += 7) {
+            index.remove(id);
+        }
+        snapshot = index.snapshot();
+        query = VectorMath.normalize(randomVector(random));
+    }
+
+    /**
+     * Shuts the pool down after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Tests that the sharded top k is the same as the top k scored on the calling thread.
+     */
+    @Test
+    public void testTopKMatchesSequential() {
+        ShardedScanner sequential = new ShardedScanner(pool, Integer.MAX_VALUE);
+        ShardedScanner parallel = new ShardedScanner(pool, 0);
+        ScoredIds expected = sequential.topK(snapshot, query, 25, -1f);
+        ScoredIds actual = parallel.topK(snapshot, query, 25, -1f);
+        assertEquals(25, actual.size());
+        assertArrayEquals(expected.ids(), actual.ids());
+        assertArrayEquals(expected.scores(), actual.scores());
+        for (int projectId : actual.ids()) {
+            assertNotEquals(1, projectId % 7, "removed project " + projectId + " returned");
+        }
+    }
+
+    /**
+     * Tests that the minimum score is applied across shards.
+     */
+    @Test
+    public void testTopKMinScore() {
+        ScoredIds result = new ShardedScanner(pool, 0).topK(snapshot, query, PROJECTS, 0.5f);
+        for (float score : result.scores()) {
+            assertTrue(score >= 0.5f);
+        }
+        assertEquals(new ShardedScanner(pool, Integer.MAX_VALUE).topK(snapshot, query, PROJECTS, 0.5f).size(),
+                result.size());
+    }
+
+    /**
+     * Tests that a filtered scan returns the best of the given projects, in shards and on the calling thread.
+     */
+    @Test
+    public void testTopKFiltered() {
+        ProjectIdBitmap projectIds = new ProjectIdBitmap();
+        for (int id = 3; id <= PROJECTS; id += 5) {
+            projectIds.add(id);
+        }
+        TopKCollector collector = new TopKCollector(25, -1f);
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            if (projectIds.contains(snapshot.idAt(row))) {
+                collector.offer(snapshot.score(row, query), snapshot.idAt(row));
+            }
+        }
+        ScoredIds expected = collector.result();
+        for (int threshold : new int[]{0, Integer.MAX_VALUE}) {
+            ScoredIds actual = new ShardedScanner(pool, threshold).topK(snapshot, query, 25, -1f, projectIds);
+            assertEquals(25, actual.size());
+            assertArrayEquals(expected.ids(), actual.ids());
+            assertArrayEquals(expected.scores(), actual.scores());
+        }
+        assertEquals(0, new ShardedScanner(pool, 0).topK(snapshot, query, 25, -1f, new ProjectIdBitmap()).size());
+    }
+
+    /**
+     * Tests that scoring every row in shards gives the same scores as scoring them on the calling thread.
+     */
+    @Test
+    public void testScoreAllMatchesSequential() {
+        float[] expected = new ShardedScanner(pool, Integer.MAX_VALUE).scoreAll(snapshot, query);
+        float[] actual = new ShardedScanner(pool, 0).scoreAll(snapshot, query);
+        assertArrayEquals(expected, actual);
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
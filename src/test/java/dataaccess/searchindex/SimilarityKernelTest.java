@@ -0,0 +1,87 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SimilarityKernel implementations.
+ */
+public class SimilarityKernelTest {
+    private static final int[] DIMENSIONS = {1, 7, 16, 33, 1536};
+
+    /**
+     * Tests that the scalar kernel matches the original cosine similarity.
+     */
+    @Test
+    public void testScalarKernel() {
+        assertMatchesCosineSimilarity(new ScalarSimilarityKernel());
+    }
+
+    /**
+     * Tests that the Vector API kernel matches the original cosine similarity.
+     */
+    @Test
+    public void testVectorKernel() {
+        assertMatchesCosineSimilarity(new VectorSimilarityKernel());
+    }
+
+    /**
+     * Tests that the Vector API kernel is picked when the module is present.
+     */
+    @Test
+    public void testDetectKernel() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorModule, VectorMath.detectKernel() instanceof VectorSimilarityKernel);
+    }
+
+    /**
+     * Tests that the kernels read the row at the given offset.
+     */
+    @Test
+    public void testOffset() {
+        float[] query = {1f, 2f, 3f};
+        float[] matrix = {9f, 9f, 9f, 1f, 0f, 2f};
+        assertEquals(7f, new ScalarSimilarityKernel().dot(query, matrix, 3));
+        assertEquals(7f, new VectorSimilarityKernel().dot(query, matrix, 3));
+    }
+
+    private static void assertMatchesCosineSimilarity(SimilarityKernel kernel) {
+        Random random = new Random(7);
+        for (int dimension : DIMENSIONS) {
+            for (int trial = 0; trial < 20; trial++) {
+                float[] a = randomVector(random, dimension);
+                float[] b = randomVector(random, dimension);
+                float[] matrix = new float[2 * dimension];
+                VectorMath.normalizeInto(b, matrix, dimension);
+
+                float expected = calcCosineSimilarity(a, b);
+                float actual = kernel.dot(VectorMath.normalize(a), matrix, dimension);
+                assertEquals(expected, actual, 1e-4f, kernel.name() + " at dimension " + dimension);
+            }
+        }
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    // The cosine similarity LocalProjectSearchObject used before the kernels were introduced
+    private static float calcCosineSimilarity(float[] vectorA, float[] vectorB) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < vectorA.length; i++) {
+            dotProduct += vectorA[i] * vectorB[i];
+            normA += Math.pow(vectorA[i], 2);
+            normB += Math.pow(vectorB[i], 2);
+        }
+        return (float) (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+}
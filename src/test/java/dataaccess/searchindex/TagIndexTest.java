@@ -0,0 +1,106 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TagIndex class.
+ */
+public class TagIndexTest {
+    private TagIndex index;
+
+    /**
+     * Indexes four projects: 1 Java Backend, 2 Java Games, 3 Python Backend, 4 without tags.
+     */
+    @BeforeEach
+    public void setUp() {
+        index = new TagIndex();
+        index.put(1, List.of("Java", "Backend"));
+        index.put(2, List.of("Java", "Games"));
+        index.put(3, List.of("Python", "Backend"));
+        index.put(4, null);
+    }
+
+    /**
+     * Tests AND, OR and NOT queries.
+     */
+    @Test
+    public void testFilter() {
+        assertArrayEquals(new int[]{1}, index.filter(TagFilter.allOf("Java", "Backend")).toArray());
+        assertArrayEquals(new int[]{1, 2, 3}, index.filter(TagFilter.anyOf("Java", "Python")).toArray());
+        assertArrayEquals(new int[]{3, 4}, index.filter(new TagFilter(null, null, Set.of("Java"))).toArray());
+        assertArrayEquals(new int[]{2}, index.filter(new TagFilter(Set.of("Java"), null, Set.of("Backend"))).toArray());
+        assertArrayEquals(new int[]{1, 3}, index.filter(new TagFilter(null, Set.of("Backend", "Rust"), null)).toArray());
+        assertTrue(index.filter(TagFilter.allOf("Java", "Rust")).isEmpty());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, index.filter(TagFilter.NONE).toArray());
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * Tests that filter results can be changed without changing the index.
+     */
+    @Test
+    public void testFilterReturnsCopies() {
+        index.filter(TagFilter.allOf("Java")).add(3);
+        index.filter(TagFilter.NONE).remove(1);
+        assertArrayEquals(new int[]{1, 2}, index.filter(TagFilter.allOf("Java")).toArray());
+        assertArrayEquals(new int[]{1, 2, 3, 4}, index.filter(TagFilter.NONE).toArray());
+    }
+
+    /**
+     * Tests facet counts over every project and over the projects matching a filter.
+     */
+    @Test
+    public void testFacetCounts() {
+        assertEquals(List.of(Map.entry("Backend", 2), Map.entry("Java", 2), Map.entry("Games", 1), Map.entry("Python", 1)),
+                List.copyOf(index.facetCounts(TagFilter.NONE).entrySet()));
+        assertEquals(Map.of("Java", 2, "Backend", 1, "Games", 1), index.facetCounts(TagFilter.allOf("Java")));
+        assertTrue(index.facetCounts(TagFilter.allOf("Rust")).isEmpty());
+    }
+
+    /**
+     * Tests that writes replace the tags of a project and removals drop it.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        index.put(2, List.of("Kotlin", "Games"));
+        assertArrayEquals(new int[]{1}, index.filter(TagFilter.allOf("Java")).toArray());
+        assertArrayEquals(new int[]{2}, index.filter(TagFilter.allOf("Kotlin")).toArray());
+
+        index.remove(3);
+        assertArrayEquals(new int[]{1}, index.filter(TagFilter.allOf("Backend")).toArray());
+        assertFalse(index.facetCounts(TagFilter.NONE).containsKey("Python"));
+        assertArrayEquals(new int[]{1, 2, 4}, index.filter(TagFilter.NONE).toArray());
+    }
+
+    /**
+     * Tests that an index with a loader reads storage on first use and ignores earlier writes, which storage
+     * already holds.
+     */
+    @Test
+    public void testLoader() {
+        HashMap<Integer, Set<String>> stored = new HashMap<>();
+        stored.put(5, Set.of("Java"));
+        stored.put(6, Set.of());
+        int[] loads = {0};
+        TagIndex loaded = new TagIndex(() -> {
+            loads[0]++;
+            return stored;
+        });
+        loaded.put(5, List.of("Java"));
+        assertEquals(0, loads[0]);
+
+        assertArrayEquals(new int[]{5}, loaded.filter(TagFilter.allOf("Java")).toArray());
+        assertArrayEquals(new int[]{6}, loaded.filter(new TagFilter(null, null, Set.of("Java"))).toArray());
+        loaded.put(6, List.of("Java"));
+        assertArrayEquals(new int[]{5, 6}, loaded.filter(TagFilter.allOf("Java")).toArray());
+        assertEquals(1, loads[0]);
+    }
+}
@@ -0,0 +1,78 @@
+package dataaccess.searchindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TopKCollector class.
+ */
+public class TopKCollectorTest {
+
+    /**
+     * Tests that the collector keeps the k best pairs, best first.
+     */
+    @Test
+    public void testKeepsBestK() {
+        Random random = new Random(3);
+        float[] scores = new float[1000];
+        TopKCollector collector = new TopKCollector(10, Float.NEGATIVE_INFINITY);
+        for (int id = 0; id < scores.length; id++) {
+            scores[id] = random.nextFloat();
+            collector.offer(scores[id], id);
+        }
+        ScoredIds result = collector.result();
+
+        float[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        assertEquals(10, result.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(sorted[sorted.length - 1 - i], result.scores()[i]);
+            assertEquals(result.scores()[i], scores[result.ids()[i]]);
+        }
+    }
+
+    /**
+     * Tests that pairs below the minimum score are dropped, and that the minimum score itself is kept.
+     */
+    @Test
+    public void testMinScore() {
+        TopKCollector collector = new TopKCollector(10, 0.5f);
+        collector.offer(0.4f, 1);
+        collector.offer(0.5f, 2);
+        collector.offer(0.9f, 3);
+        collector.offer(Float.NaN, 4);
+        ScoredIds result = collector.result();
+        assertArrayEquals(new int[]{3, 2}, result.ids());
+    }
+
+    /**
+     * Tests that merging collectors gives the same result as a single collector.
+     */
+    @Test
+    public void testMerge() {
+        TopKCollector first = new TopKCollector(3, 0f);
+        TopKCollector second = new TopKCollector(3, 0f);
+        first.offer(0.1f, 1);
+        first.offer(0.8f, 2);
+        first.offer(0.5f, 3);
+        second.offer(0.9f, 4);
+        second.offer(0.2f, 5);
+        first.merge(second);
+        assertEquals(0, second.size());
+        assertArrayEquals(new int[]{4, 2, 3}, first.result().ids());
+    }
+
+    /**
+     * Tests that a collector for no pairs stays empty.
+     */
+    @Test
+    public void testZeroK() {
+        TopKCollector collector = new TopKCollector(0, Float.NEGATIVE_INFINITY);
+        collector.offer(1f, 1);
+        assertEquals(0, collector.result().size());
+    }
+}
@@ -6,6 +6,8 @@ import usecase.manageapplications.ManageApplicationsController;
 import usecase.manageapplications.acceptapplication.AcceptApplicationInputBoundary;
 import usecase.manageapplications.getapplications.GetApplicationsInputBoundary;
 import usecase.manageapplications.rejectapplication.RejectApplicationInputBoundary;
+import usecase.manageapplications.suggestteam.SuggestTeamInputBoundary;
+import usecase.manageapplications.suggestteam.SuggestTeamInputData;
 
 import static org.mockito.Mockito.*;
 
@@ -14,14 +16,16 @@ public class ManageApplicationControllerTest {
     private GetApplicationsInputBoundary getApplicationsInteractor;
     private AcceptApplicationInputBoundary acceptApplicationInteractor;
     private RejectApplicationInputBoundary rejectApplicationInteractor;
+    private SuggestTeamInputBoundary suggestTeamInteractor;
 
     @BeforeEach
     public void setUp() {
         getApplicationsInteractor = mock(GetApplicationsInputBoundary.class);
         acceptApplicationInteractor = mock(AcceptApplicationInputBoundary.class);
         rejectApplicationInteractor = mock(RejectApplicationInputBoundary.class);
+        suggestTeamInteractor = mock(SuggestTeamInputBoundary.class);
         controller = new ManageApplicationsController(getApplicationsInteractor, acceptApplicationInteractor,
-                                                      rejectApplicationInteractor);
+                                                      rejectApplicationInteractor, suggestTeamInteractor);
     }
 
     @Test
@@ -41,4 +45,10 @@ public class ManageApplicationControllerTest {
         controller.acceptApplicant(1, 1);
         verify(acceptApplicationInteractor, times(1)).acceptApplicant(any());
     }
+
+    @Test
+    public void testCallSuggestTeamInteractor() {
+        controller.suggestTeam(1);
+        verify(suggestTeamInteractor, times(1)).suggestTeam(new SuggestTeamInputData(1));
+    }
 }
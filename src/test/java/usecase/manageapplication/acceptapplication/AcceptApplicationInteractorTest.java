@@ -57,7 +57,7 @@ public class AcceptApplicationInteractorTest {
         acceptApplicationPresenter = new AcceptApplicationPresenter(viewModel);
         interactor = new AcceptApplicationInteractor(acceptApplicationPresenter, applicationRepository,
                                                      userProjectsRepository, userRepository);
-        controller = new ManageApplicationsController(null, interactor, null);
+        controller = new ManageApplicationsController(null, interactor, null, null);
     }
 
     /**
@@ -48,7 +48,7 @@ public class RejectApplicationInteractorTest {
         viewModel = mock(DisplayProjectApplicationViewModel.class);
         rejectApplicationPresenter = new RejectApplicationPresenter(viewModel);
         interactor = new RejectApplicationInteractor(rejectApplicationPresenter, applicationRepository, userRepository);
-        controller = new ManageApplicationsController(null, null, interactor);
+        controller = new ManageApplicationsController(null, null, interactor, null);
     }
 
     /**
@@ -0,0 +1,113 @@
+package usecase.manageapplication.suggestteam;
+
+import dataaccess.IApplicationRepository;
+import dataaccess.IProjectRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import entities.Project;
+import entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.manageapplications.suggestteam.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class SuggestTeamInteractorTest {
+    private SuggestTeamInputBoundary interactor;
+    private SuggestTeamOutputBoundary presenter;
+    private IProjectRepository projectRepository;
+    private IApplicationRepository applicationRepository;
+    private IUserProjectsRepository userProjectsRepository;
+    private IUserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        applicationRepository = mock(IApplicationRepository.class);
+        userProjectsRepository = mock(IUserProjectsRepository.class);
+        userRepository = mock(IUserRepository.class);
+        presenter = mock(SuggestTeamOutputBoundary.class);
+        interactor = new SuggestTeamInteractor(presenter, projectRepository, applicationRepository,
+                                               userProjectsRepository, userRepository, new TeamFormationSolver(null));
+
+        Project project = new Project(1, "Project", 100, "Description", new HashSet<>(List.of("Java")));
+        when(projectRepository.getProjectById(1)).thenReturn(project);
+        when(projectRepository.getAllProjects()).thenReturn(new HashMap<>(Map.of(1, project)));
+        when(userRepository.getAllUsers()).thenReturn(new HashMap<>(Map.of(
+                2, new User(2, "Ada", "Lovelace", "ada@test.com", new HashSet<>(List.of("Java")), 60),
+                3, new User(3, "Alan", "Turing", "alan@test.com", new HashSet<>(List.of("Python")), 50),
+                4, new User(4, "Grace", "Hopper", "grace@test.com", new HashSet<>(), 40))));
+    }
+
+    /**
+     * Tests that the budget already paid to members is left out and the applicant sharing the project tags is
+     * suggested.
+     */
+    @Test
+    void testSuggestsWithinRemainingBudget() {
+        when(applicationRepository.getAllApplicantIds())
+                .thenReturn(new HashMap<>(Map.of(1, new HashSet<>(List.of(2, 3)))));
+        when(userProjectsRepository.getAllUserIds()).thenReturn(new HashMap<>(Map.of(1, new HashSet<>(List.of(4)))));
+
+        interactor.suggestTeam(new SuggestTeamInputData(1));
+        verify(presenter).prepareSuccessView(new SuggestTeamOutputData(1, new HashSet<>(List.of(2))));
+    }
+
+    @Test
+    void testNoApplications() {
+        interactor.suggestTeam(new SuggestTeamInputData(1));
+        verify(presenter).prepareSuccessView(new SuggestTeamOutputData(1, new HashSet<>()));
+    }
+
+    @Test
+    void testProjectNotFound() {
+        interactor.suggestTeam(new SuggestTeamInputData(9));
+        verify(presenter).prepareFailView("Project not found.");
+    }
+
+    /**
+     * Tests that the suggestions are loaded and solved once while the data stays the same, and again after a
+     * repository is written to.
+     */
+    @Test
+    void testSuggestionsKeptUntilDataChanges() {
+        when(applicationRepository.getAllApplicantIds())
+                .thenReturn(new HashMap<>(Map.of(1, new HashSet<>(List.of(2)))));
+
+        interactor.suggestTeam(new SuggestTeamInputData(1));
+        interactor.suggestTeam(new SuggestTeamInputData(1));
+        verify(projectRepository, times(1)).getAllProjects();
+        verify(applicationRepository, times(1)).getAllApplicantIds();
+
+        when(applicationRepository.getDataVersion()).thenReturn(1L);
+        interactor.suggestTeam(new SuggestTeamInputData(1));
+        verify(applicationRepository, times(2)).getAllApplicantIds();
+        verify(presenter, times(3)).prepareSuccessView(new SuggestTeamOutputData(1, new HashSet<>(List.of(2))));
+        verify(userRepository, never()).getUserById(anyInt());
+    }
+
+    /**
+     * Tests that teams are suggested on the background executor when there is one.
+     */
+    @Test
+    void testSuggestsInBackground() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        interactor = new SuggestTeamInteractor(presenter, projectRepository, applicationRepository,
+                                               userProjectsRepository, userRepository, new TeamFormationSolver(null),
+                                               executor);
+
+        interactor.suggestTeam(new SuggestTeamInputData(1));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+        verify(presenter).prepareSuccessView(new SuggestTeamOutputData(1, new HashSet<>()));
+    }
+}
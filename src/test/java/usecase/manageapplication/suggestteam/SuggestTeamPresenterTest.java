@@ -0,0 +1,39 @@
+package usecase.manageapplication.suggestteam;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.manageapplications.suggestteam.SuggestTeamOutputData;
+import usecase.manageapplications.suggestteam.SuggestTeamPresenter;
+import viewmodel.DisplayProjectApplicationViewModel;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class SuggestTeamPresenterTest {
+    private SuggestTeamPresenter suggestTeamPresenter;
+    private DisplayProjectApplicationViewModel viewModel;
+
+    @BeforeEach
+    public void setUp() {
+        viewModel = mock(DisplayProjectApplicationViewModel.class);
+        suggestTeamPresenter = new SuggestTeamPresenter(viewModel);
+    }
+
+    @Test
+    void testPrepareSuccessView() {
+        SuggestTeamOutputData outputData = new SuggestTeamOutputData(1, new HashSet<>(List.of(2, 3)));
+
+        suggestTeamPresenter.prepareSuccessView(outputData);
+
+        verify(viewModel, times(1)).suggestionResult(outputData);
+    }
+
+    @Test
+    void testPrepareFailView() {
+        suggestTeamPresenter.prepareFailView("Error message");
+
+        verify(viewModel, times(1)).suggestionError("Error message");
+    }
+}
@@ -0,0 +1,163 @@
+package usecase.manageapplication.suggestteam;
+
+import org.junit.jupiter.api.Test;
+import usecase.manageapplications.suggestteam.TeamAssignment;
+import usecase.manageapplications.suggestteam.TeamFormationProblem;
+import usecase.manageapplications.suggestteam.TeamFormationSolver;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TeamFormationSolver class.
+ */
+public class TeamFormationSolverTest {
+    private final TeamFormationSolver solver = new TeamFormationSolver(null);
+
+    /**
+     * Tests that of two applicants the budget only fits one of, the one sharing more tags is suggested.
+     */
+    @Test
+    public void testPrefersMatchingTags() {
+        TeamFormationProblem problem = new TeamFormationProblem();
+        problem.addProject(1, 100, Set.of("Java"));
+        problem.addUser(1, 100, Set.of("Java"));
+        problem.addUser(2, 100, Set.of("Python"));
+        problem.addCandidate(2, 1);
+        problem.addCandidate(1, 1);
+
+        TeamAssignment assignment = solver.solve(problem);
+        assertArrayEquals(new int[]{1}, assignment.getTeam(1));
+        assertEquals(TeamAssignment.NO_PROJECT, assignment.getProjectId(2));
+        assertEquals(2.0, assignment.getTotalScore(), 1e-9);
+    }
+
+    /**
+     * Tests that the suggestions of a project fit its budget and that an applicant wanting more than the whole
+     * budget is never suggested.
+     */
+    @Test
+    public void testKeepsWithinBudget() {
+        TeamFormationProblem problem = new TeamFormationProblem();
+        problem.addProject(1, 100, Set.of());
+        double[] compensations = {60, 30, 30, 50, 150};
+        for (int userId = 1; userId <= compensations.length; userId++) {
+            problem.addUser(userId, compensations[userId - 1], Set.of());
+            problem.addCandidate(userId, 1);
+        }
+
+        TeamAssignment assignment = solver.solve(problem);
+        assertArrayEquals(new int[]{2, 3}, assignment.getTeam(1));
+        assertEquals(TeamAssignment.NO_PROJECT, assignment.getProjectId(5));
+    }
+
+    /**
+     * Tests that an applicant of several projects is suggested for only one of them.
+     */
+    @Test
+    public void testSuggestsUserOnce() {
+        TeamFormationProblem problem = new TeamFormationProblem();
+        problem.addProject(1, 100, Set.of());
+        problem.addProject(2, 100, Set.of());
+        problem.addUser(1, 10, Set.of());
+        problem.addCandidate(1, 1);
+        problem.addCandidate(1, 2);
+
+        TeamAssignment assignment = solver.solve(problem);
+        assertEquals(1, assignment.size());
+        assertEquals(1, assignment.getProjectId(1));
+        assertArrayEquals(new int[0], assignment.getTeam(2));
+    }
+
+    /**
+     * Tests that the local search moves a suggested user to their second best project when this makes room for
+     * an applicant who has no other project.
+     */
+    @Test
+    public void testMovesUserToMakeRoom() {
+        TeamFormationProblem problem = new TeamFormationProblem();
+        problem.addProject(1, 50, Set.of("A", "B"));
+        problem.addProject(2, 50, Set.of("A", "B", "C", "D"));
+        problem.addUser(1, 50, Set.of("A", "B"));   // scores 2 for project 1 and 1.5 for project 2
+        problem.addUser(2, 50, Set.of("A"));        // scores 1.5 for project 1
+        problem.addCandidate(1, 1);
+        problem.addCandidate(1, 2);
+        problem.addCandidate(2, 1);
+
+        TeamAssignment assignment = solver.solve(problem);
+        assertArrayEquals(new int[]{2}, assignment.getTeam(1));
+        assertArrayEquals(new int[]{1}, assignment.getTeam(2));
+        assertEquals(3.0, assignment.getTotalScore(), 1e-9);
+    }
+
+    /**
+     * Tests that candidates must refer to added users and projects.
+     */
+    @Test
+    public void testUnknownCandidate() {
+        TeamFormationProblem problem = new TeamFormationProblem();
+        problem.addProject(1, 100, Set.of());
+        assertThrows(IllegalArgumentException.class, () -> problem.addCandidate(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> problem.addProject(1, 100, Set.of()));
+    }
+
+    /**
+     * Tests that solving the components concurrently gives the same suggestions as solving them one by one, and
+     * that the suggestions of a large problem keep every budget.
+     */
+    @Test
+    public void testConcurrentSolveMatchesSequential() {
+        Random random = new Random(42);
+        List<String> tags = List.of("Java", "Python", "Web", "Games", "ML", "Mobile", "Cloud", "Security");
+        TeamFormationProblem problem = new TeamFormationProblem();
+        HashMap<Integer, Double> budgets = new HashMap<>();
+        HashMap<Integer, Double> compensations = new HashMap<>();
+        for (int projectId = 1; projectId <= 20_000; projectId++) {
+            budgets.put(projectId, random.nextDouble() * 300);
+            problem.addProject(projectId, budgets.get(projectId), randomTags(random, tags));
+        }
+        for (int userId = 1; userId <= 20_000; userId++) {
+            compensations.put(userId, random.nextDouble() * 100);
+            problem.addUser(userId, compensations.get(userId), randomTags(random, tags));
+            for (int application = random.nextInt(3); application >= 0; application--) {
+                problem.addCandidate(userId, 1 + random.nextInt(20_000));
+            }
+        }
+
+        TeamAssignment sequential = solver.solve(problem);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TeamAssignment concurrent = new TeamFormationSolver(pool).solve(problem);
+        pool.shutdown();
+
+        assertEquals(sequential.getTotalScore(), concurrent.getTotalScore(), 1e-9);
+        assertEquals(sequential.size(), concurrent.size());
+        int suggested = 0;
+        for (int projectId = 1; projectId <= 20_000; projectId++) {
+            int[] team = concurrent.getTeam(projectId);
+            assertArrayEquals(sequential.getTeam(projectId), team);
+            double compensation = 0;
+            for (int userId : team) {
+                assertEquals(projectId, concurrent.getProjectId(userId));
+                compensation += compensations.get(userId);
+            }
+            assertTrue(compensation <= budgets.get(projectId) + 1e-6);
+            suggested += team.length;
+        }
+        assertEquals(concurrent.size(), suggested);
+        assertTrue(suggested > 0);
+    }
+
+    private static Set<String> randomTags(Random random, List<String> tags) {
+        HashSet<String> picked = new HashSet<>();
+        for (int tag = random.nextInt(4); tag > 0; tag--) {
+            picked.add(tags.get(random.nextInt(tags.size())));
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,177 @@
+package usecase.manageprojects;
+
+import api.embeddingapi.ContentHash;
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ProjectEmbeddingPipeline class.
+ * The embedding of a text is {length of the text}.
+ */
+public class ProjectEmbeddingPipelineTest {
+    private static final String MODEL_ID = "text-length";
+
+    private IProjectRepository projectRepository;
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger failures = new AtomicInteger();
+    private ProjectEmbeddingPipeline pipeline;
+
+    /**
+     * Sets up a repository that accepts every embedding and an embedding API that waits for the test to release
+     * it and fails as many times as the test asks.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        when(projectRepository.updateEmbedding(anyInt(), any(), any())).thenReturn(true);
+        EmbeddingAPIInterface embeddingAPI = new EmbeddingAPIInterface() {
+            @Override
+            public String getModelId() {
+                return MODEL_ID;
+            }
+
+            @Override
+            public float[] getEmbedData(String text) {
+                throw new AssertionError("projects must be embedded in batches");
+            }
+
+            @Override
+            public List<float[]> getEmbedData(List<String> texts) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                batches.add(List.copyOf(texts));
+                if (failures.getAndDecrement() > 0) {
+                    throw new RuntimeException("unavailable");
+                }
+                return texts.stream().map(text -> new float[]{text.length()}).toList();
+            }
+        };
+        pipeline = new ProjectEmbeddingPipeline(projectRepository, embeddingAPI, 1, 10, 3, 1);
+    }
+
+    /**
+     * Stops the pipeline after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    /**
+     * Tests that projects are pending until their embeddings are stored, and that projects queued while the
+     * worker is busy are embedded together.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testBatching() throws InterruptedException {
+        for (int id = 1; id <= 5; id++) {
+            pipeline.submit(id, "x".repeat(id));
+        }
+        assertEquals(Set.of(1, 2, 3, 4, 5), pipeline.getPendingProjectIds());
+        assertTrue(pipeline.isPending(3));
+        release.countDown();
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertTrue(pipeline.getPendingProjectIds().isEmpty());
+        assertTrue(batches.size() < 5);
+        assertEquals(5, batches.stream().mapToInt(List::size).sum());
+        verify(projectRepository, times(5)).updateEmbedding(anyInt(), any(), any());
+        verify(projectRepository).updateEmbedding(eq(4), eq(ContentHash.of(MODEL_ID, "xxxx")), argThat(embedding -> embedding[0] == 4f));
+    }
+
+    /**
+     * Tests that only the latest text of a project submitted twice is stored.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testResubmission() throws InterruptedException {
+        pipeline.submit(1, "first");
+        pipeline.submit(1, "second text");
+        release.countDown();
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertFalse(pipeline.isPending(1));
+        verify(projectRepository).updateEmbedding(eq(1), eq(ContentHash.of(MODEL_ID, "second text")), argThat(embedding -> embedding[0] == 11f));
+        verify(projectRepository, times(1)).updateEmbedding(anyInt(), any(), any());
+    }
+
+    /**
+     * Tests that failed batches are retried, and that projects stay pending once every attempt failed.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testRetries() throws InterruptedException {
+        release.countDown();
+        failures.set(2);
+        pipeline.submit(1, "text");
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(3, batches.size());
+        assertFalse(pipeline.isPending(1));
+        verify(projectRepository).updateEmbedding(eq(1), any(), any());
+
+        failures.set(3);
+        pipeline.submit(2, "text");
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(6, batches.size());
+        assertTrue(pipeline.isPending(2));
+        verify(projectRepository, never()).updateEmbedding(eq(2), any(), any());
+    }
+
+    /**
+     * Tests that a text with a stored embedding reuses it without calling the embedding API.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testStoredEmbeddingReused() throws InterruptedException {
+        float[] stored = {0.5f, 0.5f};
+        when(projectRepository.getEmbeddingByContentHash(ContentHash.of(MODEL_ID, "shared"))).thenReturn(stored);
+        pipeline.submit(1, "shared");
+        pipeline.submit(2, "other");
+        release.countDown();
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(List.of("other")), batches);
+        verify(projectRepository).updateEmbedding(1, ContentHash.of(MODEL_ID, "shared"), stored);
+        assertTrue(pipeline.getPendingProjectIds().isEmpty());
+    }
+
+    /**
+     * Tests that a cancelled project is not stored.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        pipeline.submit(1, "text");
+        pipeline.cancel(1);
+        assertFalse(pipeline.isPending(1));
+        release.countDown();
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        verify(projectRepository, never()).updateEmbedding(anyInt(), any(), any());
+    }
+}
@@ -1,21 +1,31 @@
 package usecase.manageprojects.createproject;
 
+import api.embeddingapi.ContentHash;
 import api.embeddingapi.EmbeddingAPIInterface;
 import dataaccess.IProjectRepository;
 import dataaccess.IUserProjectsRepository;
 import entities.Project;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import usecase.manageprojects.ProjectEmbeddingPipeline;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for the CreateProjectInteractor class.
  */
 public class CreateProjectInteractorTest {
+    private static final String MODEL_ID = "test-model";
 
     private IProjectRepository mockProjectRepository;
     private IUserProjectsRepository mockUserProjectsRepository;
@@ -33,6 +43,7 @@ public class CreateProjectInteractorTest {
         mockUserProjectsRepository = mock(IUserProjectsRepository.class);
         mockProjectPresenter = mock(CreateProjectOutputBoundary.class);
         mockEmbeddingAPI = mock(EmbeddingAPIInterface.class);
+        when(mockEmbeddingAPI.getModelId()).thenReturn(MODEL_ID);
         interactor = new CreateProjectInteractor(mockProjectRepository, mockUserProjectsRepository,
                                                  mockProjectPresenter, mockEmbeddingAPI);
     }
@@ -47,7 +58,7 @@ public class CreateProjectInteractorTest {
         float[] embeddings = new float[]{0.1f, 0.2f, 0.3f};
 
         when(mockEmbeddingAPI.getEmbedData("Description")).thenReturn(embeddings);
-        when(mockProjectRepository.createProject("Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")), embeddings, 1)).thenReturn(null);
+        when(mockProjectRepository.createProject("Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")), embeddings, ContentHash.of(MODEL_ID, "Description"), 1)).thenReturn(null);
 
         interactor.createProject(inputData);
 
@@ -65,7 +76,7 @@ public class CreateProjectInteractorTest {
         Project project = new Project(1, "Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")));
 
         when(mockEmbeddingAPI.getEmbedData("Description")).thenReturn(embeddings);
-        when(mockProjectRepository.createProject("Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")), embeddings, 1)).thenReturn(project);
+        when(mockProjectRepository.createProject("Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")), embeddings, ContentHash.of(MODEL_ID, "Description"), 1)).thenReturn(project);
 
         interactor.createProject(inputData);
 
@@ -77,4 +88,54 @@ public class CreateProjectInteractorTest {
                 outputData.getDescription().equals("Description") &&
                 outputData.getTags().equals(new HashSet<>(Arrays.asList("tag1", "tag2")))));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that a project created with an embedding pipeline is saved without an embedding,
+     * and that the pipeline stores its embedding afterwards.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void createProjectEmbedsInBackground() throws InterruptedException {
+        ProjectEmbeddingPipeline pipeline = new ProjectEmbeddingPipeline(mockProjectRepository, mockEmbeddingAPI, 1, 10, 1, 1);
+        interactor = new CreateProjectInteractor(mockProjectRepository, mockUserProjectsRepository, mockProjectPresenter, pipeline);
+        CreateProjectInputData inputData = new CreateProjectInputData("Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")), 1);
+        float[] embeddings = new float[]{0.1f, 0.2f, 0.3f};
+        Project project = new Project(1, "Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")));
+
+        when(mockProjectRepository.createProject(anyString(), anyDouble(), anyString(), any(), argThat(e -> e.length == 0), any(), anyInt())).thenReturn(project);
+        when(mockEmbeddingAPI.getEmbedData(List.of("Description"))).thenReturn(List.of(embeddings));
+        when(mockProjectRepository.updateEmbedding(1, ContentHash.of(MODEL_ID, "Description"), embeddings)).thenReturn(true);
+
+        interactor.createProject(inputData);
+
+        verify(mockProjectPresenter).prepareSuccessView(argThat(outputData -> outputData.getProjectId() == 1));
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        verify(mockProjectRepository).updateEmbedding(1, ContentHash.of(MODEL_ID, "Description"), embeddings);
+        verify(mockEmbeddingAPI, never()).getEmbedData("Description");
+        pipeline.shutdown();
+    }
+
+    /**
+     * Tests that a project with the same description as a stored project reuses its embedding,
+     * without calling the embedding API or the pipeline.
+     */
+    @Test
+    void createProjectReusesEmbeddingOfSameDescription() {
+        ProjectEmbeddingPipeline pipeline = mock(ProjectEmbeddingPipeline.class);
+        when(pipeline.getModelId()).thenReturn(MODEL_ID);
+        interactor = new CreateProjectInteractor(mockProjectRepository, mockUserProjectsRepository, mockProjectPresenter, pipeline);
+        CreateProjectInputData inputData = new CreateProjectInputData("Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")), 1);
+        float[] embeddings = new float[]{0.1f, 0.2f, 0.3f};
+        Project project = new Project(2, "Title", 1000.0, "Description", new HashSet<>(Arrays.asList("tag1", "tag2")));
+
+        when(mockProjectRepository.getEmbeddingByContentHash(ContentHash.of(MODEL_ID, "Description"))).thenReturn(embeddings);
+        when(mockProjectRepository.createProject(anyString(), anyDouble(), anyString(), any(), eq(embeddings), eq(ContentHash.of(MODEL_ID, "Description")), anyInt())).thenReturn(project);
+
+        interactor.createProject(inputData);
+
+        verify(mockProjectPresenter).prepareSuccessView(argThat(outputData -> outputData.getProjectId() == 2));
+        verify(pipeline, never()).submit(anyInt(), anyString());
+        verifyNoInteractions(mockEmbeddingAPI);
+    }
+}
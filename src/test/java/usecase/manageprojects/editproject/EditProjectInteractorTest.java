@@ -1,5 +1,6 @@
 package usecase.manageprojects.editproject;
 
+import api.embeddingapi.ContentHash;
 import api.embeddingapi.EmbeddingAPIInterface;
 import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.IProjectRepository;
@@ -8,13 +9,17 @@ import entities.Project;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
+import usecase.manageprojects.ProjectEmbeddingPipeline;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -22,6 +27,7 @@ import static org.mockito.Mockito.*;
  * Unit tests for the EditProjectInteractor class.
  */
 public class EditProjectInteractorTest {
+    private static final String MODEL_ID = "test-model";
 
     private static EditProjectOutputBoundary editPresenter;
     private static IProjectRepository projectDAO;
@@ -45,6 +51,7 @@ public class EditProjectInteractorTest {
     public void setUp() throws IOException {
         projectDAO = mock(LocalProjectRepository.class);
         apiInterface = mock(OpenAPIDataEmbed.class);
+        when(apiInterface.getModelId()).thenReturn(MODEL_ID);
         editPresenter = mock(EditProjectOutputBoundary.class);
         editProjectInteractor = new EditProjectInteractor(projectDAO, editPresenter, apiInterface);
         for (String[] project : dummyProjects) {
@@ -75,7 +82,7 @@ public class EditProjectInteractorTest {
         when(projectDAO.getOwnerId(projectId)).thenReturn(ownerId);
         EditProjectInputData inputData = createMockData(projectId);
         when(apiInterface.getEmbedData(ArgumentMatchers.anyString())).thenReturn(randomEmbedding());
-        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), any())).thenReturn(true);
+        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), any(), any())).thenReturn(true);
         editProjectInteractor.editProject(inputData);
 
         // capture the output data
@@ -114,13 +121,76 @@ public class EditProjectInteractorTest {
         when(projectDAO.getOwnerId(projectId)).thenReturn(ownerId);
         EditProjectInputData inputData = createMockData(projectId);
         when(apiInterface.getEmbedData(ArgumentMatchers.anyString())).thenReturn(randomEmbedding());
-        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), any())).thenReturn(false);
+        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), any(), any())).thenReturn(false);
         editProjectInteractor.editProject(inputData);
 
         // verify that the presenter prepares a fail view
         verify(editPresenter).prepareFailView(notNull());
     }
 
+    /**
+     * Tests that a project edited with an embedding pipeline is saved without an embedding,
+     * and that the pipeline stores its new embedding afterwards.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testEditProjectsInBackground() throws InterruptedException {
+        ProjectEmbeddingPipeline pipeline = new ProjectEmbeddingPipeline(projectDAO, apiInterface, 1, 10, 1, 1);
+        EditProjectInteractor interactor = new EditProjectInteractor(projectDAO, editPresenter, pipeline);
+        int projectId = 1;
+        when(projectDAO.getOwnerId(projectId)).thenReturn(0);
+        EditProjectInputData inputData = createMockData(projectId);
+        float[] embedding = randomEmbedding();
+        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), argThat(e -> e.length == 0), any())).thenReturn(true);
+        when(apiInterface.getEmbedData(List.of(inputData.getDescription()))).thenReturn(List.of(embedding));
+        when(projectDAO.updateEmbedding(projectId, ContentHash.of(MODEL_ID, inputData.getDescription()), embedding)).thenReturn(true);
+
+        interactor.editProject(inputData);
+
+        verify(editPresenter).prepareSuccessView(any());
+        assertTrue(pipeline.awaitIdle(5, TimeUnit.SECONDS));
+        verify(projectDAO).updateEmbedding(projectId, ContentHash.of(MODEL_ID, inputData.getDescription()), embedding);
+        pipeline.shutdown();
+    }
+
+    /**
+     * Tests that editing a project without changing its description keeps the stored embedding
+     * and does not call the embedding API.
+     */
+    @Test
+    public void testEditProjectsKeepsEmbeddingOfSameDescription() {
+        int projectId = 1;
+        when(projectDAO.getOwnerId(projectId)).thenReturn(0);
+        EditProjectInputData inputData = createMockData(projectId);
+        when(projectDAO.getContentHash(projectId)).thenReturn(ContentHash.of(MODEL_ID, inputData.getDescription()));
+        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), isNull(), any())).thenReturn(true);
+
+        editProjectInteractor.editProject(inputData);
+
+        verify(editPresenter).prepareSuccessView(any());
+        verify(projectDAO).update(eq(projectId), any(), anyDouble(), any(), any(), isNull(), any());
+        verify(apiInterface, never()).getEmbedData(anyString());
+    }
+
+    /**
+     * Tests that editing a project to the description of another project reuses that project's embedding.
+     */
+    @Test
+    public void testEditProjectsReusesEmbeddingOfSameDescription() {
+        int projectId = 1;
+        when(projectDAO.getOwnerId(projectId)).thenReturn(0);
+        EditProjectInputData inputData = createMockData(projectId);
+        float[] embedding = randomEmbedding();
+        when(projectDAO.getEmbeddingByContentHash(ContentHash.of(MODEL_ID, inputData.getDescription()))).thenReturn(embedding);
+        when(projectDAO.update(anyInt(), any(), anyDouble(), any(), any(), any(), any())).thenReturn(true);
+
+        editProjectInteractor.editProject(inputData);
+
+        verify(projectDAO).update(eq(projectId), any(), anyDouble(), any(), any(), eq(embedding), eq(ContentHash.of(MODEL_ID, inputData.getDescription())));
+        verify(apiInterface, never()).getEmbedData(anyString());
+    }
+
     private static float[] randomEmbedding() {
         int size = 6;
         float[] embedding = new float[size];
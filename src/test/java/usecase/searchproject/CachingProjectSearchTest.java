@@ -0,0 +1,125 @@
+package usecase.searchproject;
+
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectFilter;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.CachingProjectSearch;
+import usecase.searchforproject.ProjectSearchInterface;
+import usecase.searchforproject.SearchDegradation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the CachingProjectSearch class.
+ */
+public class CachingProjectSearchTest {
+    private final Project javaTool = new Project(1, "Java Tool", 500.0, "A command line tool.", new HashSet<>());
+    private ProjectSearchInterface projectSearch;
+    private IProjectRepository projectRepository;
+    private CachingProjectSearch search;
+
+    /**
+     * Sets up a search finding javaTool for "java tool" at data version 1.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectSearch = mock(ProjectSearchInterface.class);
+        projectRepository = mock(IProjectRepository.class);
+        when(projectRepository.getDataVersion()).thenReturn(1L);
+        when(projectSearch.searchProjects("java tool")).thenReturn(new ArrayList<>(List.of(javaTool)));
+        when(projectSearch.rankProjects("java tool")).thenReturn(new int[]{1});
+        search = new CachingProjectSearch(projectSearch, projectRepository, 2);
+    }
+
+    /**
+     * Tests that queries differing in case and whitespace share a result.
+     */
+    @Test
+    public void testNormalizedQueryHits() {
+        assertEquals(List.of(javaTool), search.searchProjects("Java  Tool"));
+        assertEquals(List.of(javaTool), search.searchProjects(" java tool "));
+        verify(projectSearch, times(1)).searchProjects("java tool");
+        assertEquals(1, search.getHitCount());
+        assertEquals(1, search.getMissCount());
+        assertEquals(0.5, search.getHitRate());
+    }
+
+    /**
+     * Tests that a result computed at an older data version is searched again.
+     */
+    @Test
+    public void testStaleResultSearchedAgain() {
+        assertArrayEquals(new int[]{1}, search.rankProjects("java tool"));
+        when(projectRepository.getDataVersion()).thenReturn(2L);
+        assertArrayEquals(new int[]{1}, search.rankProjects("java tool"));
+        assertArrayEquals(new int[]{1}, search.rankProjects("java tool"));
+        verify(projectSearch, times(2)).rankProjects("java tool");
+        assertEquals(1, search.getStaleMissCount());
+        assertEquals(1, search.getHitCount());
+    }
+
+    /**
+     * Tests that results differing in parameters or filter are cached apart, and that the least recently used
+     * result is evicted.
+     */
+    @Test
+    public void testKeysAndEviction() {
+        ProjectFilter cheap = ProjectFilter.NONE.withBudget(0, 600);
+        when(projectSearch.searchProjects("java tool", 5, 0f)).thenReturn(new ArrayList<>(List.of(javaTool)));
+        when(projectSearch.searchProjects("java tool", 5, 0f, cheap)).thenReturn(new ArrayList<>(List.of(javaTool)));
+        search.searchProjects("java tool", 5, 0f);
+        search.searchProjects("java tool", 5, 0f, cheap);
+        search.searchProjects("java tool");
+        assertEquals(2, search.size());
+        assertEquals(1, search.getEvictionCount());
+
+        search.searchProjects("java tool", 5, 0f);
+        verify(projectSearch, times(2)).searchProjects("java tool", 5, 0f);
+    }
+
+    /**
+     * Tests that empty results and changes callers make to their results are not cached.
+     */
+    @Test
+    public void testEmptyAndModifiedResultsNotCached() {
+        when(projectSearch.searchProjects("nothing")).thenReturn(new ArrayList<>());
+        search.searchProjects("nothing");
+        search.searchProjects("nothing");
+        verify(projectSearch, times(2)).searchProjects("nothing");
+
+        search.searchProjects("java tool").clear();
+        assertEquals(List.of(javaTool), search.searchProjects("java tool"));
+    }
+
+    /**
+     * Tests that results the search reports as degraded are searched again, and that the degradation is reported
+     * to the caller.
+     */
+    @Test
+    public void testDegradedResultsNotCached() {
+        when(projectSearch.searchProjects("java tool")).thenAnswer(invocation -> {
+            SearchDegradation.report();
+            return new ArrayList<>(List.of(javaTool));
+        }).thenReturn(new ArrayList<>(List.of(javaTool)));
+        SearchDegradation.clear();
+
+        assertEquals(List.of(javaTool), search.searchProjects("java tool"));
+        assertTrue(SearchDegradation.clear());
+        assertEquals(0, search.size());
+        assertEquals(1, search.getDegradedMissCount());
+
+        search.searchProjects("java tool");
+        assertFalse(SearchDegradation.clear());
+        search.searchProjects("java tool");
+        verify(projectSearch, times(2)).searchProjects("java tool");
+        assertEquals(1, search.getHitCount());
+    }
+}
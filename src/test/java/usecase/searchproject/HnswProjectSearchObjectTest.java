@@ -0,0 +1,127 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.TagFilter;
+import dataaccess.searchindex.TagIndex;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.HnswProjectSearchObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the HnswProjectSearchObject class.
+ */
+public class HnswProjectSearchObjectTest {
+    private IProjectRepository projectRepository;
+    private EmbeddingAPIInterface embeddingAPI;
+    private HnswProjectSearchObject searchObject;
+
+    /**
+     * Sets up three projects with orthogonal-ish embeddings before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        embeddingAPI = mock(EmbeddingAPIInterface.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f, 0f});
+        embeddings.put(2, new float[]{0.9f, 0.1f, 0f});
+        embeddings.put(3, new float[]{0f, 0f, 1f});
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        for (int id = 1; id <= 3; id++) {
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 100.0, "Description", new HashSet<>()));
+        }
+        searchObject = new HnswProjectSearchObject(projectRepository, embeddingAPI);
+    }
+
+    /**
+     * Tests that projects are returned closest first and limited by the maximum number of results.
+     */
+    @Test
+    public void testSearchProjects() {
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f, 0f});
+        searchObject.setMaxResults(2);
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query");
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(2, result.get(1).getProjectId());
+    }
+
+    /**
+     * Tests that projects below the minimum score are not returned.
+     */
+    @Test
+    public void testSearchProjectsMinScore() {
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f, 0f});
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query", 3, 0.5f);
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(2, result.get(1).getProjectId());
+    }
+
+    /**
+     * Tests that the graph is only built once and picks up changes after a rebuild.
+     */
+    @Test
+    public void testRebuild() {
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{0f, 0f, 1f});
+        searchObject.searchProjects("query");
+        searchObject.searchProjects("query");
+        verify(projectRepository, times(1)).getAllEmbeddings();
+
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f, 0f});
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        searchObject.rebuild();
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query");
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+    }
+
+    /**
+     * Tests that an empty query embedding (no API key) returns no projects.
+     */
+    @Test
+    public void testEmptyQueryEmbedding() {
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[0]);
+        assertTrue(searchObject.searchProjects("query").isEmpty());
+    }
+
+    /**
+     * Tests that a filtered search only returns matching projects, and does not embed the query when no project
+     * matches.
+     */
+    @Test
+    public void testFilter() {
+        TagIndex tagIndex = new TagIndex();
+        tagIndex.put(1, List.of("Java"));
+        tagIndex.put(2, List.of("Python"));
+        tagIndex.put(3, List.of("Python"));
+        ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(tagIndex);
+        for (int id = 1; id <= 3; id++) {
+            attributeIndex.put(id, 100, 7);
+        }
+        when(projectRepository.getAttributeIndex()).thenReturn(attributeIndex);
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f, 0f});
+
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query", 1, -1f,
+                ProjectFilter.NONE.withTags(TagFilter.allOf("Python")));
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getProjectId());
+
+        assertTrue(searchObject.searchProjects("query", 5, -1f, ProjectFilter.NONE.withOwner(8)).isEmpty());
+        verify(embeddingAPI, times(1)).getEmbedData("query");
+    }
+}
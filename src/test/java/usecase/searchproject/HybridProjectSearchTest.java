@@ -0,0 +1,156 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingUnavailableException;
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.TagFilter;
+import dataaccess.searchindex.TagIndex;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.HybridProjectSearch;
+import usecase.searchforproject.ProjectSearchInterface;
+import usecase.searchforproject.SearchDegradation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the HybridProjectSearch class.
+ */
+public class HybridProjectSearchTest {
+    private final Project webServer = new Project(1, "Web Server", 1000.0, "A server written in Java.", new HashSet<>());
+    private final Project restApi = new Project(2, "REST API", 800.0, "Endpoints for a shop.", new HashSet<>());
+    private final Project javaTool = new Project(3, "Java Tool", 500.0, "A command line tool.", new HashSet<>());
+    private final Project javaGame = new Project(4, "Java Game", 300.0, "A platformer.", new HashSet<>());
+    private ExecutorService executor;
+    private ProjectSearchInterface vectorSearch;
+    private IProjectRepository projectRepository;
+    private HybridProjectSearch search;
+
+    /**
+     * Sets up a vector search ranking webServer, restApi, javaTool and a keyword search ranking javaTool, javaGame.
+     */
+    @BeforeEach
+    public void setUp() {
+        SearchDegradation.clear();
+        executor = Executors.newCachedThreadPool();
+        vectorSearch = mock(ProjectSearchInterface.class);
+        projectRepository = mock(IProjectRepository.class);
+        when(projectRepository.getProjectById(3)).thenReturn(javaTool);
+        when(projectRepository.getProjectById(4)).thenReturn(javaGame);
+        when(projectRepository.searchProjectsByKeyword("java", HybridProjectSearch.MIN_CANDIDATES))
+                .thenReturn(new ScoredIds(new int[]{3, 4}, new float[]{2f, 1f}));
+        ArrayList<ProjectInterface> vectorResults = new ArrayList<>(List.of(webServer, restApi, javaTool));
+        when(vectorSearch.searchProjects("java")).thenReturn(vectorResults);
+        when(vectorSearch.searchProjects("java", HybridProjectSearch.MIN_CANDIDATES, 0.5f)).thenReturn(vectorResults);
+        search = new HybridProjectSearch(vectorSearch, projectRepository, executor, 1000, 1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that projects found by both searches come first, and ties keep the order of the vector search.
+     */
+    @Test
+    public void testFusion() {
+        assertEquals(List.of(javaTool, webServer, restApi, javaGame), search.searchProjects("java"));
+        assertFalse(SearchDegradation.clear());
+    }
+
+    /**
+     * Tests that ranking fuses the ids of both searches without looking up any project.
+     */
+    @Test
+    public void testRankProjects() {
+        when(vectorSearch.rankProjects("java")).thenReturn(new int[]{1, 2, 3});
+        assertArrayEquals(new int[]{3, 1, 2, 4}, search.rankProjects("java"));
+        verify(projectRepository, never()).getProjectById(anyInt());
+    }
+
+    /**
+     * Tests that both searches return more candidates than asked for, and that the fused results are cut to k.
+     */
+    @Test
+    public void testTopK() {
+        assertEquals(List.of(javaTool, webServer), search.searchProjects("java", 2, 0.5f));
+        verify(vectorSearch).searchProjects("java", HybridProjectSearch.MIN_CANDIDATES, 0.5f);
+        verify(projectRepository).searchProjectsByKeyword("java", HybridProjectSearch.MIN_CANDIDATES);
+    }
+
+    /**
+     * Tests that the keyword results are returned when the query cannot be embedded, and reported as degraded.
+     */
+    @Test
+    public void testVectorSearchFails() {
+        when(vectorSearch.searchProjects(anyString())).thenThrow(new EmbeddingUnavailableException("paused"));
+        assertEquals(List.of(javaTool, javaGame), search.searchProjects("java"));
+        assertTrue(SearchDegradation.clear());
+    }
+
+    /**
+     * Tests that a degradation the vector search reports on the executor is reported to the caller.
+     */
+    @Test
+    public void testVectorSearchDegraded() {
+        when(vectorSearch.searchProjects(anyString())).thenAnswer(invocation -> {
+            SearchDegradation.report();
+            return new ArrayList<>();
+        });
+        assertEquals(List.of(javaTool, javaGame), search.searchProjects("java"));
+        assertTrue(SearchDegradation.clear());
+    }
+
+    /**
+     * Tests that a vector search missing its deadline is left out instead of delaying the results.
+     */
+    @Test
+    public void testVectorSearchTimesOut() {
+        when(vectorSearch.searchProjects(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return new ArrayList<>(List.of(webServer));
+        });
+        search = new HybridProjectSearch(vectorSearch, projectRepository, executor, 100, 1000);
+
+        long start = System.nanoTime();
+        assertEquals(List.of(javaTool, javaGame), search.searchProjects("java"));
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        assertTrue(SearchDegradation.clear());
+    }
+
+    /**
+     * Tests that both searches are given the filter of a filtered search.
+     */
+    @Test
+    public void testFilter() {
+        TagIndex tagIndex = new TagIndex();
+        tagIndex.put(3, List.of("Tools"));
+        tagIndex.put(4, List.of("Games"));
+        ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(tagIndex);
+        attributeIndex.put(3, 500, 7);
+        attributeIndex.put(4, 300, 7);
+        when(projectRepository.getAttributeIndex()).thenReturn(attributeIndex);
+        when(projectRepository.searchProjectsByKeyword("java", HybridProjectSearch.MIN_CANDIDATES, ProjectIdBitmap.of(4)))
+                .thenReturn(new ScoredIds(new int[]{4}, new float[]{1f}));
+        ProjectFilter filter = ProjectFilter.NONE.withTags(TagFilter.allOf("Games"));
+        when(vectorSearch.searchProjects("java", HybridProjectSearch.MIN_CANDIDATES, 0.5f, filter))
+                .thenReturn(new ArrayList<>(List.of(javaGame)));
+
+        assertEquals(List.of(javaGame), search.searchProjects("java", 10, 0.5f, filter));
+        verify(projectRepository, never()).searchProjectsByKeyword("java", HybridProjectSearch.MIN_CANDIDATES);
+    }
+}
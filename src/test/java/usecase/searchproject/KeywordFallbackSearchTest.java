@@ -0,0 +1,111 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIException;
+import api.embeddingapi.EmbeddingUnavailableException;
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectIdBitmap;
+import dataaccess.searchindex.ScoredIds;
+import dataaccess.searchindex.TagIndex;
+import entities.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.KeywordFallbackSearch;
+import usecase.searchforproject.ProjectSearchInterface;
+import usecase.searchforproject.SearchDegradation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the KeywordFallbackSearch class.
+ */
+public class KeywordFallbackSearchTest {
+    private final Project javaProject = new Project(1, "Web Server", 1000.0, "A server written in Java.",
+            new HashSet<>(List.of("Backend")));
+    private final Project javaTool = new Project(2, "Java Tool", 500.0, "A command line tool.",
+            new HashSet<>(List.of("Tools")));
+    private final Project pythonScripts = new Project(3, "Python Scripts", 800.0, "Automating tasks.",
+            new HashSet<>(Arrays.asList("Python", "Command Line")));
+    private ProjectSearchInterface vectorSearch;
+    private IProjectRepository projectRepository;
+    private KeywordFallbackSearch search;
+
+    /**
+     * Sets up a repository whose keyword search ranks the projects in a fixed order.
+     */
+    @BeforeEach
+    public void setUp() {
+        SearchDegradation.clear();
+        vectorSearch = mock(ProjectSearchInterface.class);
+        projectRepository = mock(IProjectRepository.class);
+        when(projectRepository.getProjectById(1)).thenReturn(javaProject);
+        when(projectRepository.getProjectById(2)).thenReturn(javaTool);
+        when(projectRepository.getProjectById(3)).thenReturn(pythonScripts);
+        when(projectRepository.searchProjectsByKeyword("java", Integer.MAX_VALUE))
+                .thenReturn(new ScoredIds(new int[]{2, 1}, new float[]{2f, 1f}));
+        when(projectRepository.searchProjectsByKeyword("line", Integer.MAX_VALUE))
+                .thenReturn(new ScoredIds(new int[]{3, 4, 2}, new float[]{2f, 1.5f, 1f}));
+        when(projectRepository.searchProjectsByKeyword("java", 1))
+                .thenReturn(new ScoredIds(new int[]{2}, new float[]{2f}));
+        search = new KeywordFallbackSearch(vectorSearch, projectRepository);
+    }
+
+    /**
+     * Tests that the results of the vector search are returned while it works.
+     */
+    @Test
+    public void testVectorSearch() {
+        when(vectorSearch.searchProjects("java")).thenReturn(new ArrayList<>(List.of(javaProject)));
+        assertEquals(List.of(javaProject), search.searchProjects("java"));
+        verify(projectRepository, never()).searchProjectsByKeyword(anyString(), anyInt());
+        assertFalse(SearchDegradation.clear());
+    }
+
+    /**
+     * Tests that projects are found by keyword when the query cannot be embedded, in the order of the keyword
+     * search, skipping projects that no longer exist, and that the results are reported as degraded.
+     */
+    @Test
+    public void testFallback() {
+        when(vectorSearch.searchProjects(anyString())).thenThrow(new EmbeddingUnavailableException("paused"));
+        assertEquals(List.of(javaTool, javaProject), search.searchProjects("java"));
+        assertTrue(SearchDegradation.clear());
+        assertEquals(List.of(pythonScripts, javaTool), search.searchProjects("line"));
+    }
+
+    /**
+     * Tests that the limit of a top-k search also applies to keyword results.
+     */
+    @Test
+    public void testFallbackTopK() {
+        when(vectorSearch.searchProjects(anyString(), anyInt(), anyFloat()))
+                .thenThrow(new EmbeddingAPIException("unavailable", 503, -1));
+        assertEquals(List.of(javaTool), search.searchProjects("java", 1, 0.5f));
+    }
+
+    /**
+     * Tests that the keyword search is restricted to the projects matching the filter of a filtered search.
+     */
+    @Test
+    public void testFallbackFiltered() {
+        ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(new TagIndex());
+        attributeIndex.put(1, 1000, 7);
+        attributeIndex.put(2, 500, 7);
+        attributeIndex.put(3, 800, 7);
+        when(projectRepository.getAttributeIndex()).thenReturn(attributeIndex);
+        when(projectRepository.searchProjectsByKeyword("line", 5, ProjectIdBitmap.of(2, 3)))
+                .thenReturn(new ScoredIds(new int[]{3, 2}, new float[]{2f, 1f}));
+        ProjectFilter filter = ProjectFilter.NONE.withBudget(0, 900);
+        when(vectorSearch.searchProjects("line", 5, 0.5f, filter)).thenThrow(new EmbeddingUnavailableException("paused"));
+
+        assertEquals(List.of(pythonScripts, javaTool), search.searchProjects("line", 5, 0.5f, filter));
+        verify(projectRepository, never()).searchProjectsByKeyword(anyString(), anyInt());
+    }
+}
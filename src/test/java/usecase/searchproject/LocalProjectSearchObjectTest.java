@@ -0,0 +1,165 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.ProjectVectorIndex;
+import dataaccess.searchindex.Quantization;
+import dataaccess.searchindex.TagIndex;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import usecase.searchforproject.LocalProjectSearchObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LocalProjectSearchObject class.
+ */
+public class LocalProjectSearchObjectTest {
+    private LocalProjectSearchObject searchObject;
+    private IProjectRepository projectRepository;
+    private HashMap<Integer, float[]> embeddings;
+
+    /**
+     * Sets up four projects at known angles from the query before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f});     // similarity 1
+        embeddings.put(2, new float[]{3f, 4f});     // similarity 0.6
+        embeddings.put(3, new float[]{0f, 1f});     // similarity 0
+        embeddings.put(4, new float[]{-1f, 0f});    // similarity -1
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        for (int id = 1; id <= 4; id++) {
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 100.0, "Description", new HashSet<>()));
+        }
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{2f, 0f});
+        searchObject = new LocalProjectSearchObject(projectRepository, embeddingAPI);
+    }
+
+    /**
+     * Tests that only the k most similar projects are returned, most similar first.
+     */
+    @Test
+    public void testTopK() {
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query", 2, -1f);
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(2, result.get(1).getProjectId());
+    }
+
+    /**
+     * Tests that projects below the minimum score are not returned.
+     */
+    @Test
+    public void testMinScore() {
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query", 10, 0.5f);
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(2, result.get(1).getProjectId());
+    }
+
+    /**
+     * Tests that the default search returns the projects at or above the midpoint of the similarities.
+     */
+    @Test
+    public void testMidpointThreshold() {
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query");
+        assertEquals(3, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(2, result.get(1).getProjectId());
+        assertEquals(3, result.get(2).getProjectId());
+    }
+
+    /**
+     * Tests that ranking returns the ids of the default search without looking up any project.
+     */
+    @Test
+    public void testRankProjects() {
+        assertArrayEquals(new int[]{1, 2, 3}, searchObject.rankProjects("query"));
+        verify(projectRepository, never()).getProjectById(anyInt());
+    }
+
+    /**
+     * Tests that searches over a quantized index rescore their candidates with the full-precision embeddings.
+     */
+    @Test
+    public void testQuantizedIndexRescores() {
+        ProjectVectorIndex vectorIndex = new ProjectVectorIndex(() -> embeddings);
+        vectorIndex.setQuantization(Quantization.INT8);
+        when(projectRepository.getVectorIndex()).thenReturn(vectorIndex);
+        when(projectRepository.getEmbeddings(any())).thenReturn(embeddings);
+
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query", 2, 0.5f);
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(2, result.get(1).getProjectId());
+
+        result = searchObject.searchProjects("query");
+        assertEquals(3, result.size());
+        assertEquals(3, result.get(2).getProjectId());
+        verify(projectRepository, times(2)).getEmbeddings(any());
+    }
+
+    /**
+     * Tests that the default search over a quantized index only rescores the projects whose quantized similarity
+     * is within the error margin of the midpoint.
+     */
+    @Test
+    public void testQuantizedMidpointRescoresOnlyUncertainProjects() {
+        ProjectVectorIndex vectorIndex = new ProjectVectorIndex(() -> embeddings);
+        vectorIndex.setQuantization(Quantization.INT8);
+        when(projectRepository.getVectorIndex()).thenReturn(vectorIndex);
+        when(projectRepository.getEmbeddings(any())).thenReturn(embeddings);
+
+        assertArrayEquals(new int[]{1, 2, 3}, searchObject.rankProjects("query"));
+        ArgumentCaptor<int[]> rescoredIds = ArgumentCaptor.forClass(int[].class);
+        verify(projectRepository).getEmbeddings(rescoredIds.capture());
+        assertArrayEquals(new int[]{3}, rescoredIds.getValue()); // only project 3 lies at the midpoint
+    }
+
+    /**
+     * Tests that a filtered search returns the k most similar matching projects, not the matching projects of the
+     * unfiltered top k.
+     */
+    @Test
+    public void testFilter() {
+        ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(new TagIndex());
+        attributeIndex.put(1, 100, 7);
+        attributeIndex.put(2, 200, 7);
+        attributeIndex.put(3, 300, 8);
+        attributeIndex.put(4, 400, 7);
+        when(projectRepository.getAttributeIndex()).thenReturn(attributeIndex);
+
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("query", 2, -1f,
+                ProjectFilter.NONE.withBudget(250, 1000));
+        assertEquals(2, result.size());
+        assertEquals(3, result.get(0).getProjectId());
+        assertEquals(4, result.get(1).getProjectId());
+
+        result = searchObject.searchProjects("query", 10, -1f, ProjectFilter.NONE.withOwner(7).withBudget(150, 1000));
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(0).getProjectId());
+        assertEquals(4, result.get(1).getProjectId());
+
+        assertTrue(searchObject.searchProjects("query", 10, -1f, ProjectFilter.NONE.withOwner(9)).isEmpty());
+    }
+}
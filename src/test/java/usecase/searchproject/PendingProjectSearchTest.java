@@ -0,0 +1,103 @@
+package usecase.searchproject;
+
+import dataaccess.IProjectRepository;
+import dataaccess.searchindex.ProjectAttributeIndex;
+import dataaccess.searchindex.ProjectFilter;
+import dataaccess.searchindex.TagIndex;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.PendingProjectSearch;
+import usecase.searchforproject.ProjectSearchInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PendingProjectSearch class.
+ */
+public class PendingProjectSearchTest {
+    private final Project embedded = new Project(1, "Java Project", 1000.0, "A project about Java development.",
+            new HashSet<>(List.of("Java")));
+    private final Project pendingJava = new Project(2, "New Java Tool", 500.0, "A command line tool.",
+            new HashSet<>(List.of("Tools")));
+    private final Project pendingPython = new Project(3, "Python Scripts", 800.0, "Automating tasks.",
+            new HashSet<>(Arrays.asList("Python", "Command Line")));
+    private ProjectSearchInterface vectorSearch;
+    private Set<Integer> pending;
+    private PendingProjectSearch search;
+
+    /**
+     * Sets up a vector search that only knows the embedded project, and a repository holding every project.
+     */
+    @BeforeEach
+    public void setUp() {
+        vectorSearch = mock(ProjectSearchInterface.class);
+        IProjectRepository projectRepository = mock(IProjectRepository.class);
+        when(projectRepository.getProjectById(1)).thenReturn(embedded);
+        when(projectRepository.getProjectById(2)).thenReturn(pendingJava);
+        when(projectRepository.getProjectById(3)).thenReturn(pendingPython);
+        ProjectAttributeIndex attributeIndex = new ProjectAttributeIndex(new TagIndex());
+        attributeIndex.put(1, 1000, 7);
+        attributeIndex.put(2, 500, 7);
+        attributeIndex.put(3, 800, 8);
+        when(projectRepository.getAttributeIndex()).thenReturn(attributeIndex);
+        pending = new HashSet<>(Set.of(2, 3));
+        search = new PendingProjectSearch(vectorSearch, projectRepository, () -> pending);
+    }
+
+    /**
+     * Tests that pending projects matching every word of the query follow the vector search results.
+     */
+    @Test
+    public void testPendingProjectsMatched() {
+        when(vectorSearch.searchProjects("java")).thenReturn(new ArrayList<>(List.of(embedded)));
+        ArrayList<ProjectInterface> results = search.searchProjects("java");
+        assertEquals(List.of(embedded, pendingJava), results);
+
+        when(vectorSearch.searchProjects("COMMAND line")).thenReturn(new ArrayList<>());
+        assertEquals(Set.of(pendingJava, pendingPython), new HashSet<>(search.searchProjects("COMMAND line")));
+
+        when(vectorSearch.searchProjects("java python")).thenReturn(new ArrayList<>());
+        assertTrue(search.searchProjects("java python").isEmpty());
+    }
+
+    /**
+     * Tests that the limit of a top-k search also applies to pending projects.
+     */
+    @Test
+    public void testTopKLimit() {
+        when(vectorSearch.searchProjects("java", 1, 0.5f)).thenReturn(new ArrayList<>(List.of(embedded)));
+        assertEquals(List.of(embedded), search.searchProjects("java", 1, 0.5f));
+        when(vectorSearch.searchProjects("java", 2, 0.5f)).thenReturn(new ArrayList<>(List.of(embedded)));
+        assertEquals(List.of(embedded, pendingJava), search.searchProjects("java", 2, 0.5f));
+    }
+
+    /**
+     * Tests that projects are not matched by keyword once their embeddings are stored.
+     */
+    @Test
+    public void testNoPendingProjects() {
+        pending.clear();
+        when(vectorSearch.searchProjects("java")).thenReturn(new ArrayList<>(List.of(embedded)));
+        assertEquals(List.of(embedded), search.searchProjects("java"));
+    }
+
+    /**
+     * Tests that the pending projects of a filtered search must match the filter too.
+     */
+    @Test
+    public void testFilter() {
+        ProjectFilter filter = ProjectFilter.NONE.withOwner(8);
+        when(vectorSearch.searchProjects("command", 5, 0.5f, filter)).thenReturn(new ArrayList<>());
+        assertEquals(List.of(pendingPython), search.searchProjects("command", 5, 0.5f, filter));
+    }
+}
@@ -0,0 +1,41 @@
+package usecase.searchproject;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.SearchCursor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SearchCursor class.
+ */
+public class SearchCursorTest {
+
+    /**
+     * Tests that a cursor survives encoding.
+     */
+    @Test
+    public void testRoundTrip() {
+        SearchCursor cursor = new SearchCursor(-7L, 40, 20);
+        assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+    }
+
+    /**
+     * Tests that the previous page of the first pages starts at 0.
+     */
+    @Test
+    public void testNextAndPrevious() {
+        SearchCursor cursor = new SearchCursor(1L, 10, 20);
+        assertEquals(30, cursor.next().offset());
+        assertEquals(0, cursor.previous().offset());
+    }
+
+    /**
+     * Tests that tokens which are not cursors are rejected.
+     */
+    @Test
+    public void testInvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(null));
+    }
+}
@@ -26,4 +26,18 @@ public class SearchProjectControllerTest {
 
         verify(interactor, times(1)).searchProjects(keywords);
     }
+
+    @Test
+    public void testLoadPage() {
+        controller.loadPage("cursor");
+
+        verify(interactor, times(1)).loadPage("cursor");
+    }
+
+    @Test
+    public void testSearchAsYouType() {
+        controller.searchAsYouType("Jav");
+
+        verify(interactor, times(1)).searchAsYouType("Jav");
+    }
 }
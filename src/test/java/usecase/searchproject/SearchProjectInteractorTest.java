@@ -4,13 +4,19 @@ import api.embeddingapi.EmbeddingAPIInterface;
 import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.IProjectRepository;
 import dataaccess.local.LocalProjectRepository;
+import dataaccess.searchindex.ScoredIds;
 import entities.Project;
 import entities.ProjectInterface;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import usecase.searchforproject.ProjectSearchInterface;
+import usecase.searchforproject.SearchCursor;
 import usecase.searchforproject.SearchProjectOutputBoundary;
+import usecase.searchforproject.SearchProjectPageOutputData;
 import usecase.searchforproject.SearchProjectsInteractor;
 import usecase.searchforproject.SearchProjectsPresenter;
+import usecase.searchforproject.SearchSessionStore;
 import viewmodel.SearchPanelViewModel;
 
 import java.io.IOException;
@@ -18,9 +24,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -83,6 +98,163 @@ public class SearchProjectInteractorTest {
         }
     }
 
+    /**
+     * Tests that the results are presented a page at a time, and that later pages reuse the ranking.
+     */
+    @Test
+    public void testPagination() {
+        SearchPanelViewModel viewModel = new SearchPanelViewModel();
+        SearchProjectsInteractor interactor = new SearchProjectsInteractor(new SearchProjectsPresenter(viewModel),
+                projectSearch(new int[]{1, 2, 3, 4, 5}), projectDAO, new SearchSessionStore());
+
+        interactor.searchProjects("paged query", 2);
+        assertEquals(List.of(1, 2), projectIds(viewModel.getProject()));
+        assertEquals(5, viewModel.getTotalResults());
+        assertNull(viewModel.getPreviousPageCursor());
+
+        interactor.loadPage(viewModel.getNextPageCursor());
+        assertEquals(List.of(3, 4), projectIds(viewModel.getProject()));
+        assertEquals(2, viewModel.getPageOffset());
+
+        interactor.loadPage(viewModel.getNextPageCursor());
+        assertEquals(List.of(5), projectIds(viewModel.getProject()));
+        assertNull(viewModel.getNextPageCursor());
+
+        interactor.loadPage(viewModel.getPreviousPageCursor());
+        assertEquals(List.of(3, 4), projectIds(viewModel.getProject()));
+    }
+
+    /**
+     * Tests that each page is fired as one value, so the view renders the projects and the position of the same page.
+     */
+    @Test
+    public void testPageFiredAsOneValue() {
+        SearchPanelViewModel viewModel = new SearchPanelViewModel();
+        ArrayList<SearchProjectPageOutputData> firedPages = new ArrayList<>();
+        viewModel.addPropertyChangeListener(evt -> {
+            if (evt.getPropertyName().equals("searchPage")) {
+                firedPages.add((SearchProjectPageOutputData) evt.getNewValue());
+            }
+        });
+        SearchProjectsInteractor interactor = new SearchProjectsInteractor(new SearchProjectsPresenter(viewModel),
+                projectSearch(new int[]{1, 2, 3, 4, 5}), projectDAO, new SearchSessionStore());
+
+        interactor.searchProjects("paged query", 2);
+        interactor.loadPage(viewModel.getNextPageCursor());
+        assertEquals(2, firedPages.size());
+        assertEquals(List.of(3, 4), projectIds(firedPages.get(1).projects()));
+        assertEquals(2, firedPages.get(1).offset());
+        assertEquals(5, firedPages.get(1).totalResults());
+        assertSame(firedPages.get(1), viewModel.getPage());
+    }
+
+    /**
+     * Tests that a page of an expired search is reported as a failure.
+     */
+    @Test
+    public void testExpiredCursor() {
+        SearchProjectOutputBoundary failPresenter = mock(SearchProjectOutputBoundary.class);
+        SearchProjectsInteractor interactor = new SearchProjectsInteractor(failPresenter,
+                projectSearch(new int[]{1, 2, 3}), projectDAO, new SearchSessionStore());
+
+        interactor.loadPage(new SearchCursor(42, 0, 2).encode());
+        interactor.loadPage("not a cursor");
+        verify(failPresenter, times(2)).prepareFailView(anyString());
+    }
+
+    /**
+     * Tests that a search made as the user types cancels the search in flight, whose results are never presented,
+     * and presents the keyword matches before the full results.
+     */
+    @Test
+    public void testSearchAsYouType() throws Exception {
+        IProjectRepository repository = mock(IProjectRepository.class);
+        when(repository.searchProjectsByKeyword(anyString(), anyInt())).thenReturn(ScoredIds.EMPTY);
+        when(repository.searchProjectsByKeyword("java", SearchProjectsInteractor.DEFAULT_PAGE_SIZE))
+                .thenReturn(new ScoredIds(new int[]{2}, new float[]{1f}));
+        for (int id = 1; id <= 3; id++) {
+            when(repository.getProjectById(id)).thenReturn(projectDAO.getProjectById(id));
+        }
+        CountDownLatch slowSearchStarted = new CountDownLatch(1);
+        CountDownLatch slowSearchInterrupted = new CountDownLatch(1);
+        ProjectSearchInterface projectSearch = mock(ProjectSearchInterface.class);
+        when(projectSearch.rankProjects("jav")).thenAnswer(invocation -> {
+            slowSearchStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                slowSearchInterrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return new int[]{3};
+        });
+        when(projectSearch.rankProjects("java")).thenReturn(new int[]{1, 2});
+        SearchProjectOutputBoundary pagePresenter = mock(SearchProjectOutputBoundary.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        SearchProjectsInteractor interactor = new SearchProjectsInteractor(pagePresenter, projectSearch, repository,
+                new SearchSessionStore(), executor);
+
+        interactor.searchAsYouType("jav");
+        assertTrue(slowSearchStarted.await(2, TimeUnit.SECONDS));
+        interactor.searchAsYouType("java");
+        assertTrue(slowSearchInterrupted.await(2, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+
+        ArgumentCaptor<SearchProjectPageOutputData> pages = ArgumentCaptor.forClass(SearchProjectPageOutputData.class);
+        verify(pagePresenter, times(2)).presentPage(pages.capture());
+        assertEquals(List.of(2), projectIds(pages.getAllValues().get(0).projects()));
+        assertEquals(List.of(1, 2), projectIds(pages.getAllValues().get(1).projects()));
+    }
+
+    /**
+     * Tests that a blank search, as made when another user logs in, cancels the search in flight and presents
+     * no projects, so the results of the previous user are never presented.
+     */
+    @Test
+    public void testBlankSearchAsYouTypeCancels() throws Exception {
+        IProjectRepository repository = mock(IProjectRepository.class);
+        when(repository.searchProjectsByKeyword(anyString(), anyInt())).thenReturn(ScoredIds.EMPTY);
+        CountDownLatch slowSearchStarted = new CountDownLatch(1);
+        CountDownLatch slowSearchInterrupted = new CountDownLatch(1);
+        ProjectSearchInterface projectSearch = mock(ProjectSearchInterface.class);
+        when(projectSearch.rankProjects("jav")).thenAnswer(invocation -> {
+            slowSearchStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                slowSearchInterrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return new int[]{3};
+        });
+        SearchProjectOutputBoundary pagePresenter = mock(SearchProjectOutputBoundary.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        SearchProjectsInteractor interactor = new SearchProjectsInteractor(pagePresenter, projectSearch, repository,
+                new SearchSessionStore(), executor);
+
+        interactor.searchAsYouType("jav");
+        assertTrue(slowSearchStarted.await(2, TimeUnit.SECONDS));
+        interactor.searchAsYouType("");
+        assertTrue(slowSearchInterrupted.await(2, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+
+        ArgumentCaptor<SearchProjectPageOutputData> pages = ArgumentCaptor.forClass(SearchProjectPageOutputData.class);
+        verify(pagePresenter, times(1)).presentPage(pages.capture());
+        assertTrue(pages.getValue().projects().isEmpty());
+    }
+
+    private static ProjectSearchInterface projectSearch(int[] ranking) {
+        ProjectSearchInterface projectSearch = mock(ProjectSearchInterface.class);
+        when(projectSearch.rankProjects(anyString())).thenReturn(ranking);
+        return projectSearch;
+    }
+
+    private static List<Integer> projectIds(ArrayList<ProjectInterface> projects) {
+        return projects.stream().map(ProjectInterface::getProjectId).toList();
+    }
+
     private static float[] randomEmbedding() {
         int size = 6;
         float[] embedding = new float[size];
@@ -19,4 +19,34 @@ public class SearchProjectUseCaseFactoryTest {
         SearchProjectController controller = SearchProjectUseCaseFactory.createSearchProjectController(searchPanelViewModel);
         assertNotNull(controller);
     }
+
+    /**
+     * Test the creation of a search project controller backed by the HNSW index.
+     */
+    @Test
+    public void testCreateHnswSearchProjectUseCase() {
+        SearchPanelViewModel searchPanelViewModel = mock(SearchPanelViewModel.class);
+        SearchProjectUseCaseFactory.USE_HNSW = 1;
+        try {
+            SearchProjectController controller = SearchProjectUseCaseFactory.createSearchProjectController(searchPanelViewModel);
+            assertNotNull(controller);
+        } finally {
+            SearchProjectUseCaseFactory.USE_HNSW = 0;
+        }
+    }
+
+    /**
+     * Test the creation of a search project controller that searches by keyword only when embedding fails.
+     */
+    @Test
+    public void testCreateVectorOnlySearchProjectUseCase() {
+        SearchPanelViewModel searchPanelViewModel = mock(SearchPanelViewModel.class);
+        SearchProjectUseCaseFactory.USE_HYBRID_SEARCH = 0;
+        try {
+            SearchProjectController controller = SearchProjectUseCaseFactory.createSearchProjectController(searchPanelViewModel);
+            assertNotNull(controller);
+        } finally {
+            SearchProjectUseCaseFactory.USE_HYBRID_SEARCH = 1;
+        }
+    }
 }
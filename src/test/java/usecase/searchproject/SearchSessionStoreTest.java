@@ -0,0 +1,49 @@
+package usecase.searchproject;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.SearchSessionStore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SearchSessionStore class.
+ */
+public class SearchSessionStoreTest {
+
+    /**
+     * Tests that sessions expire once they have not been read within the time to live.
+     */
+    @Test
+    public void testExpiry() {
+        AtomicLong clock = new AtomicLong();
+        SearchSessionStore store = new SearchSessionStore(10, 1000, clock::get);
+        long sessionId = store.open(new int[]{1, 2});
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+        assertArrayEquals(new int[]{1, 2}, store.get(sessionId));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+        assertNotNull(store.get(sessionId), "reading a session keeps it alive");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertNull(store.get(sessionId));
+        assertEquals(0, store.size());
+    }
+
+    /**
+     * Tests that the least recently read session is dropped when there are too many.
+     */
+    @Test
+    public void testLeastRecentlyReadEvicted() {
+        SearchSessionStore store = new SearchSessionStore(2, 60_000);
+        long first = store.open(new int[]{1});
+        long second = store.open(new int[]{2});
+        store.get(first);
+        long third = store.open(new int[]{3});
+
+        assertNotNull(store.get(first));
+        assertNull(store.get(second));
+        assertNotNull(store.get(third));
+    }
+}